@@ -0,0 +1,173 @@
+package com.littcore.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+
+/**
+ * 缓存基类.
+ * 
+ * <pre><b>描述：</b>
+ *    提供批量读写的默认实现，以及带加载器读取时的单飞（single-flight）控制：
+ *    同一个键并发未命中时只有一个线程执行加载，其余线程等待同一个加载结果，避免热点键失效时击穿到数据库
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 加载结果通过putLoaded写入，集群缓存可覆盖为只写本节点而不广播
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public abstract class BaseCache<K, V> implements ICache<K, V> {
+  
+  /** 正在加载中的键. */
+  private final ConcurrentMap<K, FutureTask<V>> loadings = new ConcurrentHashMap<K, FutureTask<V>>();
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#get(java.lang.Object, com.littcore.cache.ICacheLoader)
+   */
+  @Override
+  public V get(final K key, final ICacheLoader<? super K, ? extends V> loader) throws CacheException
+  {
+    V value = get(key);
+    if(value != null || key == null)
+      return value;
+    FutureTask<V> task = new FutureTask<V>(new Callable<V>() {
+
+      @Override
+      public V call() throws Exception
+      {
+        V value = get(key);  //其他线程可能刚完成加载
+        if(value == null) {
+          long start = System.nanoTime();
+          boolean success = false;
+          try {
+            value = loader.load(key);
+            success = true;
+          } finally {
+            recordLoad(System.nanoTime() - start, success);
+          }
+          if(value != null)
+            putLoaded(key, value);
+        }
+        return value;
+      }
+    });
+    FutureTask<V> loading = loadings.putIfAbsent(key, task);
+    if(loading == null) {
+      loading = task;
+      try {
+        task.run();
+      } finally {
+        loadings.remove(key, task);
+      }
+    }
+    try {
+      return loading.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheException("Interrupted while loading cache key " + key, e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if(cause instanceof CacheException)
+        throw (CacheException)cause;
+      throw new CacheException("Unable to load cache key " + key, cause);
+    }
+  }
+
+  /**
+   * 写入加载器加载的值，默认调用put.
+   * 加载的值来自数据源而非修改，其他节点的缓存仍然有效，集群缓存应覆盖为不广播失效命令
+   * @param key key
+   * @param value loaded value
+   */
+  protected void putLoaded(K key, V value) throws CacheException {
+    put(key, value);
+  }
+
+  /**
+   * 记录加载耗时，子类可覆盖以进行统计
+   * @param nanos 耗时（纳秒）
+   * @param success 是否加载成功
+   */
+  protected void recordLoad(long nanos, boolean success) {
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#getAll(java.util.Collection)
+   */
+  @Override
+  public Map<K, V> getAll(Collection<? extends K> keys) throws CacheException
+  {
+    Map<K, V> map = new HashMap<K, V>(keys.size() * 4 / 3 + 1);
+    for (K key : keys)
+    {
+      V value = get(key);
+      if(value != null)
+        map.put(key, value);
+    }
+    return map;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#putAll(java.util.Map)
+   */
+  @Override
+  public void putAll(Map<? extends K, ? extends V> map) throws CacheException
+  {
+    for (Map.Entry<? extends K, ? extends V> entry : map.entrySet())
+    {
+      put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#update(java.lang.Object, java.lang.Object)
+   */
+  @Override
+  public void update(K key, V value) throws CacheException
+  {
+    put(key, value);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#size()
+   */
+  @Override
+  public long size() throws CacheException
+  {
+    return keys().size();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#keyIterator()
+   */
+  @Override
+  public Iterator<K> keyIterator() throws CacheException
+  {
+    return keys().iterator();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#evict(java.util.List)
+   */
+  @Override
+  public void evict(List<? extends K> keys) throws CacheException
+  {
+    for (K key : keys)
+    {
+      evict(key);
+    }
+  }
+
+}
@@ -0,0 +1,207 @@
+package com.littcore.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.List;
+
+
+/**
+ * 缓存命令.
+ * 
+ * <pre><b>描述：</b>
+ *    集群节点之间传递的缓存失效命令
+ *    
+ *    采用固定的二进制格式，不使用Java序列化（组播数据未经认证，反序列化任意对象存在远程代码执行风险）：
+ *    魔数(2) 版本(1) 命令(1) 来源(字符串) 区域(字符串) 键数量(4) 键...
+ *    字符串为4字节长度+UTF-8字节，键为1字节类型（S字符串/I整数/L长整数）+值。
+ *    只支持String、Integer、Long类型的键，其他类型的键由CacheFactory改为广播清空区域。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 改为固定的二进制格式，不再使用Java序列化
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class CacheCommand {
+  
+  /** 删除缓存. */
+  public static final byte OPT_EVICT = 1;
+  
+  /** 清空缓存区域. */
+  public static final byte OPT_CLEAR = 2;
+  
+  private static final short MAGIC = 0x4C43;
+  
+  private static final byte VERSION = 1;
+  
+  private static final byte KEY_STRING = 'S';
+  
+  private static final byte KEY_INT = 'I';
+  
+  private static final byte KEY_LONG = 'L';
+  
+  private static final Charset UTF8 = Charset.forName("UTF-8");
+  
+  /** 命令发出节点. */
+  private String source;
+  
+  private byte operator;
+  
+  private String region;
+  
+  @SuppressWarnings("rawtypes")
+  private List keys;
+  
+  @SuppressWarnings("rawtypes")
+  public CacheCommand(String source, byte operator, String region, List keys) {
+    this.source = source;
+    this.operator = operator;
+    this.region = region;
+    this.keys = keys;
+  }
+  
+  /**
+   * 键是否可以在命令中传递
+   * @param key cache key
+   * @return true if key is String, Integer or Long
+   */
+  public static boolean isSupportedKey(Object key) {
+    return key instanceof String || key instanceof Integer || key instanceof Long;
+  }
+  
+  /**
+   * 序列化为字节数组
+   * @return bytes
+   */
+  public byte[] toBytes() throws CacheException {
+    try {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream(128);
+      DataOutputStream out = new DataOutputStream(bos);
+      out.writeShort(MAGIC);
+      out.writeByte(VERSION);
+      out.writeByte(operator);
+      writeString(out, source);
+      writeString(out, region);
+      int count = keys == null ? 0 : keys.size();
+      out.writeInt(count);
+      for (int i = 0; i < count; i++) {
+        Object key = keys.get(i);
+        if(key instanceof String) {
+          out.writeByte(KEY_STRING);
+          writeString(out, (String)key);
+        }
+        else if(key instanceof Integer) {
+          out.writeByte(KEY_INT);
+          out.writeInt(((Integer)key).intValue());
+        }
+        else if(key instanceof Long) {
+          out.writeByte(KEY_LONG);
+          out.writeLong(((Long)key).longValue());
+        }
+        else
+          throw new CacheException("Unsupported cache key type: " + (key == null ? null : key.getClass().getName()));
+      }
+      out.close();
+      return bos.toByteArray();
+    } catch (IOException e) {
+      throw new CacheException("Unable to serialize cache command", e);
+    }
+  }
+  
+  /**
+   * 从字节数组解析命令
+   * @param data bytes
+   * @param offset offset
+   * @param length length
+   * @return cache command
+   */
+  public static CacheCommand parse(byte[] data, int offset, int length) throws CacheException {
+    try {
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+      if(in.readShort() != MAGIC || in.readByte() != VERSION)
+        throw new CacheException("Unknown cache command format");
+      byte operator = in.readByte();
+      String source = readString(in);
+      String region = readString(in);
+      int count = in.readInt();
+      if(count < 0 || count > in.available())	//每个键至少占1个字节
+        throw new CacheException("Illegal key count: " + count);
+      List<Object> keys = new ArrayList<Object>(count);
+      for (int i = 0; i < count; i++) {
+        byte type = in.readByte();
+        switch (type) {
+          case KEY_STRING:
+            keys.add(readString(in));
+            break;
+          case KEY_INT:
+            keys.add(Integer.valueOf(in.readInt()));
+            break;
+          case KEY_LONG:
+            keys.add(Long.valueOf(in.readLong()));
+            break;
+          default:
+            throw new CacheException("Illegal key type: " + type);
+        }
+      }
+      if(in.available() > 0)
+        throw new CacheException("Unexpected trailing bytes: " + in.available());
+      return new CacheCommand(source, operator, region, keys);
+    } catch (IOException e) {
+      throw new CacheException("Unable to parse cache command", e);
+    }
+  }
+  
+  private static void writeString(DataOutputStream out, String value) throws IOException {
+    byte[] bytes = (value == null ? "" : value).getBytes(UTF8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+  
+  private static String readString(DataInputStream in) throws IOException {
+    int len = in.readInt();
+    if(len < 0 || len > in.available())
+      throw new CacheException("Illegal string length: " + len);
+    byte[] bytes = new byte[len];
+    in.readFully(bytes);
+    return new String(bytes, UTF8);
+  }
+
+  public String getSource()
+  {
+    return source;
+  }
+
+  public byte getOperator()
+  {
+    return operator;
+  }
+
+  public String getRegion()
+  {
+    return region;
+  }
+
+  @SuppressWarnings("rawtypes")
+  public List getKeys()
+  {
+    return keys;
+  }
+
+  /* (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString()
+  {
+    return "CacheCommand[source=" + source + ",operator=" + operator + ",region=" + region + ",keys=" + keys + "]";
+  }
+
+}
@@ -1,11 +1,22 @@
 package com.littcore.cache;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.littcore.cache.broadcast.LocalCacheBroadcaster;
+import com.littcore.cache.broadcast.UdpCacheBroadcaster;
 import com.littcore.cache.provider.EhCacheProvider;
+import com.littcore.cache.provider.OffHeapCacheProvider;
+import com.littcore.metrics.MBeanUtils;
 
 
 /**
@@ -14,10 +25,24 @@ import com.littcore.cache.provider.EhCacheProvider;
  * <pre><b>描述：</b>
  *    单例的缓存管理器，屏蔽底层具体的缓存实现
  * 注：目前仅实现单机内存缓存和EhCache，统一应用中使用缓存的场景   
+ * 
+ * 两级缓存：一级为进程内缓存，二级为共享缓存（或堆外缓存）。
+ * 读取时依次查找L1、L2，L2命中后回填L1；写入时同时写L1和L2，
+ * 写入和删除后通过广播器通知其他节点删除各自的L1缓存，保证集群各节点的一致性。
+ * 
+ * 配置文件（classpath:cache.properties，可选）：
+ *    cache.L1.provider=ehcache
+ *    cache.L2.provider=none|offheap|类全名
+ *    cache.broadcast=none|local|udp|类全名
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 实现二级缓存的读写及集群节点间的缓存失效广播
+ *    2026-10-17 增加区域句柄，避免每次调用都按名称查找区域
+ *    2026-10-17 增加各缓存区域的统计，可通过JMX（com.littcore.cache:type=CacheRegion）或getStats获取
+ *    2026-10-17 广播命令改为二进制格式；收到本节点不存在的区域的命令时忽略，不再自动创建区域
+ *    2026-10-17 读取统计及缓存事件计数时不再创建区域或缓存
+ *    2026-10-17 其他节点的命令只删除一级缓存，二级缓存为进程内缓存（ILocalCacheProvider）时才一并删除
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -28,41 +53,396 @@ public class CacheFactory {
   
   private static final Logger logger = LoggerFactory.getLogger(CacheFactory.class);
   
-  private static ICacheProvider l1_provider;
-  private static ICacheProvider l2_provider;
+  /** 一级缓存. */
+  public static final int LEVEL_1 = 1;
+  
+  /** 二级缓存. */
+  public static final int LEVEL_2 = 2;
+  
+  private static final String CONFIG_FILE = "cache.properties";
+  
+  private static final String NONE = "none";
+  
+  private static final String JMX_DOMAIN = "com.littcore.cache";
+  
+  /** 本节点标识，用于过滤自己发出的广播命令. */
+  private static final String NODE_ID = java.util.UUID.randomUUID().toString();
+  
+  private static volatile ICacheProvider l1_provider;
+  private static volatile ICacheProvider l2_provider;
   
-  private static ICacheExpiredListener listener;
+  private static volatile ICacheBroadcaster broadcaster;
+  
+  private static volatile ICacheExpiredListener listener;
+  
+  private static volatile int generation;
+  
+  /** 区域句柄. */
+  private static final ConcurrentMap<String, CacheRegion<Object, Object>> regions = new ConcurrentHashMap<String, CacheRegion<Object, Object>>();
+  
+  /** 传给缓存提供者的监听器，累计统计后转发给外部的监听器. */
+  private static final ICacheEventListener eventListener = new ICacheEventListener() {
+    
+    @Override
+    public void notifyElementExpired(String region, Object key)
+    {
+      CacheRegion<Object, Object> handle = regions.get(region);
+      if(handle != null)
+        handle.getStats().recordExpiration();
+      ICacheExpiredListener target = listener;
+      if(target != null)
+        target.notifyElementExpired(region, key);
+    }
+    
+    @Override
+    public void notifyElementEvicted(String region, Object key)
+    {
+      CacheRegion<Object, Object> handle = regions.get(region);
+      if(handle != null)
+        handle.getStats().recordEviction();
+      ICacheExpiredListener target = listener;
+      if(target instanceof ICacheEventListener)
+        ((ICacheEventListener)target).notifyElementEvicted(region, key);
+    }
+  };
+  
+  private static final ICacheCommandListener commandListener = new ICacheCommandListener() {
+    
+    @Override
+    public void onCommand(CacheCommand command)
+    {
+      CacheFactory.onCommand(command);
+    }
+  };
    
   
   /**
    * Initialize Cache Provider
+   * 读取classpath:cache.properties中的配置，未配置时只启用EhCache一级缓存
    * @param listener cache listener
    */
   public static void initCacheProvider(ICacheExpiredListener listener){
-
+    Properties props = loadConfig();
+    try{
+      ICacheProvider l1 = getProviderInstance(props.getProperty("cache.L1.provider", "ehcache"));
+      ICacheProvider l2 = getProviderInstance(props.getProperty("cache.L2.provider", NONE));
+      ICacheBroadcaster broadcaster = getBroadcasterInstance(props.getProperty("cache.broadcast", NONE));
+      initCacheProvider(listener, l1, l2, broadcaster);
+    }catch(CacheException e){
+      throw e;
+    }catch(Exception e){
+      throw new CacheException("Unabled to initialize cache providers", e);
+    }
+  }
+  
+  /**
+   * Initialize Cache Provider
+   * @param listener cache listener
+   * @param l1 一级缓存提供者
+   * @param l2 二级缓存提供者，可为空
+   * @param broadcaster 集群广播器，可为空
+   */
+  public static synchronized void initCacheProvider(ICacheExpiredListener listener, ICacheProvider l1, ICacheProvider l2, ICacheBroadcaster broadcaster){
+    shutdown();
     CacheFactory.listener = listener;
     try{
-      l1_provider = getProviderInstance("ehcache");
-      l1_provider.start();
-      logger.info("Using L1 CacheProvider : " + l1_provider.getClass().getName());
-      
+      l1.start();
+      l1_provider = l1;
+      logger.info("Using L1 CacheProvider : " + l1.getClass().getName());
+      if(l2 != null) {
+        l2.start();
+        l2_provider = l2;
+        logger.info("Using L2 CacheProvider : " + l2.getClass().getName());
+      }
+      if(broadcaster != null) {
+        broadcaster.start(commandListener);
+        CacheFactory.broadcaster = broadcaster;
+        logger.info("Using CacheBroadcaster : " + broadcaster.getClass().getName());
+      }
+      generation++;
     }catch(Exception e){
       throw new CacheException("Unabled to initialize cache providers", e);
     }
   }
   
+  /**
+   * 关闭缓存
+   */
+  public static synchronized void shutdown(){
+    if(broadcaster != null) {
+      broadcaster.stop();
+      broadcaster = null;
+    }
+    if(l2_provider != null) {
+      l2_provider.stop();
+      l2_provider = null;
+    }
+    if(l1_provider != null) {
+      l1_provider.stop();
+      l1_provider = null;
+    }
+    generation++;
+  }
+  
+  private static Properties loadConfig() {
+    Properties props = new Properties();
+    ClassLoader loader = Thread.currentThread().getContextClassLoader();
+    InputStream in = (loader != null ? loader : CacheFactory.class.getClassLoader()).getResourceAsStream(CONFIG_FILE);
+    if(in != null) {
+      try {
+        props.load(in);
+      } catch (IOException e) {
+        logger.warn("Can't load " + CONFIG_FILE + ", using defaults.", e);
+      } finally {
+        try {
+          in.close();
+        } catch (IOException e) {
+          //ignore
+        }
+      }
+    }
+    return props;
+  }
+  
   private final static ICacheProvider getProviderInstance(String value) throws Exception {
     if("ehcache".equalsIgnoreCase(value))
       return new EhCacheProvider();
+    if("offheap".equalsIgnoreCase(value))
+      return new OffHeapCacheProvider();
 //    if("redis".equalsIgnoreCase(value))
 //      return new RedisCacheProvider();
-//    if("none".equalsIgnoreCase(value))
-//      return new NullCacheProvider();
+    if(NONE.equalsIgnoreCase(value))
+      return null;
     return (ICacheProvider)Class.forName(value).newInstance();
   }
   
-  private final static ICache getCache(int level, String cache_name, boolean autoCreate) {
-    return ((level==1)?l1_provider:l2_provider).buildCache(cache_name, autoCreate, listener);
+  private final static ICacheBroadcaster getBroadcasterInstance(String value) throws Exception {
+    if("local".equalsIgnoreCase(value))
+      return new LocalCacheBroadcaster();
+    if("udp".equalsIgnoreCase(value))
+      return new UdpCacheBroadcaster();
+    if(NONE.equalsIgnoreCase(value))
+      return null;
+    return (ICacheBroadcaster)Class.forName(value).newInstance();
+  }
+  
+  /**
+   * 获取指定级别的缓存区域（每次调用都按名称查找，频繁访问时请使用getRegion获得的区域句柄）
+   */
+  final static ICache<Object, Object> getCache(int level, String cache_name, boolean autoCreate) {
+    ICacheProvider provider = (level==LEVEL_1)?l1_provider:l2_provider;
+    return provider==null ? null : provider.buildCache(cache_name, autoCreate, eventListener);
+  }
+  
+  /**
+   * 缓存配置的版本号，重新初始化后区域句柄据此重新获取底层缓存
+   * @return generation
+   */
+  static int getGeneration(){
+    return generation;
+  }
+  
+  /**
+   * 是否启用了二级缓存
+   * @return true if L2 is configured
+   */
+  public static boolean isL2Enabled(){
+    return l2_provider != null;
+  }
+  
+  /**
+   * 二级缓存是否为进程内缓存（各节点各自一份）
+   * @return true if L2 provider is an ILocalCacheProvider
+   */
+  static boolean isL2Local(){
+    return l2_provider instanceof ILocalCacheProvider;
+  }
+  
+  /**
+   * 获取两级缓存区域的句柄.
+   * 句柄可由调用方长期持有，之后的读写不再按名称查找区域
+   * @param name Cache region name
+   * @return cache region
+   */
+  @SuppressWarnings("unchecked")
+  public static <K, V> CacheRegion<K, V> getRegion(String name){
+    CacheRegion<Object, Object> region = regions.get(name);
+    if(region == null) {
+      CacheRegion<Object, Object> created = new CacheRegion<Object, Object>(name);
+      region = regions.putIfAbsent(name, created);
+      if(region == null) {
+        region = created;
+        MBeanUtils.register(created.getStats(), JMX_DOMAIN, "CacheRegion", name);
+      }
+    }
+    return (CacheRegion<K, V>)region;
+  }
+  
+  /**
+   * 获取缓存区域的统计快照
+   * @param name Cache region name
+   * @return snapshot, null if region not exists
+   */
+  public static CacheStatsSnapshot getStats(String name){
+    CacheRegion<Object, Object> region = regions.get(name);
+    return region == null ? null : region.getStats().snapshot();
+  }
+  
+  /**
+   * 获取所有缓存区域的统计快照
+   * @return region name and snapshot
+   */
+  public static Map<String, CacheStatsSnapshot> getStats(){
+    Map<String, CacheStatsSnapshot> stats = new TreeMap<String, CacheStatsSnapshot>();
+    for (CacheRegion<Object, Object> region : regions.values())
+    {
+      stats.put(region.getName(), region.getStats().snapshot());
+    }
+    return stats;
+  }
+  
+  /**
+   * 处理其他节点的广播命令，只清除本节点的缓存.
+   * 只处理本节点已存在的区域，不会因为远程命令创建区域及其MBean
+   * @param command cache command
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  static void onCommand(CacheCommand command){
+    if(command == null || NODE_ID.equals(command.getSource()))
+      return;
+    if(logger.isDebugEnabled())
+      logger.debug("Received " + command);
+    String name = command.getRegion();
+    CacheRegion<Object, Object> region = name == null ? null : regions.get(name);
+    //未通过区域句柄使用，但可能通过按级别的方法使用过的缓存
+    ICache<Object, Object> l1 = region != null || name == null ? null : getCache(LEVEL_1, name, false);
+    //共享的二级缓存由发出命令的节点删除
+    ICache<Object, Object> l2 = region != null || name == null || !isL2Local() ? null : getCache(LEVEL_2, name, false);
+    if(region == null && l1 == null && l2 == null) {
+      if(logger.isDebugEnabled())
+        logger.debug("Ignore command for unknown region: " + command);
+      return;
+    }
+    try {
+      switch (command.getOperator()) {
+        case CacheCommand.OPT_EVICT:
+          List keys = command.getKeys();
+          if(keys == null || keys.isEmpty())
+            break;
+          if(region != null)
+            region.evictRemote(keys);
+          else {
+            if(l1 != null)
+              l1.evict(keys);
+            if(l2 != null)
+              l2.evict(keys);
+          }
+          break;
+        case CacheCommand.OPT_CLEAR:
+          if(region != null)
+            region.clearRemote();
+          else {
+            if(l1 != null)
+              l1.clear();
+            if(l2 != null)
+              l2.clear();
+          }
+          break;
+        default:
+          logger.warn("Unknown cache command: " + command);
+      }
+    } catch (CacheException e) {
+      logger.warn("Handle " + command + " failed", e);
+    }
+  }
+  
+  @SuppressWarnings("rawtypes")
+  static void broadcast(byte operator, String name, List keys){
+    ICacheBroadcaster broadcaster = CacheFactory.broadcaster;
+    if(broadcaster == null)
+      return;
+    if(operator == CacheCommand.OPT_EVICT && keys != null) {
+      for (Object key : keys)
+      {
+        if(!CacheCommand.isSupportedKey(key)) {	//无法传递的键，改为清空其他节点的区域
+          operator = CacheCommand.OPT_CLEAR;
+          keys = null;
+          break;
+        }
+      }
+    }
+    try {
+      broadcaster.send(new CacheCommand(NODE_ID, operator, name, keys));
+    } catch (CacheException e) {
+      logger.error("Broadcast cache command failed, region=" + name + ",keys=" + keys, e);
+    }
+  }
+  
+  /**
+   * 从两级缓存中读取数据（L1未命中时读取L2，L2命中后回填L1）
+   * @param name Cache region name
+   * @param key Cache key
+   * @return Cache object
+   */
+  public final static Object get(String name, Object key){
+    if(name==null || key==null)
+      return null;
+    return getRegion(name).get(key);
+  }
+  
+  /**
+   * 从两级缓存中读取数据
+   * @param resultClass Cache object class
+   * @param name Cache region name
+   * @param key Cache key
+   * @return Cache object
+   */
+  @SuppressWarnings("unchecked")
+  public final static <T> T get(Class<T> resultClass, String name, Object key){
+    return (T)get(name, key);
+  }
+  
+  /**
+   * 写入两级缓存，并通知其他节点删除各自的一级缓存
+   * @param name Cache region name
+   * @param key Cache key
+   * @param value Cache value
+   */
+  public final static void set(String name, Object key, Object value){
+    if(name==null || key==null)
+      return;
+    getRegion(name).put(key, value);
+  }
+  
+  /**
+   * 删除两级缓存中的数据，并通知其他节点
+   * @param name Cache region name
+   * @param key Cache key
+   */
+  public final static void evict(String name, Object key){
+    if(name==null || key==null)
+      return;
+    getRegion(name).evict(key);
+  }
+  
+  /**
+   * 批量删除两级缓存中的数据，并通知其他节点
+   * @param name Cache region name
+   * @param keys Cache keys
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public final static void batchEvict(String name, List keys){
+    if(name==null || keys==null || keys.isEmpty())
+      return;
+    getRegion(name).evict(keys);
+  }
+  
+  /**
+   * 清空两级缓存的区域，并通知其他节点
+   * @param name cache region name
+   */
+  public final static void clear(String name) throws CacheException {
+    getRegion(name).clear();
   }
   
   /**
@@ -74,7 +454,7 @@ public class CacheFactory {
    */
   public final static Object get(int level, String name, Object key){
     if(name!=null && key != null) {
-            ICache cache = getCache(level, name, false);
+            ICache<Object, Object> cache = getCache(level, name, false);
             if (cache != null)
                 return cache.get(key);
         }
@@ -92,7 +472,7 @@ public class CacheFactory {
   @SuppressWarnings("unchecked")
   public final static <T> T get(int level, Class<T> resultClass, String name, Object key){
     if(name!=null && key != null) {
-            ICache cache = getCache(level, name, false);
+            ICache<Object, Object> cache = getCache(level, name, false);
             if (cache != null)
                 return (T)cache.get(key);
         }
@@ -108,7 +488,7 @@ public class CacheFactory {
    */
   public final static void set(int level, String name, Object key, Object value){
     if(name!=null && key != null && value!=null) {
-            ICache cache = getCache(level, name, true);
+            ICache<Object, Object> cache = getCache(level, name, true);
             if (cache != null)
                 cache.put(key,value);
         }
@@ -123,7 +503,7 @@ public class CacheFactory {
   public final static void evict(int level, String name, Object key){
     //batchEvict(level, name, java.util.Arrays.asList(key));
     if(name!=null && key != null) {
-            ICache cache = getCache(level, name, false);
+            ICache<Object, Object> cache = getCache(level, name, false);
             if (cache != null)
                 cache.evict(key);
         }
@@ -138,7 +518,7 @@ public class CacheFactory {
   @SuppressWarnings("rawtypes")
   public final static void batchEvict(int level, String name, List keys) {
     if(name!=null && keys != null && keys.size() > 0) {
-            ICache cache = getCache(level, name, false);
+            ICache<Object, Object> cache = getCache(level, name, false);
             if (cache != null)
                 cache.evict(keys);
         }
@@ -150,7 +530,7 @@ public class CacheFactory {
    * @param name cache region name
    */
   public final static void clear(int level, String name) throws CacheException {
-        ICache cache = getCache(level, name, false);
+        ICache<Object, Object> cache = getCache(level, name, false);
         if(cache != null)
           cache.clear();
   }
@@ -163,7 +543,7 @@ public class CacheFactory {
    */
   @SuppressWarnings("rawtypes")
   public final static List keys(int level, String name) throws CacheException {
-    ICache cache = getCache(level, name, false);
+    ICache<Object, Object> cache = getCache(level, name, false);
     return (cache!=null)?cache.keys():null;
   }
 
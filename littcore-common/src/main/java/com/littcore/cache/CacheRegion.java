@@ -0,0 +1,354 @@
+package com.littcore.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * 两级缓存区域.
+ * 
+ * <pre><b>描述：</b>
+ *    通过CacheFactory.getRegion获得，调用方可长期持有。
+ *    底层的一级、二级缓存只在首次使用及CacheFactory重新初始化后获取一次，之后的读写不再按名称查找。
+ *    读取时L1未命中则读取L2并回填L1；写入时同时写入L1和L2，并通知其他节点删除各自的缓存。
+ *    读写过程中累计命中、加载、淘汰等统计，见getStats。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 加载器回填时只写本节点的缓存，不广播失效命令，避免各节点互相删除对方回填的数据
+ *    2026-10-17 其他节点的失效命令只在二级缓存为进程内缓存时删除二级缓存，共享的二级缓存由发出命令的节点删除
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class CacheRegion<K, V> extends BaseCache<K, V> {
+  
+  private final String name;
+  
+  private volatile Levels levels = new Levels(-1, null, null);
+  
+  private final CacheStats stats;
+  
+  CacheRegion(String name) {
+    this.name = name;
+    this.stats = new CacheStats(this);
+  }
+  
+  public String getName()
+  {
+    return name;
+  }
+  
+  /**
+   * 获取本区域的统计
+   * @return cache stats
+   */
+  public CacheStats getStats()
+  {
+    return stats;
+  }
+  
+  private Levels resolve() {
+    Levels current = levels;
+    int generation = CacheFactory.getGeneration();
+    if(current.generation != generation) {
+      current = new Levels(generation, CacheFactory.getCache(CacheFactory.LEVEL_1, name, true), CacheFactory.getCache(CacheFactory.LEVEL_2, name, true));
+      levels = current;
+    }
+    return current;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#get(java.lang.Object)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(K key) throws CacheException
+  {
+    if(key == null)
+      return null;
+    Levels lv = resolve();
+    if(lv.l1 == null)
+      return null;
+    long start = System.nanoTime();
+    Object value = lv.l1.get(key);
+    if(value != null)
+      stats.recordL1Hit();
+    else if(lv.l2 != null) {
+      value = lv.l2.get(key);
+      if(value != null) {
+        lv.l1.put(key, value);
+        stats.recordL2Hit();
+      }
+    }
+    if(value == null)
+      stats.recordMiss();
+    stats.recordGet(System.nanoTime() - start);
+    return (V)value;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.BaseCache#getAll(java.util.Collection)
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Map<K, V> getAll(Collection<? extends K> keys) throws CacheException
+  {
+    Map<K, V> map = new HashMap<K, V>(keys.size() * 4 / 3 + 1);
+    Levels lv = resolve();
+    if(lv.l1 == null)
+      return map;
+    long start = System.nanoTime();
+    List<K> missing = null;
+    for (K key : keys)
+    {
+      Object value = lv.l1.get(key);
+      if(value != null) {
+        map.put(key, (V)value);
+        stats.recordL1Hit();
+      }
+      else if(lv.l2 != null) {
+        if(missing == null)
+          missing = new ArrayList<K>();
+        missing.add(key);
+      }
+      else
+        stats.recordMiss();
+    }
+    if(missing != null) {
+      Map<Object, Object> found = lv.l2.getAll(missing);
+      for (Map.Entry<Object, Object> entry : found.entrySet())
+      {
+        lv.l1.put(entry.getKey(), entry.getValue());
+        map.put((K)entry.getKey(), (V)entry.getValue());
+        stats.recordL2Hit();
+      }
+      for (int i = found.size(); i < missing.size(); i++)
+      {
+        stats.recordMiss();
+      }
+    }
+    stats.recordGet(System.nanoTime() - start);
+    return map;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#put(java.lang.Object, java.lang.Object)
+   */
+  @Override
+  public void put(K key, V value) throws CacheException
+  {
+    if(key == null)
+      return;
+    if(value == null) {
+      evict(key);
+      return;
+    }
+    Levels lv = resolve();
+    if(lv.l1 == null)
+      return;
+    lv.l1.put(key, value);
+    if(lv.l2 != null)
+      lv.l2.put(key, value);
+    stats.recordPut(1);
+    CacheFactory.broadcast(CacheCommand.OPT_EVICT, name, Collections.singletonList(key));
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.BaseCache#putLoaded(java.lang.Object, java.lang.Object)
+   */
+  @Override
+  protected void putLoaded(K key, V value) throws CacheException
+  {
+    Levels lv = resolve();
+    if(lv.l1 == null)
+      return;
+    lv.l1.put(key, value);
+    if(lv.l2 != null)
+      lv.l2.put(key, value);
+    stats.recordPut(1);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.BaseCache#putAll(java.util.Map)
+   */
+  @Override
+  public void putAll(Map<? extends K, ? extends V> map) throws CacheException
+  {
+    Levels lv = resolve();
+    if(lv.l1 == null || map.isEmpty())
+      return;
+    lv.l1.putAll(map);
+    if(lv.l2 != null)
+      lv.l2.putAll(map);
+    stats.recordPut(map.size());
+    CacheFactory.broadcast(CacheCommand.OPT_EVICT, name, new ArrayList<K>(map.keySet()));
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#keys()
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public List<K> keys() throws CacheException
+  {
+    Levels lv = resolve();
+    if(lv.l1 == null)
+      return Collections.emptyList();
+    return (List<K>)lv.l1.keys();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.BaseCache#size()
+   */
+  @Override
+  public long size() throws CacheException
+  {
+    Levels lv = resolve();
+    return lv.l1 == null ? 0 : lv.l1.size();
+  }
+
+  /**
+   * 一级缓存的元素数量，缓存尚未创建时返回0（不会创建缓存，用于统计）
+   * @return size
+   */
+  long sizeIfPresent() {
+    ICache<Object, Object> l1 = CacheFactory.getCache(CacheFactory.LEVEL_1, name, false);
+    return l1 == null ? 0 : l1.size();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.BaseCache#keyIterator()
+   */
+  @Override
+  @SuppressWarnings("unchecked")
+  public Iterator<K> keyIterator() throws CacheException
+  {
+    Levels lv = resolve();
+    if(lv.l1 == null)
+      return Collections.<K>emptyList().iterator();
+    return (Iterator<K>)lv.l1.keyIterator();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#evict(java.lang.Object)
+   */
+  @Override
+  public void evict(K key) throws CacheException
+  {
+    if(key == null)
+      return;
+    evict(Collections.singletonList(key));
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.BaseCache#evict(java.util.List)
+   */
+  @Override
+  public void evict(List<? extends K> keys) throws CacheException
+  {
+    if(keys == null || keys.isEmpty())
+      return;
+    evictLocal(keys);
+    stats.recordRemove(keys.size());
+    CacheFactory.broadcast(CacheCommand.OPT_EVICT, name, keys);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#clear()
+   */
+  @Override
+  public void clear() throws CacheException
+  {
+    clearLocal();
+    CacheFactory.broadcast(CacheCommand.OPT_CLEAR, name, null);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#destroy()
+   */
+  @Override
+  public void destroy() throws CacheException
+  {
+    clear();
+  }
+  
+  /* (non-Javadoc)
+   * @see com.littcore.cache.BaseCache#recordLoad(long, boolean)
+   */
+  @Override
+  protected void recordLoad(long nanos, boolean success)
+  {
+    stats.recordLoad(nanos, success);
+  }
+  
+  /**
+   * 删除一、二级缓存，不广播
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  private void evictLocal(List keys) {
+    Levels lv = resolve();
+    if(lv.l1 != null)
+      lv.l1.evict(keys);
+    if(lv.l2 != null)
+      lv.l2.evict(keys);
+  }
+  
+  /**
+   * 清空一、二级缓存，不广播
+   */
+  private void clearLocal() {
+    Levels lv = resolve();
+    if(lv.l1 != null)
+      lv.l1.clear();
+    if(lv.l2 != null)
+      lv.l2.clear();
+  }
+  
+  /**
+   * 处理其他节点的失效命令：共享的二级缓存已由发出命令的节点处理（之后可能已写入新值），只删除本节点的一级缓存；
+   * 二级缓存为进程内缓存（ILocalCacheProvider）时一并删除
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  void evictRemote(List keys) {
+    Levels lv = resolve();
+    if(lv.l1 != null)
+      lv.l1.evict(keys);
+    if(lv.l2 != null && CacheFactory.isL2Local())
+      lv.l2.evict(keys);
+  }
+  
+  /**
+   * 处理其他节点的清空命令，二级缓存的处理同evictRemote
+   */
+  void clearRemote() {
+    Levels lv = resolve();
+    if(lv.l1 != null)
+      lv.l1.clear();
+    if(lv.l2 != null && CacheFactory.isL2Local())
+      lv.l2.clear();
+  }
+  
+  /**
+   * 已解析的底层缓存，整体替换以保证读取的一致性
+   */
+  private static class Levels {
+    private final int generation;
+    private final ICache<Object, Object> l1;
+    private final ICache<Object, Object> l2;
+    
+    Levels(int generation, ICache<Object, Object> l1, ICache<Object, Object> l2) {
+      this.generation = generation;
+      this.l1 = l1;
+      this.l2 = l2;
+    }
+  }
+
+}
@@ -0,0 +1,281 @@
+package com.littcore.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.littcore.metrics.LatencyHistogram;
+
+
+/**
+ * 缓存区域统计.
+ * 
+ * <pre><b>描述：</b>
+ *    由CacheRegion在读写时累计，计数无锁；可通过JMX查看，也可通过snapshot获取某一时刻的快照
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 getSize只读取已存在的缓存，不再因读取统计而创建缓存
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class CacheStats implements CacheStatsMBean {
+  
+  private final CacheRegion<?, ?> region;
+  
+  private final AtomicLong l1Hits = new AtomicLong();
+  private final AtomicLong l2Hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong puts = new AtomicLong();
+  private final AtomicLong removes = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong expirations = new AtomicLong();
+  private final AtomicLong loadFailures = new AtomicLong();
+  
+  private final LatencyHistogram getLatency = new LatencyHistogram();
+  private final LatencyHistogram loadLatency = new LatencyHistogram();
+  
+  CacheStats(CacheRegion<?, ?> region) {
+    this.region = region;
+  }
+  
+  void recordL1Hit() {
+    l1Hits.incrementAndGet();
+  }
+  
+  void recordL2Hit() {
+    l2Hits.incrementAndGet();
+  }
+  
+  void recordMiss() {
+    misses.incrementAndGet();
+  }
+  
+  void recordGet(long nanos) {
+    getLatency.record(nanos);
+  }
+  
+  void recordPut(int count) {
+    puts.addAndGet(count);
+  }
+  
+  void recordRemove(int count) {
+    removes.addAndGet(count);
+  }
+  
+  void recordEviction() {
+    evictions.incrementAndGet();
+  }
+  
+  void recordExpiration() {
+    expirations.incrementAndGet();
+  }
+  
+  void recordLoad(long nanos, boolean success) {
+    loadLatency.record(nanos);
+    if(!success)
+      loadFailures.incrementAndGet();
+  }
+  
+  /**
+   * 获取当前统计的快照
+   * @return snapshot
+   */
+  public CacheStatsSnapshot snapshot() {
+    return new CacheStatsSnapshot(this);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getRegion()
+   */
+  @Override
+  public String getRegion()
+  {
+    return region.getName();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getSize()
+   */
+  @Override
+  public long getSize()
+  {
+    return region.sizeIfPresent();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getHitCount()
+   */
+  @Override
+  public long getHitCount()
+  {
+    return l1Hits.get() + l2Hits.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getL1HitCount()
+   */
+  @Override
+  public long getL1HitCount()
+  {
+    return l1Hits.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getL2HitCount()
+   */
+  @Override
+  public long getL2HitCount()
+  {
+    return l2Hits.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getMissCount()
+   */
+  @Override
+  public long getMissCount()
+  {
+    return misses.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getHitRatio()
+   */
+  @Override
+  public double getHitRatio()
+  {
+    long hits = getHitCount();
+    long total = hits + misses.get();
+    return total == 0 ? 0 : (double)hits / total;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getPutCount()
+   */
+  @Override
+  public long getPutCount()
+  {
+    return puts.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getRemoveCount()
+   */
+  @Override
+  public long getRemoveCount()
+  {
+    return removes.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getEvictionCount()
+   */
+  @Override
+  public long getEvictionCount()
+  {
+    return evictions.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getExpirationCount()
+   */
+  @Override
+  public long getExpirationCount()
+  {
+    return expirations.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getLoadCount()
+   */
+  @Override
+  public long getLoadCount()
+  {
+    return loadLatency.getCount();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getLoadFailureCount()
+   */
+  @Override
+  public long getLoadFailureCount()
+  {
+    return loadFailures.get();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getAverageLoadTime()
+   */
+  @Override
+  public double getAverageLoadTime()
+  {
+    return loadLatency.getMean();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getLoadTime99thPercentile()
+   */
+  @Override
+  public long getLoadTime99thPercentile()
+  {
+    return loadLatency.getPercentile(0.99);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getAverageGetTime()
+   */
+  @Override
+  public double getAverageGetTime()
+  {
+    return getLatency.getMean();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getGetTime99thPercentile()
+   */
+  @Override
+  public long getGetTime99thPercentile()
+  {
+    return getLatency.getPercentile(0.99);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#getMaxGetTime()
+   */
+  @Override
+  public long getMaxGetTime()
+  {
+    return getLatency.getMax();
+  }
+  
+  LatencyHistogram getGetLatency()
+  {
+    return getLatency;
+  }
+  
+  LatencyHistogram getLoadLatency()
+  {
+    return loadLatency;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.CacheStatsMBean#reset()
+   */
+  @Override
+  public void reset()
+  {
+    l1Hits.set(0);
+    l2Hits.set(0);
+    misses.set(0);
+    puts.set(0);
+    removes.set(0);
+    evictions.set(0);
+    expirations.set(0);
+    loadFailures.set(0);
+    getLatency.reset();
+    loadLatency.reset();
+  }
+
+}
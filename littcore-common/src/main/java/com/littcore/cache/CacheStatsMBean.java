@@ -0,0 +1,62 @@
+package com.littcore.cache;
+
+
+/**
+ * 缓存区域统计的JMX接口.
+ * 
+ * <pre><b>描述：</b>
+ *    耗时单位均为微秒
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface CacheStatsMBean {
+  
+  public String getRegion();
+  
+  public long getSize();
+  
+  public long getHitCount();
+  
+  public long getL1HitCount();
+  
+  public long getL2HitCount();
+  
+  public long getMissCount();
+  
+  public double getHitRatio();
+  
+  public long getPutCount();
+  
+  public long getRemoveCount();
+  
+  public long getEvictionCount();
+  
+  public long getExpirationCount();
+  
+  public long getLoadCount();
+  
+  public long getLoadFailureCount();
+  
+  public double getAverageLoadTime();
+  
+  public long getLoadTime99thPercentile();
+  
+  public double getAverageGetTime();
+  
+  public long getGetTime99thPercentile();
+  
+  public long getMaxGetTime();
+  
+  /**
+   * 清空统计
+   */
+  public void reset();
+
+}
@@ -0,0 +1,186 @@
+package com.littcore.cache;
+
+import java.io.Serializable;
+
+
+/**
+ * 缓存区域统计快照.
+ * 
+ * <pre><b>描述：</b>
+ *    某一时刻的统计值，不可变，可序列化后输出给监控系统。耗时单位均为微秒
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class CacheStatsSnapshot implements Serializable {
+  
+  /** The Constant serialVersionUID. */
+  private static final long serialVersionUID = 1L;
+  
+  private final long timestamp;
+  private final String region;
+  private final long size;
+  private final long l1HitCount;
+  private final long l2HitCount;
+  private final long missCount;
+  private final long putCount;
+  private final long removeCount;
+  private final long evictionCount;
+  private final long expirationCount;
+  private final long loadCount;
+  private final long loadFailureCount;
+  private final double averageLoadTime;
+  private final long loadTime50thPercentile;
+  private final long loadTime99thPercentile;
+  private final double averageGetTime;
+  private final long getTime50thPercentile;
+  private final long getTime99thPercentile;
+  private final long maxGetTime;
+  
+  CacheStatsSnapshot(CacheStats stats) {
+    this.timestamp = System.currentTimeMillis();
+    this.region = stats.getRegion();
+    this.size = stats.getSize();
+    this.l1HitCount = stats.getL1HitCount();
+    this.l2HitCount = stats.getL2HitCount();
+    this.missCount = stats.getMissCount();
+    this.putCount = stats.getPutCount();
+    this.removeCount = stats.getRemoveCount();
+    this.evictionCount = stats.getEvictionCount();
+    this.expirationCount = stats.getExpirationCount();
+    this.loadCount = stats.getLoadCount();
+    this.loadFailureCount = stats.getLoadFailureCount();
+    this.averageLoadTime = stats.getAverageLoadTime();
+    this.loadTime50thPercentile = stats.getLoadLatency().getPercentile(0.5);
+    this.loadTime99thPercentile = stats.getLoadTime99thPercentile();
+    this.averageGetTime = stats.getAverageGetTime();
+    this.getTime50thPercentile = stats.getGetLatency().getPercentile(0.5);
+    this.getTime99thPercentile = stats.getGetTime99thPercentile();
+    this.maxGetTime = stats.getMaxGetTime();
+  }
+  
+  public long getHitCount()
+  {
+    return l1HitCount + l2HitCount;
+  }
+  
+  public double getHitRatio()
+  {
+    long hits = getHitCount();
+    long total = hits + missCount;
+    return total == 0 ? 0 : (double)hits / total;
+  }
+
+  public long getTimestamp()
+  {
+    return timestamp;
+  }
+
+  public String getRegion()
+  {
+    return region;
+  }
+
+  public long getSize()
+  {
+    return size;
+  }
+
+  public long getL1HitCount()
+  {
+    return l1HitCount;
+  }
+
+  public long getL2HitCount()
+  {
+    return l2HitCount;
+  }
+
+  public long getMissCount()
+  {
+    return missCount;
+  }
+
+  public long getPutCount()
+  {
+    return putCount;
+  }
+
+  public long getRemoveCount()
+  {
+    return removeCount;
+  }
+
+  public long getEvictionCount()
+  {
+    return evictionCount;
+  }
+
+  public long getExpirationCount()
+  {
+    return expirationCount;
+  }
+
+  public long getLoadCount()
+  {
+    return loadCount;
+  }
+
+  public long getLoadFailureCount()
+  {
+    return loadFailureCount;
+  }
+
+  public double getAverageLoadTime()
+  {
+    return averageLoadTime;
+  }
+
+  public long getLoadTime50thPercentile()
+  {
+    return loadTime50thPercentile;
+  }
+
+  public long getLoadTime99thPercentile()
+  {
+    return loadTime99thPercentile;
+  }
+
+  public double getAverageGetTime()
+  {
+    return averageGetTime;
+  }
+
+  public long getGetTime50thPercentile()
+  {
+    return getTime50thPercentile;
+  }
+
+  public long getGetTime99thPercentile()
+  {
+    return getTime99thPercentile;
+  }
+
+  public long getMaxGetTime()
+  {
+    return maxGetTime;
+  }
+
+  /* (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString()
+  {
+    return "CacheStats[region=" + region + ",size=" + size + ",hits=" + getHitCount() + ",misses=" + missCount
+      + ",hitRatio=" + getHitRatio() + ",evictions=" + evictionCount + ",expirations=" + expirationCount
+      + ",loads=" + loadCount + ",avgLoadTime=" + averageLoadTime + "us]";
+  }
+
+}
@@ -1,31 +1,50 @@
 package com.littcore.cache;
 
+import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
 
 /**
- * .
+ * 缓存接口.
  * 
  * <pre><b>描述：</b>
  *    
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 增加泛型、批量读写、带加载器的读取及键的迭代
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
  * @since 2015年5月21日
  * @version 1.0
  */
-public interface ICache {
+public interface ICache<K, V> {
   
   /**
    * Get an item from the cache, nontransactionally
    * @param key cache key
    * @return the cached object or null
    */
-  public Object get(Object key) throws CacheException;
+  public V get(K key) throws CacheException;
+  
+  /**
+   * Get an item from the cache, load it when missing.
+   * 并发未命中时同一个键只有一个线程执行加载，其余线程等待加载结果
+   * @param key cache key
+   * @param loader loader for missing value
+   * @return the cached or loaded object, null if the loader returns null
+   */
+  public V get(K key, ICacheLoader<? super K, ? extends V> loader) throws CacheException;
+  
+  /**
+   * Get items from the cache
+   * @param keys cache keys
+   * @return the cached objects, missing keys are not included
+   */
+  public Map<K, V> getAll(Collection<? extends K> keys) throws CacheException;
   
   /**
    * Add an item to the cache, nontransactionally, with
@@ -33,29 +52,45 @@ public interface ICache {
    * @param key cache key
    * @param value cache value
    */
-  public void put(Object key, Object value) throws CacheException;
+  public void put(K key, V value) throws CacheException;
+  
+  /**
+   * Add items to the cache
+   * @param map cache keys and values
+   */
+  public void putAll(Map<? extends K, ? extends V> map) throws CacheException;
   
   /**
    * Add an item to the cache
    * @param key cache key
    * @param value cache value
    */
-  public void update(Object key, Object value) throws CacheException;
+  public void update(K key, V value) throws CacheException;
 
-  @SuppressWarnings("rawtypes")
-  public List keys() throws CacheException ;
+  public List<K> keys() throws CacheException ;
+  
+  /**
+   * Get the number of cached items
+   * @return size
+   */
+  public long size() throws CacheException;
+  
+  /**
+   * Iterate the cache keys without copying them into a new list where the implementation allows
+   * @return key iterator
+   */
+  public Iterator<K> keyIterator() throws CacheException;
   
   /**
    * Remove an item from the cache
    */
-  public void evict(Object key) throws CacheException;
+  public void evict(K key) throws CacheException;
   
   /**
    * Batch remove cache objects
    * @param keys the cache keys to be evicted
    */
-  @SuppressWarnings("rawtypes")
-  public void evict(List keys) throws CacheException;
+  public void evict(List<? extends K> keys) throws CacheException;
   
   /**
    * Clear the cache
@@ -0,0 +1,42 @@
+package com.littcore.cache;
+
+
+/**
+ * 缓存集群广播器.
+ * 
+ * <pre><b>描述：</b>
+ *    用于在集群各节点之间传播缓存失效命令，保证各节点一级缓存的一致性
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface ICacheBroadcaster {
+  
+  /**
+   * 广播器的标识名称
+   * @return broadcaster name
+   */
+  public String getName();
+  
+  /**
+   * 启动广播器
+   * @param listener 接收到其他节点命令时的回调
+   * @throws CacheException cache exception
+   */
+  public void start(ICacheCommandListener listener) throws CacheException;
+  
+  /**
+   * 向其他节点发送命令（不会回送给本节点）
+   * @param command cache command
+   */
+  public void send(CacheCommand command) throws CacheException;
+  
+  public void stop();
+
+}
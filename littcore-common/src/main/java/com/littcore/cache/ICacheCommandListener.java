@@ -0,0 +1,27 @@
+package com.littcore.cache;
+
+
+/**
+ * 缓存命令监听器.
+ * 
+ * <pre><b>描述：</b>
+ *    接收集群中其他节点发出的缓存命令
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface ICacheCommandListener {
+  
+  /**
+   * 收到其他节点的缓存命令时触发
+   * @param command cache command
+   */
+  public void onCommand(CacheCommand command);
+
+}
@@ -0,0 +1,28 @@
+package com.littcore.cache;
+
+
+/**
+ * 缓存事件监听器.
+ * 
+ * <pre><b>描述：</b>
+ *    在过期通知的基础上增加容量淘汰通知
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface ICacheEventListener extends ICacheExpiredListener {
+  
+  /**
+   * 当缓存中的某个对象因容量不足被淘汰的时候触发
+   * @param region: Cache region name
+   * @param key: cache key
+   */
+  public void notifyElementEvicted(String region, Object key) ;
+
+}
@@ -0,0 +1,29 @@
+package com.littcore.cache;
+
+
+/**
+ * 缓存加载器.
+ * 
+ * <pre><b>描述：</b>
+ *    缓存未命中时加载数据
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface ICacheLoader<K, V> {
+  
+  /**
+   * 加载缓存数据
+   * @param key cache key
+   * @return value, null表示不存在（不会写入缓存）
+   * @throws Exception load exception
+   */
+  public V load(K key) throws Exception;
+
+}
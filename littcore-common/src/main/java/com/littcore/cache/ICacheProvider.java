@@ -33,7 +33,7 @@ public interface ICacheProvider {
    * @return return cache instance
    * @throws CacheException cache exception
    */
-  public ICache buildCache(String regionName, boolean autoCreate, ICacheExpiredListener listener) throws CacheException;
+  public ICache<Object, Object> buildCache(String regionName, boolean autoCreate, ICacheExpiredListener listener) throws CacheException;
 
   public void start();
   
@@ -0,0 +1,23 @@
+package com.littcore.cache;
+
+
+/**
+ * 进程内的缓存提供者.
+ *
+ * <pre><b>描述：</b>
+ *    每个节点各自保存一份数据（如EhCache、堆外缓存），作为二级缓存时，收到其他节点的失效命令需要同时删除二级缓存。
+ *    未实现此接口的二级缓存视为各节点共享（如Redis、Memcached），只由修改数据的节点删除，
+ *    其他节点收到失效命令时只删除一级缓存，避免删除发出命令的节点刚写入的数据。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface ILocalCacheProvider extends ICacheProvider {
+
+}
@@ -2,6 +2,9 @@ package com.littcore.cache;
 
 import java.util.List;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 
 /**
  * .
@@ -20,6 +23,8 @@ import java.util.List;
  */
 public class SimpleCacheManager implements ICacheExpiredListener {
 
+  private static final Logger logger = LoggerFactory.getLogger(SimpleCacheManager.class);
+
   public static final String REGION_NAME = "static";
   
   public SimpleCacheManager()
@@ -33,12 +38,12 @@ public class SimpleCacheManager implements ICacheExpiredListener {
   @Override
   public void notifyElementExpired(String region, Object key)
   {
-    // TODO Auto-generated method stub
-
+    if(logger.isDebugEnabled())
+      logger.debug("Cache element expired, region=" + region + ",key=" + key);
   }
   
   public Object get(Object key){
-    return CacheFactory.get(1, REGION_NAME, key);    
+    return CacheFactory.get(REGION_NAME, key);    
   }
   
   public void set(Object key, Object value){
@@ -47,13 +52,12 @@ public class SimpleCacheManager implements ICacheExpiredListener {
         evict(key);
       else{
         //分几种情况
-        //Object obj1 = CacheManager.get(LEVEL_1, region, key);
-        //Object obj2 = CacheManager.get(LEVEL_2, region, key);
         //1. L1 和 L2 都没有
         //2. L1 有 L2 没有（这种情况不存在，除非是写 L2 的时候失败
         //3. L1 没有，L2 有
         //4. L1 和 L2 都有
-        CacheFactory.set(1, REGION_NAME, key, value);
+        //统一写入L1和L2，并通知其他节点删除各自的L1，下次读取时从L2回填
+        CacheFactory.set(REGION_NAME, key, value);
       }
     }
     //log.info("write data to cache region="+region+",key="+key+",value="+value);
@@ -65,7 +69,7 @@ public class SimpleCacheManager implements ICacheExpiredListener {
    * @param key: Cache key
    */
   public void evict(Object key) {
-    CacheFactory.evict(1, REGION_NAME, key); //删除一级缓存
+    CacheFactory.evict(REGION_NAME, key); //删除一级和二级缓存
   }
 
   /**
@@ -75,7 +79,7 @@ public class SimpleCacheManager implements ICacheExpiredListener {
    */
   @SuppressWarnings({ "rawtypes" })
   public void batchEvict(List keys) {
-    CacheFactory.batchEvict(1, REGION_NAME, keys);
+    CacheFactory.batchEvict(REGION_NAME, keys);
   }
 
   /**
@@ -83,7 +87,7 @@ public class SimpleCacheManager implements ICacheExpiredListener {
    * @param region: Cache region name
    */
   public void clear() throws CacheException {
-    CacheFactory.clear(1, REGION_NAME);
+    CacheFactory.clear(REGION_NAME);
   }
   
   /**
@@ -93,7 +97,7 @@ public class SimpleCacheManager implements ICacheExpiredListener {
    */
   @SuppressWarnings("rawtypes")
   public List keys() throws CacheException {
-    return CacheFactory.keys(1, REGION_NAME);
+    return CacheFactory.keys(CacheFactory.LEVEL_1, REGION_NAME);
   }
   
   private static class SingletonClassInstance { 
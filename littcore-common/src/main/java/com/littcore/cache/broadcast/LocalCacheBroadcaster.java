@@ -0,0 +1,102 @@
+package com.littcore.cache.broadcast;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.littcore.cache.CacheCommand;
+import com.littcore.cache.CacheException;
+import com.littcore.cache.ICacheBroadcaster;
+import com.littcore.cache.ICacheCommandListener;
+
+
+/**
+ * 进程内缓存广播器.
+ * 
+ * <pre><b>描述：</b>
+ *    同一JVM内同组的广播器之间直接同步投递命令，不经过网络
+ *    用于单元测试以及同一进程中部署多个节点的场景
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 投递前按UDP广播相同的二进制格式编码、解码，保证与网络传输的行为一致
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class LocalCacheBroadcaster implements ICacheBroadcaster {
+  
+  private static final ConcurrentMap<String, List<LocalCacheBroadcaster>> GROUPS = new ConcurrentHashMap<String, List<LocalCacheBroadcaster>>();
+  
+  private String group;
+  
+  private volatile ICacheCommandListener listener;
+  
+  public LocalCacheBroadcaster() {
+    this("default");
+  }
+  
+  public LocalCacheBroadcaster(String group) {
+    this.group = group;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheBroadcaster#getName()
+   */
+  @Override
+  public String getName()
+  {
+    return "local";
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheBroadcaster#start(com.littcore.cache.ICacheCommandListener)
+   */
+  @Override
+  public void start(ICacheCommandListener listener) throws CacheException
+  {
+    this.listener = listener;
+    List<LocalCacheBroadcaster> members = GROUPS.get(group);
+    if(members == null) {
+      List<LocalCacheBroadcaster> created = new CopyOnWriteArrayList<LocalCacheBroadcaster>();
+      members = GROUPS.putIfAbsent(group, created);
+      if(members == null)
+        members = created;
+    }
+    members.add(this);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheBroadcaster#send(com.littcore.cache.CacheCommand)
+   */
+  @Override
+  public void send(CacheCommand command) throws CacheException
+  {
+    List<LocalCacheBroadcaster> members = GROUPS.get(group);
+    if(members == null)
+      return;
+    byte[] data = command.toBytes();	//与UDP广播使用相同的编码
+    for (LocalCacheBroadcaster member : members)
+    {
+      ICacheCommandListener target = member.listener;
+      if(member != this && target != null)
+        target.onCommand(CacheCommand.parse(data, 0, data.length));
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheBroadcaster#stop()
+   */
+  @Override
+  public void stop()
+  {
+    List<LocalCacheBroadcaster> members = GROUPS.get(group);
+    if(members != null)
+      members.remove(this);
+    this.listener = null;
+  }
+
+}
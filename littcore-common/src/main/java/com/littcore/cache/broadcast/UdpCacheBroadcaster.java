@@ -0,0 +1,183 @@
+package com.littcore.cache.broadcast;
+
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.littcore.cache.CacheCommand;
+import com.littcore.cache.CacheException;
+import com.littcore.cache.ICacheBroadcaster;
+import com.littcore.cache.ICacheCommandListener;
+
+
+/**
+ * UDP组播缓存广播器.
+ * 
+ * <pre><b>描述：</b>
+ *    通过UDP组播在局域网内各节点之间传播缓存失效命令
+ *    命令会回送给本节点，由CacheFactory根据命令来源过滤
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 命令改为二进制格式解析，格式不正确的数据包直接丢弃
+ *    2026-10-17 数据包长度限制为UDP的最大负载65507字节，超长的失效命令按键拆分为多个数据包，无法拆分时改为清空区域
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class UdpCacheBroadcaster implements ICacheBroadcaster {
+  
+  private static final Logger logger = LoggerFactory.getLogger(UdpCacheBroadcaster.class);
+  
+  /** 单个数据包的最大长度（UDP的最大负载：65535 - 8字节UDP头 - 20字节IP头）. */
+  private static final int MAX_PACKET_SIZE = 65507;
+  
+  private String address = "230.0.0.1";
+  
+  private int port = 45588;
+  
+  private int timeToLive = 1;
+  
+  private MulticastSocket socket;
+  
+  private InetAddress group;
+  
+  private Thread receiver;
+  
+  private volatile boolean running;
+  
+  public UdpCacheBroadcaster() {
+  }
+  
+  public UdpCacheBroadcaster(String address, int port) {
+    this.address = address;
+    this.port = port;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheBroadcaster#getName()
+   */
+  @Override
+  public String getName()
+  {
+    return "udp";
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheBroadcaster#start(com.littcore.cache.ICacheCommandListener)
+   */
+  @Override
+  public void start(final ICacheCommandListener listener) throws CacheException
+  {
+    try {
+      group = InetAddress.getByName(address);
+      socket = new MulticastSocket(port);
+      socket.setTimeToLive(timeToLive);
+      socket.joinGroup(group);
+    } catch (IOException e) {
+      throw new CacheException("Unable to join cache broadcast group " + address + ":" + port, e);
+    }
+    running = true;
+    receiver = new Thread("cache-broadcast-" + port) {
+      public void run() {
+        byte[] buf = new byte[MAX_PACKET_SIZE];
+        while (running) {
+          DatagramPacket packet = new DatagramPacket(buf, buf.length);
+          try {
+            socket.receive(packet);
+            listener.onCommand(CacheCommand.parse(packet.getData(), packet.getOffset(), packet.getLength()));
+          } catch (IOException e) {
+            if(running)
+              logger.warn("Receive cache command failed", e);
+          } catch (CacheException e) {
+            logger.warn("Drop invalid cache command from " + packet.getSocketAddress() + ": " + e.getMessage());
+          } catch (RuntimeException e) {
+            logger.warn("Handle cache command failed", e);
+          }
+        }
+      }
+    };
+    receiver.setDaemon(true);
+    receiver.start();
+    logger.info("Cache broadcaster joined group {}:{}", address, port);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheBroadcaster#send(com.littcore.cache.CacheCommand)
+   */
+  @Override
+  @SuppressWarnings("rawtypes")
+  public void send(CacheCommand command) throws CacheException
+  {
+    byte[] data = command.toBytes();
+    if(data.length <= MAX_PACKET_SIZE) {
+      sendPacket(data);
+      return;
+    }
+    List keys = command.getKeys();
+    if(command.getOperator() == CacheCommand.OPT_EVICT && keys != null && keys.size() > 1) {	//按键拆分为多个数据包
+      int half = keys.size() / 2;
+      send(new CacheCommand(command.getSource(), CacheCommand.OPT_EVICT, command.getRegion(), keys.subList(0, half)));
+      send(new CacheCommand(command.getSource(), CacheCommand.OPT_EVICT, command.getRegion(), keys.subList(half, keys.size())));
+    } else if(command.getOperator() != CacheCommand.OPT_CLEAR) {	//单个键超长，改为清空其他节点的区域
+      logger.warn("Cache command too large: {} bytes, clear region {} instead", data.length, command.getRegion());
+      send(new CacheCommand(command.getSource(), CacheCommand.OPT_CLEAR, command.getRegion(), null));
+    } else {
+      throw new CacheException("Cache command too large: " + data.length + " bytes");
+    }
+  }
+  
+  /**
+   * 发送一个数据包
+   * @param data 命令数据，不超过MAX_PACKET_SIZE
+   */
+  protected void sendPacket(byte[] data) throws CacheException
+  {
+    try {
+      socket.send(new DatagramPacket(data, data.length, group, port));
+    } catch (IOException e) {
+      throw new CacheException("Unable to send cache command", e);
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheBroadcaster#stop()
+   */
+  @Override
+  public void stop()
+  {
+    running = false;
+    if(socket != null) {
+      try {
+        socket.leaveGroup(group);
+      } catch (IOException e) {
+        logger.debug("Leave cache broadcast group failed", e);
+      }
+      socket.close();
+      socket = null;
+    }
+  }
+
+  public void setAddress(String address)
+  {
+    this.address = address;
+  }
+
+  public void setPort(int port)
+  {
+    this.port = port;
+  }
+
+  public void setTimeToLive(int timeToLive)
+  {
+    this.timeToLive = timeToLive;
+  }
+
+}
@@ -1,5 +1,6 @@
 package com.littcore.cache.provider;
 
+import java.util.Iterator;
 import java.util.List;
 
 import net.sf.ehcache.Cache;
@@ -7,8 +8,9 @@ import net.sf.ehcache.Ehcache;
 import net.sf.ehcache.Element;
 import net.sf.ehcache.event.CacheEventListener;
 
+import com.littcore.cache.BaseCache;
 import com.littcore.cache.CacheException;
-import com.littcore.cache.ICache;
+import com.littcore.cache.ICacheEventListener;
 import com.littcore.cache.ICacheExpiredListener;
 
 
@@ -20,14 +22,15 @@ import com.littcore.cache.ICacheExpiredListener;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 继承BaseCache，支持批量读写及带加载器的读取
+ *    2026-10-17 转发容量淘汰事件
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
  * @since 2015年5月21日
  * @version 1.0
  */
-public class EhCache implements ICache, CacheEventListener {
+public class EhCache extends BaseCache<Object, Object> implements CacheEventListener {
   
   private Cache cache;
   private ICacheExpiredListener listener;
@@ -85,53 +88,58 @@ public class EhCache implements ICache, CacheEventListener {
   }
 
   /* (non-Javadoc)
-   * @see com.littcore.cache.ICache#update(java.lang.Object, java.lang.Object)
+   * @see com.littcore.cache.ICache#keys()
    */
   @Override
-  public void update(Object key, Object value) throws CacheException
+  @SuppressWarnings("unchecked")
+  public List<Object> keys() throws CacheException
   {
-    // TODO Auto-generated method stub
-
+    return this.cache.getKeys();
   }
 
   /* (non-Javadoc)
-   * @see com.littcore.cache.ICache#keys()
+   * @see com.littcore.cache.BaseCache#size()
    */
   @Override
-  @SuppressWarnings("rawtypes")
-  public List keys() throws CacheException
+  public long size() throws CacheException
   {
-    return this.cache.getKeys();
+    try {
+      return this.cache.getSize();
+    }
+    catch (IllegalStateException e) {
+      throw new CacheException( e );
+    }
   }
 
   /* (non-Javadoc)
-   * @see com.littcore.cache.ICache#evict(java.lang.Object)
+   * @see com.littcore.cache.BaseCache#keyIterator()
    */
   @Override
-  public void evict(Object key) throws CacheException
+  @SuppressWarnings("unchecked")
+  public Iterator<Object> keyIterator() throws CacheException
   {
     try {
-      cache.remove( key );
+      return this.cache.getKeysNoDuplicateCheck().iterator();
     }
     catch (IllegalStateException e) {
       throw new CacheException( e );
     }
-    catch (net.sf.ehcache.CacheException e) {
-      throw new CacheException( e );
-    }
-
   }
 
   /* (non-Javadoc)
-   * @see com.littcore.cache.ICache#evict(java.util.List)
+   * @see com.littcore.cache.ICache#evict(java.lang.Object)
    */
   @Override
-  @SuppressWarnings("rawtypes")
-  public void evict(List keys) throws CacheException
+  public void evict(Object key) throws CacheException
   {
-    for (Object key : keys)
-    {
-      this.evict(key);
+    try {
+      cache.remove( key );
+    }
+    catch (IllegalStateException e) {
+      throw new CacheException( e );
+    }
+    catch (net.sf.ehcache.CacheException e) {
+      throw new CacheException( e );
     }
 
   }
@@ -225,7 +233,9 @@ public class EhCache implements ICache, CacheEventListener {
   @Override
   public void notifyElementEvicted(Ehcache cache, Element element)
   {
-    // TODO Auto-generated method stub
+    if(listener instanceof ICacheEventListener){
+      ((ICacheEventListener)listener).notifyElementEvicted(cache.getName(), element.getObjectKey());
+    }
     
   }
 
@@ -11,7 +11,7 @@ import org.slf4j.LoggerFactory;
 import com.littcore.cache.CacheException;
 import com.littcore.cache.ICache;
 import com.littcore.cache.ICacheExpiredListener;
-import com.littcore.cache.ICacheProvider;
+import com.littcore.cache.ILocalCacheProvider;
 
 
 /**
@@ -22,14 +22,14 @@ import com.littcore.cache.ICacheProvider;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 实现ILocalCacheProvider，作为二级缓存时按进程内缓存处理其他节点的失效命令
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
  * @since 2015年5月21日
  * @version 1.0
  */
-public class EhCacheProvider implements ICacheProvider {
+public class EhCacheProvider implements ILocalCacheProvider {
   
   private static final Logger logger = LoggerFactory.getLogger(EhCacheProvider.class);
   
@@ -49,7 +49,7 @@ public class EhCacheProvider implements ICacheProvider {
    * @see com.littcore.cache.ICacheProvider#buildCache(java.lang.String, boolean, com.littcore.cache.ICacheExpiredListener)
    */
   @Override
-  public ICache buildCache(String regionName, boolean autoCreate, ICacheExpiredListener listener) throws CacheException
+  public ICache<Object, Object> buildCache(String regionName, boolean autoCreate, ICacheExpiredListener listener) throws CacheException
   {
     EhCache ehcache = cacheCache.get(regionName);
     if (ehcache == null && autoCreate)
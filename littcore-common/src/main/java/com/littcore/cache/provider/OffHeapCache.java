@@ -0,0 +1,432 @@
+package com.littcore.cache.provider;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.littcore.cache.BaseCache;
+import com.littcore.cache.CacheException;
+import com.littcore.cache.ICacheEventListener;
+import com.littcore.cache.ICacheExpiredListener;
+
+
+/**
+ * 堆外内存缓存.
+ * 
+ * <pre><b>描述：</b>
+ *    缓存值序列化后保存在直接内存（DirectByteBuffer）中，不占用Java堆，减少大缓存对GC的影响
+ *    超出容量时按LRU顺序淘汰，缓存值必须可序列化
+ *    
+ *    按键的哈希分段加锁，每段有独立的LRU链表和容量（总容量/段数），不同段的读写互不阻塞。
+ *    直接内存由SlabAllocator按2的幂分级从1M的页中切分，删除或淘汰后的空间放回空闲队列重用，
+ *    不再为每次put调用ByteBuffer.allocateDirect。页的总大小不超过maxBytes，
+ *    页用完后（或超过1M的值）才单独分配，因此直接内存占用不超过maxBytes的2倍（加上分级取整的浪费）。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 改为分段锁，直接内存改为分页切分并重用，避免频繁分配直接内存导致OutOfMemoryError: Direct buffer memory
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class OffHeapCache extends BaseCache<Object, Object> {
+  
+  /** 最大分段数. */
+  private static final int MAX_SEGMENTS = 16;
+  
+  /** 每段的最小容量. */
+  private static final long MIN_SEGMENT_BYTES = 1024 * 1024;
+  
+  private final String name;
+  
+  /** 最大占用字节数. */
+  private final long maxBytes;
+  
+  /** 存活时间（毫秒），0表示永不过期. */
+  private final long timeToLive;
+  
+  private final ICacheExpiredListener listener;
+  
+  private final Segment[] segments;
+  
+  private final SlabAllocator allocator;
+  
+  public OffHeapCache(String name, long maxBytes, long timeToLive, ICacheExpiredListener listener) {
+    this.name = name;
+    this.maxBytes = maxBytes;
+    this.timeToLive = timeToLive;
+    this.listener = listener;
+    int count = 1;
+    while (count < MAX_SEGMENTS && maxBytes / (count * 2) >= MIN_SEGMENT_BYTES)
+      count *= 2;
+    this.segments = new Segment[count];
+    for (int i = 0; i < count; i++)
+    {
+      segments[i] = new Segment(maxBytes / count);
+    }
+    this.allocator = new SlabAllocator(maxBytes);
+  }
+  
+  private Segment segmentFor(Object key) {
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return segments[h & (segments.length - 1)];
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#get(java.lang.Object)
+   */
+  @Override
+  public Object get(Object key) throws CacheException
+  {
+    if(key == null)
+      return null;
+    Segment segment = segmentFor(key);
+    byte[] data;
+    synchronized (segment) {
+      Entry entry = segment.entries.get(key);
+      if(entry == null)
+        return null;
+      if(entry.isExpired(System.currentTimeMillis())) {
+        segment.remove(key);
+        data = null;
+      }
+      else {
+        //在锁内复制，释放锁后该空间可能被重用
+        data = new byte[entry.length];
+        ByteBuffer buffer = entry.buffer.duplicate();
+        buffer.clear();
+        buffer.get(data);
+      }
+    }
+    if(data == null) {
+      if(listener != null)
+        listener.notifyElementExpired(name, key);
+      return null;
+    }
+    return deserialize(data);
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#put(java.lang.Object, java.lang.Object)
+   */
+  @Override
+  public void put(Object key, Object value) throws CacheException
+  {
+    byte[] data = serialize(value);
+    Segment segment = segmentFor(key);
+    if(data.length > segment.maxBytes)
+      throw new CacheException("Value of key " + key + " exceeds off-heap cache capacity of region " + name);
+    Entry entry = allocator.allocate(data.length, timeToLive > 0 ? System.currentTimeMillis() + timeToLive : 0);
+    ByteBuffer buffer = entry.buffer.duplicate();
+    buffer.clear();
+    buffer.put(data);
+    List<Object> evicted = null;
+    synchronized (segment) {
+      segment.remove(key);
+      segment.entries.put(key, entry);
+      segment.usedBytes += entry.length;
+      Iterator<Map.Entry<Object, Entry>> it = segment.entries.entrySet().iterator();
+      while (segment.usedBytes > segment.maxBytes && it.hasNext()) {
+        Map.Entry<Object, Entry> eldest = it.next();
+        segment.usedBytes -= eldest.getValue().length;
+        it.remove();
+        allocator.release(eldest.getValue());
+        if(evicted == null)
+          evicted = new ArrayList<Object>();
+        evicted.add(eldest.getKey());
+      }
+    }
+    if(evicted != null && listener instanceof ICacheEventListener) {
+      for (Object evictedKey : evicted)
+      {
+        ((ICacheEventListener)listener).notifyElementEvicted(name, evictedKey);
+      }
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#keys()
+   */
+  @Override
+  public List<Object> keys() throws CacheException
+  {
+    List<Object> keys = new ArrayList<Object>();
+    for (Segment segment : segments)
+    {
+      synchronized (segment) {
+        keys.addAll(segment.entries.keySet());
+      }
+    }
+    return keys;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.BaseCache#size()
+   */
+  @Override
+  public long size() throws CacheException
+  {
+    long size = 0;
+    for (Segment segment : segments)
+    {
+      synchronized (segment) {
+        size += segment.entries.size();
+      }
+    }
+    return size;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#evict(java.lang.Object)
+   */
+  @Override
+  public void evict(Object key) throws CacheException
+  {
+    if(key == null)
+      return;
+    Segment segment = segmentFor(key);
+    synchronized (segment) {
+      segment.remove(key);
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#evict(java.util.List)
+   */
+  @Override
+  public void evict(List<? extends Object> keys) throws CacheException
+  {
+    for (Object key : keys)
+    {
+      evict(key);
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#clear()
+   */
+  @Override
+  public void clear() throws CacheException
+  {
+    for (Segment segment : segments)
+    {
+      synchronized (segment) {
+        for (Entry entry : segment.entries.values())
+        {
+          allocator.release(entry);
+        }
+        segment.entries.clear();
+        segment.usedBytes = 0;
+      }
+    }
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICache#destroy()
+   */
+  @Override
+  public void destroy() throws CacheException
+  {
+    clear();
+  }
+  
+  /**
+   * 当前缓存值占用的字节数
+   * @return bytes
+   */
+  public long getUsedBytes() {
+    long used = 0;
+    for (Segment segment : segments)
+    {
+      synchronized (segment) {
+        used += segment.usedBytes;
+      }
+    }
+    return used;
+  }
+  
+  /**
+   * 已分配的页的字节数（含空闲空间）
+   * @return bytes
+   */
+  public long getReservedBytes() {
+    return allocator.pageBytes.get();
+  }
+  
+  /**
+   * 最大占用字节数
+   * @return bytes
+   */
+  public long getMaxBytes() {
+    return maxBytes;
+  }
+  
+  private static byte[] serialize(Object value) throws CacheException {
+    try {
+      ByteArrayOutputStream bos = new ByteArrayOutputStream(256);
+      ObjectOutputStream oos = new ObjectOutputStream(bos);
+      oos.writeObject(value);
+      oos.close();
+      return bos.toByteArray();
+    } catch (IOException e) {
+      throw new CacheException("Unable to serialize cache value", e);
+    }
+  }
+  
+  private static Object deserialize(byte[] data) throws CacheException {
+    try {
+      ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(data)) {
+        protected Class<?> resolveClass(java.io.ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+          try {
+            return Class.forName(desc.getName(), false, Thread.currentThread().getContextClassLoader());
+          } catch (ClassNotFoundException e) {
+            return super.resolveClass(desc);
+          }
+        }
+      };
+      try {
+        return ois.readObject();
+      } finally {
+        ois.close();
+      }
+    } catch (IOException e) {
+      throw new CacheException("Unable to deserialize cache value", e);
+    } catch (ClassNotFoundException e) {
+      throw new CacheException("Unable to deserialize cache value", e);
+    }
+  }
+  
+  /**
+   * 分段，所有字段需在持有该段的锁时访问
+   */
+  private final class Segment {
+    
+    /** 按访问顺序排列，用于LRU淘汰. */
+    private final LinkedHashMap<Object, Entry> entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true);
+    
+    private final long maxBytes;
+    
+    private long usedBytes;
+    
+    Segment(long maxBytes) {
+      this.maxBytes = maxBytes;
+    }
+    
+    void remove(Object key) {
+      Entry old = entries.remove(key);
+      if(old != null) {
+        usedBytes -= old.length;
+        allocator.release(old);
+      }
+    }
+  }
+  
+  private static class Entry {
+    /** 分配的空间，容量可能大于length. */
+    private final ByteBuffer buffer;
+    private final int length;
+    /** 分级序号，-1表示单独分配、不回收. */
+    private final int slabClass;
+    private final long expireAt;
+    
+    Entry(ByteBuffer buffer, int length, int slabClass, long expireAt) {
+      this.buffer = buffer;
+      this.length = length;
+      this.slabClass = slabClass;
+      this.expireAt = expireAt;
+    }
+    
+    boolean isExpired(long now) {
+      return expireAt > 0 && now >= expireAt;
+    }
+  }
+  
+  /**
+   * 直接内存分配器.
+   * 空间按2的幂分级（64字节至1M），每级从1M的页中切分，释放后放回该级的空闲队列。
+   */
+  static final class SlabAllocator {
+    
+    private static final int MIN_SHIFT = 6;
+    
+    private static final int PAGE_SHIFT = 20;
+    
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    
+    private final long maxPageBytes;
+    
+    private final AtomicLong pageBytes = new AtomicLong();
+    
+    private final ConcurrentLinkedQueue<ByteBuffer>[] free;
+    
+    @SuppressWarnings("unchecked")
+    SlabAllocator(long maxPageBytes) {
+      this.maxPageBytes = maxPageBytes;
+      this.free = new ConcurrentLinkedQueue[PAGE_SHIFT - MIN_SHIFT + 1];
+      for (int i = 0; i < free.length; i++)
+      {
+        free[i] = new ConcurrentLinkedQueue<ByteBuffer>();
+      }
+    }
+    
+    static int slabClass(int size) {
+      int shift = 32 - Integer.numberOfLeadingZeros(Math.max(size, 1) - 1);
+      return Math.max(shift, MIN_SHIFT) - MIN_SHIFT;
+    }
+    
+    Entry allocate(int size, long expireAt) {
+      if(size > PAGE_SIZE)
+        return new Entry(ByteBuffer.allocateDirect(size), size, -1, expireAt);
+      int slabClass = slabClass(size);
+      ByteBuffer slot = free[slabClass].poll();
+      if(slot == null)
+        slot = newPage(slabClass);
+      if(slot == null)	//页已用完
+        return new Entry(ByteBuffer.allocateDirect(size), size, -1, expireAt);
+      return new Entry(slot, size, slabClass, expireAt);
+    }
+    
+    void release(Entry entry) {
+      if(entry.slabClass >= 0)
+        free[entry.slabClass].offer(entry.buffer);
+    }
+    
+    /**
+     * 分配新页并切分，返回其中一块，其余放入空闲队列
+     */
+    private ByteBuffer newPage(int slabClass) {
+      if(pageBytes.addAndGet(PAGE_SIZE) > maxPageBytes) {
+        pageBytes.addAndGet(-PAGE_SIZE);
+        return null;
+      }
+      int slotSize = 1 << (slabClass + MIN_SHIFT);
+      ByteBuffer page = ByteBuffer.allocateDirect(PAGE_SIZE);
+      ByteBuffer first = null;
+      for (int offset = 0; offset < PAGE_SIZE; offset += slotSize)
+      {
+        page.limit(offset + slotSize);
+        page.position(offset);
+        ByteBuffer slot = page.slice();
+        if(first == null)
+          first = slot;
+        else
+          free[slabClass].offer(slot);
+      }
+      return first;
+    }
+  }
+
+}
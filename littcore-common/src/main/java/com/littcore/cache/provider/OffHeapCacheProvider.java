@@ -0,0 +1,96 @@
+package com.littcore.cache.provider;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.littcore.cache.CacheException;
+import com.littcore.cache.ICache;
+import com.littcore.cache.ICacheExpiredListener;
+import com.littcore.cache.ILocalCacheProvider;
+
+
+/**
+ * 堆外内存缓存提供者.
+ * 
+ * <pre><b>描述：</b>
+ *    进程内嵌的堆外缓存，可作为二级缓存使用，每个缓存区域独立计算容量
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 实现ILocalCacheProvider，其他节点的失效命令同时删除本节点的堆外缓存
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class OffHeapCacheProvider implements ILocalCacheProvider {
+  
+  /** 每个缓存区域的最大字节数，默认64M. */
+  private long maxBytesPerRegion = 64L * 1024 * 1024;
+  
+  /** 存活时间（秒），0表示永不过期. */
+  private long timeToLiveSeconds = 0;
+  
+  private ConcurrentHashMap<String, OffHeapCache> cacheCache;
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheProvider#getName()
+   */
+  @Override
+  public String getName()
+  {
+    return "offheap";
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheProvider#buildCache(java.lang.String, boolean, com.littcore.cache.ICacheExpiredListener)
+   */
+  @Override
+  public ICache<Object, Object> buildCache(String regionName, boolean autoCreate, ICacheExpiredListener listener) throws CacheException
+  {
+    OffHeapCache cache = cacheCache.get(regionName);
+    if (cache == null && autoCreate)
+    {
+      OffHeapCache created = new OffHeapCache(regionName, maxBytesPerRegion, timeToLiveSeconds * 1000, listener);
+      cache = cacheCache.putIfAbsent(regionName, created);
+      if(cache == null)
+        cache = created;
+    }
+    return cache;
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheProvider#start()
+   */
+  @Override
+  public void start()
+  {
+    cacheCache = new ConcurrentHashMap<String, OffHeapCache>();
+  }
+
+  /* (non-Javadoc)
+   * @see com.littcore.cache.ICacheProvider#stop()
+   */
+  @Override
+  public void stop()
+  {
+    if(cacheCache != null) {
+      for (OffHeapCache cache : cacheCache.values())
+      {
+        cache.destroy();
+      }
+      cacheCache.clear();
+    }
+  }
+
+  public void setMaxBytesPerRegion(long maxBytesPerRegion)
+  {
+    this.maxBytesPerRegion = maxBytesPerRegion;
+  }
+
+  public void setTimeToLiveSeconds(long timeToLiveSeconds)
+  {
+    this.timeToLiveSeconds = timeToLiveSeconds;
+  }
+
+}
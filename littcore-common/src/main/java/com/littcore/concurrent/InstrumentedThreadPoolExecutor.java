@@ -0,0 +1,425 @@
+package com.littcore.concurrent;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.littcore.metrics.LatencyHistogram;
+import com.littcore.metrics.MBeanUtils;
+
+/**
+ * 带运行指标的线程池.
+ *
+ * <pre>
+ * <b>Description：</b>
+ * 	在可暂停线程池的基础上统计每个任务的排队时间、执行时间、失败数及拒绝数，并注册为MBean（com.littcore.concurrent:type=ThreadPool）。
+ * 	任务本身不做包装，提交时间按任务实例记录，统计在beforeExecute/afterExecute中完成，队列中保存的仍是调用方的任务，
+ * 	remove(Runnable)及shutdownNow()可以直接使用；submit()提交的任务在afterExecute中检查Future的结果计入失败数。
+ * 	可通过enableAutoTuning开启ThreadPoolSizeController，根据排队时间自动调整核心线程数；
+ * 	newThreadPerTaskExecutor创建每个任务一个线程的线程池，运行环境支持虚拟线程（Java 21+）时使用虚拟线程。
+ * </pre>
+ *
+ * <pre>
+ * <b>Changelog：</b>
+ * 	2026-10-17 不再包装为TimedTask，改为在beforeExecute/afterExecute中统计；submit()的任务按Future结果统计失败数
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class InstrumentedThreadPoolExecutor extends PausableThreadPoolExecutor implements InstrumentedThreadPoolExecutorMBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(InstrumentedThreadPoolExecutor.class);
+
+	private static final String JMX_DOMAIN = "com.littcore.concurrent";
+
+	private final String name;
+
+	private final LatencyHistogram queueWait = new LatencyHistogram();
+
+	/** 最近一个调整周期内的排队时间，由ThreadPoolSizeController读取后清空. */
+	private final LatencyHistogram recentQueueWait = new LatencyHistogram();
+
+	private final LatencyHistogram runTime = new LatencyHistogram();
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	/** 排队中任务的提交时间（按任务实例）. */
+	private final ConcurrentMap<TaskKey, Long> submitTimes = new ConcurrentHashMap<TaskKey, Long>();
+
+	/** 当前线程执行的任务的开始时间. */
+	private final ThreadLocal<long[]> startTime = new ThreadLocal<long[]>() {
+		@Override
+		protected long[] initialValue() {
+			return new long[1];
+		}
+	};
+
+	private final ObjectName objectName;
+
+	private volatile ThreadPoolSizeController controller;
+
+	public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+			BlockingQueue<Runnable> workQueue) {
+		this(name, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, new NamedThreadFactory(name, false), new AbortPolicy());
+	}
+
+	public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+			BlockingQueue<Runnable> workQueue, RejectedExecutionHandler handler) {
+		this(name, corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, new NamedThreadFactory(name, false), handler);
+	}
+
+	public InstrumentedThreadPoolExecutor(String name, int corePoolSize, int maximumPoolSize, long keepAliveTime, TimeUnit unit,
+			BlockingQueue<Runnable> workQueue, ThreadFactory threadFactory, RejectedExecutionHandler handler) {
+		super(corePoolSize, maximumPoolSize, keepAliveTime, unit, workQueue, threadFactory, new CountingRejectedHandler(handler));
+		this.name = name;
+		this.objectName = MBeanUtils.register(this, JMX_DOMAIN, "ThreadPool", name);
+	}
+
+	/**
+	 * 创建每个任务一个线程的线程池.
+	 * 运行环境支持虚拟线程时使用虚拟线程，否则使用普通的守护线程（空闲线程立即退出）
+	 *
+	 * @param name 名称
+	 * @return the instrumented thread pool executor
+	 */
+	public static InstrumentedThreadPoolExecutor newThreadPerTaskExecutor(String name) {
+		ThreadFactory threadFactory = virtualThreadFactory(name);
+		if (threadFactory == null)
+			threadFactory = new NamedThreadFactory(name, true);
+		return new InstrumentedThreadPoolExecutor(name, 0, Integer.MAX_VALUE, 0L, TimeUnit.MILLISECONDS,
+				new SynchronousQueue<Runnable>(), threadFactory, new AbortPolicy());
+	}
+
+	/**
+	 * 通过反射创建虚拟线程工厂（Thread.ofVirtual().name(name-, 0).factory()）.
+	 *
+	 * @param name 线程名前缀
+	 * @return 不支持虚拟线程时返回NULL
+	 */
+	static ThreadFactory virtualThreadFactory(String name) {
+		try {
+			Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+			Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+			Method nameMethod = builderClass.getMethod("name", String.class, long.class);
+			builder = nameMethod.invoke(builder, name + "-", Long.valueOf(0));
+			return (ThreadFactory)builderClass.getMethod("factory").invoke(builder);
+		} catch (Exception e) {
+			logger.debug("Virtual threads are not supported, using platform threads for {}", name);
+			return null;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.ThreadPoolExecutor#execute(java.lang.Runnable)
+	 */
+	@Override
+	public void execute(Runnable command) {
+		if (command == null)
+			throw new NullPointerException();
+		//同一任务实例重复排队时保留较早的提交时间
+		submitTimes.putIfAbsent(new TaskKey(command), Long.valueOf(System.nanoTime()));
+		super.execute(command);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.concurrent.PausableThreadPoolExecutor#beforeExecute(java.lang.Thread, java.lang.Runnable)
+	 */
+	@Override
+	protected void beforeExecute(Thread t, Runnable r) {
+		super.beforeExecute(t, r);	//暂停期间的等待计入排队时间
+		long start = System.nanoTime();
+		Long submitTime = submitTimes.remove(new TaskKey(r));
+		if (submitTime != null) {
+			queueWait.record(start - submitTime.longValue());
+			recentQueueWait.record(start - submitTime.longValue());
+		}
+		startTime.get()[0] = start;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.ThreadPoolExecutor#afterExecute(java.lang.Runnable, java.lang.Throwable)
+	 */
+	@Override
+	protected void afterExecute(Runnable r, Throwable t) {
+		super.afterExecute(r, t);
+		runTime.record(System.nanoTime() - startTime.get()[0]);
+		Throwable failure = t;
+		if (failure == null && r instanceof Future<?> && ((Future<?>)r).isDone()) {	//submit()提交的任务，异常保存在Future中
+			try {
+				((Future<?>)r).get();
+			} catch (ExecutionException e) {
+				failure = e.getCause();
+			} catch (CancellationException e) {
+				//取消不计入失败
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (failure != null)
+			failedCount.incrementAndGet();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.ThreadPoolExecutor#remove(java.lang.Runnable)
+	 */
+	@Override
+	public boolean remove(Runnable task) {
+		boolean removed = super.remove(task);
+		if (removed)
+			submitTimes.remove(new TaskKey(task));
+		return removed;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.ThreadPoolExecutor#purge()
+	 */
+	@Override
+	public void purge() {
+		super.purge();
+		for (TaskKey key : submitTimes.keySet()) {
+			if (key.task instanceof Future<?> && ((Future<?>)key.task).isCancelled())
+				submitTimes.remove(key);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.ThreadPoolExecutor#shutdownNow()
+	 */
+	@Override
+	public List<Runnable> shutdownNow() {
+		List<Runnable> tasks = super.shutdownNow();
+		for (Runnable task : tasks) {
+			submitTimes.remove(new TaskKey(task));
+		}
+		return tasks;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.ThreadPoolExecutor#terminated()
+	 */
+	@Override
+	protected void terminated() {
+		super.terminated();
+		ThreadPoolSizeController controller = this.controller;
+		if (controller != null)
+			controller.stop();
+		MBeanUtils.unregister(objectName);
+	}
+
+	/**
+	 * 开启线程数自动调整.
+	 *
+	 * @param minPoolSize 最小核心线程数
+	 * @param maxPoolSize 最大核心线程数
+	 * @param targetQueueLatency 目标排队时间（毫秒），99%的任务排队时间超过该值时增加线程
+	 * @return the controller
+	 */
+	public synchronized ThreadPoolSizeController enableAutoTuning(int minPoolSize, int maxPoolSize, long targetQueueLatency) {
+		if (controller != null)
+			controller.stop();
+		controller = new ThreadPoolSizeController(this, minPoolSize, maxPoolSize, targetQueueLatency);
+		controller.start();
+		return controller;
+	}
+
+	/**
+	 * 关闭线程数自动调整.
+	 */
+	public synchronized void disableAutoTuning() {
+		if (controller != null) {
+			controller.stop();
+			controller = null;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.ThreadPoolExecutor#setRejectedExecutionHandler(java.util.concurrent.RejectedExecutionHandler)
+	 */
+	@Override
+	public void setRejectedExecutionHandler(RejectedExecutionHandler handler) {
+		if (handler == null)
+			throw new NullPointerException();
+		((CountingRejectedHandler)super.getRejectedExecutionHandler()).delegate = handler;
+	}
+
+	/* (non-Javadoc)
+	 * @see java.util.concurrent.ThreadPoolExecutor#getRejectedExecutionHandler()
+	 */
+	@Override
+	public RejectedExecutionHandler getRejectedExecutionHandler() {
+		return ((CountingRejectedHandler)super.getRejectedExecutionHandler()).delegate;
+	}
+
+	/**
+	 * 获取并清空最近一个周期的排队时间.
+	 *
+	 * @return 99%分位排队时间（微秒），周期内没有任务时返回-1
+	 */
+	long drainRecentQueueWait() {
+		long count = recentQueueWait.getCount();
+		long p99 = recentQueueWait.getPercentile(0.99);
+		recentQueueWait.reset();
+		return count == 0 ? -1 : p99;
+	}
+
+	@Override
+	public String getName() {
+		return name;
+	}
+
+	@Override
+	public int getQueueSize() {
+		return getQueue().size();
+	}
+
+	@Override
+	public long getRejectedCount() {
+		return ((CountingRejectedHandler)super.getRejectedExecutionHandler()).count.get();
+	}
+
+	@Override
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+	@Override
+	public double getMeanQueueWait() {
+		return queueWait.getMean();
+	}
+
+	@Override
+	public long getMaxQueueWait() {
+		return queueWait.getMax();
+	}
+
+	@Override
+	public long get99thPercentileQueueWait() {
+		return queueWait.getPercentile(0.99);
+	}
+
+	@Override
+	public double getMeanRunTime() {
+		return runTime.getMean();
+	}
+
+	@Override
+	public long getMaxRunTime() {
+		return runTime.getMax();
+	}
+
+	@Override
+	public long get99thPercentileRunTime() {
+		return runTime.getPercentile(0.99);
+	}
+
+	@Override
+	public boolean isAutoTuning() {
+		return controller != null;
+	}
+
+	@Override
+	public void reset() {
+		queueWait.reset();
+		runTime.reset();
+		failedCount.set(0);
+		((CountingRejectedHandler)super.getRejectedExecutionHandler()).count.set(0);
+	}
+
+	/**
+	 * 按实例比较的任务键（任务可能覆盖了equals）.
+	 */
+	private static final class TaskKey {
+
+		private final Runnable task;
+
+		TaskKey(Runnable task) {
+			this.task = task;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(task);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof TaskKey && ((TaskKey)obj).task == task;
+		}
+	}
+
+	/**
+	 * 统计拒绝数的处理器.
+	 */
+	private static final class CountingRejectedHandler implements RejectedExecutionHandler {
+
+		private final AtomicLong count = new AtomicLong();
+
+		private volatile RejectedExecutionHandler delegate;
+
+		CountingRejectedHandler(RejectedExecutionHandler delegate) {
+			if (delegate == null)
+				throw new NullPointerException();
+			this.delegate = delegate;
+		}
+
+		@Override
+		public void rejectedExecution(Runnable r, ThreadPoolExecutor executor) {
+			count.incrementAndGet();
+			RejectedExecutionHandler delegate = this.delegate;
+			if (executor instanceof InstrumentedThreadPoolExecutor) {	//未进入队列的任务不再记录提交时间
+				ConcurrentMap<TaskKey, Long> submitTimes = ((InstrumentedThreadPoolExecutor)executor).submitTimes;
+				submitTimes.remove(new TaskKey(r));
+				if (delegate instanceof DiscardOldestPolicy) {
+					Runnable oldest = executor.getQueue().peek();
+					if (oldest != null)
+						submitTimes.remove(new TaskKey(oldest));
+				}
+			}
+			delegate.rejectedExecution(r, executor);
+		}
+	}
+
+	/**
+	 * 按名称编号的线程工厂.
+	 */
+	static final class NamedThreadFactory implements ThreadFactory {
+
+		private final String prefix;
+
+		private final boolean daemon;
+
+		private final AtomicInteger sequence = new AtomicInteger();
+
+		NamedThreadFactory(String prefix, boolean daemon) {
+			this.prefix = prefix;
+			this.daemon = daemon;
+		}
+
+		@Override
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, prefix + "-" + sequence.incrementAndGet());
+			thread.setDaemon(daemon);
+			return thread;
+		}
+	}
+
+}
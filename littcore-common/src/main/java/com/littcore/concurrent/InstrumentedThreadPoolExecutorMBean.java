@@ -0,0 +1,71 @@
+package com.littcore.concurrent;
+
+/**
+ * 线程池监控接口.
+ * 
+ * <pre>
+ * <b>Description：</b>
+ * 	耗时单位均为微秒，核心及最大线程数可通过JMX直接调整
+ * </pre>
+ * 
+ * <pre>
+ * <b>Changelog：</b>
+ * 
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface InstrumentedThreadPoolExecutorMBean {
+	
+	public String getName();
+	
+	public int getCorePoolSize();
+	
+	public void setCorePoolSize(int corePoolSize);
+	
+	public int getMaximumPoolSize();
+	
+	public void setMaximumPoolSize(int maximumPoolSize);
+	
+	public int getPoolSize();
+	
+	public int getActiveCount();
+	
+	public int getQueueSize();
+	
+	public long getCompletedTaskCount();
+	
+	public long getRejectedCount();
+	
+	public long getFailedCount();
+	
+	public double getMeanQueueWait();
+	
+	public long getMaxQueueWait();
+	
+	public long get99thPercentileQueueWait();
+	
+	public double getMeanRunTime();
+	
+	public long getMaxRunTime();
+	
+	public long get99thPercentileRunTime();
+	
+	/**
+	 * 是否由ThreadPoolSizeController自动调整线程数.
+	 *
+	 * @return true, if is auto tuning
+	 */
+	public boolean isAutoTuning();
+	
+	public boolean isPaused();
+	
+	public void pause();
+	
+	public void resume();
+	
+	public void reset();
+
+}
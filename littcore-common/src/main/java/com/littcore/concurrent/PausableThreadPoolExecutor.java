@@ -13,12 +13,12 @@ import java.util.concurrent.locks.ReentrantLock;
  * 
  * <pre>
  * <b>Description：</b>
- * 
+ * 	未暂停时beforeExecute只读取一次volatile标志，不加锁
  * </pre>
  * 
  * <pre>
  * <b>Changelog：</b>
- * 
+ * 	2026-10-17 暂停标志改为volatile，未暂停时不再获取锁
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">Bob.cai</a>
@@ -27,7 +27,7 @@ import java.util.concurrent.locks.ReentrantLock;
  */
 public class PausableThreadPoolExecutor extends ThreadPoolExecutor {	
 
-	private boolean isPaused;
+	private volatile boolean isPaused;
 	private ReentrantLock pauseLock = new ReentrantLock();
 	private Condition unpaused = pauseLock.newCondition();
 	
@@ -90,6 +90,8 @@ public class PausableThreadPoolExecutor extends ThreadPoolExecutor {
 	@Override
 	protected void beforeExecute(Thread t, Runnable r) {
 		super.beforeExecute(t, r);
+		if (!isPaused)
+			return;
 		pauseLock.lock();
 		try {
 			while (isPaused)
@@ -110,6 +112,10 @@ public class PausableThreadPoolExecutor extends ThreadPoolExecutor {
 		}
 	}
 
+	public boolean isPaused() {
+		return isPaused;
+	}
+
 	public void resume() {
 		pauseLock.lock();
 		try {
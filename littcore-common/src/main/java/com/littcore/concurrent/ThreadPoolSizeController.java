@@ -0,0 +1,132 @@
+package com.littcore.concurrent;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 线程数自动调整器.
+ *
+ * <pre>
+ * <b>Description：</b>
+ * 	按固定周期读取线程池最近的排队时间（99%分位）：
+ * 	1、超过目标值时核心线程数增加25%（至少1个），不超过maxPoolSize；
+ * 	2、低于目标值的1/4（或周期内没有任务）且活动线程不到核心线程数的一半时减少1个，不低于minPoolSize。
+ * 	增加线程数时如超过最大线程数会同时调整最大线程数。
+ * 	注：使用无界队列的线程池不会超过核心线程数，因此调整的是核心线程数。
+ * </pre>
+ *
+ * <pre>
+ * <b>Changelog：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ThreadPoolSizeController implements Runnable {
+
+	private static final Logger logger = LoggerFactory.getLogger(ThreadPoolSizeController.class);
+
+	private final InstrumentedThreadPoolExecutor executor;
+
+	private final int minPoolSize;
+
+	private final int maxPoolSize;
+
+	/** 目标排队时间（毫秒）. */
+	private final long targetQueueLatency;
+
+	/** 调整周期（毫秒）. */
+	private long interval = 1000;
+
+	private ScheduledExecutorService scheduler;
+
+	public ThreadPoolSizeController(InstrumentedThreadPoolExecutor executor, int minPoolSize, int maxPoolSize, long targetQueueLatency) {
+		if (minPoolSize < 1 || maxPoolSize < minPoolSize)
+			throw new IllegalArgumentException("Invalid pool size range: " + minPoolSize + "-" + maxPoolSize);
+		this.executor = executor;
+		this.minPoolSize = minPoolSize;
+		this.maxPoolSize = maxPoolSize;
+		this.targetQueueLatency = targetQueueLatency;
+	}
+
+	/**
+	 * 启动.
+	 */
+	public synchronized void start() {
+		if (scheduler != null)
+			return;
+		scheduler = Executors.newSingleThreadScheduledExecutor(new InstrumentedThreadPoolExecutor.NamedThreadFactory(executor.getName() + "-tuner", true));
+		scheduler.scheduleWithFixedDelay(this, interval, interval, TimeUnit.MILLISECONDS);
+	}
+
+	/**
+	 * 停止.
+	 */
+	public synchronized void stop() {
+		if (scheduler != null) {
+			scheduler.shutdownNow();
+			scheduler = null;
+		}
+	}
+
+	@Override
+	public void run() {
+		try {
+			adjust(executor.drainRecentQueueWait());
+		} catch (RuntimeException e) {
+			logger.warn("Failed to adjust pool size of " + executor.getName(), e);
+		}
+	}
+
+	/**
+	 * 根据排队时间调整核心线程数.
+	 *
+	 * @param queueWait 99%分位排队时间（微秒），周期内没有任务时为-1
+	 * @return 调整后的核心线程数
+	 */
+	int adjust(long queueWait) {
+		int core = executor.getCorePoolSize();
+		long target = TimeUnit.MILLISECONDS.toMicros(targetQueueLatency);
+		int newCore = core;
+		if (queueWait > target) {
+			newCore = Math.min(maxPoolSize, core + Math.max(1, core / 4));
+		}
+		else if ((queueWait < 0 || queueWait < target / 4) && executor.getActiveCount() < core / 2.0) {
+			newCore = Math.max(minPoolSize, core - 1);
+		}
+		if (newCore < minPoolSize)
+			newCore = minPoolSize;
+		if (newCore == core)
+			return core;
+		if (newCore > executor.getMaximumPoolSize()) {
+			executor.setMaximumPoolSize(newCore);
+		}
+		executor.setCorePoolSize(newCore);
+		if (logger.isDebugEnabled())
+			logger.debug("Pool {} core size {} -> {} (queue wait p99 {}us)", new Object[]{executor.getName(), core, newCore, queueWait});
+		return newCore;
+	}
+
+	/**
+	 * @return the interval
+	 */
+	public long getInterval() {
+		return interval;
+	}
+
+	/**
+	 * 设置调整周期（毫秒），需在start前设置.
+	 *
+	 * @param interval the interval to set
+	 */
+	public void setInterval(long interval) {
+		this.interval = interval;
+	}
+
+}
@@ -4,29 +4,43 @@ package com.littcore.dao;
 import java.io.Serializable;
 import java.lang.reflect.InvocationTargetException;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
 import javax.annotation.Resource;
+import javax.sql.DataSource;
 
 import org.apache.commons.beanutils.BeanUtils;
 import org.apache.commons.collections.ListUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.hibernate.Hibernate;
 import org.hibernate.HibernateException;
 import org.hibernate.Query;
+import org.hibernate.ScrollMode;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.hibernate.criterion.DetachedCriteria;
 import org.hibernate.criterion.Restrictions;
+import org.hibernate.engine.SessionFactoryImplementor;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.orm.hibernate3.HibernateCallback;
+import org.springframework.orm.hibernate3.SessionFactoryUtils;
 import org.springframework.orm.hibernate3.support.HibernateDaoSupport;
 
 import com.littcore.common.Utility;
+import com.littcore.dao.dataset.IStreamingDataSet;
+import com.littcore.dao.dataset.ScrollableDataSet;
+import com.littcore.dao.dialect.DialectFactory;
+import com.littcore.dao.dialect.IDialect;
 import com.littcore.dao.page.HibernatePageList;
 import com.littcore.dao.page.IPageList;
+import com.littcore.dao.page.PageCountCache;
 import com.littcore.dao.ql.CondParam;
 import com.littcore.dao.ql.IQLResult;
 import com.littcore.dao.ql.PageParam;
@@ -47,6 +61,10 @@ import com.littcore.util.StringUtils;
  * <pre><b>修改记录：</b>
  * 	2013-02-19 增加通过Map方式读取和查询	
  *  2013-04-18 增加SimpleHQLBuilder，简化多表查询后的数组转换
+ *  2026-10-17 增加scroll流式查询，基于ScrollableResults逐行读取大结果集
+ *  2026-10-17 增加分页总记录数缓存，统计语句改为按词法分析生成
+ *  2026-10-17 批量保存/更新的批大小可配置（默认使用hibernate.jdbc.batch_size）
+ *  2026-10-17 scroll按数据库方言设置抓取行数，需要事务的游标（PostgreSQL）在事务内打开
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">空心大白菜</a>
@@ -57,6 +75,30 @@ public class BaseHibernateDao extends HibernateDaoSupport
 {
   private final static Log logger = LogFactory.getLog(BaseHibernateDao.class);
   
+  /** 
+   * 分页总记录数缓存.
+   * 为空时每次分页都重新统计
+   */
+  private PageCountCache countCache;
+  
+  /** 未配置hibernate.jdbc.batch_size时批量保存的默认批大小. */
+  public static final int DEFAULT_BATCH_SIZE = 20;
+  
+  /** 
+   * 批量保存/更新时每批的对象数，达到后flush并clear会话.
+   * 为0时使用hibernate.jdbc.batch_size的配置
+   */
+  private int batchSize = 0;
+  
+  /** 
+   * 数据库方言（用于流式查询的抓取设置）.
+   * 为空时根据SessionFactory的数据源自动检测
+   */
+  private IDialect dialect;
+  
+  /** 是否已检测过方言. */
+  private volatile boolean dialectResolved = false;
+  
   /**
    * annotation方式初始化DAO时优于XML配置，会导致找不到SessionFactory
    * @param sessionFactory
@@ -102,6 +144,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 				return Integer.valueOf(updateCount);
 			}
 		});
+		this.afterUpdate(hql);
 		return updateCount.intValue();
 	}
 	
@@ -129,6 +172,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 				return new Integer(updateCount);
 			}
 		});
+		this.afterUpdate(hql);
 		return updateCount.intValue();
 	}	
 	
@@ -156,6 +200,10 @@ public class BaseHibernateDao extends HibernateDaoSupport
 				return new Integer(updateCount);
 			}
 		});
+		for(int i=0;i<hql.length;i++)
+		{
+			this.afterUpdate(hql[i]);
+		}
 		return updateCount.intValue();
 	}
 	
@@ -336,17 +384,23 @@ public class BaseHibernateDao extends HibernateDaoSupport
      */
 	public Serializable save(Object obj)
 	{
-		return getHibernateTemplate().save(obj);
+		Serializable id = getHibernateTemplate().save(obj);
+		this.afterEntityChanged(obj);
+		return id;
 	}	
 	
 	// 使用HSQL语句直接增加、更新、删除实体
     public int bulkUpdate(String queryString) {
-        return getHibernateTemplate().bulkUpdate(queryString);
+        int updateCount = getHibernateTemplate().bulkUpdate(queryString);
+        this.afterUpdate(queryString);
+        return updateCount;
     }
 
     // 使用带参数的HSQL语句增加、更新、删除实体
     public int bulkUpdate(String queryString, Object[] values) {
-        return getHibernateTemplate().bulkUpdate(queryString, values);
+        int updateCount = getHibernateTemplate().bulkUpdate(queryString, values);
+        this.afterUpdate(queryString);
+        return updateCount;
     }
 	
 	/**
@@ -359,25 +413,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 	{
 		if(objs == null || objs.length==0)
 			return; 
-		final Object[] temp = objs;
-		
-		getHibernateTemplate().execute(new HibernateCallback() {
-
-			public Object doInHibernate(Session session)
-					throws HibernateException, SQLException {
-				
-				for(int i=0;i<temp.length;i++)
-		        {	
-					session.save(temp[i]);
-					if(i%20==0) //以每20个数据作为一个处理单元 
-					{
-						session.flush(); //保持与数据库数据的同步 
-						session.clear(); //清除内部缓存的全部数据，及时释放出占用的内存 
-					}
-		        }				
-				return null;
-			}
-		});
+		this.doBatch(Arrays.asList(objs), false);
 	}
 	
 	/**
@@ -388,28 +424,77 @@ public class BaseHibernateDao extends HibernateDaoSupport
      */
 	public void saveBatch(List objs)
 	{
-		if(objs == null || objs.isEmpty())
-			return; 
-		final List temp = objs;
-		
-		getHibernateTemplate().execute(new HibernateCallback() {
+		this.doBatch(objs, false);
+	}
+	
+	/**
+	 * 批量保存.
+	 * 每batchSize个对象flush一次（配合hibernate.jdbc.batch_size合并为JDBC批量语句）并清空会话缓存，
+	 * 对象逐个从迭代器中读取，不需要一次性加载到内存.
+	 * 
+	 * @param entities 实体
+	 */
+	public void batchSave(Iterable<?> entities)
+	{
+		this.doBatch(entities, false);
+	}
+	
+	/**
+	 * 执行批量保存或更新.
+	 * 
+	 * @param entities 实体
+	 * @param isUpdate 是否为更新
+	 */
+	private void doBatch(final Iterable<?> entities, final boolean isUpdate)
+	{
+		if(entities == null)
+			return;
+		final int size = this.getEffectiveBatchSize();
+		Object first = getHibernateTemplate().execute(new HibernateCallback() {
 
 			public Object doInHibernate(Session session)
 					throws HibernateException, SQLException {
-				
-				for(int i=0;i<temp.size();i++)
+				Object first = null;
+				int count = 0;
+				for(Iterator<?> iterator = entities.iterator(); iterator.hasNext();)
 		        {	
-					session.save(temp.get(i));
-					if(i%20==0) //以每20个数据作为一个处理单元 
+					Object entity = iterator.next();
+					if(first==null)
+						first = entity;
+					if(isUpdate)
+						session.update(entity);
+					else
+						session.save(entity);
+					if(++count%size==0) //以每批数据作为一个处理单元 
 					{
 						session.flush(); //保持与数据库数据的同步 
 						session.clear(); //清除内部缓存的全部数据，及时释放出占用的内存 
 					}
 		        }				
-				return null;
+				return first;
 			}
 		});
-	}		
+		this.afterEntityChanged(first);
+	}
+	
+	/**
+	 * 实际使用的批大小.
+	 * 
+	 * @return the batch size
+	 */
+	protected int getEffectiveBatchSize()
+	{
+		if(batchSize>0)
+			return batchSize;
+		SessionFactory sessionFactory = getSessionFactory();
+		if(sessionFactory instanceof SessionFactoryImplementor)
+		{
+			int jdbcBatchSize = ((SessionFactoryImplementor)sessionFactory).getSettings().getJdbcBatchSize();
+			if(jdbcBatchSize>0)
+				return jdbcBatchSize;
+		}
+		return DEFAULT_BATCH_SIZE;
+	}
 		
 	
 	/**
@@ -419,6 +504,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 	public void update(Object obj)
 	{
 		getHibernateTemplate().update(obj);
+		this.afterEntityChanged(obj);
 	}
 	
 	/**
@@ -431,25 +517,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 	{
 		if(objs == null || objs.length == 0)
 			return; 
-		final Object[] temp = objs;
-		
-		getHibernateTemplate().execute(new HibernateCallback() {
-
-			public Object doInHibernate(Session session)
-					throws HibernateException, SQLException {
-				
-				for(int i=0;i<temp.length;i++)
-		        {	
-					session.update(temp[i]);
-					if(i%20==0) //以每20个数据作为一个处理单元 
-					{
-						session.flush(); //保持与数据库数据的同步 
-						session.clear(); //清除内部缓存的全部数据，及时释放出占用的内存 
-					}
-		        }				
-				return null;
-			}
-		});
+		this.doBatch(Arrays.asList(objs), true);
 	}	
 	
 	/**
@@ -460,29 +528,20 @@ public class BaseHibernateDao extends HibernateDaoSupport
      */
 	public void updateBatch(List objs)
 	{
-		if(objs == null || objs.isEmpty())
-			return; 
-		final List temp = objs;
-		
-		getHibernateTemplate().execute(new HibernateCallback() {
-
-			public Object doInHibernate(Session session)
-					throws HibernateException, SQLException {
-				
-				for(int i=0;i<temp.size();i++)
-		        {	
-					session.update(temp.get(i));
-					if(i%20==0) //以每20个数据作为一个处理单元 
-					{
-						session.flush(); //保持与数据库数据的同步 
-						session.clear(); //清除内部缓存的全部数据，及时释放出占用的内存 
-					}
-		        }				
-				return null;
-			}
-		});
+		this.doBatch(objs, true);
 	}		
 	
+	/**
+	 * 批量更新.
+	 * 
+	 * @param entities 实体
+	 * @see #batchSave(Iterable)
+	 */
+	public void batchUpdate(Iterable<?> entities)
+	{
+		this.doBatch(entities, true);
+	}
+	
 	/**
 	 * 根据HQL更新.
 	 * 
@@ -506,11 +565,13 @@ public class BaseHibernateDao extends HibernateDaoSupport
 				return null;
 			}
 		});
+		this.afterUpdate(hql);
 	}	
 	
 	public void saveOrUpdate(Object entity)
     {
         getHibernateTemplate().saveOrUpdate(entity);
+        this.afterEntityChanged(entity);
     }
 	
 	public void saveOrUpdateBatch(Collection entities)
@@ -520,6 +581,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 		for (Object obj:entities) {
 			getHibernateTemplate().saveOrUpdate(obj);
 		}
+		this.afterEntityChanged(entities.iterator().next());
 
     }
 	
@@ -530,6 +592,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 	public void delete(Object obj)
   {
 	  getHibernateTemplate().delete(obj);
+	  this.afterEntityChanged(obj);
   } 
 	
 	public void deleteBatch(Collection objs)
@@ -537,6 +600,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 		if(objs == null || objs.isEmpty())
 			return; 
         getHibernateTemplate().deleteAll(objs);
+        this.afterEntityChanged(objs.iterator().next());
     } 
 	
     /**
@@ -547,7 +611,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
      */
 	public void delete(Class className, Serializable id)
     {
-        getHibernateTemplate().delete(this.load(className, id));
+        this.delete(this.load(className, id));
     } 	
     
     /**
@@ -576,7 +640,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 		hql.append(" where ");
 		hql.append(idenityName);
 		hql.append("=?");
-    getHibernateTemplate().bulkUpdate(hql.toString(), id);
+    this.bulkUpdate(hql.toString(), new Object[]{id});
 //		final String temp = hql.toString();
 //		getHibernateTemplate().execute(new HibernateCallback() {
 //
@@ -608,7 +672,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
 		hql.append(StringUtils.join(conds, ","));
 		hql.append(')');
 		
-		getHibernateTemplate().bulkUpdate(hql.toString(), ids);
+		this.bulkUpdate(hql.toString(), ids);
 	}
 	
 	/**
@@ -685,6 +749,95 @@ public class BaseHibernateDao extends HibernateDaoSupport
 		criteria.add(Restrictions.allEq(propertyNameValues));
 		return (List<T>)getHibernateTemplate().findByCriteria(criteria);
 	}
+	
+	/**
+	 * Hibernate流式查询.
+	 * 
+	 * @param listHql 查询的HQL语句
+	 * @param params 参数数组
+	 * 
+	 * @return 流式结果集（使用完毕必须关闭）
+	 * @see #scroll(String, Object[], int)
+	 */
+	public <T> IStreamingDataSet<T> scroll(String listHql, Object[] params)
+	{
+		return this.scroll(listHql, params, BaseJdbcDao.DEFAULT_FETCH_SIZE);
+	}
+	
+	/**
+	 * 动态HQL流式查询.
+	 * 
+	 * @param qlResult 动态QL结果
+	 * @param fetchSize 每批抓取行数
+	 * 
+	 * @return 流式结果集（使用完毕必须关闭）
+	 */
+	public <T> IStreamingDataSet<T> scroll(IQLResult qlResult, int fetchSize)
+	{
+		return this.scroll(qlResult.generate(), qlResult.getParams(), fetchSize);
+	}
+	
+	/**
+	 * Hibernate流式查询.
+	 * 基于只进的ScrollableResults按批读取，适用于大数据量导出。
+	 * 查询使用独立的StatelessSession（不缓存实体、不支持延迟加载），结果集关闭（或读取到末尾）时关闭会话，
+	 * 调用方应在finally中关闭结果集.
+	 * 
+	 * @param listHql 查询的HQL语句
+	 * @param params 参数数组
+	 * @param fetchSize 每批抓取行数
+	 * 
+	 * @return 流式结果集（使用完毕必须关闭）
+	 */
+	public <T> IStreamingDataSet<T> scroll(String listHql, Object[] params, int fetchSize)
+	{
+		IDialect dialect = resolveDialect();
+		StatelessSession session = getSessionFactory().openStatelessSession();
+		Transaction tx = null;
+		try {
+			if(dialect!=null && dialect.isCursorRequiresTransaction())
+				tx = session.beginTransaction();	//自动提交时驱动会一次读取全部结果，游标需在事务内打开
+			Query query = session.createQuery(listHql);
+			query.setFetchSize(dialect==null ? fetchSize : dialect.getStreamingFetchSize(fetchSize));
+			query.setReadOnly(true);
+			if(params!=null)
+			{
+				for(int i=0;i<params.length;i++)
+				{
+					query.setParameter(i, params[i]);
+				}
+			}
+			String[] aliases = query.getReturnAliases();
+			return new ScrollableDataSet<T>(query.scroll(ScrollMode.FORWARD_ONLY), session, tx, aliases);
+		} catch (HibernateException e) {
+			try {
+				if(tx!=null)
+					tx.rollback();
+			} catch (HibernateException ex) {
+				logger.warn("Unable to rollback scroll transaction.", ex);
+			}
+			session.close();
+			throw SessionFactoryUtils.convertHibernateAccessException(e);
+		}
+	}
+	
+	/**
+	 * 获得流式查询使用的方言.
+	 * 未设置时根据SessionFactory的数据源检测一次，无法检测时返回NULL（按原样设置抓取行数）.
+	 * 
+	 * @return 方言
+	 */
+	private IDialect resolveDialect()
+	{
+		if(dialect==null && !dialectResolved)
+		{
+			DataSource dataSource = SessionFactoryUtils.getDataSource(getSessionFactory());
+			if(dataSource!=null)
+				this.dialect = DialectFactory.getDialect(dataSource);
+			this.dialectResolved = true;
+		}
+		return dialect;
+	}
     
 	/**
      * Hibernate分页查询.
@@ -804,7 +957,7 @@ public class BaseHibernateDao extends HibernateDaoSupport
      */
     public IPageList listPage(String listHql,String countHql,int pageIndex,int pageSize)
     {
-        int totalSize = count(countHql);
+        int totalSize = countForPage(countHql, null, pageIndex);
         
         IPageList page = new HibernatePageList();
         page.setPageIndex(pageIndex);
@@ -827,13 +980,13 @@ public class BaseHibernateDao extends HibernateDaoSupport
      */
     public IPageList listPage(String listHql,String countHql,Object[] params,int pageIndex,int pageSize)
     {
-      int totalSize = count(countHql, params);
+      int totalSize = countForPage(countHql, params, pageIndex);
       return this.listPage(listHql, totalSize, params, pageIndex, pageSize, true);
     } 
     
     public IPageList listPage(String listHql,String countHql,Object[] params,int pageIndex,int pageSize, boolean enableEdgeCheck)
     {
-      int totalSize = count(countHql, params);
+      int totalSize = countForPage(countHql, params, pageIndex);
       return this.listPage(listHql, totalSize, params, pageIndex, pageSize, enableEdgeCheck);
     }
     
@@ -909,6 +1062,54 @@ public class BaseHibernateDao extends HibernateDaoSupport
     	return this.listPage(listResult.generate(), dynamicCountHql, listResult.getParams(), pageParam.getPageIndex(), pageParam.getPageSize(), pageParam.isEnableEdgeCheck());
     }  
     
+    /**
+     * 分页时统计总记录数.
+     * 设置了总记录数缓存时，第一页总是重新统计，其他页优先使用缓存
+     * 
+     * @param countHql 查询记录数的HQL
+     * @param params 查询参数数组（可为NULL）
+     * @param pageIndex 当前页码
+     * @return 结果集记录数
+     */
+    protected int countForPage(String countHql, Object[] params, int pageIndex)
+    {
+    	if(countCache!=null && pageIndex>1)
+    	{
+    		Integer count = countCache.get(countHql, params);
+    		if(count!=null)
+    			return count.intValue();
+    	}
+    	int count = params==null ? this.count(countHql) : this.count(countHql, params);
+    	if(countCache!=null)
+    		countCache.put(countHql, params, count);
+    	return count;
+    }
+    
+    /**
+     * 更新语句执行后清除相关的总记录数缓存.
+     * 
+     * @param hql 更新语句
+     */
+    protected void afterUpdate(String hql)
+    {
+    	if(countCache!=null)
+    		countCache.invalidateByUpdate(hql);
+    }
+    
+    /**
+     * 实体变更后清除统计语句中包含该实体的总记录数缓存.
+     * 
+     * @param entity 实体
+     */
+    protected void afterEntityChanged(Object entity)
+    {
+    	if(countCache!=null && entity!=null)
+    	{
+    		Class<?> entityClass = entity instanceof Class ? (Class<?>)entity : Hibernate.getClass(entity);
+    		countCache.invalidate(entityClass.getSimpleName());
+    	}
+    }
+    
     /**
      * hibernate 的count 查询
      * @param dynamicHql
@@ -957,4 +1158,64 @@ public class BaseHibernateDao extends HibernateDaoSupport
     }
     
 	
+
+	/**
+	 * @return the dialect
+	 */
+	public IDialect getDialect()
+	{
+		return dialect;
+	}
+
+	/**
+	 * @param dialect the dialect to set
+	 */
+	public void setDialect(IDialect dialect)
+	{
+		this.dialect = dialect;
+	}
+
+	/**
+	 * 设置方言名称.
+	 * 可以是内置方言名称（mysql、oracle、postgresql、sqlserver、ansi等）或方言实现类的全名，未设置时自动检测.
+	 *
+	 * @param dialectName 方言名称
+	 */
+	public void setDialectName(String dialectName)
+	{
+		if(!BaseJdbcDao.DIALECT_AUTO.equalsIgnoreCase(dialectName))
+			this.dialect = DialectFactory.getDialect(dialectName);
+	}
+
+	/**
+	 * @return the batchSize
+	 */
+	public int getBatchSize()
+	{
+		return batchSize;
+	}
+
+	/**
+	 * @param batchSize the batchSize to set
+	 */
+	public void setBatchSize(int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return the countCache
+	 */
+	public PageCountCache getCountCache()
+	{
+		return countCache;
+	}
+
+	/**
+	 * @param countCache the countCache to set
+	 */
+	public void setCountCache(PageCountCache countCache)
+	{
+		this.countCache = countCache;
+	}
 }
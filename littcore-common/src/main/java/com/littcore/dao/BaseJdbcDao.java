@@ -5,21 +5,34 @@ import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+
+import javax.sql.DataSource;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.springframework.dao.DataAccessException;
 import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
 import org.springframework.jdbc.core.PreparedStatementCreator;
 import org.springframework.jdbc.core.ResultSetExtractor;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcDaoSupport;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.jdbc.support.KeyHolder;
 
+import com.littcore.dao.dataset.IStreamingDataSet;
+import com.littcore.dao.dataset.ResultSetDataSet;
+import com.littcore.dao.dialect.DialectFactory;
+import com.littcore.dao.dialect.IDialect;
 import com.littcore.dao.page.IPageList;
 import com.littcore.dao.page.JdbcPageList;
+import com.littcore.dao.page.PageCountCache;
 import com.littcore.dao.ql.CondParam;
 import com.littcore.dao.ql.IQLResult;
 import com.littcore.dao.ql.PageParam;
@@ -33,7 +46,11 @@ import com.littcore.dao.ql.QLCondBuilder;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- * 
+ *    2026-10-17 增加数据库方言，设置方言后分页查询由数据库端完成，不再遍历整个结果集
+ *    2026-10-17 增加stream流式查询，基于数据库游标逐行读取大结果集
+ *    2026-10-17 增加分页总记录数缓存，翻页时不必重复统计
+ *    2026-10-17 增加batchUpdate/batchSave批量写入，支持批大小、分段提交及返回主键
+ *    2026-10-17 分段提交时任何异常（含运行时异常）都先回滚未提交的部分，再恢复自动提交
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">空心大白菜</a>
@@ -43,6 +60,46 @@ import com.littcore.dao.ql.QLCondBuilder;
 public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
 {
     private final static Log logger = LogFactory.getLog(BaseJdbcDao.class);
+    
+    /** 自动检测方言的名称. */
+    public static final String DIALECT_AUTO = "auto";
+    
+    /** 流式查询默认的每批抓取行数. */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+    
+    /** 批量写入默认的每批行数. */
+    public static final int DEFAULT_BATCH_SIZE = 500;
+    
+    /** 
+     * 数据库方言.
+     * 为空时在结果集中分页（兼容原有行为）
+     */
+    private IDialect dialect;
+    
+    /** 是否根据数据源自动检测方言. */
+    private boolean autoDetectDialect = false;
+    
+    /** 
+     * 分页总记录数缓存.
+     * 为空时每次分页都重新统计
+     */
+    private PageCountCache countCache;
+    
+    /** 批量写入的每批行数. */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    
+    /* (non-Javadoc)
+     * @see org.springframework.dao.support.DaoSupport#initDao()
+     */
+    @Override
+    protected void initDao() throws Exception
+    {
+    	super.initDao();
+    	if(dialect==null && autoDetectDialect)
+    	{
+    		this.dialect = DialectFactory.getDialect(getDataSource());
+    	}
+    }
    
  
     /**
@@ -53,6 +110,7 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
     public void execute(String sql)
     {
     	getJdbcTemplate().execute(sql);
+    	this.afterUpdate(sql);
     }
     
     /**
@@ -68,6 +126,7 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
     		logger.debug("调用的SQL为："+sql);
     	}    	
     	getJdbcTemplate().update(sql, params);    	
+    	this.afterUpdate(sql);
     }  
     
     /**
@@ -85,6 +144,7 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
     		logger.debug("调用的SQL为："+ finalSql);
     	} 
     	getJdbcTemplate().update(finalSql, qlResult.getParams());    	
+    	this.afterUpdate(finalSql);
     }  
  
     /**
@@ -115,10 +175,191 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
              return ps;  
         }  
       }, holder);  
+      this.afterUpdate(sql);
     
       return holder.getKey();
     }
     
+    /**
+     * 批量执行更新语句.
+     * 
+     * @param sql 更新语句
+     * @param batchArgs 每行的参数
+     * @return 影响的记录数
+     * @see #batchUpdate(String, Iterable, int, int)
+     */
+    public int batchUpdate(String sql, Iterable<Object[]> batchArgs)
+    {
+    	return this.batchUpdate(sql, batchArgs, batchSize, 0);
+    }
+    
+    /**
+     * 批量执行更新语句.
+     * 参数逐行从batchArgs中读取并按批提交给数据库（JDBC addBatch/executeBatch），不会一次性加载到内存，
+     * 可直接传入流式结果集转换后的迭代器。MySQL需在连接参数中设置rewriteBatchedStatements=true才会合并为多行语句。
+     * 
+     * commitSize大于0且当前连接不在Spring事务中时，每commitSize行提交一次（失败时已提交的部分不会回滚）；
+     * 在事务中时由事务统一提交，忽略该参数.
+     * 
+     * @param sql 更新语句
+     * @param batchArgs 每行的参数
+     * @param batchSize 每批行数
+     * @param commitSize 每次提交的行数（0为不分段提交）
+     * @return 影响的记录数
+     */
+    public int batchUpdate(String sql, Iterable<Object[]> batchArgs, int batchSize, int commitSize)
+    {
+    	int count = this.doBatch(sql, batchArgs, batchSize, commitSize, null);
+    	this.afterUpdate(sql);
+    	return count;
+    }
+    
+    /**
+     * 批量插入并返回自动生成的主键.
+     * 
+     * @param sql 插入语句
+     * @param batchArgs 每行的参数
+     * @return 按插入顺序的主键列表
+     */
+    public List<Number> batchSave(String sql, Iterable<Object[]> batchArgs)
+    {
+    	return this.batchSave(sql, batchArgs, batchSize, 0);
+    }
+    
+    /**
+     * 批量插入并返回自动生成的主键.
+     * 主键通过Statement.getGeneratedKeys()在每批执行后读取，需要驱动支持批量返回主键（MySQL、PostgreSQL、SQL Server等）.
+     * 
+     * @param sql 插入语句
+     * @param batchArgs 每行的参数
+     * @param batchSize 每批行数
+     * @param commitSize 每次提交的行数（0为不分段提交）
+     * @return 按插入顺序的主键列表
+     * @see #batchUpdate(String, Iterable, int, int)
+     */
+    public List<Number> batchSave(String sql, Iterable<Object[]> batchArgs, int batchSize, int commitSize)
+    {
+    	List<Number> keys = new ArrayList<Number>();
+    	this.doBatch(sql, batchArgs, batchSize, commitSize, keys);
+    	this.afterUpdate(sql);
+    	return keys;
+    }
+    
+    /**
+     * 执行批量更新.
+     * 
+     * @param keys 不为NULL时读取自动生成的主键
+     * @return 影响的记录数
+     */
+    private int doBatch(final String sql, final Iterable<Object[]> batchArgs, final int batchSize, final int commitSize, final List<Number> keys)
+    {
+    	if(batchSize<=0)
+    		throw new IllegalArgumentException("Batch size must be positive: "+batchSize);
+    	if(logger.isDebugEnabled())
+		{
+			logger.debug("批量执行的SQL语句 - "+sql);
+		}
+    	Integer count = getJdbcTemplate().execute(new ConnectionCallback<Integer>() {
+
+			public Integer doInConnection(Connection con) throws SQLException, DataAccessException {
+				//只有不在Spring事务中时才允许分段提交
+				boolean chunkCommit = commitSize>0 && !DataSourceUtils.isConnectionTransactional(con, getDataSource());
+				boolean autoCommit = con.getAutoCommit();
+				if(chunkCommit && autoCommit)
+					con.setAutoCommit(false);
+				PreparedStatement ps = null;
+				boolean success = false;
+				try {
+					ps = keys==null ? con.prepareStatement(sql) : con.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS);
+					int count = 0;
+					int rows = 0;
+					int pending = 0;
+					int uncommitted = 0;
+					for(Iterator<Object[]> iterator = batchArgs.iterator(); iterator.hasNext();)
+					{
+						new ArgumentPreparedStatementSetter(iterator.next()).setValues(ps);
+						ps.addBatch();
+						rows++;
+						pending++;
+						uncommitted++;
+						if(pending>=batchSize)
+						{
+							count += executeBatch(ps, keys);
+							pending = 0;
+						}
+						if(chunkCommit && uncommitted>=commitSize)
+						{
+							if(pending>0)
+							{
+								count += executeBatch(ps, keys);
+								pending = 0;
+							}
+							con.commit();
+							uncommitted = 0;
+						}
+					}
+					if(pending>0)
+						count += executeBatch(ps, keys);
+					if(chunkCommit)
+						con.commit();
+					success = true;
+					if(logger.isDebugEnabled())
+					{
+						logger.debug("批量执行完成，共"+rows+"行");
+					}
+					return Integer.valueOf(count);
+				} finally {
+					JdbcUtils.closeStatement(ps);
+					if(chunkCommit && !success)
+					{
+						try {
+							con.rollback();	//只回滚未提交的部分，原异常继续抛出
+						} catch (SQLException e) {
+							logger.warn("Unable to rollback batch update.", e);
+						}
+					}
+					if(chunkCommit && autoCommit)
+						con.setAutoCommit(true);
+				}
+			}
+		});
+    	return count.intValue();
+    }
+    
+    /**
+     * 执行一批语句.
+     * 
+     * @param ps the ps
+     * @param keys 不为NULL时读取自动生成的主键
+     * @return 影响的记录数
+     * @throws SQLException the SQL exception
+     */
+    private static int executeBatch(PreparedStatement ps, List<Number> keys) throws SQLException
+    {
+    	int[] results = ps.executeBatch();
+    	int count = 0;
+    	for(int i=0;i<results.length;i++)
+    	{
+    		if(results[i]>0)
+    			count += results[i];
+    		else if(results[i]==Statement.SUCCESS_NO_INFO)	//驱动无法返回影响行数时按1行计算
+    			count++;
+    	}
+    	if(keys!=null)
+    	{
+    		ResultSet rs = ps.getGeneratedKeys();
+    		try {
+    			while(rs.next())
+    			{
+    				keys.add((Number)rs.getObject(1));
+    			}
+    		} finally {
+    			JdbcUtils.closeResultSet(rs);
+    		}
+    	}
+    	return count;
+    }
+    
     /**
      * 基于动态sql的更新.
      * 
@@ -180,6 +421,83 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
 		IQLResult qlResult = QLCondBuilder.generate(dynamicSql, condParam);
 		return this.listAll(qlResult);
 	}
+	
+	/**
+	 * JDBC流式查询.
+	 * 
+	 * @param listSql 查询SQL语句
+	 * @param params 参数数组
+	 * 
+	 * @return 流式结果集（使用完毕必须关闭）
+	 * @see #stream(String, Object[], int)
+	 */
+	public IStreamingDataSet<Map<String, Object>> stream(String listSql, Object[] params)
+	{
+		return this.stream(listSql, params, DEFAULT_FETCH_SIZE);
+	}
+	
+	/**
+	 * 动态SQL流式查询.
+	 * 
+	 * @param qlResult 动态SQL结果
+	 * @param fetchSize 每批抓取行数
+	 * 
+	 * @return 流式结果集（使用完毕必须关闭）
+	 */
+	public IStreamingDataSet<Map<String, Object>> stream(IQLResult qlResult, int fetchSize)
+	{
+		return this.stream(qlResult.generate(), qlResult.getParams(), fetchSize);
+	}
+	
+	/**
+	 * JDBC流式查询.
+	 * 使用只进游标按批从数据库读取，内存中只保留当前批次，适用于大数据量导出。
+	 * 连接在结果集关闭（或读取到末尾）时才归还，调用方应在finally中关闭结果集。
+	 * 设置了方言时按方言调整游标参数（如MySQL的逐行读取、PostgreSQL需关闭自动提交）.
+	 * 
+	 * @param listSql 查询SQL语句
+	 * @param params 参数数组
+	 * @param fetchSize 每批抓取行数
+	 * 
+	 * @return 流式结果集（使用完毕必须关闭）
+	 */
+	public IStreamingDataSet<Map<String, Object>> stream(String listSql, Object[] params, int fetchSize)
+	{
+		if(logger.isDebugEnabled())
+		{
+			logger.debug("调用的SQL语句 - "+listSql);
+		}
+		DataSource dataSource = getDataSource();
+		Connection con = DataSourceUtils.getConnection(dataSource);
+		PreparedStatement ps = null;
+		ResultSet rs = null;
+		boolean resetAutoCommit = false;
+		try {
+			if(dialect!=null && dialect.isCursorRequiresTransaction() && con.getAutoCommit())
+			{
+				con.setAutoCommit(false);
+				resetAutoCommit = true;
+			}
+			ps = con.prepareStatement(listSql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			ps.setFetchSize(dialect==null ? fetchSize : dialect.getStreamingFetchSize(fetchSize));
+			new ArgumentPreparedStatementSetter(params).setValues(ps);
+			rs = ps.executeQuery();
+			return new ResultSetDataSet(rs, ps, con, dataSource, resetAutoCommit, getExceptionTranslator(), listSql);
+		} catch (SQLException e) {
+			JdbcUtils.closeResultSet(rs);
+			JdbcUtils.closeStatement(ps);
+			if(resetAutoCommit)
+			{
+				try {
+					con.setAutoCommit(true);
+				} catch (SQLException ex) {
+					logger.warn("Unable to reset auto-commit.", ex);
+				}
+			}
+			DataSourceUtils.releaseConnection(con, dataSource);
+			throw getExceptionTranslator().translate("stream", listSql, e);
+		}
+	}
     
 	/**
      * JDBC分页查询.
@@ -191,6 +509,10 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
      */
     public IPageList listPage(String listSql,int pageIndex,int pageSize)
 	{
+    	if(dialect!=null && pageSize>0)	//数据库端分页
+    	{
+    		return this.listPage(listSql, dialect.getCountString(listSql), null, pageIndex, pageSize);
+    	}
 		if(logger.isDebugEnabled())
 		{
 			logger.debug("调用的SQL语句 - "+listSql);
@@ -220,6 +542,10 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
      */
     public IPageList listPage(String listSql,Object[] params,int pageIndex,int pageSize)
 	{
+    	if(dialect!=null && pageSize>0)	//数据库端分页
+    	{
+    		return this.listPage(listSql, dialect.getCountString(listSql), params, pageIndex, pageSize);
+    	}
 		if(logger.isDebugEnabled())
 		{
 			logger.debug("调用的SQL语句 - "+listSql);
@@ -250,9 +576,73 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
 	 */
     public IPageList listPage(IQLResult qlResult)
 	{
+    	if(dialect!=null && qlResult.getPageSize()>0)	//数据库端分页
+    	{
+    		String listSql = qlResult.generate();
+    		return this.listPage(listSql, dialect.getCountString(listSql), qlResult.getParams(), qlResult.getPageIndex(), qlResult.getPageSize());
+    	}
         return this.listPage(qlResult.generate(), qlResult.getParams(), qlResult.getPageIndex(), qlResult.getPageSize());			
 	} 
     
+    /**
+     * JDBC分页查询(数据库端分页).
+     * 先通过统计语句获得总记录数，再根据方言改写查询语句只获取当前页的记录；未设置方言时在结果集中分页.
+     * 
+     * @param listSql 查询SQL语句
+     * @param countSql 统计记录数的SQL语句
+     * @param params 查询条件
+     * @param pageIndex 页码
+     * @param pageSize 每页显示数
+     * @return IPageList分页对象
+     */
+    public IPageList listPage(String listSql, String countSql, Object[] params, int pageIndex, int pageSize)
+    {
+    	if(dialect==null || pageSize<=0)	//未设置方言或查询全部时在结果集中分页
+    	{
+    		return this.listPageInResultSet(listSql, params, pageIndex, pageSize);
+    	}
+    	final JdbcPageList page = new JdbcPageList();
+    	page.setPageIndex(pageIndex<1 ? 1 : pageIndex);
+    	page.setPageSize(pageSize);
+    	page.setTotalSize(this.countForPage(countSql, params, pageIndex));	//该方法将计算pageIndex是否超出最大页数
+    	if(page.getTotalSize()==0)
+    	{
+    		page.setPageIndex(1);
+    		page.setRsList(new ArrayList());
+    		return page;
+    	}
+    	int offset = (page.getPageIndex() - 1) * pageSize;
+    	String pageSql = dialect.getLimitString(listSql, offset>0);
+    	if(logger.isDebugEnabled())
+		{
+			logger.debug("调用的SQL语句 - "+pageSql);
+		}
+    	getJdbcTemplate().query(pageSql, dialect.bindLimitParams(params, offset, pageSize), new ResultSetExtractor(){
+
+			public Object extractData(ResultSet rs) throws SQLException, DataAccessException {
+				page.populatePage(rs);
+				return null;
+			}			
+		});	
+    	return page;
+    }
+    
+    /**
+     * 在结果集中分页.
+     *
+     * @param listSql 查询SQL语句
+     * @param params 查询条件
+     * @param pageIndex 页码
+     * @param pageSize 每页显示数
+     * @return IPageList分页对象
+     */
+    private IPageList listPageInResultSet(String listSql, Object[] params, int pageIndex, int pageSize)
+    {
+    	if(params==null)
+    		return this.listPage(listSql, pageIndex, pageSize);
+    	return this.listPage(listSql, params, pageIndex, pageSize);
+    }
+    
 	/**
 	 * JDBC分页查询.
 	 * 
@@ -321,4 +711,105 @@ public class BaseJdbcDao extends NamedParameterJdbcDaoSupport
     	IQLResult qlResult = QLCondBuilder.generate(dynamicSql, pageParam);
         return this.count(qlResult);
 	} 
+
+    /**
+     * 分页时统计总记录数.
+     * 设置了总记录数缓存时，第一页总是重新统计，其他页优先使用缓存
+     * 
+     * @param countSql 查询记录数的SQL语句
+     * @param params 查询条件
+     * @param pageIndex 页码
+     * @return 结果集记录数
+     */
+    protected int countForPage(String countSql, Object[] params, int pageIndex)
+    {
+    	if(countCache==null)
+    		return this.count(countSql, params);
+    	if(pageIndex>1)
+    	{
+    		Integer count = countCache.get(countSql, params);
+    		if(count!=null)
+    			return count.intValue();
+    	}
+    	int count = this.count(countSql, params);
+    	countCache.put(countSql, params, count);
+    	return count;
+    }
+    
+    /**
+     * 更新语句执行后清除相关的总记录数缓存.
+     * 
+     * @param sql 更新语句
+     */
+    protected void afterUpdate(String sql)
+    {
+    	if(countCache!=null)
+    		countCache.invalidateByUpdate(sql);
+    }
+
+    /**
+	 * 设置方言名称.
+	 * 可以是内置方言名称（mysql、oracle、postgresql、sqlserver、ansi等）、方言实现类的全名或"auto"（根据数据源自动检测）.
+	 *
+	 * @param dialectName 方言名称
+	 */
+	public void setDialectName(String dialectName)
+	{
+		if(DIALECT_AUTO.equalsIgnoreCase(dialectName))
+		{
+			this.autoDetectDialect = true;
+		}
+		else
+		{
+			this.dialect = DialectFactory.getDialect(dialectName);
+		}
+	}
+
+	/**
+	 * @return the dialect
+	 */
+	public IDialect getDialect()
+	{
+		return dialect;
+	}
+
+	/**
+	 * @param dialect the dialect to set
+	 */
+	public void setDialect(IDialect dialect)
+	{
+		this.dialect = dialect;
+	}
+
+	/**
+	 * @return the batchSize
+	 */
+	public int getBatchSize()
+	{
+		return batchSize;
+	}
+
+	/**
+	 * @param batchSize the batchSize to set
+	 */
+	public void setBatchSize(int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return the countCache
+	 */
+	public PageCountCache getCountCache()
+	{
+		return countCache;
+	}
+
+	/**
+	 * @param countCache the countCache to set
+	 */
+	public void setCountCache(PageCountCache countCache)
+	{
+		this.countCache = countCache;
+	}
 }
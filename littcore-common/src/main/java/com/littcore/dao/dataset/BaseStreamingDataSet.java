@@ -0,0 +1,235 @@
+package com.littcore.dao.dataset;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * 流式结果集基类.
+ *
+ * <pre><b>Description：</b>
+ *    实现类型化读取及迭代器，子类只需实现游标的移动、当前行的读取及资源释放
+ * </pre>
+ *
+ * <pre><b>Changelog：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public abstract class BaseStreamingDataSet<T> implements IStreamingDataSet<T> {
+
+	/** 当前行号. */
+	private int rowNum = -1;
+
+	/** 当前行. */
+	private T row;
+
+	private boolean closed = false;
+
+	private boolean iterated = false;
+
+	/**
+	 * 将游标移动到下一行.
+	 *
+	 * @return 没有更多记录时返回false
+	 */
+	protected abstract boolean doNext();
+
+	/**
+	 * 读取游标当前所在行.
+	 *
+	 * @return the row
+	 */
+	protected abstract T readRow();
+
+	/**
+	 * 读取当前行的值.
+	 *
+	 * @param row 当前行
+	 * @param columnName the column name
+	 * @return the value
+	 */
+	protected abstract Object readValue(T row, String columnName);
+
+	/**
+	 * 释放游标等资源.
+	 */
+	protected abstract void doClose();
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#next()
+	 */
+	public boolean next()
+	{
+		if(closed)
+			return false;
+		boolean hasNext = false;
+		try {
+			hasNext = doNext();
+			if(hasNext)
+			{
+				this.row = readRow();
+				this.rowNum++;
+			}
+		} finally {
+			if(!hasNext)
+				close();
+		}
+		return hasNext;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getRow()
+	 */
+	public T getRow()
+	{
+		if(rowNum<0)
+			throw new IllegalStateException("Call next() before reading the current row.");
+		return row;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getRowNum()
+	 */
+	public int getRowNum()
+	{
+		return rowNum;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getValue(java.lang.String)
+	 */
+	public Object getValue(String columnName)
+	{
+		return readValue(getRow(), columnName);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getValue(java.lang.String, java.lang.Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E getValue(String columnName, Class<E> clazz)
+	{
+		return (E)this.getValue(columnName);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getIntegerValue(java.lang.String)
+	 */
+	public Integer getIntegerValue(String columnName)
+	{
+		return DataSetUtils.typeCastInteger(this.getValue(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getLongValue(java.lang.String)
+	 */
+	public Long getLongValue(String columnName)
+	{
+		return DataSetUtils.typeCastLong(this.getValue(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getFloatValue(java.lang.String)
+	 */
+	public Float getFloatValue(String columnName)
+	{
+		return DataSetUtils.typeCastFloat(this.getValue(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getDoubleValue(java.lang.String)
+	 */
+	public Double getDoubleValue(String columnName)
+	{
+		return DataSetUtils.typeCastDouble(this.getValue(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getBooleanValue(java.lang.String)
+	 */
+	public Boolean getBooleanValue(String columnName)
+	{
+		return DataSetUtils.typeCastBoolean(this.getValue(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getDateValue(java.lang.String)
+	 */
+	public Date getDateValue(String columnName)
+	{
+		return DataSetUtils.typeCastDate(this.getValue(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getStringValue(java.lang.String)
+	 */
+	public String getStringValue(String columnName)
+	{
+		return DataSetUtils.typeCastString(this.getValue(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#isClosed()
+	 */
+	public boolean isClosed()
+	{
+		return closed;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#close()
+	 */
+	public void close()
+	{
+		if(closed)
+			return;
+		closed = true;
+		this.row = null;
+		doClose();
+	}
+
+	/* (non-Javadoc)
+	 * @see java.lang.Iterable#iterator()
+	 */
+	public Iterator<T> iterator()
+	{
+		if(iterated || rowNum>=0)
+			throw new IllegalStateException("Streaming data set can only be iterated once.");
+		iterated = true;
+		return new Iterator<T>() {
+
+			/** 是否已预读下一行. */
+			private boolean fetched = false;
+
+			private boolean hasNext = false;
+
+			public boolean hasNext()
+			{
+				if(!fetched)
+				{
+					hasNext = BaseStreamingDataSet.this.next();
+					fetched = true;
+				}
+				return hasNext;
+			}
+
+			public T next()
+			{
+				if(!hasNext())
+					throw new NoSuchElementException();
+				fetched = false;
+				return getRow();
+			}
+
+			public void remove()
+			{
+				throw new UnsupportedOperationException();
+			}
+		};
+	}
+
+}
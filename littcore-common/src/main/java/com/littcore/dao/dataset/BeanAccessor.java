@@ -0,0 +1,446 @@
+package com.littcore.dao.dataset;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.cglib.reflect.FastMethod;
+
+import com.littcore.dao.dataset.annotation.MapColumn;
+import com.littcore.util.StringUtils;
+
+/**
+ * 对象属性访问器.
+ *
+ * <pre><b>Description：</b>
+ *    每个类只解析一次属性：getter通过cglib的FastClass生成字节码按索引调用，无法生成时退化为缓存的反射方法；
+ *    没有getter的属性直接读取字段。Map到对象的映射（支持MapColumn注解）优先使用setter，没有setter时写入字段，不再每次调用都反射。
+ *    其他类加载器（如Web应用）加载的类以弱引用为键缓存，应用卸载后类加载器可以被回收。
+ * </pre>
+ *
+ * <pre><b>Changelog：</b>
+ *    2026-10-17 支持以"."分隔的嵌套属性及Map对象
+ *    2026-10-17 支持boolean属性的is方法；只对没有getter或setter的字段调用setAccessible；非本类加载器加载的类使用弱引用缓存
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class BeanAccessor<T> {
+
+	/** Logger for this class. */
+	private static final Logger logger = LoggerFactory.getLogger(BeanAccessor.class);
+
+	/** 与BeanAccessor同一类加载器（或其上级）加载的类，与BeanAccessor的生命周期相同，直接缓存. */
+	private static final ConcurrentMap<Class<?>, BeanAccessor<?>> ACCESSORS = new ConcurrentHashMap<Class<?>, BeanAccessor<?>>();
+
+	/** 其他类加载器加载的类：键为弱引用，值为软引用（访问器引用了类本身）. */
+	private static final Map<Class<?>, Reference<BeanAccessor<?>>> WEAK_ACCESSORS = Collections.synchronizedMap(new WeakHashMap<Class<?>, Reference<BeanAccessor<?>>>());
+
+	private final Class<T> beanClass;
+
+	/** 可通过getter读取的属性名. */
+	private final String[] propertyNames;
+
+	private final Map<String, PropertyReader> readers = new HashMap<String, PropertyReader>();
+
+	private final List<FieldWriter> writers = new ArrayList<FieldWriter>();
+
+	private final Constructor<T> constructor;
+
+	private static final Object[] EMPTY_ARGS = new Object[0];
+
+	/**
+	 * 获取类的访问器（每个类只创建一次）.
+	 *
+	 * @param clazz the clazz
+	 * @return the bean accessor
+	 */
+	@SuppressWarnings("unchecked")
+	public static <T> BeanAccessor<T> forClass(Class<T> clazz)
+	{
+		BeanAccessor<T> accessor = (BeanAccessor<T>)ACCESSORS.get(clazz);
+		if(accessor!=null)
+			return accessor;
+		if(!isCacheSafe(clazz))
+		{
+			Reference<BeanAccessor<?>> ref = WEAK_ACCESSORS.get(clazz);
+			accessor = ref==null ? null : (BeanAccessor<T>)ref.get();
+			if(accessor==null)
+			{
+				accessor = new BeanAccessor<T>(clazz);
+				WEAK_ACCESSORS.put(clazz, new SoftReference<BeanAccessor<?>>(accessor));
+			}
+			return accessor;
+		}
+		accessor = new BeanAccessor<T>(clazz);
+		BeanAccessor<T> exists = (BeanAccessor<T>)ACCESSORS.putIfAbsent(clazz, accessor);
+		if(exists!=null)
+			accessor = exists;
+		return accessor;
+	}
+
+	/**
+	 * 类是否由BeanAccessor的类加载器（或其上级）加载.
+	 */
+	private static boolean isCacheSafe(Class<?> clazz)
+	{
+		ClassLoader target = clazz.getClassLoader();
+		if(target==null)
+			return true;
+		for(ClassLoader loader=BeanAccessor.class.getClassLoader();loader!=null;loader=loader.getParent())
+		{
+			if(loader==target)
+				return true;
+		}
+		return false;
+	}
+
+	private BeanAccessor(Class<T> clazz)
+	{
+		this.beanClass = clazz;
+
+		FastClass fastClass = null;
+		if(Modifier.isPublic(clazz.getModifiers()))
+		{
+			try {
+				fastClass = FastClass.create(clazz);
+			} catch (Throwable e) {
+				logger.debug("Unable to generate fast class for {}, using reflection.", clazz.getName());
+			}
+		}
+
+		List<String> names = new ArrayList<String>();
+		for (Method method : clazz.getMethods()) {
+			if(Object.class.equals(method.getDeclaringClass()) || Modifier.isStatic(method.getModifiers())
+				|| method.getParameterTypes().length>0 || void.class.equals(method.getReturnType()))
+				continue;
+			String propertyName = getPropertyName(method);
+			if(propertyName==null || readers.containsKey(propertyName))
+				continue;
+			names.add(propertyName);
+			readers.put(propertyName, createGetterReader(fastClass, method));
+		}
+		this.propertyNames = names.toArray(new String[names.size()]);
+
+		for(Class<?> type=clazz;type!=null && !Object.class.equals(type);type=type.getSuperclass())
+		{
+			for (Field field : type.getDeclaredFields()) {
+				if(Modifier.isStatic(field.getModifiers()))
+					continue;
+				boolean readable = readers.containsKey(field.getName());
+				Method setter = findSetter(clazz, field);
+				if(!readable || setter==null)	//只在没有getter或setter时直接访问字段
+					field.setAccessible(true);
+				if(!readable)
+				{
+					readers.put(field.getName(), new FieldReader(field));
+				}
+				String columnName = field.getName();
+				if(field.isAnnotationPresent(MapColumn.class))
+				{
+					columnName = field.getAnnotation(MapColumn.class).name();
+				}
+				writers.add(new FieldWriter(columnName, field, setter));
+			}
+		}
+
+		Constructor<T> noArgConstructor = null;
+		try {
+			noArgConstructor = clazz.getDeclaredConstructor();
+			noArgConstructor.setAccessible(true);
+		} catch (NoSuchMethodException e) {
+			//没有无参构造函数时无法进行Map映射
+		}
+		this.constructor = noArgConstructor;
+	}
+
+	/**
+	 * getter对应的属性名：getXxx，或返回boolean/Boolean的isXxx.
+	 */
+	private static String getPropertyName(Method method)
+	{
+		String methodName = method.getName();
+		if(methodName.startsWith("get") && methodName.length()>3)
+			return StringUtils.uncapitalize(methodName.substring(3));
+		Class<?> returnType = method.getReturnType();
+		if(methodName.startsWith("is") && methodName.length()>2 && (boolean.class.equals(returnType) || Boolean.class.equals(returnType)))
+			return StringUtils.uncapitalize(methodName.substring(2));
+		return null;
+	}
+
+	/**
+	 * 查找字段的公共setter（参数类型与字段类型相同）.
+	 */
+	private static Method findSetter(Class<?> clazz, Field field)
+	{
+		try {
+			Method setter = clazz.getMethod("set"+StringUtils.capitalize(field.getName()), field.getType());
+			if(Modifier.isStatic(setter.getModifiers()))
+				return null;
+			if(!Modifier.isPublic(setter.getDeclaringClass().getModifiers()))
+				setter.setAccessible(true);
+			return setter;
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	private static PropertyReader createGetterReader(FastClass fastClass, Method method)
+	{
+		if(fastClass!=null)
+		{
+			try {
+				return new FastGetterReader(fastClass.getMethod(method));
+			} catch (Throwable e) {
+				logger.debug("Unable to bind fast method {}, using reflection.", method);
+			}
+		}
+		method.setAccessible(true);
+		return new GetterReader(method);
+	}
+
+	/**
+	 * @return the beanClass
+	 */
+	public Class<T> getBeanClass()
+	{
+		return beanClass;
+	}
+
+	/**
+	 * 可通过getter读取的属性名（不含java.lang.Object的方法）.
+	 *
+	 * @return the property names
+	 */
+	public String[] getPropertyNames()
+	{
+		return propertyNames.clone();
+	}
+
+	/**
+	 * 是否存在可读取的属性.
+	 */
+	public boolean isReadable(String propertyName)
+	{
+		return readers.containsKey(propertyName);
+	}
+
+	/**
+	 * 读取属性值.
+	 * 属性名可以是以"."分隔的嵌套属性，如dept.name，中间的属性为null时返回null
+	 *
+	 * @param bean 对象
+	 * @param propertyName 属性名
+	 * @return 属性值
+	 */
+	public Object getValue(T bean, String propertyName)
+	{
+		PropertyReader reader = readers.get(propertyName);
+		if(reader==null)
+		{
+			int dot = propertyName.indexOf('.');
+			if(dot>0)
+			{
+				Object value = getValue(bean, propertyName.substring(0, dot));
+				return value==null ? null : getProperty(value, propertyName.substring(dot+1));
+			}
+			throw new DataSetMappingException("No property "+propertyName+" in "+beanClass.getName());
+		}
+		try {
+			return reader.read(bean);
+		} catch (InvocationTargetException e) {
+			throw new DataSetMappingException(e.getTargetException());
+		} catch (IllegalAccessException e) {
+			throw new DataSetMappingException(e);
+		}
+	}
+
+	/**
+	 * 读取任意对象的属性值.
+	 * 对象为Map时按键读取（键不存在时返回null），否则使用该对象类的访问器读取
+	 *
+	 * @param bean 对象
+	 * @param propertyName 属性名，可以是嵌套属性
+	 * @return 属性值
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public static Object getProperty(Object bean, String propertyName)
+	{
+		if(bean instanceof Map)
+		{
+			Map map = (Map)bean;
+			int dot = propertyName.indexOf('.');
+			if(dot<=0 || map.containsKey(propertyName))
+				return map.get(propertyName);
+			Object value = map.get(propertyName.substring(0, dot));
+			return value==null ? null : getProperty(value, propertyName.substring(dot+1));
+		}
+		return ((BeanAccessor<Object>)forClass(bean.getClass())).getValue(bean, propertyName);
+	}
+
+	/**
+	 * 创建实例.
+	 *
+	 * @return the instance
+	 */
+	public T newInstance()
+	{
+		if(constructor==null)
+		{
+			throw new DataSetMappingException("No default constructor in "+beanClass.getName());
+		}
+		try {
+			return constructor.newInstance();
+		} catch (InstantiationException e) {
+			throw new DataSetMappingException(e);
+		} catch (IllegalAccessException e) {
+			throw new DataSetMappingException(e);
+		} catch (InvocationTargetException e) {
+			throw new DataSetMappingException(e.getTargetException());
+		}
+	}
+
+	/**
+	 * 将Map中的数据写入对象的字段.
+	 * 字段有MapColumn注解时使用注解的名称作为键，否则使用字段名
+	 *
+	 * @param instance 对象
+	 * @param dataMap 数据
+	 * @return the instance
+	 */
+	public <K, V> T populate(T instance, Map<K, V> dataMap)
+	{
+		for (int i = 0; i < writers.size(); i++) {
+			FieldWriter writer = writers.get(i);
+			if(dataMap.containsKey(writer.columnName))
+			{
+				writer.write(instance, dataMap.get(writer.columnName));
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * 属性读取器.
+	 */
+	private static interface PropertyReader {
+
+		Object read(Object bean) throws InvocationTargetException, IllegalAccessException;
+	}
+
+	private static class FastGetterReader implements PropertyReader {
+
+		private final FastMethod method;
+
+		FastGetterReader(FastMethod method)
+		{
+			this.method = method;
+		}
+
+		public Object read(Object bean) throws InvocationTargetException
+		{
+			return method.invoke(bean, EMPTY_ARGS);
+		}
+	}
+
+	private static class GetterReader implements PropertyReader {
+
+		private final Method method;
+
+		GetterReader(Method method)
+		{
+			this.method = method;
+		}
+
+		public Object read(Object bean) throws InvocationTargetException, IllegalAccessException
+		{
+			return method.invoke(bean);
+		}
+	}
+
+	private static class FieldReader implements PropertyReader {
+
+		private final Field field;
+
+		FieldReader(Field field)
+		{
+			this.field = field;
+		}
+
+		public Object read(Object bean) throws IllegalAccessException
+		{
+			return field.get(bean);
+		}
+	}
+
+	/**
+	 * 字段写入器，按字段类型转换数据（与DataSetUtils.setFieldValue的规则一致），有setter时通过setter写入.
+	 */
+	private static class FieldWriter {
+
+		private final String columnName;
+
+		private final Field field;
+
+		private final Method setter;
+
+		private final Class<?> type;
+
+		FieldWriter(String columnName, Field field, Method setter)
+		{
+			this.columnName = columnName;
+			this.field = field;
+			this.setter = setter;
+			this.type = field.getType();
+		}
+
+		void write(Object instance, Object value)
+		{
+			Object newValue = value;
+			if(int.class.equals(type))
+				newValue = DataSetUtils.typeCastInteger(value);
+			else if(long.class.equals(type))
+				newValue = DataSetUtils.typeCastLong(value);
+			else if(double.class.equals(type))
+				newValue = DataSetUtils.typeCastDouble(value);
+			else if(float.class.equals(type))
+				newValue = DataSetUtils.typeCastFloat(value);
+			else if(boolean.class.equals(type))
+				newValue = DataSetUtils.typeCastBoolean(value);
+			else if(Date.class.equals(type))
+				newValue = DataSetUtils.typeCastDate(value);
+			if(newValue==null && type.isPrimitive())	//基本类型保留默认值
+				return;
+			try {
+				if(setter!=null)
+					setter.invoke(instance, newValue);
+				else
+					field.set(instance, newValue);
+			} catch (IllegalArgumentException e) {
+				throw new DataSetMappingException("Unable to set field "+field.getName()+" with value "+value, e);
+			} catch (IllegalAccessException e) {
+				throw new DataSetMappingException(e);
+			} catch (InvocationTargetException e) {
+				throw new DataSetMappingException(e.getTargetException());
+			}
+		}
+	}
+}
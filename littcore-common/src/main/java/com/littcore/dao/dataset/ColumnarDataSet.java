@@ -0,0 +1,933 @@
+package com.littcore.dao.dataset;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import com.littcore.dao.dataset.DatasetConstants.DataType;
+import com.littcore.dao.dataset.exception.DatasetException;
+import com.littcore.dao.dataset.metadata.ColumnMetadata;
+import com.littcore.dao.dataset.metadata.DataSetMetadata;
+
+/**
+ * 列式结果集.
+ *
+ * <pre><b>描述：</b>
+ *    按列存储数据，每列根据元数据中的数据类型使用基本类型数组保存（int[]/long[]/float[]/double[]，日期保存为毫秒数，
+ *    字符串采用字典编码），空值使用位图标记。大数据量导出时不再为每个单元格创建DataCell及包装对象。
+ *
+ *    通过列索引访问的getInt/getLong/getDouble等方法直接返回基本类型，不产生装箱；
+ *    IDataSet接口中按列名访问的方法及getRow/iterator为兼容方式，会按需创建对象。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 推断数据类型时检查列中所有的值，整数与长整数、浮点数混合时放宽类型，其他混合类型使用对象列保存原值
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ColumnarDataSet implements IDataSet<DataRow> {
+
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
+
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/** The meta data. */
+	private DataSetMetadata metadata;
+
+	private Column[] columns;
+
+	private int rowCount;
+
+	private int capacity;
+
+	public ColumnarDataSet(DataSetMetadata metadata)
+	{
+		this(metadata, DEFAULT_CAPACITY);
+	}
+
+	public ColumnarDataSet(DataSetMetadata metadata, int initialCapacity)
+	{
+		this.metadata = metadata;
+		this.capacity = Math.max(initialCapacity, 1);
+		this.columns = new Column[metadata.getColumnCount()];
+		for(int i=0;i<columns.length;i++)
+		{
+			columns[i] = createColumn(metadata.getColumnMetadata(i).getDataType(), capacity);
+		}
+	}
+
+	/**
+	 * 从其他结果集转换.
+	 * CellDataSet使用元数据中声明的数据类型；MapDataSet、ObjectDataSet的元数据没有类型信息，根据每列所有非空值推断.
+	 *
+	 * @param dataSet 结果集
+	 * @return 列式结果集
+	 */
+	public static ColumnarDataSet from(IDataSet<?> dataSet)
+	{
+		DataSetMetadata source = dataSet.getMetaData();
+		int rows = dataSet.getRowCount();
+		if(source==null)
+		{
+			return new ColumnarDataSet(new DataSetMetadata(), rows);
+		}
+		String[] columnNames = source.getColumnNames();
+		ColumnMetadata[] columnMetadatas = new ColumnMetadata[columnNames.length];
+		for(int i=0;i<columnNames.length;i++)
+		{
+			DataType dataType;
+			if(dataSet.getType()==DataSetType.DATACELL || dataSet.getType()==DataSetType.COLUMNAR)
+			{
+				dataType = source.getColumnMetadata(i).getDataType();
+			}
+			else
+			{
+				dataType = inferDataType(dataSet, columnNames[i]);
+			}
+			ColumnMetadata columnMetadata;
+			if(i<source.getColumnCount())
+			{
+				ColumnMetadata origin = source.getColumnMetadata(i);
+				columnMetadata = new ColumnMetadata(columnNames[i], origin.getDisplayName(), dataType, i);
+				columnMetadata.setFormat(origin.getFormat());
+				columnMetadata.setLocale(origin.getLocale());
+			}
+			else
+			{
+				columnMetadata = new ColumnMetadata(columnNames[i], columnNames[i], dataType, i);
+			}
+			columnMetadatas[i] = columnMetadata;
+		}
+
+		ColumnarDataSet columnar = new ColumnarDataSet(new DataSetMetadata(columnMetadatas), rows);
+		for(int row=0;row<rows;row++)
+		{
+			for(int i=0;i<columnNames.length;i++)
+			{
+				columnar.columns[i].set(row, dataSet.getValue(row, columnNames[i]));
+			}
+		}
+		columnar.rowCount = rows;
+		return columnar;
+	}
+
+	/**
+	 * 根据列中所有非空值推断数据类型，类型不一致时放宽为能容纳所有值的类型，避免后面的值被截断.
+	 */
+	private static DataType inferDataType(IDataSet<?> dataSet, String columnName)
+	{
+		DataType dataType = null;
+		for(int row=0;row<dataSet.getRowCount();row++)
+		{
+			Object value = dataSet.getValue(row, columnName);
+			if(value!=null)
+			{
+				DataType valueType = inferDataType(value);
+				dataType = dataType==null ? valueType : widenDataType(dataType, valueType);
+				if(dataType==DataType.CUSTOM)
+					break;
+			}
+		}
+		return dataType==null ? DataType.STRING : dataType;
+	}
+
+	/**
+	 * 合并两个数据类型：INTEGER与LONG合并为LONG，INTEGER、FLOAT与DOUBLE合并为DOUBLE，
+	 * 其他不同的类型（包括LONG与浮点数，转换会丢失精度）使用对象列（CUSTOM）保存原值.
+	 */
+	private static DataType widenDataType(DataType type1, DataType type2)
+	{
+		if(type1==type2)
+			return type1;
+		if(isIntegral(type1) && isIntegral(type2))
+			return DataType.LONG;
+		if(isFloating(type1) && isFloating(type2))
+			return DataType.DOUBLE;
+		if((type1==DataType.INTEGER && isFloating(type2)) || (type2==DataType.INTEGER && isFloating(type1)))
+			return DataType.DOUBLE;
+		return DataType.CUSTOM;
+	}
+
+	private static boolean isIntegral(DataType dataType)
+	{
+		return dataType==DataType.INTEGER || dataType==DataType.LONG;
+	}
+
+	private static boolean isFloating(DataType dataType)
+	{
+		return dataType==DataType.FLOAT || dataType==DataType.DOUBLE;
+	}
+
+	private static DataType inferDataType(Object value)
+	{
+		if(value instanceof String)
+			return DataType.STRING;
+		else if(value instanceof Integer || value instanceof Short || value instanceof Byte)
+			return DataType.INTEGER;
+		else if(value instanceof Long)
+			return DataType.LONG;
+		else if(value instanceof Float)
+			return DataType.FLOAT;
+		else if(value instanceof Double)
+			return DataType.DOUBLE;
+		else if(value instanceof Boolean)
+			return DataType.BOOLEAN;
+		else if(value instanceof Date)
+			return DataType.DATE;
+		else if(value instanceof java.math.BigDecimal)
+			return DataType.DECIMAL;
+		else if(value instanceof Character)
+			return DataType.CHARACTER;
+		else if(value instanceof byte[])
+			return DataType.BYTE_ARRAY;
+		return DataType.CUSTOM;
+	}
+
+	private static Column createColumn(DataType dataType, int capacity)
+	{
+		switch (dataType) {
+			case INTEGER:
+				return new IntColumn(capacity);
+			case LONG:
+				return new LongColumn(capacity);
+			case FLOAT:
+				return new FloatColumn(capacity);
+			case DOUBLE:
+				return new DoubleColumn(capacity);
+			case BOOLEAN:
+				return new BooleanColumn();
+			case DATE:
+				return new DateColumn(capacity);
+			case STRING:
+				return new StringColumn(capacity);
+			default:
+				return new ObjectColumn(capacity);
+		}
+	}
+
+	/**
+	 * 追加一行数据.
+	 *
+	 * @param values 按列顺序排列的值
+	 * @return the columnar data set
+	 */
+	public ColumnarDataSet addRow(Object[] values)
+	{
+		if(values.length!=columns.length)
+		{
+			throw new DatasetException("Expect "+columns.length+" values but "+values.length);
+		}
+		ensureCapacity(rowCount+1);
+		for(int i=0;i<columns.length;i++)
+		{
+			columns[i].set(rowCount, values[i]);
+		}
+		rowCount++;
+		return this;
+	}
+
+	private void ensureCapacity(int minCapacity)
+	{
+		if(minCapacity>capacity)
+		{
+			int newCapacity = Math.max(capacity + (capacity >> 1), minCapacity);
+			for(int i=0;i<columns.length;i++)
+			{
+				columns[i].grow(newCapacity);
+			}
+			capacity = newCapacity;
+		}
+	}
+
+	/**
+	 * 根据列名获取列索引.
+	 *
+	 * @param columnName 列名
+	 * @return 列索引
+	 */
+	public int getColumnIndex(String columnName)
+	{
+		int index = metadata.getColumnIndex(columnName);
+		if(index<0)
+		{
+			throw new DatasetException("Invalid column name:"+columnName);
+		}
+		return index;
+	}
+
+	private Column column(int row, int column)
+	{
+		if(row<0 || row>=rowCount)
+		{
+			throw new IndexOutOfBoundsException("Row index: "+row+", Row count: "+rowCount);
+		}
+		return columns[column];
+	}
+
+	/**
+	 * 值是否为空.
+	 */
+	public boolean isNull(int row, int column)
+	{
+		return column(row, column).isNull(row);
+	}
+
+	/**
+	 * 获取int值，空值返回0（可通过isNull判断）.
+	 */
+	public int getInt(int row, int column)
+	{
+		Column col = column(row, column);
+		return col.isNull(row) ? 0 : col.getInt(row);
+	}
+
+	/**
+	 * 获取long值，空值返回0；日期列返回毫秒数.
+	 */
+	public long getLong(int row, int column)
+	{
+		Column col = column(row, column);
+		return col.isNull(row) ? 0L : col.getLong(row);
+	}
+
+	/**
+	 * 获取float值，空值返回0.
+	 */
+	public float getFloat(int row, int column)
+	{
+		Column col = column(row, column);
+		return col.isNull(row) ? 0f : (float)col.getDouble(row);
+	}
+
+	/**
+	 * 获取double值，空值返回0.
+	 */
+	public double getDouble(int row, int column)
+	{
+		Column col = column(row, column);
+		return col.isNull(row) ? 0d : col.getDouble(row);
+	}
+
+	/**
+	 * 获取boolean值，空值返回false.
+	 */
+	public boolean getBoolean(int row, int column)
+	{
+		Column col = column(row, column);
+		return col.isNull(row) ? false : col.getBoolean(row);
+	}
+
+	/**
+	 * 获取字符串值，字符串列直接返回字典中的实例.
+	 */
+	public String getString(int row, int column)
+	{
+		Column col = column(row, column);
+		return col.isNull(row) ? null : col.getString(row);
+	}
+
+	/**
+	 * 获取对象值（基本类型列会装箱）.
+	 */
+	public Object getObject(int row, int column)
+	{
+		Column col = column(row, column);
+		return col.isNull(row) ? null : col.getObject(row);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getValue(int, java.lang.String)
+	 */
+	public Object getValue(int row, String columnName)
+	{
+		return getObject(row, getColumnIndex(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getValue(int, java.lang.String, java.lang.Class)
+	 */
+	@SuppressWarnings("unchecked")
+	public <E> E getValue(int row, String columnName, Class<E> clazz)
+	{
+		return (E)this.getValue(row, columnName);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getIntegerValue(int, java.lang.String)
+	 */
+	public Integer getIntegerValue(int row, String columnName)
+	{
+		int column = getColumnIndex(columnName);
+		return isNull(row, column) ? null : Integer.valueOf(columns[column].getInt(row));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getLongValue(int, java.lang.String)
+	 */
+	public Long getLongValue(int row, String columnName)
+	{
+		int column = getColumnIndex(columnName);
+		return isNull(row, column) ? null : Long.valueOf(columns[column].getLong(row));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getFloatValue(int, java.lang.String)
+	 */
+	public Float getFloatValue(int row, String columnName)
+	{
+		int column = getColumnIndex(columnName);
+		return isNull(row, column) ? null : Float.valueOf((float)columns[column].getDouble(row));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getDoubleValue(int, java.lang.String)
+	 */
+	public Double getDoubleValue(int row, String columnName)
+	{
+		int column = getColumnIndex(columnName);
+		return isNull(row, column) ? null : Double.valueOf(columns[column].getDouble(row));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getBooleanValue(int, java.lang.String)
+	 */
+	public Boolean getBooleanValue(int row, String columnName)
+	{
+		int column = getColumnIndex(columnName);
+		return isNull(row, column) ? null : Boolean.valueOf(columns[column].getBoolean(row));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getDateValue(int, java.lang.String)
+	 */
+	public Date getDateValue(int row, String columnName)
+	{
+		return DataSetUtils.typeCastDate(this.getValue(row, columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getStringValue(int, java.lang.String)
+	 */
+	public String getStringValue(int row, String columnName)
+	{
+		return getString(row, getColumnIndex(columnName));
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IDataSet#getRowCount()
+	 */
+	public int getRowCount()
+	{
+		return rowCount;
+	}
+
+	/**
+	 * 按需创建行对象.
+	 *
+	 * @see com.littcore.dao.dataset.IDataSet#getRow(int)
+	 */
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public DataRow getRow(int index)
+	{
+		DataRow dataRow = new DataRow(index, columns.length);
+		for(int i=0;i<columns.length;i++)
+		{
+			dataRow.addCell(new DataCell(metadata.getColumnMetadata(i), getObject(index, i)));
+		}
+		return dataRow;
+	}
+
+	/**
+	 * @return the metaData
+	 */
+	public DataSetMetadata getMetaData() {
+		return metadata;
+	}
+
+	@Override
+	public Iterator<DataRow> iterator() {
+		 Iterator<DataRow> iterator = new  Iterator<DataRow>(){
+
+			private int cursor = 0;
+
+			@Override
+			public boolean hasNext() {
+				return cursor < rowCount;
+			}
+
+			@Override
+			public DataRow next() {
+				if(cursor>=rowCount)
+					throw new NoSuchElementException();
+			    return getRow(cursor++);
+			}
+
+			@Override
+			public void remove() {
+				throw new UnsupportedOperationException();
+			}
+
+		 };
+		 return iterator;
+	}
+
+	@Override
+	public DataSetType getType() {
+		return DataSetType.COLUMNAR;
+	}
+
+	/**
+	 * 转换为行列表（会为每行创建DataRow）.
+	 *
+	 * @see com.littcore.dao.dataset.IDataSet#toList()
+	 */
+	public List<DataRow> toList()
+	{
+		List<DataRow> rsList = new ArrayList<DataRow>(rowCount);
+		for(int i=0;i<rowCount;i++)
+		{
+			rsList.add(getRow(i));
+		}
+		return rsList;
+	}
+
+	/**
+	 * 转换为CellDataSet.
+	 *
+	 * @return the cell data set
+	 */
+	public CellDataSet toCellDataSet()
+	{
+		return new CellDataSet(metadata, toList());
+	}
+
+	/**
+	 * 列存储.
+	 */
+	private static abstract class Column implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		/** 空值位图. */
+		protected final BitSet nulls = new BitSet();
+
+		void set(int row, Object value)
+		{
+			if(value==null)
+			{
+				nulls.set(row);
+			}
+			else
+			{
+				nulls.clear(row);
+				setValue(row, value);
+			}
+		}
+
+		boolean isNull(int row)
+		{
+			return nulls.get(row);
+		}
+
+		abstract void grow(int capacity);
+
+		abstract void setValue(int row, Object value);
+
+		abstract Object getObject(int row);
+
+		int getInt(int row)
+		{
+			return DataSetUtils.typeCastInteger(getObject(row)).intValue();
+		}
+
+		long getLong(int row)
+		{
+			return DataSetUtils.typeCastLong(getObject(row)).longValue();
+		}
+
+		double getDouble(int row)
+		{
+			return DataSetUtils.typeCastDouble(getObject(row)).doubleValue();
+		}
+
+		boolean getBoolean(int row)
+		{
+			return DataSetUtils.typeCastBoolean(getObject(row)).booleanValue();
+		}
+
+		String getString(int row)
+		{
+			return DataSetUtils.typeCastString(getObject(row));
+		}
+	}
+
+	private static class IntColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private int[] values;
+
+		IntColumn(int capacity)
+		{
+			values = new int[capacity];
+		}
+
+		void grow(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		void setValue(int row, Object value)
+		{
+			values[row] = value instanceof Number ? ((Number)value).intValue() : DataSetUtils.typeCastInteger(value).intValue();
+		}
+
+		Object getObject(int row)
+		{
+			return Integer.valueOf(values[row]);
+		}
+
+		int getInt(int row)
+		{
+			return values[row];
+		}
+
+		long getLong(int row)
+		{
+			return values[row];
+		}
+
+		double getDouble(int row)
+		{
+			return values[row];
+		}
+
+		boolean getBoolean(int row)
+		{
+			return values[row]!=0;
+		}
+
+		String getString(int row)
+		{
+			return String.valueOf(values[row]);
+		}
+	}
+
+	private static class LongColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private long[] values;
+
+		LongColumn(int capacity)
+		{
+			values = new long[capacity];
+		}
+
+		void grow(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		void setValue(int row, Object value)
+		{
+			values[row] = value instanceof Number ? ((Number)value).longValue() : DataSetUtils.typeCastLong(value).longValue();
+		}
+
+		Object getObject(int row)
+		{
+			return Long.valueOf(values[row]);
+		}
+
+		int getInt(int row)
+		{
+			return (int)values[row];
+		}
+
+		long getLong(int row)
+		{
+			return values[row];
+		}
+
+		double getDouble(int row)
+		{
+			return values[row];
+		}
+
+		boolean getBoolean(int row)
+		{
+			return values[row]!=0;
+		}
+
+		String getString(int row)
+		{
+			return String.valueOf(values[row]);
+		}
+	}
+
+	private static class FloatColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private float[] values;
+
+		FloatColumn(int capacity)
+		{
+			values = new float[capacity];
+		}
+
+		void grow(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		void setValue(int row, Object value)
+		{
+			values[row] = value instanceof Number ? ((Number)value).floatValue() : DataSetUtils.typeCastFloat(value).floatValue();
+		}
+
+		Object getObject(int row)
+		{
+			return Float.valueOf(values[row]);
+		}
+
+		int getInt(int row)
+		{
+			return (int)values[row];
+		}
+
+		long getLong(int row)
+		{
+			return (long)values[row];
+		}
+
+		double getDouble(int row)
+		{
+			return values[row];
+		}
+
+		String getString(int row)
+		{
+			return String.valueOf(values[row]);
+		}
+	}
+
+	private static class DoubleColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private double[] values;
+
+		DoubleColumn(int capacity)
+		{
+			values = new double[capacity];
+		}
+
+		void grow(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		void setValue(int row, Object value)
+		{
+			values[row] = value instanceof Number ? ((Number)value).doubleValue() : DataSetUtils.typeCastDouble(value).doubleValue();
+		}
+
+		Object getObject(int row)
+		{
+			return Double.valueOf(values[row]);
+		}
+
+		int getInt(int row)
+		{
+			return (int)values[row];
+		}
+
+		long getLong(int row)
+		{
+			return (long)values[row];
+		}
+
+		double getDouble(int row)
+		{
+			return values[row];
+		}
+
+		String getString(int row)
+		{
+			return String.valueOf(values[row]);
+		}
+	}
+
+	private static class BooleanColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private final BitSet values = new BitSet();
+
+		void grow(int capacity)
+		{
+			//BitSet自动扩容
+		}
+
+		void setValue(int row, Object value)
+		{
+			values.set(row, DataSetUtils.typeCastBoolean(value).booleanValue());
+		}
+
+		Object getObject(int row)
+		{
+			return Boolean.valueOf(values.get(row));
+		}
+
+		int getInt(int row)
+		{
+			return values.get(row) ? 1 : 0;
+		}
+
+		long getLong(int row)
+		{
+			return getInt(row);
+		}
+
+		double getDouble(int row)
+		{
+			return getInt(row);
+		}
+
+		boolean getBoolean(int row)
+		{
+			return values.get(row);
+		}
+
+		String getString(int row)
+		{
+			return String.valueOf(values.get(row));
+		}
+	}
+
+	/**
+	 * 日期列，保存为毫秒数.
+	 */
+	private static class DateColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private long[] values;
+
+		DateColumn(int capacity)
+		{
+			values = new long[capacity];
+		}
+
+		void grow(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		void setValue(int row, Object value)
+		{
+			values[row] = DataSetUtils.typeCastDate(value).getTime();
+		}
+
+		Object getObject(int row)
+		{
+			return new Date(values[row]);
+		}
+
+		long getLong(int row)
+		{
+			return values[row];
+		}
+
+		double getDouble(int row)
+		{
+			return values[row];
+		}
+	}
+
+	/**
+	 * 字符串列，采用字典编码，重复的字符串只保存一份.
+	 */
+	private static class StringColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private int[] codes;
+
+		private final List<String> dictionary = new ArrayList<String>();
+
+		private final Map<String, Integer> lookup = new HashMap<String, Integer>();
+
+		StringColumn(int capacity)
+		{
+			codes = new int[capacity];
+		}
+
+		void grow(int capacity)
+		{
+			codes = Arrays.copyOf(codes, capacity);
+		}
+
+		void setValue(int row, Object value)
+		{
+			String string = DataSetUtils.typeCastString(value);
+			Integer code = lookup.get(string);
+			if(code==null)
+			{
+				code = Integer.valueOf(dictionary.size());
+				dictionary.add(string);
+				lookup.put(string, code);
+			}
+			codes[row] = code.intValue();
+		}
+
+		Object getObject(int row)
+		{
+			return dictionary.get(codes[row]);
+		}
+
+		String getString(int row)
+		{
+			return dictionary.get(codes[row]);
+		}
+	}
+
+	private static class ObjectColumn extends Column {
+
+		private static final long serialVersionUID = 1L;
+
+		private Object[] values;
+
+		ObjectColumn(int capacity)
+		{
+			values = new Object[capacity];
+		}
+
+		void grow(int capacity)
+		{
+			values = Arrays.copyOf(values, capacity);
+		}
+
+		void setValue(int row, Object value)
+		{
+			values[row] = value;
+		}
+
+		Object getObject(int row)
+		{
+			return values[row];
+		}
+	}
+}
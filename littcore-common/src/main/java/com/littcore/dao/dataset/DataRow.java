@@ -59,7 +59,7 @@ public class DataRow implements Serializable {
 	 */
 	public DataRow(int rowIndex, int initialCapacity)
 	{
-		Assert.isTrue(initialCapacity<1, "Initial capacity must at least greater than 0"); 
+		Assert.isTrue(initialCapacity>=1, "Initial capacity must at least greater than 0"); 
 		
 		this.rowIndex = rowIndex;
 		//未知列数量初始化
@@ -1,20 +1,16 @@
 package com.littcore.dao.dataset;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
 import java.math.BigDecimal;
 import java.util.Date;
 import java.util.Map;
 
-import net.vidageek.mirror.dsl.ClassController;
 import net.vidageek.mirror.dsl.Mirror;
-import net.vidageek.mirror.list.dsl.MirrorList;
 import net.vidageek.mirror.set.dsl.FieldSetter;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.littcore.dao.dataset.annotation.MapColumn;
 import com.littcore.util.DateUtils;
 
 public abstract class DataSetUtils {
@@ -33,56 +29,15 @@ public abstract class DataSetUtils {
 	 */
 	public static <T, K, V> T mapping(Class<T> clazz, Map<K, V> dataMap)
 	{			
-		try {
-			T instance = (T)clazz.getDeclaredConstructors()[0].newInstance();
-			
-			ClassController<T> classController = new Mirror().on(clazz);
-			MirrorList<Field> fieldList = classController.reflectAll().fields();		
-			
-			for (Field field : fieldList) {
-				String columnName = field.getName();
-				if(field.isAnnotationPresent(MapColumn.class))
-				{
-					MapColumn mapColumn = field.getAnnotation(MapColumn.class);
-					columnName = mapColumn.name();
-				}	
-				if(dataMap.containsKey(columnName))
-				{
-					V value = dataMap.get(columnName);						
-					
-					setFieldValue(instance, field, value);
-				}
-			}	
-			return instance;
-		} catch (SecurityException e) {
-			throw new DataSetMappingException(e);
-		} catch (InstantiationException e) {
-			throw new DataSetMappingException(e);
-		} catch (IllegalAccessException e) {
-			throw new DataSetMappingException(e);
-		} catch (InvocationTargetException e) {
-			throw new DataSetMappingException(e);
-		}
+		BeanAccessor<T> accessor = BeanAccessor.forClass(clazz);
+		return accessor.populate(accessor.newInstance(), dataMap);
 	}	
 	
+	@SuppressWarnings("unchecked")
 	public static <T, K, V> T mapping(T instance, Map<K, V> dataMap)
 	{		
-		MirrorList<Field> fieldList = new Mirror().on(instance.getClass()).reflectAll().fields();
-		
-		for (Field field : fieldList) {
-			String columnName = field.getName();
-			if(field.isAnnotationPresent(MapColumn.class))
-			{
-				MapColumn mapColumn = field.getAnnotation(MapColumn.class);
-				columnName = mapColumn.name();
-			}	
-			if(dataMap.containsKey(columnName))
-			{
-				V value = dataMap.get(columnName);						
-				setFieldValue(instance, field, value);
-			}
-		}	
-		return instance;		
+		BeanAccessor<T> accessor = BeanAccessor.forClass((Class<T>)instance.getClass());
+		return accessor.populate(instance, dataMap);		
 	}
 
 	/**
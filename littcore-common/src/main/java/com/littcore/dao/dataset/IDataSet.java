@@ -8,7 +8,7 @@ import com.littcore.dao.dataset.metadata.DataSetMetadata;
 
 public interface IDataSet<T> extends Serializable, Iterable<T>{
 	
-	public static enum DataSetType{MAP, OBJCT, DATACELL}
+	public static enum DataSetType{MAP, OBJCT, DATACELL, COLUMNAR}
 	
 	public DataSetType getType();		
 
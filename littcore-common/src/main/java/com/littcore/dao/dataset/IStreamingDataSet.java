@@ -0,0 +1,89 @@
+package com.littcore.dao.dataset;
+
+import java.io.Closeable;
+import java.util.Date;
+
+import com.littcore.dao.dataset.metadata.DataSetMetadata;
+
+/**
+ * 流式结果集.
+ *
+ * <pre><b>Description：</b>
+ *    基于数据库游标的只进结果集，内存中只保留当前行，适用于大数据量导出等场景。
+ *    通过next()移动到下一行后使用类型化方法读取当前行的值，也可以通过for-each遍历（只能遍历一次）。
+ *    读取到末尾时自动关闭，中途退出时必须调用close()释放游标及连接。
+ * </pre>
+ *
+ * <pre><b>Changelog：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface IStreamingDataSet<T> extends Iterable<T>, Closeable {
+
+	/**
+	 * 移动到下一行.
+	 *
+	 * @return 没有更多记录时返回false（同时关闭结果集）
+	 */
+	public boolean next();
+
+	/**
+	 * 当前行.
+	 *
+	 * @return the row
+	 */
+	public T getRow();
+
+	/**
+	 * 当前行号（从0开始，未调用next()时为-1）.
+	 *
+	 * @return the row num
+	 */
+	public int getRowNum();
+
+	/**
+	 * 读取当前行的值.
+	 *
+	 * @param columnName the column name
+	 * @return the value
+	 */
+	public Object getValue(String columnName);
+
+	public <E> E getValue(String columnName, Class<E> clazz);
+
+	public Integer getIntegerValue(String columnName);
+
+	public Long getLongValue(String columnName);
+
+	public Float getFloatValue(String columnName);
+
+	public Double getDoubleValue(String columnName);
+
+	public Boolean getBooleanValue(String columnName);
+
+	public Date getDateValue(String columnName);
+
+	public String getStringValue(String columnName);
+
+	/**
+	 * @return the metaData
+	 */
+	public DataSetMetadata getMetaData();
+
+	/**
+	 * 是否已关闭.
+	 *
+	 * @return true, if is closed
+	 */
+	public boolean isClosed();
+
+	/**
+	 * 关闭游标并释放资源（可重复调用）.
+	 */
+	public void close();
+
+}
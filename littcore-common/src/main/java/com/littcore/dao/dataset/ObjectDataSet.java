@@ -1,27 +1,16 @@
 package com.littcore.dao.dataset;
 
 import java.io.Serializable;
-import java.lang.reflect.Field;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
-import net.vidageek.mirror.dsl.ClassController;
-import net.vidageek.mirror.dsl.Mirror;
-import net.vidageek.mirror.list.dsl.MirrorList;
-import net.vidageek.mirror.set.dsl.FieldSetter;
-
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.littcore.dao.dataset.annotation.MapColumn;
 import com.littcore.dao.dataset.metadata.DataSetMetadata;
-import com.littcore.util.ArrayUtils;
-import com.littcore.util.StringUtils;
 
 /**
  * Map型结果集.
@@ -32,7 +21,8 @@ import com.littcore.util.StringUtils;
  * </pre>
  * 
  * <pre><b>Changelog：</b>
- *    
+ *    2026-10-17 属性读取改为使用按类缓存的BeanAccessor，不再每次访问都通过Mirror反射
+ *    2026-10-17 支持嵌套属性（如dept.name）及Map类型的行对象
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">Bob.cai</a>
@@ -57,6 +47,9 @@ public class ObjectDataSet<T extends Serializable> implements IDataSet<T> {
 	
 	private Class<T> clazz;
 	
+	/** 属性访问器（按类缓存，不参与序列化）. */
+	private transient BeanAccessor<T> accessor;
+	
 	public ObjectDataSet(Class<T> clazz){		
 		this.clazz = clazz;
 		this.initMetadata();
@@ -73,22 +66,27 @@ public class ObjectDataSet<T extends Serializable> implements IDataSet<T> {
 	 */
 	private void initMetadata() {		
 		
-		MirrorList<Method> getList = new Mirror().on(clazz).reflectAll().getters();
-		
-		String[] columnNames = new String[getList.size()];		
-		int i=0;
-		for (Method method : getList) {
-			if(java.lang.Object.class.equals(method.getDeclaringClass()))	//过滤java.lang.Object的方法
-					continue;
-			String fieldName = StringUtils.uncapitalize(method.getName().substring(3));				
-			
-			columnNames[i] = fieldName;
-			i++;
+		this.metadata = new DataSetMetadata(getAccessor(null).getPropertyNames());		
+	}
+	
+	/**
+	 * 获取属性访问器.
+	 * 未指定类型时使用行对象的类型
+	 *
+	 * @param rowObject 行对象
+	 * @return the bean accessor
+	 */
+	@SuppressWarnings("unchecked")
+	private BeanAccessor<T> getAccessor(T rowObject)
+	{
+		BeanAccessor<T> accessor = this.accessor;
+		if(accessor==null || (clazz==null && !accessor.getBeanClass().equals(rowObject.getClass())))
+		{
+			Class<T> beanClass = clazz!=null ? clazz : (Class<T>)rowObject.getClass();
+			accessor = BeanAccessor.forClass(beanClass);
+			this.accessor = accessor;
 		}
-		
-		columnNames = (String[])ArrayUtils.removeElement(columnNames, null);
-		
-		this.metadata = new DataSetMetadata(columnNames);		
+		return accessor;
 	}
 	
 	public ObjectDataSet(List<T> rsList){		
@@ -118,9 +116,10 @@ public class ObjectDataSet<T extends Serializable> implements IDataSet<T> {
 		this.rsList.clear();
 		if(!dataList.isEmpty())
 		{						
+			BeanAccessor<T> accessor = getAccessor(null);
 			for (int i = 0; i < dataList.size(); i++) {
 				Map<K, V> rowMap = dataList.get(i);				
-				T instance = DataSetUtils.mapping(clazz, rowMap);
+				T instance = accessor.populate(accessor.newInstance(), rowMap);
 				rsList.add(instance)	;					
 			}
 		}
@@ -263,7 +262,9 @@ public class ObjectDataSet<T extends Serializable> implements IDataSet<T> {
 	public Object getValue(int row, String columnName)
 	{
 		T rowObject = rsList.get(row);		
-		return new Mirror().on(rowObject).get().field(columnName);
+		if(rowObject instanceof Map)	//Map类型的行按键读取
+			return BeanAccessor.getProperty(rowObject, columnName);
+		return getAccessor(rowObject).getValue(rowObject, columnName);
 	}
 	
 	/* (non-Javadoc)
@@ -271,8 +272,7 @@ public class ObjectDataSet<T extends Serializable> implements IDataSet<T> {
 	 */
 	public <E> E getValue(int row, String columnName, Class<E> clazz)
 	{
-		T rowObject = rsList.get(row);		
-		return (E)new Mirror().on(rowObject).get().field(columnName);
+		return (E)this.getValue(row, columnName);
 	}
 	
 	/* (non-Javadoc)
@@ -0,0 +1,158 @@
+package com.littcore.dao.dataset;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.SQLExceptionTranslator;
+import org.springframework.util.LinkedCaseInsensitiveMap;
+
+import com.littcore.dao.dataset.metadata.DataSetMetadata;
+
+/**
+ * JDBC游标结果集.
+ *
+ * <pre><b>Description：</b>
+ *    持有JDBC的ResultSet逐行读取，每行转换为与JdbcTemplate.queryForList相同的Map（列名不区分大小写）。
+ *    关闭时释放ResultSet、Statement并将连接归还给数据源（参与Spring事务时由事务管理）。
+ * </pre>
+ *
+ * <pre><b>Changelog：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ResultSetDataSet extends BaseStreamingDataSet<Map<String, Object>> {
+
+	/** Logger for this class. */
+	private static final Logger logger = LoggerFactory.getLogger(ResultSetDataSet.class);
+
+	private final ResultSet rs;
+
+	private final Statement stmt;
+
+	private final Connection con;
+
+	private final DataSource dataSource;
+
+	/** 打开游标时关闭了自动提交，关闭时需要恢复. */
+	private final boolean resetAutoCommit;
+
+	private final SQLExceptionTranslator exceptionTranslator;
+
+	private final String sql;
+
+	private final String[] columnNames;
+
+	private final DataSetMetadata metadata;
+
+	/**
+	 * Instantiates a new result set data set.
+	 *
+	 * @param rs 结果集
+	 * @param stmt 语句
+	 * @param con 连接
+	 * @param dataSource 连接所属的数据源
+	 * @param resetAutoCommit 关闭时是否恢复自动提交
+	 * @param exceptionTranslator 异常转换器
+	 * @param sql 查询语句（用于异常信息）
+	 * @throws SQLException the SQL exception
+	 */
+	public ResultSetDataSet(ResultSet rs, Statement stmt, Connection con, DataSource dataSource, boolean resetAutoCommit, SQLExceptionTranslator exceptionTranslator, String sql) throws SQLException
+	{
+		this.rs = rs;
+		this.stmt = stmt;
+		this.con = con;
+		this.dataSource = dataSource;
+		this.resetAutoCommit = resetAutoCommit;
+		this.exceptionTranslator = exceptionTranslator;
+		this.sql = sql;
+
+		ResultSetMetaData rsmd = rs.getMetaData();
+		this.columnNames = new String[rsmd.getColumnCount()];
+		for (int i = 0; i < columnNames.length; i++) {
+			columnNames[i] = JdbcUtils.lookupColumnName(rsmd, i+1);
+		}
+		this.metadata = new DataSetMetadata(columnNames);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.BaseStreamingDataSet#doNext()
+	 */
+	@Override
+	protected boolean doNext()
+	{
+		try {
+			return rs.next();
+		} catch (SQLException e) {
+			throw exceptionTranslator.translate("ResultSetDataSet", sql, e);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.BaseStreamingDataSet#readRow()
+	 */
+	@Override
+	protected Map<String, Object> readRow()
+	{
+		Map<String, Object> rowMap = new LinkedCaseInsensitiveMap<Object>(columnNames.length);
+		try {
+			for (int i = 0; i < columnNames.length; i++) {
+				rowMap.put(columnNames[i], JdbcUtils.getResultSetValue(rs, i+1));
+			}
+		} catch (SQLException e) {
+			throw exceptionTranslator.translate("ResultSetDataSet", sql, e);
+		}
+		return rowMap;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.BaseStreamingDataSet#readValue(java.lang.Object, java.lang.String)
+	 */
+	@Override
+	protected Object readValue(Map<String, Object> row, String columnName)
+	{
+		return row.get(columnName);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getMetaData()
+	 */
+	public DataSetMetadata getMetaData()
+	{
+		return metadata;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.BaseStreamingDataSet#doClose()
+	 */
+	@Override
+	protected void doClose()
+	{
+		JdbcUtils.closeResultSet(rs);
+		JdbcUtils.closeStatement(stmt);
+		if(resetAutoCommit)
+		{
+			try {
+				con.rollback();	//只读游标，结束为打开游标而开启的事务
+				con.setAutoCommit(true);
+			} catch (SQLException e) {
+				logger.warn("Unable to reset auto-commit after streaming query.", e);
+			}
+		}
+		DataSourceUtils.releaseConnection(con, dataSource);
+	}
+
+}
@@ -0,0 +1,179 @@
+package com.littcore.dao.dataset;
+
+import org.hibernate.HibernateException;
+import org.hibernate.ScrollableResults;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.orm.hibernate3.SessionFactoryUtils;
+
+import com.littcore.dao.dataset.metadata.DataSetMetadata;
+
+/**
+ * Hibernate游标结果集.
+ *
+ * <pre><b>Description：</b>
+ *    基于ScrollableResults逐行读取，查询只返回一列时当前行为该列的值（如实体），多列时为Object[]。
+ *    使用独立的StatelessSession，不经过一级缓存，读取的实体不会在会话中累积；
+ *    因此实体的延迟加载属性不可用，需要的字段应在HQL中直接查询或使用join fetch。
+ *    按列名读取时优先使用HQL中的别名（select u.id as id ...），单列实体按属性名读取。
+ * </pre>
+ *
+ * <pre><b>Changelog：</b>
+ *    2026-10-17 支持为打开游标开启的事务，关闭时回滚并恢复自动提交
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ScrollableDataSet<T> extends BaseStreamingDataSet<T> {
+
+	/** Logger for this class. */
+	private static final Logger logger = LoggerFactory.getLogger(ScrollableDataSet.class);
+
+	private final ScrollableResults results;
+
+	private final StatelessSession session;
+
+	/** 为打开游标而开启的事务（可为NULL）. */
+	private final Transaction transaction;
+
+	/** 查询返回的列别名. */
+	private final String[] aliases;
+
+	private DataSetMetadata metadata;
+
+	/**
+	 * Instantiates a new scrollable data set.
+	 *
+	 * @param results 游标
+	 * @param session 打开游标的会话（关闭时一并关闭）
+	 * @param aliases 查询返回的列别名（可为NULL）
+	 */
+	public ScrollableDataSet(ScrollableResults results, StatelessSession session, String[] aliases)
+	{
+		this(results, session, null, aliases);
+	}
+
+	/**
+	 * Instantiates a new scrollable data set.
+	 *
+	 * @param results 游标
+	 * @param session 打开游标的会话（关闭时一并关闭）
+	 * @param transaction 为打开游标而开启的事务（关闭时回滚，可为NULL）
+	 * @param aliases 查询返回的列别名（可为NULL）
+	 */
+	public ScrollableDataSet(ScrollableResults results, StatelessSession session, Transaction transaction, String[] aliases)
+	{
+		this.results = results;
+		this.session = session;
+		this.transaction = transaction;
+		this.aliases = aliases;
+		//单列且未指定别名时Hibernate使用"0"作为别名，此时按实体属性生成元数据
+		if(aliases!=null && !(aliases.length==1 && "0".equals(aliases[0])))
+			this.metadata = new DataSetMetadata(aliases);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.BaseStreamingDataSet#doNext()
+	 */
+	@Override
+	protected boolean doNext()
+	{
+		try {
+			return results.next();
+		} catch (HibernateException e) {
+			throw SessionFactoryUtils.convertHibernateAccessException(e);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.BaseStreamingDataSet#readRow()
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	protected T readRow()
+	{
+		try {
+			Object[] row = results.get();
+			return (T)(row.length==1 ? row[0] : row);
+		} catch (HibernateException e) {
+			throw SessionFactoryUtils.convertHibernateAccessException(e);
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.BaseStreamingDataSet#readValue(java.lang.Object, java.lang.String)
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	protected Object readValue(T row, String columnName)
+	{
+		int index = indexOfAlias(columnName);
+		if(row instanceof Object[])
+		{
+			if(index<0)
+				throw new DataSetMappingException("No column "+columnName+" in query result.");
+			return ((Object[])row)[index];
+		}
+		if(index==0 || row==null)
+			return row;
+		BeanAccessor<Object> accessor = BeanAccessor.forClass((Class<Object>)row.getClass());
+		return accessor.getValue(row, columnName);
+	}
+
+	private int indexOfAlias(String columnName)
+	{
+		if(aliases!=null)
+		{
+			for (int i = 0; i < aliases.length; i++) {
+				if(columnName.equals(aliases[i]))
+					return i;
+			}
+		}
+		return -1;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.IStreamingDataSet#getMetaData()
+	 */
+	public DataSetMetadata getMetaData()
+	{
+		if(metadata==null && getRowNum()>=0 && !isClosed())
+		{
+			//没有别名的单列查询，使用实体的属性名
+			T row = getRow();
+			if(row!=null && !(row instanceof Object[]))
+				this.metadata = new DataSetMetadata(BeanAccessor.forClass(row.getClass()).getPropertyNames());
+		}
+		return metadata;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dataset.BaseStreamingDataSet#doClose()
+	 */
+	@Override
+	protected void doClose()
+	{
+		try {
+			results.close();
+		} catch (HibernateException e) {
+			logger.warn("Unable to close scrollable results.", e);
+		} finally {
+			try {
+				if(transaction!=null)
+					transaction.rollback();	//只读游标，结束为打开游标而开启的事务
+			} catch (HibernateException e) {
+				logger.warn("Unable to rollback scroll transaction.", e);
+			}
+			try {
+				session.close();
+			} catch (HibernateException e) {
+				logger.warn("Unable to close stateless session.", e);
+			}
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package com.littcore.dao.dataset.metadata;
 
+import java.io.Serializable;
 import java.util.Locale;
 
 import com.littcore.dao.dataset.DatasetConstants.DataType;
@@ -19,7 +20,10 @@ import com.littcore.dao.dataset.DatasetConstants.DataType;
  * @since 2013-7-4
  * @version 1.0
  */
-public class ColumnMetadata {
+public class ColumnMetadata implements Serializable {
+	
+	/** The Constant serialVersionUID. */
+	private static final long serialVersionUID = 1L;
 	
 	/** 
 	 * 列的索引位置.
@@ -1,6 +1,8 @@
 package com.littcore.dao.dataset.metadata;
 
 import java.io.Serializable;
+import java.util.HashMap;
+import java.util.Map;
 
 import com.littcore.util.Assert;
 
@@ -25,6 +27,9 @@ public class DataSetMetadata implements Serializable {
 	
 	private String[] columnNames;
 	
+	/** 列名与索引的映射，首次按列名查找时建立. */
+	private transient Map<String, Integer> columnIndexes;
+	
 	public DataSetMetadata()
 	{
 		columnMetadatas = new ColumnMetadata[0];
@@ -72,7 +77,7 @@ public class DataSetMetadata implements Serializable {
 	
 	public ColumnMetadata getColumnMetadata(int i)
 	{
-		Assert.isTrue(i>=columnMetadatas.length, "Invalid column index:"+i);
+		Assert.isTrue(i>=0 && i<columnMetadatas.length, "Invalid column index:"+i);
 		
 		return columnMetadatas[i];
 	}
@@ -81,6 +86,28 @@ public class DataSetMetadata implements Serializable {
 	{		
 		return columnNames[i];
 	}
+	
+	/**
+	 * 根据列名获取列的索引.
+	 *
+	 * @param columnName 列名
+	 * @return 列索引，不存在时返回-1
+	 */
+	public int getColumnIndex(String columnName)
+	{
+		Map<String, Integer> indexes = columnIndexes;
+		if(indexes==null)
+		{
+			indexes = new HashMap<String, Integer>(columnNames.length * 4 / 3 + 1);
+			for(int i=0;i<columnNames.length;i++)
+			{
+				indexes.put(columnNames[i], i);
+			}
+			columnIndexes = indexes;
+		}
+		Integer index = indexes.get(columnName);
+		return index==null ? -1 : index.intValue();
+	}
 
 	/**
 	 * @return the columnNames
@@ -93,7 +120,15 @@ public class DataSetMetadata implements Serializable {
 	 * @param columnNames the columnNames to set
 	 */
 	public void setColumnNames(String[] columnNames) {
+		ColumnMetadata[] columnMetadatas = new ColumnMetadata[columnNames.length];
+		for(int i=0;i<columnNames.length;i++)
+		{
+			columnMetadatas[i] = new ColumnMetadata(columnNames[i]);
+			columnMetadatas[i].setIndex(i);
+		}
+		this.columnMetadatas = columnMetadatas;
 		this.columnNames = columnNames;
+		this.columnIndexes = null;
 	}
 
 }
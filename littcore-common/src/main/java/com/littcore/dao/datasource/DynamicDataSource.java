@@ -17,7 +17,7 @@ import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 以RoutingCondition的路由键（分片或租户ID）查找目标数据源；租户较多时使用TenantRoutingDataSource
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -33,7 +33,8 @@ public class DynamicDataSource extends AbstractRoutingDataSource {
 	 */
 	@Override
 	protected Object determineCurrentLookupKey() {		
-		return RoutingDataSourceContextHolder.getContext();
+		RoutingCondition condition = RoutingDataSourceContextHolder.getContext();
+		return condition==null ? null : condition.getRouteKey();
 	}
 	
 }
@@ -5,10 +5,11 @@ package com.littcore.dao.datasource;
  * 
  * <pre><b>描述：</b>
  *    动态数据源选择所依据的条件
+ *    路由键：指定了分片（shardKey）时为分片，否则为租户ID；readOnly为true时优先路由到只读副本。
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 增加分片及只读属性，实现equals/hashCode以便作为路由键使用
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -19,6 +20,28 @@ public class RoutingCondition {
 	
 	/** 租户ID. */
 	private int tenantId;
+	
+	/** 分片. */
+	private String shardKey;
+	
+	/** 是否只读. */
+	private boolean readOnly;
+	
+	public RoutingCondition() {
+	}
+	
+	public RoutingCondition(int tenantId) {
+		this.tenantId = tenantId;
+	}
+	
+	/**
+	 * 获取路由键.
+	 *
+	 * @return 分片或租户ID
+	 */
+	public Object getRouteKey() {
+		return shardKey!=null ? shardKey : Integer.valueOf(tenantId);
+	}
 
 	/**
 	 * @return the tenantId
@@ -34,4 +57,52 @@ public class RoutingCondition {
 		this.tenantId = tenantId;
 	}
 
+	/**
+	 * @return the shardKey
+	 */
+	public String getShardKey() {
+		return shardKey;
+	}
+
+	/**
+	 * @param shardKey the shardKey to set
+	 */
+	public void setShardKey(String shardKey) {
+		this.shardKey = shardKey;
+	}
+
+	/**
+	 * @return the readOnly
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * @param readOnly the readOnly to set
+	 */
+	public void setReadOnly(boolean readOnly) {
+		this.readOnly = readOnly;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * getRouteKey().hashCode() + (readOnly ? 1 : 0);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if(this==obj)
+			return true;
+		if(!(obj instanceof RoutingCondition))
+			return false;
+		RoutingCondition other = (RoutingCondition)obj;
+		return readOnly==other.readOnly && getRouteKey().equals(other.getRouteKey());
+	}
+
+	@Override
+	public String toString() {
+		return readOnly ? getRouteKey()+"(readOnly)" : String.valueOf(getRouteKey());
+	}
+
 }
@@ -1,5 +1,7 @@
 package com.littcore.dao.datasource;
 
+import java.util.concurrent.Callable;
+
 import com.littcore.util.Assert;
 
 /**
@@ -7,10 +9,12 @@ import com.littcore.util.Assert;
  * 
  * <pre><b>描述：</b>
  *    维护线程级的租户上下文信息。
+ *    setContext/remove需成对调用，遗漏remove时上下文会残留在线程池的线程中被下一个请求使用；
+ *    推荐使用execute在指定范围内切换上下文（结束后自动恢复），提交到线程池的任务使用wrap传递当前上下文。
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 增加execute及wrap，上下文在执行结束后恢复，不会残留在线程中
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -45,5 +49,79 @@ public class RoutingDataSourceContextHolder {
     public static void remove(){
     	context.remove();
     }
+    
+    /**
+     * 在指定的路由条件下执行，结束后恢复原来的上下文.
+     *
+     * @param routingCondition 路由条件
+     * @param callable 执行内容
+     * @return 执行结果
+     * @throws Exception the exception
+     */
+    public static <T> T execute(RoutingCondition routingCondition, Callable<T> callable) throws Exception {
+    	Assert.notNull(routingCondition, "Routing condition can't be null.");
+    	RoutingCondition previous = context.get();
+    	context.set(routingCondition);
+    	try {
+    		return callable.call();
+    	} finally {
+    		restore(previous);
+    	}
+    }
+    
+    /**
+     * 包装任务，在执行任务的线程中使用当前线程的上下文，执行结束后恢复.
+     *
+     * @param task the task
+     * @return the runnable
+     */
+    public static Runnable wrap(final Runnable task) {
+    	final RoutingCondition captured = context.get();
+    	return new Runnable() {
+    		public void run() {
+    			RoutingCondition previous = context.get();
+    			if(captured==null)
+    				context.remove();
+    			else
+    				context.set(captured);
+    			try {
+    				task.run();
+    			} finally {
+    				restore(previous);
+    			}
+    		}
+    	};
+    }
+    
+    /**
+     * 包装任务，在执行任务的线程中使用当前线程的上下文，执行结束后恢复.
+     *
+     * @param task the task
+     * @return the callable
+     */
+    public static <T> Callable<T> wrap(final Callable<T> task) {
+    	final RoutingCondition captured = context.get();
+    	return new Callable<T>() {
+    		public T call() throws Exception {
+    			RoutingCondition previous = context.get();
+    			if(captured==null)
+    				context.remove();
+    			else
+    				context.set(captured);
+    			try {
+    				return task.call();
+    			} finally {
+    				restore(previous);
+    			}
+    		}
+    	};
+    }
+    
+    private static void restore(RoutingCondition previous) {
+    	if(previous==null)
+    		context.remove();
+    	else
+    		context.set(previous);
+    }
 
 }
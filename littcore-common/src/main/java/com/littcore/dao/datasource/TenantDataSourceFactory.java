@@ -0,0 +1,42 @@
+package com.littcore.dao.datasource;
+
+import javax.sql.DataSource;
+
+/**
+ * 租户数据源工厂.
+ * 
+ * <pre><b>描述：</b>
+ *    由TenantRoutingDataSource在首次访问某个路由时调用，创建该路由的连接池（实现可使用任意连接池），
+ *    连接池长时间空闲被淘汰时调用destroyDataSource关闭。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface TenantDataSourceFactory {
+	
+	/**
+	 * 创建数据源.
+	 *
+	 * @param routeKey 路由键（分片或租户ID）
+	 * @param replica 是否创建只读副本的数据源
+	 * @return 数据源，没有只读副本时返回NULL（只读请求使用主库）
+	 * @throws Exception the exception
+	 */
+	public DataSource createDataSource(Object routeKey, boolean replica) throws Exception;
+	
+	/**
+	 * 关闭数据源.
+	 *
+	 * @param routeKey 路由键
+	 * @param dataSource 数据源
+	 * @throws Exception the exception
+	 */
+	public void destroyDataSource(Object routeKey, DataSource dataSource) throws Exception;
+
+}
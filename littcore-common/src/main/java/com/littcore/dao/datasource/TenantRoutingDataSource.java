@@ -0,0 +1,523 @@
+package com.littcore.dao.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.littcore.metrics.LatencyHistogram;
+import com.littcore.metrics.MBeanUtils;
+
+/**
+ * 租户路由数据源.
+ *
+ * <pre><b>描述：</b>
+ *    与DynamicDataSource不同，目标数据源不需要预先在Spring中声明：首次访问某个路由（分片或租户ID）时由TenantDataSourceFactory创建连接池并缓存，
+ *    后台定时淘汰长时间空闲（没有借出的连接）的连接池，连接池数量超过上限时按最近访问时间淘汰（LRU）。
+ *    读写分离：RoutingCondition.readOnly为true或当前处于只读事务时使用只读副本（工厂未提供副本时使用主库）；
+ *    注：DataSourceTransactionManager在设置只读标志之前获取连接，需要通过LazyConnectionDataSourceProxy包装才能按事务的只读属性路由。
+ *    每个路由统计借出的连接数、获取连接的等待时间、失败次数及空闲时间，通过MBean（com.littcore.dao:type=TenantRoutingDataSource）查看。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class TenantRoutingDataSource extends AbstractDataSource implements TenantRoutingDataSourceMBean, InitializingBean, DisposableBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(TenantRoutingDataSource.class);
+
+	private static final int LOCK_STRIPES = 64;
+
+	private final ConcurrentMap<Object, RoutePool> pools = new ConcurrentHashMap<Object, RoutePool>();
+
+	/** 创建连接池时按路由键分段加锁，不同路由的创建互不阻塞. */
+	private final Object[] locks = new Object[LOCK_STRIPES];
+
+	private final Object evictLock = new Object();
+
+	private final AtomicLong createdCount = new AtomicLong();
+
+	private final AtomicLong evictedCount = new AtomicLong();
+
+	private TenantDataSourceFactory dataSourceFactory;
+
+	/** 没有路由上下文时使用的数据源，为NULL时抛出异常. */
+	private DataSource defaultDataSource;
+
+	/** 名称，用于MBean. */
+	private String name = "default";
+
+	/** 最大连接池数. */
+	private volatile int maxPools = 500;
+
+	/** 空闲超时时间（毫秒）. */
+	private long idleTimeout = 30 * 60 * 1000L;
+
+	/** 空闲检查周期（毫秒）. */
+	private long evictInterval = 60 * 1000L;
+
+	private ScheduledExecutorService evictor;
+
+	private ObjectName objectName;
+
+	public TenantRoutingDataSource() {
+		for(int i=0;i<LOCK_STRIPES;i++)
+		{
+			locks[i] = new Object();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see org.springframework.beans.factory.InitializingBean#afterPropertiesSet()
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		if(dataSourceFactory==null)
+			throw new IllegalArgumentException("Property 'dataSourceFactory' is required");
+		if(evictInterval>0)
+		{
+			evictor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+				public Thread newThread(Runnable r) {
+					Thread thread = new Thread(r, "TenantRoutingDataSource-"+name+"-evictor");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			evictor.scheduleWithFixedDelay(new Runnable() {
+				public void run() {
+					try {
+						evictIdle();
+					} catch (RuntimeException e) {
+						logger.warn("Failed to evict idle pools", e);
+					}
+				}
+			}, evictInterval, evictInterval, TimeUnit.MILLISECONDS);
+		}
+		objectName = MBeanUtils.register(this, "com.littcore.dao", "TenantRoutingDataSource", name);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.springframework.beans.factory.DisposableBean#destroy()
+	 */
+	@Override
+	public void destroy() {
+		if(evictor!=null)
+		{
+			evictor.shutdownNow();
+			evictor = null;
+		}
+		synchronized(evictLock)
+		{
+			for(RoutePool pool : new ArrayList<RoutePool>(pools.values()))
+			{
+				pools.remove(pool.key, pool);
+				destroyPool(pool);
+			}
+		}
+		MBeanUtils.unregister(objectName);
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.sql.DataSource#getConnection()
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getConnection(null, null);
+	}
+
+	/* (non-Javadoc)
+	 * @see javax.sql.DataSource#getConnection(java.lang.String, java.lang.String)
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		RoutingCondition condition = RoutingDataSourceContextHolder.getContext();
+		if(condition==null)
+		{
+			if(defaultDataSource==null)
+				throw new SQLException("No routing condition bound to current thread");
+			return username==null ? defaultDataSource.getConnection() : defaultDataSource.getConnection(username, password);
+		}
+		boolean readOnly = condition.isReadOnly() || TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+		Object routeKey = condition.getRouteKey();
+		for(;;)
+		{
+			RoutePool pool = getPool(routeKey);
+			pool.active.incrementAndGet();
+			if(pool.evicted)	//已被淘汰，重新获取
+			{
+				pool.active.decrementAndGet();
+				continue;
+			}
+			long start = System.nanoTime();
+			try {
+				DataSource dataSource = readOnly ? pool.getReadDataSource() : pool.primary;
+				Connection conn = username==null ? dataSource.getConnection() : dataSource.getConnection(username, password);
+				pool.acquireTime.record(System.nanoTime() - start);
+				pool.lastAccess = System.currentTimeMillis();
+				return (Connection)Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new ConnectionHandler(conn, pool));
+			} catch (SQLException e) {
+				pool.active.decrementAndGet();
+				pool.failures.incrementAndGet();
+				throw e;
+			} catch (RuntimeException e) {
+				pool.active.decrementAndGet();
+				pool.failures.incrementAndGet();
+				throw e;
+			}
+		}
+	}
+
+	/**
+	 * 获取路由的连接池，不存在时创建.
+	 *
+	 * @param routeKey 路由键
+	 * @return the route pool
+	 * @throws SQLException the SQL exception
+	 */
+	private RoutePool getPool(Object routeKey) throws SQLException {
+		RoutePool pool = pools.get(routeKey);
+		if(pool!=null)
+			return pool;
+		synchronized(locks[(routeKey.hashCode() & 0x7FFFFFFF) % LOCK_STRIPES])
+		{
+			pool = pools.get(routeKey);
+			if(pool!=null)
+				return pool;
+			DataSource dataSource;
+			try {
+				dataSource = dataSourceFactory.createDataSource(routeKey, false);
+			} catch (Exception e) {
+				throw new SQLException("Could not create DataSource for route: "+routeKey, e);
+			}
+			if(dataSource==null)
+				throw new SQLException("No DataSource for route: "+routeKey);
+			pool = new RoutePool(routeKey, dataSource);
+			pools.put(routeKey, pool);
+			createdCount.incrementAndGet();
+			logger.info("Created DataSource for route {}, pools: {}", routeKey, pools.size());
+		}
+		if(pools.size()>maxPools)
+			evict(pool);
+		return pool;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.datasource.TenantRoutingDataSourceMBean#evictIdle()
+	 */
+	@Override
+	public int evictIdle() {
+		return evict(null);
+	}
+
+	/**
+	 * 淘汰空闲超时的连接池，数量仍超过上限时按最近访问时间淘汰空闲的连接池.
+	 *
+	 * @param exclude 不淘汰的连接池（刚创建的）
+	 * @return 淘汰的数量
+	 */
+	private int evict(RoutePool exclude) {
+		synchronized(evictLock)
+		{
+			long now = System.currentTimeMillis();
+			int count = 0;
+			List<RoutePool> idle = new ArrayList<RoutePool>();
+			for(RoutePool pool : pools.values())
+			{
+				if(pool==exclude || pool.active.get()!=0)
+					continue;
+				if(now-pool.lastAccess>idleTimeout)
+				{
+					if(tryEvict(pool))
+						count++;
+				}
+				else
+				{
+					idle.add(pool);
+				}
+			}
+			if(pools.size()>maxPools)
+			{
+				Collections.sort(idle, new Comparator<RoutePool>() {
+					public int compare(RoutePool o1, RoutePool o2) {
+						return o1.lastAccess<o2.lastAccess ? -1 : (o1.lastAccess==o2.lastAccess ? 0 : 1);
+					}
+				});
+				for(int i=0;i<idle.size() && pools.size()>maxPools;i++)
+				{
+					if(tryEvict(idle.get(i)))
+						count++;
+				}
+			}
+			return count;
+		}
+	}
+
+	/**
+	 * 淘汰连接池，有借出的连接时放弃.
+	 * 先标记再检查借出数，与getConnection中先增加借出数再检查标记相对应，两者不会同时成功
+	 */
+	private boolean tryEvict(RoutePool pool) {
+		pool.evicted = true;
+		if(pool.active.get()!=0)
+		{
+			pool.evicted = false;
+			return false;
+		}
+		pools.remove(pool.key, pool);
+		destroyPool(pool);
+		evictedCount.incrementAndGet();
+		logger.info("Evicted idle DataSource for route {}", pool.key);
+		return true;
+	}
+
+	private void destroyPool(RoutePool pool) {
+		try {
+			dataSourceFactory.destroyDataSource(pool.key, pool.primary);
+			if(pool.replica!=null)
+				dataSourceFactory.destroyDataSource(pool.key, pool.replica);
+		} catch (Exception e) {
+			logger.warn("Failed to destroy DataSource for route "+pool.key, e);
+		}
+	}
+
+	@Override
+	public int getPoolCount() {
+		return pools.size();
+	}
+
+	@Override
+	public long getCreatedCount() {
+		return createdCount.get();
+	}
+
+	@Override
+	public long getEvictedCount() {
+		return evictedCount.get();
+	}
+
+	@Override
+	public int getActiveConnections() {
+		int active = 0;
+		for(RoutePool pool : pools.values())
+		{
+			active += pool.active.get();
+		}
+		return active;
+	}
+
+	@Override
+	public String[] getRouteStats() {
+		long now = System.currentTimeMillis();
+		List<String> stats = new ArrayList<String>(pools.size());
+		for(RoutePool pool : pools.values())
+		{
+			stats.add(pool.key+": active="+pool.active.get()
+					+", idle="+(pool.active.get()==0 ? (now-pool.lastAccess)+"ms" : "0ms")
+					+", connections="+pool.acquireTime.getCount()
+					+", failures="+pool.failures.get()
+					+", wait(mean/p99/max)="+Math.round(pool.acquireTime.getMean())+"/"+pool.acquireTime.getPercentile(0.99)+"/"+pool.acquireTime.getMax()+"us"
+					+(pool.replica!=null ? ", replica" : ""));
+		}
+		Collections.sort(stats);
+		return stats.toArray(new String[stats.size()]);
+	}
+
+	/**
+	 * 路由的连接池及统计.
+	 */
+	private final class RoutePool {
+
+		private final Object key;
+
+		private final DataSource primary;
+
+		private volatile DataSource replica;
+
+		private volatile boolean replicaResolved;
+
+		/** 借出的连接数. */
+		private final AtomicInteger active = new AtomicInteger();
+
+		private final AtomicLong failures = new AtomicLong();
+
+		private final LatencyHistogram acquireTime = new LatencyHistogram();
+
+		private volatile long lastAccess = System.currentTimeMillis();
+
+		private volatile boolean evicted;
+
+		RoutePool(Object key, DataSource primary) {
+			this.key = key;
+			this.primary = primary;
+		}
+
+		/**
+		 * 获取只读数据源，首次调用时创建副本.
+		 */
+		DataSource getReadDataSource() throws SQLException {
+			if(!replicaResolved)
+			{
+				synchronized(this)
+				{
+					if(!replicaResolved)
+					{
+						try {
+							replica = dataSourceFactory.createDataSource(key, true);
+						} catch (Exception e) {
+							throw new SQLException("Could not create replica DataSource for route: "+key, e);
+						}
+						replicaResolved = true;
+					}
+				}
+			}
+			return replica!=null ? replica : primary;
+		}
+	}
+
+	/**
+	 * 连接关闭时减少借出数.
+	 */
+	private static final class ConnectionHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		private final RoutePool pool;
+
+		private final AtomicBoolean closed = new AtomicBoolean();
+
+		ConnectionHandler(Connection target, RoutePool pool) {
+			this.target = target;
+			this.pool = pool;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String methodName = method.getName();
+			if("equals".equals(methodName))
+				return Boolean.valueOf(proxy==args[0]);
+			if("hashCode".equals(methodName))
+				return Integer.valueOf(System.identityHashCode(proxy));
+			if("close".equals(methodName) && closed.compareAndSet(false, true))
+			{
+				pool.active.decrementAndGet();
+				pool.lastAccess = System.currentTimeMillis();
+			}
+			try {
+				return method.invoke(target, args);
+			} catch (InvocationTargetException e) {
+				throw e.getTargetException();
+			}
+		}
+	}
+
+	/**
+	 * @return the dataSourceFactory
+	 */
+	public TenantDataSourceFactory getDataSourceFactory() {
+		return dataSourceFactory;
+	}
+
+	/**
+	 * @param dataSourceFactory the dataSourceFactory to set
+	 */
+	public void setDataSourceFactory(TenantDataSourceFactory dataSourceFactory) {
+		this.dataSourceFactory = dataSourceFactory;
+	}
+
+	/**
+	 * @return the defaultDataSource
+	 */
+	public DataSource getDefaultDataSource() {
+		return defaultDataSource;
+	}
+
+	/**
+	 * @param defaultDataSource the defaultDataSource to set
+	 */
+	public void setDefaultDataSource(DataSource defaultDataSource) {
+		this.defaultDataSource = defaultDataSource;
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName() {
+		return name;
+	}
+
+	/**
+	 * @param name the name to set
+	 */
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	@Override
+	public int getMaxPools() {
+		return maxPools;
+	}
+
+	@Override
+	public void setMaxPools(int maxPools) {
+		this.maxPools = maxPools;
+	}
+
+	/**
+	 * @return the idleTimeout
+	 */
+	public long getIdleTimeout() {
+		return idleTimeout;
+	}
+
+	/**
+	 * @param idleTimeout the idleTimeout to set
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * @return the evictInterval
+	 */
+	public long getEvictInterval() {
+		return evictInterval;
+	}
+
+	/**
+	 * @param evictInterval 空闲检查周期（毫秒），小于等于0时不启动后台检查
+	 */
+	public void setEvictInterval(long evictInterval) {
+		this.evictInterval = evictInterval;
+	}
+
+}
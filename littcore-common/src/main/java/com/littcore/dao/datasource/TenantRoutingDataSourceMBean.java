@@ -0,0 +1,52 @@
+package com.littcore.dao.datasource;
+
+/**
+ * 租户路由数据源的JMX接口.
+ * 
+ * <pre><b>描述：</b>
+ *    耗时单位均为微秒
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface TenantRoutingDataSourceMBean {
+	
+	/**
+	 * @return 当前缓存的连接池数
+	 */
+	public int getPoolCount();
+	
+	public int getMaxPools();
+	
+	public void setMaxPools(int maxPools);
+	
+	public long getCreatedCount();
+	
+	public long getEvictedCount();
+	
+	/**
+	 * @return 所有路由借出的连接数
+	 */
+	public int getActiveConnections();
+	
+	/**
+	 * 各路由的统计信息.
+	 *
+	 * @return 每个路由一行
+	 */
+	public String[] getRouteStats();
+	
+	/**
+	 * 立即淘汰空闲的连接池.
+	 *
+	 * @return 淘汰的数量
+	 */
+	public int evictIdle();
+
+}
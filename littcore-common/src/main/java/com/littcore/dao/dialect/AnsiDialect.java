@@ -0,0 +1,48 @@
+package com.littcore.dao.dialect;
+
+/**
+ * SQL:2008标准方言.
+ * 
+ * <pre><b>描述：</b>
+ *    使用OFFSET n ROWS FETCH FIRST m ROWS ONLY分页，适用于DB2、Derby、Oracle 12c及以上版本
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class AnsiDialect extends BaseDialect {
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getName()
+	 */
+	public String getName()
+	{
+		return "ansi";
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getLimitString(java.lang.String, boolean)
+	 */
+	public String getLimitString(String sql, boolean hasOffset)
+	{
+		return new StringBuilder(sql.length()+50).append(trimSql(sql))
+												.append(hasOffset ? " OFFSET ? ROWS FETCH NEXT ? ROWS ONLY" : " FETCH FIRST ? ROWS ONLY")
+												.toString();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#bindLimitParams(java.lang.Object[], int, int)
+	 */
+	public Object[] bindLimitParams(Object[] params, int offset, int limit)
+	{
+		if(offset>0)
+			return appendParams(params, Integer.valueOf(offset), Integer.valueOf(limit));
+		return appendParams(params, Integer.valueOf(limit));
+	}
+
+}
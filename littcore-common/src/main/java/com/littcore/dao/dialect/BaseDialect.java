@@ -0,0 +1,110 @@
+package com.littcore.dao.dialect;
+
+import com.littcore.dao.ql.CountQLRewriter;
+
+/**
+ * 数据库方言基类.
+ * 
+ * <pre><b>描述：</b>
+ *    提供统计语句及分页参数拼接的通用实现
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 统计语句改为按词法分析生成：去除最外层排序，简单查询不再嵌套子查询
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public abstract class BaseDialect implements IDialect {
+	
+	/** 空参数. */
+	protected static final Object[] EMPTY_PARAMS = new Object[0];
+	
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getCountString(java.lang.String)
+	 */
+	public String getCountString(String sql)
+	{
+		return CountQLRewriter.toCountSql(trimSql(sql));
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getStreamingFetchSize(int)
+	 */
+	public int getStreamingFetchSize(int fetchSize)
+	{
+		return fetchSize;
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#isCursorRequiresTransaction()
+	 */
+	public boolean isCursorRequiresTransaction()
+	{
+		return false;
+	}
+	
+	/**
+	 * 在原有参数后追加参数.
+	 *
+	 * @param params 原有参数
+	 * @param first 第一个追加的参数
+	 * @param second 第二个追加的参数
+	 * @return 新的参数数组
+	 */
+	protected Object[] appendParams(Object[] params, Object first, Object second)
+	{
+		if(params==null)
+			params = EMPTY_PARAMS;
+		Object[] ret = new Object[params.length+2];
+		System.arraycopy(params, 0, ret, 0, params.length);
+		ret[params.length] = first;
+		ret[params.length+1] = second;
+		return ret;
+	}
+	
+	/**
+	 * 在原有参数后追加参数.
+	 *
+	 * @param params 原有参数
+	 * @param first 追加的参数
+	 * @return 新的参数数组
+	 */
+	protected Object[] appendParams(Object[] params, Object first)
+	{
+		if(params==null)
+			params = EMPTY_PARAMS;
+		Object[] ret = new Object[params.length+1];
+		System.arraycopy(params, 0, ret, 0, params.length);
+		ret[params.length] = first;
+		return ret;
+	}
+	
+	/**
+	 * 去除语句末尾的空白及分号.
+	 *
+	 * @param sql SQL语句
+	 * @return SQL语句
+	 */
+	protected String trimSql(String sql)
+	{
+		String ret = sql.trim();
+		while(ret.endsWith(";"))
+		{
+			ret = ret.substring(0, ret.length()-1).trim();
+		}
+		return ret;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString()
+	{
+		return getName();
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.littcore.dao.dialect;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+
+import com.littcore.util.StringUtils;
+
+/**
+ * 数据库方言工厂.
+ * 
+ * <pre><b>描述：</b>
+ *    根据方言名称或数据源的数据库产品名称获得对应的方言实现
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class DialectFactory {
+	
+	private static final Logger logger = LoggerFactory.getLogger(DialectFactory.class);
+	
+	private DialectFactory(){}
+	
+	/**
+	 * 根据名称获得方言.
+	 * 名称可以是内置的方言名或方言实现类的全名
+	 *
+	 * @param name 方言名称
+	 * @return 方言
+	 */
+	public static IDialect getDialect(String name)
+	{
+		IDialect dialect = resolve(name);
+		if(dialect!=null)
+			return dialect;
+		try
+		{
+			return (IDialect)Class.forName(name).newInstance();
+		}
+		catch (Exception e)
+		{
+			throw new IllegalArgumentException("Unsupported dialect:"+name, e);
+		}
+	}
+	
+	/**
+	 * 根据数据源自动检测方言.
+	 *
+	 * @param dataSource 数据源
+	 * @return 方言，无法识别时返回NULL
+	 */
+	public static IDialect getDialect(DataSource dataSource)
+	{
+		Connection conn = null;
+		try
+		{
+			conn = DataSourceUtils.getConnection(dataSource);
+			String productName = conn.getMetaData().getDatabaseProductName();
+			IDialect dialect = resolve(productName);
+			if(dialect==null)
+				logger.warn("Unable to detect dialect for database:{}, paging in result set.", productName);
+			else if(logger.isInfoEnabled())
+				logger.info("Detected dialect:{} for database:{}", new Object[]{dialect.getName(), productName});
+			return dialect;
+		}
+		catch (SQLException e)
+		{
+			logger.warn("Unable to detect dialect, paging in result set.", e);
+			return null;
+		}
+		finally
+		{
+			DataSourceUtils.releaseConnection(conn, dataSource);
+		}
+	}
+	
+	/**
+	 * 根据方言名称或数据库产品名称匹配内置方言.
+	 *
+	 * @param name 名称
+	 * @return 方言，无法识别时返回NULL
+	 */
+	private static IDialect resolve(String name)
+	{
+		if(StringUtils.isEmpty(name))
+			return null;
+		String lowerName = name.toLowerCase();
+		if(lowerName.contains("mysql") || lowerName.contains("mariadb"))
+			return new MySQLDialect();
+		if(lowerName.contains("postgresql") || lowerName.equals("h2") || lowerName.contains("hsql") || lowerName.contains("sqlite"))
+			return new PostgreSQLDialect();
+		if(lowerName.contains("oracle"))
+			return new OracleDialect();
+		if(lowerName.contains("sqlserver") || lowerName.contains("sql server"))
+			return new SQLServerDialect();
+		if(lowerName.startsWith("db2") || lowerName.contains("derby") || lowerName.equals("ansi"))
+			return new AnsiDialect();
+		return null;
+	}
+
+}
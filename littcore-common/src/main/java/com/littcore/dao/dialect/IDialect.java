@@ -0,0 +1,72 @@
+package com.littcore.dao.dialect;
+
+/**
+ * 数据库方言接口.
+ * 
+ * <pre><b>描述：</b>
+ *    屏蔽不同数据库分页语法的差异，将普通查询语句改写为数据库端分页的语句。
+ *    分页参数以?占位符的形式追加到原有参数之后，保证不同页码生成的SQL语句相同，便于JDBC语句缓存。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 增加流式游标查询的抓取参数
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface IDialect {
+	
+	/**
+	 * 方言名称.
+	 *
+	 * @return 方言名称
+	 */
+	public String getName();
+	
+	/**
+	 * 生成分页查询语句.
+	 *
+	 * @param sql 原始查询语句
+	 * @param hasOffset 是否需要跳过记录（第一页时为false）
+	 * @return 分页查询语句
+	 */
+	public String getLimitString(String sql, boolean hasOffset);
+	
+	/**
+	 * 按分页语句中占位符的顺序，将分页参数追加到原有参数之后.
+	 *
+	 * @param params 原始查询参数（可为NULL）
+	 * @param offset 跳过的记录数
+	 * @param limit 获取的记录数
+	 * @return 新的参数数组
+	 */
+	public Object[] bindLimitParams(Object[] params, int offset, int limit);
+	
+	/**
+	 * 生成统计总记录数的语句.
+	 *
+	 * @param sql 原始查询语句
+	 * @return 统计语句
+	 */
+	public String getCountString(String sql);
+	
+	/**
+	 * 流式游标查询时设置到Statement上的抓取行数.
+	 * 部分驱动需要特殊值才会逐批从数据库读取（如MySQL需要Integer.MIN_VALUE）
+	 *
+	 * @param fetchSize 期望的每批抓取行数
+	 * @return Statement的fetchSize
+	 */
+	public int getStreamingFetchSize(int fetchSize);
+	
+	/**
+	 * 流式游标查询是否需要关闭自动提交.
+	 * 如PostgreSQL只有在事务中才使用服务端游标，否则会一次读取全部结果
+	 *
+	 * @return true需要关闭自动提交
+	 */
+	public boolean isCursorRequiresTransaction();
+
+}
@@ -0,0 +1,58 @@
+package com.littcore.dao.dialect;
+
+/**
+ * MySQL方言.
+ * 
+ * <pre><b>描述：</b>
+ *    使用LIMIT offset, size分页，同样适用于MariaDB
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class MySQLDialect extends BaseDialect {
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getName()
+	 */
+	public String getName()
+	{
+		return "mysql";
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.BaseDialect#getStreamingFetchSize(int)
+	 */
+	@Override
+	public int getStreamingFetchSize(int fetchSize)
+	{
+		//Connector/J未开启useCursorFetch时，只有Integer.MIN_VALUE才会逐行读取
+		return Integer.MIN_VALUE;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getLimitString(java.lang.String, boolean)
+	 */
+	public String getLimitString(String sql, boolean hasOffset)
+	{
+		return new StringBuilder(sql.length()+20).append(trimSql(sql))
+												.append(hasOffset ? " LIMIT ?, ?" : " LIMIT ?")
+												.toString();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#bindLimitParams(java.lang.Object[], int, int)
+	 */
+	public Object[] bindLimitParams(Object[] params, int offset, int limit)
+	{
+		if(offset>0)
+			return appendParams(params, Integer.valueOf(offset), Integer.valueOf(limit));
+		return appendParams(params, Integer.valueOf(limit));
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.littcore.dao.dialect;
+
+/**
+ * Oracle方言.
+ * 
+ * <pre><b>描述：</b>
+ *    使用ROWNUM嵌套查询分页，适用于所有Oracle版本。
+ *    注：跳过记录时结果集中会多出ROWNUM_列；12c及以上版本可使用AnsiDialect。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class OracleDialect extends BaseDialect {
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getName()
+	 */
+	public String getName()
+	{
+		return "oracle";
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getLimitString(java.lang.String, boolean)
+	 */
+	public String getLimitString(String sql, boolean hasOffset)
+	{
+		StringBuilder ret = new StringBuilder(sql.length()+100);
+		if(hasOffset)
+			ret.append("SELECT * FROM (SELECT row_.*, ROWNUM rownum_ FROM (");
+		else
+			ret.append("SELECT * FROM (");
+		ret.append(trimSql(sql));
+		if(hasOffset)
+			ret.append(") row_ WHERE ROWNUM <= ?) WHERE rownum_ > ?");
+		else
+			ret.append(") WHERE ROWNUM <= ?");
+		return ret.toString();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#bindLimitParams(java.lang.Object[], int, int)
+	 */
+	public Object[] bindLimitParams(Object[] params, int offset, int limit)
+	{
+		if(offset>0)
+			return appendParams(params, Integer.valueOf(offset+limit), Integer.valueOf(offset));
+		return appendParams(params, Integer.valueOf(limit));
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.littcore.dao.dialect;
+
+/**
+ * PostgreSQL方言.
+ * 
+ * <pre><b>描述：</b>
+ *    使用LIMIT size OFFSET offset分页，同样适用于H2、HSQLDB、SQLite
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class PostgreSQLDialect extends BaseDialect {
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getName()
+	 */
+	public String getName()
+	{
+		return "postgresql";
+	}
+	
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.BaseDialect#isCursorRequiresTransaction()
+	 */
+	@Override
+	public boolean isCursorRequiresTransaction()
+	{
+		return true;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getLimitString(java.lang.String, boolean)
+	 */
+	public String getLimitString(String sql, boolean hasOffset)
+	{
+		return new StringBuilder(sql.length()+20).append(trimSql(sql))
+												.append(hasOffset ? " LIMIT ? OFFSET ?" : " LIMIT ?")
+												.toString();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#bindLimitParams(java.lang.Object[], int, int)
+	 */
+	public Object[] bindLimitParams(Object[] params, int offset, int limit)
+	{
+		if(offset>0)
+			return appendParams(params, Integer.valueOf(limit), Integer.valueOf(offset));
+		return appendParams(params, Integer.valueOf(limit));
+	}
+
+}
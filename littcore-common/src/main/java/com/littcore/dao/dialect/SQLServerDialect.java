@@ -0,0 +1,74 @@
+package com.littcore.dao.dialect;
+
+import com.littcore.dao.ql.CountQLRewriter;
+
+/**
+ * SQL Server方言.
+ * 
+ * <pre><b>描述：</b>
+ *    适用于SQL Server 2012及以上版本，使用OFFSET ... FETCH NEXT分页。
+ *    SQL Server要求OFFSET必须跟在ORDER BY之后，原始语句没有排序时补充一个常量排序。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 统计语句统一由CountQLRewriter生成（已去除最外层排序）
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class SQLServerDialect extends BaseDialect {
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getName()
+	 */
+	public String getName()
+	{
+		return "sqlserver";
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#getLimitString(java.lang.String, boolean)
+	 */
+	public String getLimitString(String sql, boolean hasOffset)
+	{
+		String trimmed = trimSql(sql);
+		StringBuilder ret = new StringBuilder(sql.length()+60).append(trimmed);
+		if(!hasOrderBy(trimmed))
+			ret.append(" ORDER BY (SELECT 0)");
+		//SQL Server不支持单独的FETCH，第一页也需要OFFSET 0
+		return ret.append(" OFFSET ? ROWS FETCH NEXT ? ROWS ONLY").toString();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.dao.dialect.IDialect#bindLimitParams(java.lang.Object[], int, int)
+	 */
+	public Object[] bindLimitParams(Object[] params, int offset, int limit)
+	{
+		return appendParams(params, Integer.valueOf(offset), Integer.valueOf(limit));
+	}
+	
+	/**
+	 * 最外层语句是否有排序.
+	 *
+	 * @param sql SQL语句
+	 * @return true, if successful
+	 */
+	private boolean hasOrderBy(String sql)
+	{
+		return lastOrderBy(sql)>=0;
+	}
+	
+	/**
+	 * 查找最外层ORDER BY的位置（不在括号内）.
+	 *
+	 * @param sql SQL语句
+	 * @return 位置，不存在返回-1
+	 */
+	private int lastOrderBy(String sql)
+	{
+		return CountQLRewriter.indexOfOrderBy(sql);
+	}
+
+}
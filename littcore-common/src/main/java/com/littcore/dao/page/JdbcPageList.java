@@ -79,12 +79,7 @@ public class JdbcPageList implements IPageList {
             iRow++;
             if ((iRow > rowStart && iRow <= rowEnd) || pageSize <= 0) // 取当前页面大小结果||pageSize小于等于0获取全部结果
             {
-            	Map rowMap = new HashMap();        		
-            	for(int i=1;i<=columnCount;i++)	//保存数据到Map
-        		{        			
-        			rowMap.put(rsmd.getColumnName(i).toUpperCase(), rs.getObject(i));
-        		}
-        		rsList.add(rowMap);            	
+        		rsList.add(mapRow(rs, rsmd, columnCount));            	
             }
         }    	
         if(resultsetTransformer!=null)    	
@@ -93,6 +88,43 @@ public class JdbcPageList implements IPageList {
         countPages(); //根据总结果集大小计算总的页面数  
     }     
     
+    /**
+     * 缓存结果(数据库端分页时使用).
+     * 结果集中只包含当前页的记录，总记录数需预先通过setTotalSize设置
+     * @param rs ResultSet
+     */
+    public void populatePage(ResultSet rs) throws SQLException
+    {
+    	rsList = new ArrayList(pageSize > 0 ? pageSize : 16);
+    	
+    	ResultSetMetaData rsmd = rs.getMetaData();
+    	int columnCount = rsmd.getColumnCount();
+    	while(rs.next())
+    	{
+    		rsList.add(mapRow(rs, rsmd, columnCount));
+    	}
+    	if(resultsetTransformer!=null)    	
+    		this.rsList = resultsetTransformer.transform(rsList);	
+    }
+    
+    /**
+     * 将当前行保存到Map.
+     *
+     * @param rs ResultSet
+     * @param rsmd 结果集元数据
+     * @param columnCount 列数
+     * @return 行数据
+     */
+    private Map mapRow(ResultSet rs, ResultSetMetaData rsmd, int columnCount) throws SQLException
+    {
+    	Map rowMap = new HashMap();        		
+    	for(int i=1;i<=columnCount;i++)	//保存数据到Map
+		{        			
+			rowMap.put(rsmd.getColumnName(i).toUpperCase(), rs.getObject(i));
+		}
+    	return rowMap;
+    }
+    
     /**
      * 根据总的结果集数量计算页面数.
      */
@@ -195,7 +227,8 @@ public class JdbcPageList implements IPageList {
      * @param totalSize 设置 totalSize。
      */
     public void setTotalSize(int totalSize) {
-        this.totalSize = totalSize;              
+        this.totalSize = totalSize;
+        countPages(); //根据总结果集大小计算总的页面数
     }
 
 	/* (non-Javadoc)
@@ -0,0 +1,282 @@
+package com.littcore.dao.page;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 分页总记录数缓存.
+ *
+ * <pre><b>描述：</b>
+ *    以统计语句（即查询结构）及参数为键缓存总记录数，翻页时不必每次重新统计。
+ *    DAO中查询第一页时总是重新统计并刷新缓存，第2..N页优先使用缓存；缓存过期（TTL）后重新统计。
+ *    通过DAO执行的更新语句会按表名（实体名）清除相关的缓存，其他途径的更新可调用invalidate/clear。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 按表名缓存已编译的正则，同一统计语句只匹配一次
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class PageCountCache {
+
+	/** 默认过期时间（毫秒）. */
+	public static final long DEFAULT_TTL = 60000L;
+
+	/** 默认最大缓存数. */
+	public static final int DEFAULT_MAX_SIZE = 10000;
+
+	/** 从INSERT/UPDATE/DELETE语句中提取表名（实体名）. */
+	private static final Pattern PATTERN_DML_TABLE = Pattern.compile("^\\s*(?:INSERT\\s+INTO|REPLACE\\s+INTO|MERGE\\s+INTO|UPDATE|DELETE\\s+FROM|DELETE)\\s+([\\w.$`\"\\[\\]]+)", Pattern.CASE_INSENSITIVE);
+
+	/** 表名正则缓存的上限，表名数量通常很少，超过时直接清空. */
+	private static final int MAX_TABLE_PATTERNS = 1024;
+
+	private final ConcurrentMap<CountKey, CountEntry> cache = new ConcurrentHashMap<CountKey, CountEntry>();
+
+	/** 表名（小写）与匹配该表名的正则. */
+	private final ConcurrentMap<String, Pattern> tablePatterns = new ConcurrentHashMap<String, Pattern>();
+
+	private long ttl = DEFAULT_TTL;
+
+	private int maxSize = DEFAULT_MAX_SIZE;
+
+	public PageCountCache(){}
+
+	/**
+	 * Instantiates a new page count cache.
+	 *
+	 * @param ttl 过期时间（毫秒）
+	 * @param maxSize 最大缓存数
+	 */
+	public PageCountCache(long ttl, int maxSize)
+	{
+		this.ttl = ttl;
+		this.maxSize = maxSize;
+	}
+
+	/**
+	 * 获取缓存的总记录数.
+	 *
+	 * @param countQl 统计语句
+	 * @param params 参数
+	 * @return 总记录数，不存在或已过期返回NULL
+	 */
+	public Integer get(String countQl, Object[] params)
+	{
+		CountKey key = new CountKey(countQl, params);
+		CountEntry entry = cache.get(key);
+		if(entry==null)
+			return null;
+		if(entry.expireTime<System.currentTimeMillis())
+		{
+			cache.remove(key, entry);
+			return null;
+		}
+		return Integer.valueOf(entry.count);
+	}
+
+	/**
+	 * 缓存总记录数.
+	 *
+	 * @param countQl 统计语句
+	 * @param params 参数
+	 * @param count 总记录数
+	 */
+	public void put(String countQl, Object[] params, int count)
+	{
+		if(cache.size()>=maxSize)
+		{
+			purge();
+		}
+		cache.put(new CountKey(countQl, params), new CountEntry(count, System.currentTimeMillis()+ttl));
+	}
+
+	/**
+	 * 清除统计语句中包含指定表名（实体名）的缓存.
+	 *
+	 * @param tableName 表名或实体名（不区分大小写）
+	 */
+	public void invalidate(String tableName)
+	{
+		if(cache.isEmpty())
+			return;
+		Pattern pattern = getTablePattern(tableName);
+		//同一统计语句的不同参数共用匹配结果
+		Map<String, Boolean> matched = new HashMap<String, Boolean>();
+		for(Iterator<CountKey> iterator = cache.keySet().iterator(); iterator.hasNext();)
+		{
+			String countQl = iterator.next().countQl;
+			Boolean isMatched = matched.get(countQl);
+			if(isMatched==null)
+			{
+				isMatched = Boolean.valueOf(pattern.matcher(countQl).find());
+				matched.put(countQl, isMatched);
+			}
+			if(isMatched.booleanValue())
+				iterator.remove();
+		}
+	}
+
+	/**
+	 * 获取匹配表名的正则，每个表名只编译一次.
+	 *
+	 * @param tableName 表名或实体名
+	 * @return the pattern
+	 */
+	private Pattern getTablePattern(String tableName)
+	{
+		String key = tableName.toLowerCase();
+		Pattern pattern = tablePatterns.get(key);
+		if(pattern==null)
+		{
+			if(tablePatterns.size()>=MAX_TABLE_PATTERNS)
+				tablePatterns.clear();
+			pattern = Pattern.compile("\\b"+Pattern.quote(tableName)+"\\b", Pattern.CASE_INSENSITIVE);
+			tablePatterns.put(key, pattern);
+		}
+		return pattern;
+	}
+
+	/**
+	 * 根据更新语句清除缓存.
+	 * 能解析出表名时只清除相关的缓存，否则清空全部缓存
+	 *
+	 * @param updateQl INSERT/UPDATE/DELETE语句（SQL或HQL）
+	 */
+	public void invalidateByUpdate(String updateQl)
+	{
+		if(cache.isEmpty())
+			return;
+		Matcher matcher = PATTERN_DML_TABLE.matcher(updateQl);
+		if(!matcher.find())
+		{
+			clear();
+			return;
+		}
+		String tableName = matcher.group(1).replaceAll("[`\"\\[\\]]", "");
+		int index = tableName.lastIndexOf('.');	//去除schema
+		invalidate(index>=0 ? tableName.substring(index+1) : tableName);
+	}
+
+	/**
+	 * 清空缓存.
+	 */
+	public void clear()
+	{
+		cache.clear();
+	}
+
+	/**
+	 * @return 缓存数
+	 */
+	public int size()
+	{
+		return cache.size();
+	}
+
+	/**
+	 * 清除过期的缓存，仍然超过上限时清除一半.
+	 */
+	private void purge()
+	{
+		long now = System.currentTimeMillis();
+		for(Iterator<Map.Entry<CountKey, CountEntry>> iterator = cache.entrySet().iterator(); iterator.hasNext();)
+		{
+			if(iterator.next().getValue().expireTime<now)
+				iterator.remove();
+		}
+		int toRemove = cache.size() - maxSize/2;
+		for(Iterator<CountKey> iterator = cache.keySet().iterator(); toRemove>0 && iterator.hasNext(); toRemove--)
+		{
+			iterator.next();
+			iterator.remove();
+		}
+	}
+
+	/**
+	 * @return the ttl
+	 */
+	public long getTtl()
+	{
+		return ttl;
+	}
+
+	/**
+	 * @param ttl the ttl to set
+	 */
+	public void setTtl(long ttl)
+	{
+		this.ttl = ttl;
+	}
+
+	/**
+	 * @return the maxSize
+	 */
+	public int getMaxSize()
+	{
+		return maxSize;
+	}
+
+	/**
+	 * @param maxSize the maxSize to set
+	 */
+	public void setMaxSize(int maxSize)
+	{
+		this.maxSize = maxSize;
+	}
+
+	private static final class CountKey {
+
+		private final String countQl;
+
+		private final Object[] params;
+
+		private final int hash;
+
+		CountKey(String countQl, Object[] params)
+		{
+			this.countQl = countQl;
+			this.params = params==null ? new Object[0] : params;
+			this.hash = 31 * countQl.hashCode() + Arrays.deepHashCode(this.params);
+		}
+
+		@Override
+		public int hashCode()
+		{
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj)
+		{
+			if(this==obj)
+				return true;
+			if(!(obj instanceof CountKey))
+				return false;
+			CountKey other = (CountKey)obj;
+			return hash==other.hash && countQl.equals(other.countQl) && Arrays.deepEquals(params, other.params);
+		}
+	}
+
+	private static final class CountEntry {
+
+		private final int count;
+
+		private final long expireTime;
+
+		CountEntry(int count, long expireTime)
+		{
+			this.count = count;
+			this.expireTime = expireTime;
+		}
+	}
+}
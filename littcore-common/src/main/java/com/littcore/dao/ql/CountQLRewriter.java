@@ -0,0 +1,389 @@
+package com.littcore.dao.ql;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 统计语句改写工具.
+ *
+ * <pre><b>描述：</b>
+ *    按词法扫描查询语句，跳过字符串常量、注释及括号内的子查询，只分析最外层的关键字：
+ *    1、去除最外层的ORDER BY；
+ *    2、简单查询直接将SELECT ... 替换为SELECT COUNT(*)，避免对整个查询结果再做一次嵌套；
+ *    3、包含DISTINCT、GROUP BY、UNION、聚合函数或LIMIT等无法直接替换的语句，SQL以子查询的方式包装，
+ *       HQL不支持FROM子查询，单列DISTINCT改写为COUNT(DISTINCT ...)，其余情况仍按原方式替换。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 跳过--单行注释（至行尾），注释中的关键字不参与分析
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public final class CountQLRewriter
+{
+	/** 统计语句前缀. */
+	public static final String COUNT_PREFIX = "SELECT COUNT(*) ";
+
+	/** 使最外层COUNT(*)结果不正确、需要包装为子查询的关键字. */
+	private static final String[] COMPLEX_KEYWORDS = new String[]{"GROUP", "HAVING", "UNION", "INTERSECT", "EXCEPT", "MINUS", "LIMIT", "OFFSET", "FETCH", "TOP", "DISTINCT"};
+
+	/** 聚合函数. */
+	private static final String[] AGGREGATES = new String[]{"COUNT", "SUM", "AVG", "MIN", "MAX"};
+
+	private CountQLRewriter(){}
+
+	/**
+	 * 生成SQL统计语句.
+	 *
+	 * @param sql 查询语句
+	 * @return 统计语句
+	 */
+	public static String toCountSql(String sql)
+	{
+		Analysis analysis = analyze(sql);
+		if(analysis.isSimple())
+		{
+			return COUNT_PREFIX + analysis.fromPart();
+		}
+		//有LIMIT等限制时排序影响结果，保留原始语句
+		String inner = analysis.hasLimit ? analysis.ql : analysis.withoutOrder();
+		StringBuilder ret = new StringBuilder(inner.length()+40).append("SELECT COUNT(*) FROM (")
+												.append(inner);
+		if(analysis.trailingCommentIndex>=0 && analysis.trailingCommentIndex<inner.length())
+			ret.append('\n');	//未结束的单行注释会注释掉子查询的右括号
+		return ret.append(") tmp_count_").toString();
+	}
+
+	/**
+	 * 生成HQL统计语句.
+	 *
+	 * @param hql 查询语句
+	 * @return 统计语句
+	 */
+	public static String toCountHql(String hql)
+	{
+		Analysis analysis = analyze(hql);
+		if(analysis.fromIndex<0)
+		{
+			throw new IllegalArgumentException("Unable to find FROM clause in query: "+hql);
+		}
+		if(analysis.distinctSelect!=null)
+		{
+			return new StringBuilder(hql.length()+20).append("SELECT COUNT(DISTINCT ")
+												.append(analysis.distinctSelect)
+												.append(") ")
+												.append(analysis.hqlFromPart())
+												.toString();
+		}
+		//GROUP BY等无法在HQL中嵌套统计，保持原有的替换方式
+		return COUNT_PREFIX + analysis.hqlFromPart();
+	}
+
+	/**
+	 * 查找最外层ORDER BY的位置.
+	 *
+	 * @param ql 查询语句
+	 * @return 位置，不存在返回-1
+	 */
+	public static int indexOfOrderBy(String ql)
+	{
+		return analyze(ql).orderIndex;
+	}
+
+	/**
+	 * 去除最外层的ORDER BY.
+	 *
+	 * @param ql 查询语句
+	 * @return the string
+	 */
+	public static String removeOrderBy(String ql)
+	{
+		return analyze(ql).withoutOrder();
+	}
+
+	/**
+	 * 扫描最外层的关键字.
+	 */
+	private static Analysis analyze(String ql)
+	{
+		Analysis analysis = new Analysis(ql);
+		List<Token> tokens = scan(ql, analysis);
+		for(int i=0;i<tokens.size();i++)
+		{
+			Token token = tokens.get(i);
+			String word = token.word;
+			if(i==0 && "WITH".equals(word))
+			{
+				analysis.complex = true;
+			}
+			else if("SELECT".equals(word) && analysis.selectIndex<0)
+			{
+				analysis.selectIndex = token.start;
+			}
+			else if("FROM".equals(word) && analysis.fromIndex<0)
+			{
+				analysis.fromIndex = token.start;
+				if(analysis.selectIndex>=0)
+					analysis.checkSelectList(tokens, i);
+			}
+			else if("ORDER".equals(word) && i+1<tokens.size() && "BY".equals(tokens.get(i+1).word))
+			{
+				analysis.orderIndex = token.start;
+			}
+			else if("JOIN".equals(word) && i+1<tokens.size() && "FETCH".equals(tokens.get(i+1).word))
+			{
+				analysis.fetchIndexes.add(Integer.valueOf(tokens.get(i+1).start));
+				i++;
+			}
+			else if(contains(COMPLEX_KEYWORDS, word))
+			{
+				analysis.complex = true;
+				if("LIMIT".equals(word) || "OFFSET".equals(word) || "FETCH".equals(word) || "TOP".equals(word))
+					analysis.hasLimit = true;
+			}
+		}
+		//ORDER BY在FROM之前说明不属于最外层查询（如窗口函数），不处理
+		if(analysis.orderIndex>=0 && analysis.orderIndex<analysis.fromIndex)
+			analysis.orderIndex = -1;
+		return analysis;
+	}
+
+	/**
+	 * 将最外层（不在括号、字符串及注释内）的单词切分出来.
+	 */
+	private static List<Token> scan(String ql, Analysis analysis)
+	{
+		List<Token> tokens = new ArrayList<Token>();
+		int depth = 0;
+		int length = ql.length();
+		int i = 0;
+		while(i<length)
+		{
+			char c = ql.charAt(i);
+			if(c=='\'' || c=='"' || c=='`')	//字符串常量或带引号的标识符
+			{
+				i = skipQuoted(ql, i, c);
+			}
+			else if(c=='/' && i+1<length && ql.charAt(i+1)=='*')
+			{
+				int end = ql.indexOf("*/", i+2);
+				i = end<0 ? length : end+2;
+			}
+			else if(c=='-' && i+1<length && ql.charAt(i+1)=='-')	//单行注释至行尾
+			{
+				int end = ql.indexOf('\n', i+2);
+				if(end<0)
+				{
+					analysis.trailingCommentIndex = i;
+					i = length;
+				}
+				else
+					i = end+1;
+			}
+			else if(c=='(')
+			{
+				depth++;
+				i++;
+			}
+			else if(c==')')
+			{
+				depth--;
+				i++;
+			}
+			else if(Character.isLetter(c) || c=='_')
+			{
+				int start = i;
+				while(i<length && isIdentifierPart(ql.charAt(i)))
+					i++;
+				//属性路径（如obj.order）不作为关键字
+				if(depth==0 && (start==0 || ql.charAt(start-1)!='.'))
+					tokens.add(new Token(ql.substring(start, i).toUpperCase(), start, i, nextNonSpace(ql, i)));
+			}
+			else
+			{
+				i++;
+			}
+		}
+		return tokens;
+	}
+
+	private static int skipQuoted(String ql, int start, char quote)
+	{
+		int i = start+1;
+		while(i<ql.length())
+		{
+			if(ql.charAt(i)==quote)
+			{
+				if(i+1<ql.length() && ql.charAt(i+1)==quote)	//转义的引号
+				{
+					i += 2;
+					continue;
+				}
+				return i+1;
+			}
+			i++;
+		}
+		return i;
+	}
+
+	private static char nextNonSpace(String ql, int i)
+	{
+		while(i<ql.length() && Character.isWhitespace(ql.charAt(i)))
+			i++;
+		return i<ql.length() ? ql.charAt(i) : 0;
+	}
+
+	private static boolean isIdentifierPart(char c)
+	{
+		return Character.isLetterOrDigit(c) || c=='_' || c=='$';
+	}
+
+	private static boolean contains(String[] array, String word)
+	{
+		for(int i=0;i<array.length;i++)
+		{
+			if(array[i].equals(word))
+				return true;
+		}
+		return false;
+	}
+
+	private static final class Token
+	{
+		private final String word;
+
+		private final int start;
+
+		private final int end;
+
+		/** 单词后第一个非空白字符. */
+		private final char next;
+
+		Token(String word, int start, int end, char next)
+		{
+			this.word = word;
+			this.start = start;
+			this.end = end;
+			this.next = next;
+		}
+	}
+
+	private static final class Analysis
+	{
+		private final String ql;
+
+		private int selectIndex = -1;
+
+		private int fromIndex = -1;
+
+		private int orderIndex = -1;
+
+		private boolean complex = false;
+
+		private boolean hasLimit = false;
+
+		/** 未换行结束的单行注释位置. */
+		private int trailingCommentIndex = -1;
+
+		/** 单列DISTINCT查询的列. */
+		private String distinctSelect;
+
+		/** JOIN FETCH中FETCH的位置. */
+		private final List<Integer> fetchIndexes = new ArrayList<Integer>();
+
+		Analysis(String ql)
+		{
+			this.ql = ql;
+		}
+
+		/**
+		 * 检查SELECT与FROM之间的内容：聚合函数及DISTINCT.
+		 */
+		void checkSelectList(List<Token> tokens, int fromTokenIndex)
+		{
+			boolean distinct = false;
+			for(int i=0;i<fromTokenIndex;i++)
+			{
+				Token token = tokens.get(i);
+				if(token.start<=selectIndex)
+					continue;
+				if(token.next=='(' && contains(AGGREGATES, token.word))
+					complex = true;
+				else if("DISTINCT".equals(token.word))
+				{
+					distinct = true;
+					String select = ql.substring(token.end, fromIndex).trim();
+					if(!hasTopLevelComma(select))
+						distinctSelect = select;
+				}
+			}
+			if(distinct)
+				complex = true;
+		}
+
+		private boolean hasTopLevelComma(String select)
+		{
+			int depth = 0;
+			for(int i=0;i<select.length();i++)
+			{
+				char c = select.charAt(i);
+				if(c=='(')
+					depth++;
+				else if(c==')')
+					depth--;
+				else if(c==',' && depth==0)
+					return true;
+			}
+			return false;
+		}
+
+		boolean isSimple()
+		{
+			return !complex && fromIndex>=0;
+		}
+
+		String withoutOrder()
+		{
+			String ret = orderIndex<0 ? ql : ql.substring(0, orderIndex);
+			return trimEnd(ret);
+		}
+
+		String fromPart()
+		{
+			return trimEnd(orderIndex<0 ? ql.substring(fromIndex) : ql.substring(fromIndex, orderIndex));
+		}
+
+		/**
+		 * HQL的FROM部分，去除JOIN FETCH中的FETCH（统计语句中不允许抓取关联）.
+		 */
+		String hqlFromPart()
+		{
+			int end = orderIndex<0 ? ql.length() : orderIndex;
+			StringBuilder ret = new StringBuilder(end-fromIndex);
+			int last = fromIndex;
+			for(int i=0;i<fetchIndexes.size();i++)
+			{
+				int index = fetchIndexes.get(i).intValue();
+				if(index<fromIndex || index>=end)
+					continue;
+				ret.append(ql, last, index);
+				last = index+5;	//"FETCH".length()
+				while(last<end && Character.isWhitespace(ql.charAt(last)))
+					last++;
+			}
+			ret.append(ql, last, end);
+			return trimEnd(ret.toString());
+		}
+
+		private String trimEnd(String str)
+		{
+			int end = str.length();
+			while(end>0 && (Character.isWhitespace(str.charAt(end-1)) || str.charAt(end-1)==';'))
+				end--;
+			return str.substring(0, end);
+		}
+	}
+}
@@ -64,5 +64,14 @@ public interface IQLResult
 	 * @return the pageSize
 	 */
 	public int getPageSize();
+	
+	/**
+	 * SQL结构标识.
+	 * 同一动态语句生成的SQL结构相同时（参与拼接的条件及IN参数个数一致）标识相同，可作为语句缓存的键；
+	 * 调试模式生成的结果为NULL
+	 *
+	 * @return the shapeKey
+	 */
+	public String getShapeKey();
 
 }
\ No newline at end of file
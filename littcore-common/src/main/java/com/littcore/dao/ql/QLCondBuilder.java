@@ -32,6 +32,8 @@ import com.littcore.util.ValidateUtils;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
+ *    2026-10-17 1、运行模式的静态generate方法改用预编译并缓存的QLTemplate，不再每次分割语句及执行正则匹配
+ *               2、同一条件中参数出现多次时，每个?都对应一个参数值（原只添加一次，参数个数与?不一致）
  *    2014-07-21 1、重构排序条件的处理，默认排序改用静态。若不存在传入的动态排序条件，则使用默认排序。
  * 	  2013-07-25 1、动态SQL的顺序问题，WHERE\ORDER BY\OTHER仍需要按照原始顺序组装
  * 	  2010-02-26 1、原值占位符[]的功能性变更，使用[]占位符作用与{}相同，生成SQL时都以?替换，唯一的区别是[]占位符所定义的查询条件为必选条件，值为空时将抛出IllegalArgumentException异常。
@@ -141,6 +143,10 @@ public class QLCondBuilder implements IQLCondBuilder
 	 */
 	public static QLResult generate(String dynamicQl, CondParam condParam, boolean isDebug)
 	{
+		if(!isDebug)
+		{
+			return QLTemplate.compile(dynamicQl).render(condParam);
+		}
 		QLCondBuilder builder = new QLCondBuilder(isDebug);
 		builder.setCondParam(condParam);
 		
@@ -181,6 +187,13 @@ public class QLCondBuilder implements IQLCondBuilder
 	 */
 	public static QLResult generate(String dynamicQl, PageParam pageParam, boolean isDebug)
 	{
+		if(!isDebug)
+		{
+			QLResult result = QLTemplate.compile(dynamicQl).render(pageParam);
+			result.setPageIndex(pageParam.getPageIndex());
+			result.setPageSize(pageParam.getPageSize());
+			return result;
+		}
 		QLCondBuilder builder = new QLCondBuilder(isDebug);
 		builder.setCondParam(pageParam);
 		
@@ -405,24 +418,27 @@ public class QLCondBuilder implements IQLCondBuilder
 				}	
 				
 				//condQl = matcher.replaceAll("?");
+				int count = countMatches(Pattern.compile(replaceContent).matcher(condQl));
 				condQl = condQl.replaceAll(replaceContent, "?");
 				sql.append(condQl);
-				paramList.add(value);
+				addParams(paramList, value, count);
 			}					
 		}
 		else if(value instanceof Number)	//Number型
 		{		
 			//condQl = matcher.replaceAll("?");
+			int count = countMatches(Pattern.compile(replaceContent).matcher(condQl));
 			condQl = condQl.replaceAll(replaceContent, "?");
 			sql.append(condQl);
-			paramList.add(value);			
+			addParams(paramList, value, count);			
 		}
 		else if(value instanceof Date)	//Date型
 		{		
+			int count = countMatches(matcher);
 			condQl = matcher.replaceAll("?");
 			//condQl = condQl.replaceAll(replaceContent, "?");
 			sql.append(condQl);
-			paramList.add(value);
+			addParams(paramList, value, count);
 		}
 		else if(value.getClass().isArray())	//数组类型，通常用于IN语句
 		{
@@ -432,11 +448,17 @@ public class QLCondBuilder implements IQLCondBuilder
 				StringBuffer symbol = new StringBuffer();
 				for(int i=0;i<length;i++)
 				{
-					Object param = Array.get(value, i);
 					symbol.append('?');
 					if(i<(length-1))						
 						symbol.append(',');
-					paramList.add(param);
+				}
+				int count = countMatches(matcher);
+				for(int j=0;j<count;j++)
+				{
+					for(int i=0;i<length;i++)
+					{
+						paramList.add(Array.get(value, i));
+					}
 				}
 				condQl = matcher.replaceAll(symbol.toString());
 				//condQl = condQl.replaceAll(replaceContent, symbol.toString());
@@ -446,12 +468,44 @@ public class QLCondBuilder implements IQLCondBuilder
 		else
 		{
 			//condQl = matcher.replaceAll("?");
+			int count = countMatches(Pattern.compile(replaceContent).matcher(condQl));
 			condQl = condQl.replaceAll(replaceContent, "?");
 			sql.append(condQl);
-			paramList.add(value);			
+			addParams(paramList, value, count);			
 		}		
 	}
 	
+	/**
+	 * 统计匹配的占位符个数（会重置匹配器）.
+	 * 
+	 * @param matcher the matcher
+	 * 
+	 * @return 匹配个数
+	 */
+	private static int countMatches(Matcher matcher)
+	{
+		matcher.reset();
+		int count = 0;
+		while(matcher.find())
+			count++;
+		return count;
+	}
+	
+	/**
+	 * 按占位符个数重复添加参数值，保证参数个数与?一致.
+	 * 
+	 * @param paramList the param list
+	 * @param value 参数值
+	 * @param count 占位符个数
+	 */
+	private static void addParams(List paramList, Object value, int count)
+	{
+		for(int i=0;i<count;i++)
+		{
+			paramList.add(value);
+		}
+	}
+	
 	/**
 	 * 调试模式，直接生成QL.
 	 * 
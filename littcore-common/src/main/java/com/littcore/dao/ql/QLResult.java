@@ -1,7 +1,5 @@
 package com.littcore.dao.ql;
 
-import org.apache.commons.lang.StringUtils;
-
 import com.littcore.util.ValidateUtils;
 
 
@@ -14,7 +12,8 @@ import com.littcore.util.ValidateUtils;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *
+ *    2026-10-17 增加shapeKey，标识生成的SQL结构
+ *    2026-10-17 generateCount改用CountQLRewriter，支持子查询并去除排序
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -48,6 +47,9 @@ public class QLResult implements IQLResult
      * 分页大小.
      */
     private int pageSize;
+    
+    /** SQL结构标识. */
+    private String shapeKey;
 	
 	/**
 	 * 生成最终的SQL语句
@@ -102,17 +104,18 @@ public class QLResult implements IQLResult
 	}		
 	
 	/**
-	 * 自动生成统计总行数SQL(基于替换). 
+	 * 自动生成统计总行数SQL. 
+	 * 只分析最外层语句，同时适用于SQL及HQL（SQL需要处理GROUP BY等复杂语句时使用CountQLRewriter.toCountSql）
 	 * 
 	 * @return SQL字符串
 	 */
 	public String generateCount()
 	{
-		String upperCase = this.baseQl.toUpperCase();
-		//将FROM前内容替换为SELECT COUNT(*)		
-		int index = StringUtils.indexOf(upperCase, "FROM");
-		String baseCountQl = this.baseQl.substring(index);		
-		return StringUtils.join(new Object[]{"SELECT COUNT(*) ", baseCountQl, WHERE11, this.condQl});				
+		String ql = new StringBuilder(200).append(baseQl)
+										.append(WHERE11)
+										.append(condQl)
+										.toString();
+		return CountQLRewriter.toCountHql(ql);
 	}
 
 	/**
@@ -210,4 +213,20 @@ public class QLResult implements IQLResult
 	{
 		this.pageSize = pageSize;
 	}
+
+	/**
+	 * @return the shapeKey
+	 */
+	public String getShapeKey()
+	{
+		return shapeKey;
+	}
+
+	/**
+	 * @param shapeKey the shapeKey to set
+	 */
+	public void setShapeKey(String shapeKey)
+	{
+		this.shapeKey = shapeKey;
+	}
 }
@@ -0,0 +1,364 @@
+package com.littcore.dao.ql;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+
+import com.littcore.common.Utility;
+import com.littcore.util.StringUtils;
+import com.littcore.util.ValidateUtils;
+
+/**
+ * 预编译的动态QL模板.
+ *
+ * <pre><b>描述：</b>
+ *    将QLCondBuilder的动态QL语句解析为不可变的执行计划：基础语句、静态片段以及{param}/[param]占位符位置，
+ *    按语句缓存，之后每次生成只需按参数拼接，不再重复分割字符串和执行正则匹配。
+ *    生成规则与QLCondBuilder的运行模式一致（调试模式仍由QLCondBuilder处理）。
+ *
+ *    同一模板下参与拼接的条件及IN参数个数相同的结果，生成的SQL完全相同，可通过shapeKey区分，便于JDBC语句缓存。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 同一条件中参数出现多次时，每个?都对应一个参数值
+ *    2026-10-17 先判断ORDER BY片段（ORDER BY同样以OR开头），去除未使用的TYPE_ORDER
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public final class QLTemplate
+{
+	/** 最多缓存的模板数，超过后不再缓存（避免拼接生成的动态语句撑满内存）. */
+	public static final int MAX_CACHED_TEMPLATES = 2048;
+
+	private static final ConcurrentMap<String, QLTemplate> TEMPLATES = new ConcurrentHashMap<String, QLTemplate>();
+
+	private static final AtomicInteger TEMPLATE_SEQ = new AtomicInteger();
+
+	/** 片段类型：不以AND/OR开头的静态语句，直接拼接. */
+	private static final int TYPE_STATIC = 0;
+
+	/** 片段类型：条件. */
+	private static final int TYPE_COND = 2;
+
+	/** 模板编号. */
+	private final int id;
+
+	/** 基础语句. */
+	private final String baseQl;
+
+	private final Fragment[] fragments;
+
+	/** 默认排序（最后一个排序片段）. */
+	private final String orderQl;
+
+	/** 预估的条件语句长度. */
+	private final int condLength;
+
+	/** 占位符总数. */
+	private final int slotCount;
+
+	/**
+	 * 获取模板（已解析的直接从缓存中返回）.
+	 *
+	 * @param dynamicQl 动态QL语句
+	 * @return the QL template
+	 */
+	public static QLTemplate compile(String dynamicQl)
+	{
+		QLTemplate template = TEMPLATES.get(dynamicQl);
+		if(template==null)
+		{
+			template = new QLTemplate(dynamicQl);
+			if(TEMPLATES.size()<MAX_CACHED_TEMPLATES)
+			{
+				QLTemplate exists = TEMPLATES.putIfAbsent(dynamicQl, template);
+				if(exists!=null)
+					template = exists;
+			}
+		}
+		return template;
+	}
+
+	/**
+	 * 清空模板缓存.
+	 */
+	public static void clearCache()
+	{
+		TEMPLATES.clear();
+	}
+
+	private QLTemplate(String dynamicQl)
+	{
+		this.id = TEMPLATE_SEQ.incrementAndGet();
+		String[] condArray = Utility.splitStringAll(dynamicQl, QLCondBuilder.COND_SPLIT);
+		this.baseQl = condArray.length>0 ? condArray[0] : null;
+
+		List<Fragment> fragmentList = new ArrayList<Fragment>(condArray.length);
+		String order = "";
+		int length = 0;
+		int slots = 0;
+		for(int i=1;i<condArray.length;i++)
+		{
+			String condQl = condArray[i];
+			Fragment fragment;
+			if(StringUtils.startsWithIgnoreCase(condQl, " ORDER BY"))	//排序条件，须先于OR判断
+			{
+				order = condQl;
+				continue;
+			}
+			else if(!StringUtils.startsWithIgnoreCase(condQl, " AND") && !StringUtils.startsWithIgnoreCase(condQl, " OR"))	//非条件语句
+			{
+				fragment = new Fragment(TYPE_STATIC, condQl);
+			}
+			else
+			{
+				fragment = parseCond(condQl);
+				slots += fragment.slots.length;
+			}
+			length += condQl.length();
+			fragmentList.add(fragment);
+		}
+		this.fragments = fragmentList.toArray(new Fragment[fragmentList.size()]);
+		this.orderQl = order;
+		this.condLength = length;
+		this.slotCount = slots;
+	}
+
+	/**
+	 * 解析条件片段中的占位符.
+	 * 存在{}时只处理{}，否则处理[]（必选参数）
+	 */
+	private static Fragment parseCond(String condQl)
+	{
+		boolean isRequired = false;
+		Matcher matcher = QLCondBuilder.PATTERN_BRACKETS.matcher(condQl);
+		if(!matcher.find())
+		{
+			matcher = QLCondBuilder.PATTERN_BRACKET.matcher(condQl);
+			if(!matcher.find())
+				return new Fragment(TYPE_STATIC, condQl);
+			isRequired = true;
+		}
+		List<String> texts = new ArrayList<String>();
+		List<String> slots = new ArrayList<String>();
+		int last = 0;
+		do
+		{
+			texts.add(condQl.substring(last, matcher.start()));
+			slots.add(matcher.group(2));
+			last = matcher.end();
+		}
+		while(matcher.find());
+		texts.add(condQl.substring(last));
+		return new Fragment(condQl, texts.toArray(new String[texts.size()]), slots.toArray(new String[slots.size()]), isRequired);
+	}
+
+	/**
+	 * 根据参数生成QL结果.
+	 *
+	 * @param condParam 条件参数
+	 * @return the QL result
+	 */
+	public QLResult render(CondParam condParam)
+	{
+		StringBuilder sql = new StringBuilder(condLength+slotCount*8);
+		List<Object> paramList = new ArrayList<Object>(slotCount);
+		StringBuilder shapeKey = new StringBuilder(fragments.length+8).append(id).append(':');
+		for(int i=0;i<fragments.length;i++)
+		{
+			Fragment fragment = fragments[i];
+			if(fragment.type==TYPE_STATIC)
+			{
+				sql.append(fragment.ql);
+				continue;
+			}
+			int count = fragment.render(condParam, sql, paramList);
+			if(count<0)
+				shapeKey.append('-');
+			else
+				shapeKey.append(count).append(',');
+		}
+
+		QLResult qlResult = new QLResult();
+		qlResult.setBaseQl(baseQl);
+		qlResult.setCondQl(sql.toString());
+		qlResult.setOrderQl(condParam.hasSort() ? condParam.genSortQL() : orderQl);
+		qlResult.setParams(paramList.toArray());
+		qlResult.setShapeKey(shapeKey.toString());
+		return qlResult;
+	}
+
+	/**
+	 * @return the baseQl
+	 */
+	public String getBaseQl()
+	{
+		return baseQl;
+	}
+
+	/**
+	 * @return the orderQl
+	 */
+	public String getOrderQl()
+	{
+		return orderQl;
+	}
+
+	/**
+	 * QL片段.
+	 */
+	private static final class Fragment
+	{
+		private final int type;
+
+		/** 原始片段. */
+		private final String ql;
+
+		/** 占位符之间的静态文本（比占位符多一个）. */
+		private final String[] texts;
+
+		/** 占位符中的内容（可能包含模糊匹配的%）. */
+		private final String[] slots;
+
+		/** 是否为[]必选参数. */
+		private final boolean isRequired;
+
+		/** 首个占位符对应的参数名（去除%）. */
+		private final String paramName;
+
+		private final boolean leftFuzzy;
+
+		private final boolean rightFuzzy;
+
+		Fragment(int type, String ql)
+		{
+			this.type = type;
+			this.ql = ql;
+			this.texts = null;
+			this.slots = new String[0];
+			this.isRequired = false;
+			this.paramName = null;
+			this.leftFuzzy = false;
+			this.rightFuzzy = false;
+		}
+
+		Fragment(String ql, String[] texts, String[] slots, boolean isRequired)
+		{
+			this.type = TYPE_COND;
+			this.ql = ql;
+			this.texts = texts;
+			this.slots = slots;
+			this.isRequired = isRequired;
+
+			String name = slots[0];
+			this.leftFuzzy = name.length()>0 && name.charAt(0)=='%';
+			this.rightFuzzy = name.endsWith("%");
+			if(leftFuzzy)
+				name = name.substring(1);
+			if(rightFuzzy)
+				name = name.substring(0, name.length()-1);
+			this.paramName = name;
+		}
+
+		/**
+		 * 按参数拼接片段.
+		 * 与QLCondBuilder一致，一个条件片段只对应一个参数：
+		 * 数组及日期类型替换所有占位符，其他类型只替换与首个占位符相同的占位符，每个替换的占位符都添加一次参数值
+		 *
+		 * @return 追加的参数个数，未拼接时返回-1
+		 */
+		int render(CondParam condParam, StringBuilder sql, List<Object> paramList)
+		{
+			if(!condParam.hasCond(paramName))
+			{
+				if(isRequired)
+					throw new IllegalArgumentException("必选参数未设置，参数名称："+paramName);
+				return -1;
+			}
+			Object value = condParam.getCond(paramName);
+			if(value==null)
+			{
+				if(isRequired)
+					throw new IllegalArgumentException("必选参数值不能为空，参数名称："+paramName);
+				return -1;
+			}
+			if(value instanceof String)
+			{
+				if(ValidateUtils.isBlank((String)value))
+					return -1;
+				if(leftFuzzy)
+					value = "%"+value;
+				if(rightFuzzy)
+					value = value + "%";
+				return addParams(paramList, value, append(sql, "?", false));
+			}
+			else if(value instanceof Date)
+			{
+				return addParams(paramList, value, append(sql, "?", true));
+			}
+			else if(value.getClass().isArray())	//数组类型，通常用于IN语句
+			{
+				int length = Array.getLength(value);
+				if(length==0)
+					return -1;
+				StringBuilder symbol = new StringBuilder(length*2);
+				for(int i=0;i<length;i++)
+				{
+					if(i>0)
+						symbol.append(',');
+					symbol.append('?');
+				}
+				int count = append(sql, symbol.toString(), true);
+				for(int j=0;j<count;j++)
+				{
+					for(int i=0;i<length;i++)
+					{
+						paramList.add(Array.get(value, i));
+					}
+				}
+				return length*count;
+			}
+			return addParams(paramList, value, append(sql, "?", false));
+		}
+
+		private int addParams(List<Object> paramList, Object value, int count)
+		{
+			for(int i=0;i<count;i++)
+			{
+				paramList.add(value);
+			}
+			return count;
+		}
+
+		/**
+		 * @return 替换的占位符个数
+		 */
+		private int append(StringBuilder sql, String symbol, boolean replaceAll)
+		{
+			int count = 0;
+			sql.append(texts[0]);
+			for(int i=0;i<slots.length;i++)
+			{
+				if(replaceAll || slots[i].equals(slots[0]))
+				{
+					sql.append(symbol);
+					count++;
+				}
+				else if(isRequired)
+					sql.append('[').append(slots[i]).append(']');
+				else
+					sql.append('{').append(slots[i]).append('}');
+				sql.append(texts[i+1]);
+			}
+			return count;
+		}
+	}
+}
@@ -1,5 +1,8 @@
 package com.littcore.eventbus;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
@@ -17,7 +20,7 @@ import org.springframework.context.ApplicationContextAware;
  * 
  * <pre>
  * <b>修改记录：</b>
- * 
+ * 		2026-10-17 初始化前的原始对象按beanName保存，避免并行初始化时互相覆盖
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -30,12 +33,14 @@ public class EventBusRegisterBeanPostProcessor implements BeanPostProcessor, App
 	
 	private IEventBus eventBus;	
 	
-	private Object preInitializedBean;
+	/** 初始化前的原始对象（beanName -> bean），只保存监听器. */
+	private final Map<String, Object> preInitializedBeans = new ConcurrentHashMap<String, Object>();
 
 	@Override
 	public Object postProcessBeforeInitialization(Object bean, String beanName)
 			throws BeansException {
-		this.preInitializedBean = bean;
+		if (bean instanceof IEventBusListener && beanName!=null)
+			preInitializedBeans.put(beanName, bean);
 		return bean;
 	}
 
@@ -43,12 +48,13 @@ public class EventBusRegisterBeanPostProcessor implements BeanPostProcessor, App
 	public Object postProcessAfterInitialization(Object bean, String beanName)
 			throws BeansException {
 	  
+		Object preInitializedBean = beanName==null ? null : preInitializedBeans.remove(beanName);
 		if (bean instanceof IEventBusListener) 
 		{			
 			/*
 			 * 如果是经过AOP代理的类，这里获取到的是Proxy对象，将导致无法获取到原生对象的注解
 			 */
-            if (AopUtils.isAopProxy(bean))
+            if (AopUtils.isAopProxy(bean) && preInitializedBean!=null)
             {  
             	registerToEventBus((IEventBusListener)preInitializedBean);
             }
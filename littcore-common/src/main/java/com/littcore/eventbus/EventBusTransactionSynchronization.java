@@ -10,11 +10,12 @@ import com.google.common.eventbus.EventBus;
  * <pre>
  * <b>描述：</b>
  * 		在事务提交后发布消息
+ * 		发布通过EventBus.post完成，SpringEventBus为异步模式时只是放入分区队列，不会在提交线程中执行订阅者
  * </pre>
  * 
  * <pre>
  * <b>修改记录：</b>
- * 
+ * 		2026-10-17 由SpringEventBus在事务中发布ICompleteEvent时注册
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
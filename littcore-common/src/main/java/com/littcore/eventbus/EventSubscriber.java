@@ -0,0 +1,310 @@
+package com.littcore.eventbus;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.littcore.metrics.LatencyHistogram;
+
+/**
+ * 事件订阅者.
+ *
+ * <pre>
+ * <b>描述：</b>
+ * 		对应监听器中一个@Subscribe方法，注册时解析并缓存Method，分发时直接调用，同时统计耗时、异常及慢调用次数。
+ * 		未标注@AllowConcurrentEvents的方法与Guava一致，同一时刻只允许一个线程调用。
+ * 		连续多次慢调用时可切换为异步分发：事件放入订阅者自己的有界队列，由单独的线程按顺序调用，队列满时在发布线程中直接调用；
+ * 		切换前后正在处理的事件可能与队列中的事件交错。
+ * </pre>
+ *
+ * <pre>
+ * <b>修改记录：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public final class EventSubscriber implements EventSubscriberMBean {
+
+	private static final Logger logger = LoggerFactory.getLogger(EventSubscriber.class);
+
+	private final EventSubscriberRegistry registry;
+
+	private final Object target;
+
+	private final Method method;
+
+	private final Class<?> eventType;
+
+	private final boolean concurrent;
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	private final AtomicLong errorCount = new AtomicLong();
+
+	private final AtomicLong slowCount = new AtomicLong();
+
+	/** 连续慢调用次数. */
+	private final AtomicInteger consecutiveSlow = new AtomicInteger();
+
+	private volatile AsyncQueue asyncQueue;
+
+	/** 切换异步队列时使用的锁（订阅者自身用于串行调用，不能共用）. */
+	private final Object queueLock = new Object();
+
+	ObjectName objectName;
+
+	EventSubscriber(EventSubscriberRegistry registry, Object target, Method method, boolean concurrent)
+	{
+		this.registry = registry;
+		this.target = target;
+		this.method = method;
+		this.eventType = method.getParameterTypes()[0];
+		this.concurrent = concurrent;
+	}
+
+	/**
+	 * 分发事件，异步分发时放入队列.
+	 *
+	 * @param event the event
+	 */
+	void dispatch(Object event)
+	{
+		AsyncQueue queue = this.asyncQueue;
+		if(queue!=null && queue.queue.offer(event))
+			return;
+		invoke(event);
+	}
+
+	/**
+	 * 调用订阅方法.
+	 *
+	 * @param event the event
+	 */
+	void invoke(Object event)
+	{
+		long start = System.nanoTime();
+		try {
+			if(concurrent)
+			{
+				method.invoke(target, event);
+			}
+			else
+			{
+				synchronized(this)
+				{
+					method.invoke(target, event);
+				}
+			}
+		} catch (InvocationTargetException e) {
+			errorCount.incrementAndGet();
+			logger.error("Could not dispatch event "+event+" to subscriber "+getListener()+"."+method.getName(), e.getCause());
+		} catch (Exception e) {
+			errorCount.incrementAndGet();
+			logger.error("Could not dispatch event "+event+" to subscriber "+getListener()+"."+method.getName(), e);
+		} finally {
+			long elapsed = System.nanoTime() - start;
+			latency.record(elapsed);
+			checkSlow(elapsed);
+		}
+	}
+
+	/**
+	 * 慢订阅者检测.
+	 *
+	 * @param elapsed 耗时（纳秒）
+	 */
+	private void checkSlow(long elapsed)
+	{
+		long threshold = registry.getSlowThreshold();
+		if(threshold<=0)
+			return;
+		if(elapsed<TimeUnit.MILLISECONDS.toNanos(threshold))
+		{
+			if(consecutiveSlow.get()!=0)
+				consecutiveSlow.set(0);
+			return;
+		}
+		slowCount.incrementAndGet();
+		if(consecutiveSlow.incrementAndGet()>=registry.getSlowLimit() && registry.isAutoAsync() && asyncQueue==null)
+		{
+			logger.warn("Subscriber {}.{} is slow ({}ms), switching to async delivery", new Object[]{getListener(), method.getName(), TimeUnit.NANOSECONDS.toMillis(elapsed)});
+			switchToAsync();
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.eventbus.EventSubscriberMBean#switchToAsync()
+	 */
+	@Override
+	public void switchToAsync()
+	{
+		synchronized(queueLock)
+		{
+			if(asyncQueue!=null)
+				return;
+			AsyncQueue queue = new AsyncQueue(registry.getQueueCapacity());
+			queue.thread.start();
+			this.asyncQueue = queue;
+		}
+	}
+
+	/**
+	 * 停止异步分发，队列中剩余的事件在当前线程处理.
+	 */
+	void shutdown()
+	{
+		AsyncQueue queue;
+		synchronized(queueLock)
+		{
+			queue = this.asyncQueue;
+			if(queue==null)
+				return;
+			this.asyncQueue = null;
+		}
+		queue.running = false;
+		try {
+			queue.thread.join(30000);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		Object event;
+		while((event = queue.queue.poll())!=null)
+		{
+			invoke(event);
+		}
+	}
+
+	Object getTarget()
+	{
+		return target;
+	}
+
+	Class<?> getEventClass()
+	{
+		return eventType;
+	}
+
+	@Override
+	public String getListener()
+	{
+		return target.getClass().getName();
+	}
+
+	@Override
+	public String getMethod()
+	{
+		return method.getName();
+	}
+
+	@Override
+	public String getEventType()
+	{
+		return eventType.getName();
+	}
+
+	@Override
+	public long getInvocationCount()
+	{
+		return latency.getCount();
+	}
+
+	@Override
+	public long getErrorCount()
+	{
+		return errorCount.get();
+	}
+
+	@Override
+	public long getSlowCount()
+	{
+		return slowCount.get();
+	}
+
+	@Override
+	public double getMeanTime()
+	{
+		return latency.getMean();
+	}
+
+	@Override
+	public long getMaxTime()
+	{
+		return latency.getMax();
+	}
+
+	@Override
+	public long get99thPercentileTime()
+	{
+		return latency.getPercentile(0.99);
+	}
+
+	@Override
+	public boolean isAsync()
+	{
+		return asyncQueue!=null;
+	}
+
+	@Override
+	public int getQueueDepth()
+	{
+		AsyncQueue queue = this.asyncQueue;
+		return queue==null ? 0 : queue.queue.size();
+	}
+
+	@Override
+	public void reset()
+	{
+		latency.reset();
+		errorCount.set(0);
+		slowCount.set(0);
+		consecutiveSlow.set(0);
+	}
+
+	/**
+	 * 订阅者的异步队列.
+	 */
+	private final class AsyncQueue implements Runnable {
+
+		private final BlockingQueue<Object> queue;
+
+		private final Thread thread;
+
+		private volatile boolean running = true;
+
+		AsyncQueue(int capacity)
+		{
+			this.queue = new ArrayBlockingQueue<Object>(capacity);
+			this.thread = new Thread(this, "EventSubscriber-"+target.getClass().getSimpleName()+"."+method.getName());
+			this.thread.setDaemon(true);
+		}
+
+		@Override
+		public void run()
+		{
+			while(running || !queue.isEmpty())
+			{
+				try {
+					Object event = queue.poll(100, TimeUnit.MILLISECONDS);
+					if(event!=null)
+						invoke(event);
+				} catch (InterruptedException e) {
+					if(!running)
+						break;
+				}
+			}
+		}
+	}
+
+}
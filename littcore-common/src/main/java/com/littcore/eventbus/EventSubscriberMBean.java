@@ -0,0 +1,61 @@
+package com.littcore.eventbus;
+
+/**
+ * 事件订阅者统计的JMX接口.
+ * 
+ * <pre>
+ * <b>描述：</b>
+ * 		耗时单位均为微秒
+ * </pre>
+ * 
+ * <pre>
+ * <b>修改记录：</b>
+ * 
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface EventSubscriberMBean {
+	
+	public String getListener();
+	
+	public String getMethod();
+	
+	public String getEventType();
+	
+	public long getInvocationCount();
+	
+	public long getErrorCount();
+	
+	public long getSlowCount();
+	
+	public double getMeanTime();
+	
+	public long getMaxTime();
+	
+	public long get99thPercentileTime();
+	
+	/**
+	 * 是否异步分发（由慢订阅者检测自动切换）.
+	 *
+	 * @return true, if is async
+	 */
+	public boolean isAsync();
+	
+	/**
+	 * 异步分发时队列中等待的事件数.
+	 *
+	 * @return the queue depth
+	 */
+	public int getQueueDepth();
+	
+	/**
+	 * 切换为异步分发.
+	 */
+	public void switchToAsync();
+	
+	public void reset();
+
+}
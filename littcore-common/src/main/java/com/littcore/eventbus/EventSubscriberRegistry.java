@@ -0,0 +1,275 @@
+package com.littcore.eventbus;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import com.google.common.eventbus.AllowConcurrentEvents;
+import com.google.common.eventbus.Subscribe;
+import com.littcore.metrics.MBeanUtils;
+
+/**
+ * 事件订阅者注册表.
+ *
+ * <pre>
+ * <b>描述：</b>
+ * 		注册监听器时解析其@Subscribe方法，并维护“事件类型 -> 订阅者数组”的分发表：
+ * 		分发表在首次发布某类事件时生成（包括父类及接口的订阅者），注册或注销监听器时对已有的事件类型重新生成，
+ * 		因此发布事件时只需一次Map查找，不再扫描订阅者。
+ * 		每个订阅者注册为一个MBean（com.littcore.eventbus:type=EventSubscriber），可查看调用次数、耗时、异常及队列深度。
+ * </pre>
+ *
+ * <pre>
+ * <b>修改记录：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class EventSubscriberRegistry {
+
+	private static final String JMX_DOMAIN = "com.littcore.eventbus";
+
+	private static final EventSubscriber[] EMPTY = new EventSubscriber[0];
+
+	private final String identifier;
+
+	private final List<EventSubscriber> subscribers = new CopyOnWriteArrayList<EventSubscriber>();
+
+	private final ConcurrentMap<Class<?>, EventSubscriber[]> dispatchTable = new ConcurrentHashMap<Class<?>, EventSubscriber[]>();
+
+	/** 慢调用阈值（毫秒），小于等于0时不检测. */
+	private volatile long slowThreshold = 1000;
+
+	/** 连续慢调用多少次后切换为异步分发. */
+	private volatile int slowLimit = 5;
+
+	/** 是否自动将慢订阅者切换为异步分发. */
+	private volatile boolean autoAsync = false;
+
+	/** 异步分发时每个订阅者的队列容量. */
+	private volatile int queueCapacity = 1024;
+
+	public EventSubscriberRegistry(String identifier)
+	{
+		this.identifier = identifier;
+	}
+
+	/**
+	 * 注册监听器的所有@Subscribe方法.
+	 *
+	 * @param listener the listener
+	 * @return 订阅方法数
+	 */
+	public synchronized int register(Object listener)
+	{
+		List<EventSubscriber> found = findSubscribers(listener);
+		if(found.isEmpty())
+			return 0;
+		for(EventSubscriber subscriber : found)
+		{
+			subscriber.objectName = MBeanUtils.register(subscriber, JMX_DOMAIN, "EventSubscriber", identifier+"."+subscriber.getListener()+"."+subscriber.getMethod()+"("+subscriber.getEventClass().getSimpleName()+")");
+		}
+		subscribers.addAll(found);
+		rebuild();
+		return found.size();
+	}
+
+	/**
+	 * 注销监听器.
+	 *
+	 * @param listener the listener
+	 * @return 是否存在该监听器的订阅方法
+	 */
+	public synchronized boolean unregister(Object listener)
+	{
+		List<EventSubscriber> removed = new ArrayList<EventSubscriber>();
+		for(EventSubscriber subscriber : subscribers)
+		{
+			if(subscriber.getTarget()==listener)
+				removed.add(subscriber);
+		}
+		if(removed.isEmpty())
+			return false;
+		subscribers.removeAll(removed);
+		rebuild();
+		for(EventSubscriber subscriber : removed)
+		{
+			subscriber.shutdown();
+			MBeanUtils.unregister(subscriber.objectName);
+		}
+		return true;
+	}
+
+	/**
+	 * 获取事件类型的订阅者.
+	 *
+	 * @param eventClass 事件类型
+	 * @return 订阅者数组，不能修改
+	 */
+	public EventSubscriber[] getSubscribers(Class<?> eventClass)
+	{
+		EventSubscriber[] result = dispatchTable.get(eventClass);
+		if(result!=null)
+			return result;
+		synchronized(this)
+		{
+			result = dispatchTable.get(eventClass);
+			if(result==null)
+			{
+				result = resolve(eventClass);
+				dispatchTable.put(eventClass, result);
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * 获取所有订阅者（用于统计）.
+	 *
+	 * @return the subscribers
+	 */
+	public List<EventSubscriber> getSubscribers()
+	{
+		return new ArrayList<EventSubscriber>(subscribers);
+	}
+
+	/**
+	 * 停止所有订阅者的异步队列并注销MBean.
+	 */
+	public synchronized void shutdown()
+	{
+		for(EventSubscriber subscriber : subscribers)
+		{
+			subscriber.shutdown();
+			MBeanUtils.unregister(subscriber.objectName);
+		}
+	}
+
+	/**
+	 * 重新生成已有事件类型的分发表.
+	 */
+	private void rebuild()
+	{
+		for(Iterator<Map.Entry<Class<?>, EventSubscriber[]>> iterator = dispatchTable.entrySet().iterator(); iterator.hasNext();)
+		{
+			Map.Entry<Class<?>, EventSubscriber[]> entry = iterator.next();
+			entry.setValue(resolve(entry.getKey()));
+		}
+	}
+
+	private EventSubscriber[] resolve(Class<?> eventClass)
+	{
+		List<EventSubscriber> result = null;
+		for(EventSubscriber subscriber : subscribers)
+		{
+			if(subscriber.getEventClass().isAssignableFrom(eventClass))
+			{
+				if(result==null)
+					result = new ArrayList<EventSubscriber>();
+				result.add(subscriber);
+			}
+		}
+		return result==null ? EMPTY : result.toArray(new EventSubscriber[result.size()]);
+	}
+
+	/**
+	 * 查找监听器（包括父类）的@Subscribe方法，子类覆盖的方法只取一次.
+	 */
+	private List<EventSubscriber> findSubscribers(Object listener)
+	{
+		List<EventSubscriber> result = new ArrayList<EventSubscriber>();
+		Set<String> signatures = new HashSet<String>();
+		for(Class<?> clazz = listener.getClass(); clazz!=null && clazz!=Object.class; clazz = clazz.getSuperclass())
+		{
+			for(Method method : clazz.getDeclaredMethods())
+			{
+				if(!method.isAnnotationPresent(Subscribe.class) || method.isSynthetic())
+					continue;
+				Class<?>[] parameterTypes = method.getParameterTypes();
+				if(parameterTypes.length!=1)
+					throw new IllegalArgumentException("Method "+method+" has @Subscribe annotation but has "+parameterTypes.length+" parameters. Subscriber methods must have exactly 1 parameter.");
+				if(!signatures.add(method.getName()+Arrays.toString(parameterTypes)))
+					continue;
+				method.setAccessible(true);
+				result.add(new EventSubscriber(this, listener, method, method.isAnnotationPresent(AllowConcurrentEvents.class)));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the slowThreshold
+	 */
+	public long getSlowThreshold()
+	{
+		return slowThreshold;
+	}
+
+	/**
+	 * @param slowThreshold the slowThreshold to set
+	 */
+	public void setSlowThreshold(long slowThreshold)
+	{
+		this.slowThreshold = slowThreshold;
+	}
+
+	/**
+	 * @return the slowLimit
+	 */
+	public int getSlowLimit()
+	{
+		return slowLimit;
+	}
+
+	/**
+	 * @param slowLimit the slowLimit to set
+	 */
+	public void setSlowLimit(int slowLimit)
+	{
+		this.slowLimit = slowLimit;
+	}
+
+	/**
+	 * @return the autoAsync
+	 */
+	public boolean isAutoAsync()
+	{
+		return autoAsync;
+	}
+
+	/**
+	 * @param autoAsync the autoAsync to set
+	 */
+	public void setAutoAsync(boolean autoAsync)
+	{
+		this.autoAsync = autoAsync;
+	}
+
+	/**
+	 * @return the queueCapacity
+	 */
+	public int getQueueCapacity()
+	{
+		return queueCapacity;
+	}
+
+	/**
+	 * @param queueCapacity the queueCapacity to set
+	 */
+	public void setQueueCapacity(int queueCapacity)
+	{
+		this.queueCapacity = queueCapacity;
+	}
+
+}
@@ -0,0 +1,40 @@
+package com.littcore.eventbus;
+
+import java.util.List;
+
+/**
+ * 批量事件监听器.
+ * 
+ * <pre>
+ * <b>描述：</b>
+ * 		异步模式下，分区线程一次取出的多个事件中属于指定类型的事件合并为一个列表交给监听器处理，
+ * 		适合批量写库等场景；同步模式下每次只包含一个事件。
+ * 		同一个分区内列表中的事件保持发布顺序。
+ * </pre>
+ * 
+ * <pre>
+ * <b>修改记录：</b>
+ * 
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface IBatchEventBusListener<E> extends IEventBusListener {
+	
+	/**
+	 * 监听的事件类型（包括子类）.
+	 *
+	 * @return the event type
+	 */
+	public Class<E> getEventType();
+	
+	/**
+	 * 处理事件.
+	 *
+	 * @param events 事件列表
+	 */
+	public void onEvents(List<E> events);
+
+}
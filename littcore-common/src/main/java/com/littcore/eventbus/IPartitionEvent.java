@@ -0,0 +1,30 @@
+package com.littcore.eventbus;
+
+/**
+ * 分区事件接口.
+ * 
+ * <pre>
+ * <b>描述：</b>
+ * 		异步模式下，分区键相同的事件总是由同一个分区（线程）按发布顺序处理；
+ * 		未实现该接口的事件轮流分配到各个分区，不保证处理顺序。
+ * </pre>
+ * 
+ * <pre>
+ * <b>修改记录：</b>
+ * 
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public interface IPartitionEvent {
+	
+	/**
+	 * 获取分区键.
+	 *
+	 * @return 分区键，为NULL时按无分区处理
+	 */
+	public Object getPartitionKey();
+
+}
@@ -1,39 +1,504 @@
 package com.littcore.eventbus;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.google.common.eventbus.DeadEvent;
 import com.google.common.eventbus.EventBus;
 
+/**
+ * Spring事件总线.
+ *
+ * <pre>
+ * <b>描述：</b>
+ * 		默认为同步模式，在发布事件的线程中调用订阅者。
+ * 		异步模式（async=true）下事件进入有界的分区队列，由各分区的线程调用订阅者，发布线程不再等待订阅者执行完成：
+ * 		1、实现IPartitionEvent的事件按分区键哈希到固定的分区，同一分区键的事件按发布顺序处理；
+ * 		2、分区队列已满时发布线程阻塞等待（背压），分区线程发布事件时改为在当前线程处理，避免分区之间互相等待；
+ * 		3、分区线程一次取出多个事件，IBatchEventBusListener按列表批量接收。
+ * 		ICompleteEvent在事务中发布时，注册到事务同步器，事务提交后再分发（异步模式下仅入队）。
+ * 		订阅方法由EventSubscriberRegistry在注册时解析并按事件类型建立分发表，不再经过Guava的订阅者查找；
+ * 		可开启慢订阅者检测（autoAsync），连续慢调用的订阅者自动切换到自己的异步队列。
+ * </pre>
+ *
+ * <pre>
+ * <b>修改记录：</b>
+ * 		2026-10-17 增加异步分区模式及批量监听器，恢复ICompleteEvent在事务提交后的发布
+ * 		2026-10-17 使用EventSubscriberRegistry预先建立分发表，增加订阅者统计及慢订阅者检测
+ * 		2026-10-17 关闭后不再启动分区线程，事件改为在发布线程中同步处理；入队不再无限期阻塞在已停止的分区上
+ * 		2026-10-17 register(Object)同样注册到EventSubscriberRegistry；有批量监听器接收的事件不再包装为DeadEvent
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2013-04-15
+ * @version 1.0
+ */
 public class SpringEventBus extends EventBus implements IEventBus {
-	
+
+	private static final Logger logger = LoggerFactory.getLogger(SpringEventBus.class);
+
+	/** 是否异步分发. */
+	private boolean async = false;
+
+	/** 分区数. */
+	private int partitions = Runtime.getRuntime().availableProcessors();
+
+	/** 每个分区的队列容量. */
+	private int queueCapacity = 1024;
+
+	/** 分区线程每次最多取出的事件数. */
+	private int batchSize = 100;
+
+	/** 关闭时等待队列处理完成的时间（毫秒）. */
+	private long shutdownTimeout = 30000;
+
+	private final CopyOnWriteArrayList<IBatchEventBusListener<?>> batchListeners = new CopyOnWriteArrayList<IBatchEventBusListener<?>>();
+
+	private final EventSubscriberRegistry subscriberRegistry = new EventSubscriberRegistry(identifier());
+
+	private final AtomicInteger roundRobin = new AtomicInteger();
+
+	private volatile EventLane[] lanes;
+
+	/** 是否已关闭，关闭后事件在发布线程中同步处理. */
+	private volatile boolean shutdown = false;
+
+	public SpringEventBus() {
+		super();
+	}
+
+	/**
+	 * Instantiates a new spring event bus.
+	 *
+	 * @param identifier 名称，用于分区线程及订阅者MBean的命名
+	 */
+	public SpringEventBus(String identifier) {
+		super(identifier);
+	}
+
 	/* (non-Javadoc)
 	 * @see com.transoft.nms.eventbus.IEventBus#publish(java.lang.Object)
 	 */
 	@Override
 	public void publish(Object event)
-	{		
+	{
 		//如果是CompleteEvent，则不会立即触发，而是在事务正确提交后发布
-		if(event instanceof ICompleteEvent)
-		{
-			if (!TransactionSynchronizationManager.isSynchronizationActive())
-				super.post(event);
-			else
-			{			
-	//			TransactionSynchronizationManager.registerSynchronization(new EventBusTransactionSynchronization(pool,
-	//                    subscriber, event));
-			}
+		if(event instanceof ICompleteEvent && TransactionSynchronizationManager.isSynchronizationActive())
+		{
+			TransactionSynchronizationManager.registerSynchronization(new EventBusTransactionSynchronization(this, event));
 		}
 		else {
 			this.post(event);
 		}
 	}
 
+	/**
+	 * 分发事件.
+	 * 同步模式下直接调用订阅者，异步模式下放入分区队列；总线已关闭或分区已停止时在当前线程处理
+	 *
+	 * @param event the event
+	 */
+	@Override
+	public void post(Object event)
+	{
+		if(!async)
+		{
+			deliver(Collections.singletonList(event));
+			return;
+		}
+		EventLane lane = selectLane(event);
+		if(lane==null)	//已关闭
+		{
+			deliver(Collections.singletonList(event));
+			return;
+		}
+		if(isLaneThread())	//分区线程发布事件，队列满时直接处理，不能阻塞等待
+		{
+			if(!lane.queue.offer(event))
+				deliver(Collections.singletonList(event));
+			return;
+		}
+		try {
+			//队列已满时分段等待（背压），期间分区停止则改为直接处理，不会阻塞在无人消费的队列上
+			while(!lane.queue.offer(event, 100, TimeUnit.MILLISECONDS))
+			{
+				if(!lane.isAlive())
+				{
+					deliver(Collections.singletonList(event));
+					return;
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while publishing event: "+event, e);
+		}
+		//入队时分区正在停止，分区线程可能已退出：仍在队列中的事件由当前线程处理
+		if(!lane.running && lane.queue.remove(event))
+			deliver(Collections.singletonList(event));
+	}
+
 	/* (non-Javadoc)
 	 * @see com.transoft.nms.eventbus.IEventBus#register(com.transoft.nms.eventbus.IEventBusListener)
 	 */
 	@Override
 	public void register(IEventBusListener listener) {
-		super.register(listener);		
+		this.register((Object)listener);
+	}
+
+	/**
+	 * 注册监听器，与register(IEventBusListener)相同，不经过Guava的订阅者注册表（其中的订阅者不会被调用）.
+	 *
+	 * @param object the object
+	 */
+	@Override
+	public void register(Object object) {
+		if(object instanceof IBatchEventBusListener)
+			batchListeners.addIfAbsent((IBatchEventBusListener<?>)object);
+		subscriberRegistry.register(object);
+	}
+
+	/* (non-Javadoc)
+	 * @see com.google.common.eventbus.EventBus#unregister(java.lang.Object)
+	 */
+	@Override
+	public void unregister(Object object) {
+		boolean removed = batchListeners.remove(object);
+		removed = subscriberRegistry.unregister(object) || removed;
+		if(!removed)
+			throw new IllegalArgumentException("missing event subscriber for an annotated method. Is "+object+" registered?");
+	}
+
+	/**
+	 * 启动分区线程（异步模式下首次发布时自动启动），已启动或已关闭时不做处理.
+	 */
+	public synchronized void start()
+	{
+		if(lanes!=null || shutdown)
+			return;
+		EventLane[] lanes = new EventLane[Math.max(1, partitions)];
+		for(int i=0;i<lanes.length;i++)
+		{
+			lanes[i] = new EventLane(identifier()+"-"+i);
+			lanes[i].thread.start();
+		}
+		this.lanes = lanes;
+	}
+
+	/**
+	 * 停止分区线程及订阅者的异步队列，队列中剩余的事件处理完成（或超时）后返回.
+	 * 关闭后发布的事件在发布线程中同步处理
+	 */
+	public synchronized void destroy()
+	{
+		if(shutdown)
+			return;
+		shutdown = true;
+		subscriberRegistry.setAutoAsync(false);	//关闭后不再为慢订阅者创建异步队列
+		EventLane[] lanes = this.lanes;
+		if(lanes==null)
+		{
+			subscriberRegistry.shutdown();
+			return;
+		}
+		this.lanes = null;
+		for(EventLane lane : lanes)
+		{
+			lane.running = false;
+		}
+		long deadline = System.currentTimeMillis() + shutdownTimeout;
+		for(EventLane lane : lanes)
+		{
+			try {
+				lane.thread.join(Math.max(1, deadline - System.currentTimeMillis()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+			if(!lane.queue.isEmpty())
+				logger.warn("EventBus lane {} stopped with {} pending events", lane.thread.getName(), lane.queue.size());
+		}
+		subscriberRegistry.shutdown();
+	}
+
+	private EventLane selectLane(Object event)
+	{
+		EventLane[] lanes = this.lanes;
+		if(lanes==null)
+		{
+			start();
+			lanes = this.lanes;
+			if(lanes==null)	//已关闭
+				return null;
+		}
+		Object key = event instanceof IPartitionEvent ? ((IPartitionEvent)event).getPartitionKey() : null;
+		int index;
+		if(key!=null)
+		{
+			int hash = key.hashCode();
+			index = ((hash ^ (hash >>> 16)) & 0x7FFFFFFF) % lanes.length;
+		}
+		else
+		{
+			index = (roundRobin.getAndIncrement() & 0x7FFFFFFF) % lanes.length;
+		}
+		return lanes[index];
+	}
+
+	private boolean isLaneThread()
+	{
+		EventLane[] lanes = this.lanes;
+		if(lanes!=null)
+		{
+			Thread current = Thread.currentThread();
+			for(EventLane lane : lanes)
+			{
+				if(lane.thread==current)
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * 调用订阅者处理一批事件.
+	 *
+	 * @param events the events
+	 */
+	private void deliver(List<Object> events)
+	{
+		for(Object event : events)
+		{
+			EventSubscriber[] subscribers = subscriberRegistry.getSubscribers(event.getClass());
+			if(subscribers.length==0 && !(event instanceof DeadEvent) && !hasBatchListener(event))	//与Guava一致，没有订阅者的事件包装为DeadEvent
+			{
+				event = new DeadEvent(this, event);
+				subscribers = subscriberRegistry.getSubscribers(DeadEvent.class);
+			}
+			for(EventSubscriber subscriber : subscribers)
+			{
+				subscriber.dispatch(event);
+			}
+		}
+		for(IBatchEventBusListener<?> listener : batchListeners)
+		{
+			deliverBatch(listener, events);
+		}
+	}
+
+	/**
+	 * 是否有批量监听器接收该事件.
+	 */
+	private boolean hasBatchListener(Object event)
+	{
+		for(IBatchEventBusListener<?> listener : batchListeners)
+		{
+			if(listener.getEventType().isInstance(event))
+				return true;
+		}
+		return false;
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	private void deliverBatch(IBatchEventBusListener listener, List<Object> events)
+	{
+		Class<?> eventType = listener.getEventType();
+		List<Object> matched = null;
+		for(Object event : events)
+		{
+			if(eventType.isInstance(event))
+			{
+				if(matched==null)
+					matched = new ArrayList<Object>(events.size());
+				matched.add(event);
+			}
+		}
+		if(matched==null)
+			return;
+		try {
+			listener.onEvents(matched);
+		} catch (Throwable e) {
+			logger.error("Could not dispatch events to batch listener "+listener, e);
+		}
 	}
-  
+
+	/**
+	 * 事件分区.
+	 */
+	private final class EventLane implements Runnable {
+
+		private final BlockingQueue<Object> queue = new ArrayBlockingQueue<Object>(queueCapacity);
+
+		private final Thread thread;
+
+		private volatile boolean running = true;
+
+		EventLane(String name)
+		{
+			this.thread = new Thread(this, name);
+			this.thread.setDaemon(true);
+		}
+
+		/**
+		 * 分区是否仍在处理队列.
+		 */
+		boolean isAlive()
+		{
+			return running && thread.isAlive();
+		}
+
+		@Override
+		public void run()
+		{
+			List<Object> batch = new ArrayList<Object>(batchSize);
+			while(running || !queue.isEmpty())
+			{
+				try {
+					Object event = queue.poll(100, TimeUnit.MILLISECONDS);
+					if(event==null)
+						continue;
+					batch.add(event);
+					queue.drainTo(batch, batchSize-1);
+					deliver(batch);
+				} catch (InterruptedException e) {
+					if(!running)
+						break;
+				} catch (Throwable e) {
+					logger.error("EventBus lane "+thread.getName()+" failed to dispatch events", e);
+				} finally {
+					batch.clear();
+				}
+			}
+		}
+	}
+
+	/**
+	 * @return 是否已关闭
+	 */
+	public boolean isShutdown() {
+		return shutdown;
+	}
+
+	/**
+	 * @return the subscriberRegistry
+	 */
+	public EventSubscriberRegistry getSubscriberRegistry() {
+		return subscriberRegistry;
+	}
+
+	/**
+	 * 设置慢调用阈值（毫秒）.
+	 *
+	 * @param slowThreshold the slowThreshold to set
+	 */
+	public void setSlowThreshold(long slowThreshold) {
+		subscriberRegistry.setSlowThreshold(slowThreshold);
+	}
+
+	/**
+	 * 设置连续慢调用多少次后切换为异步分发.
+	 *
+	 * @param slowLimit the slowLimit to set
+	 */
+	public void setSlowLimit(int slowLimit) {
+		subscriberRegistry.setSlowLimit(slowLimit);
+	}
+
+	/**
+	 * 设置是否自动将慢订阅者切换为异步分发.
+	 *
+	 * @param autoAsync the autoAsync to set
+	 */
+	public void setAutoAsync(boolean autoAsync) {
+		subscriberRegistry.setAutoAsync(autoAsync);
+	}
+
+	/**
+	 * 设置慢订阅者异步队列的容量.
+	 *
+	 * @param subscriberQueueCapacity the subscriberQueueCapacity to set
+	 */
+	public void setSubscriberQueueCapacity(int subscriberQueueCapacity) {
+		subscriberRegistry.setQueueCapacity(subscriberQueueCapacity);
+	}
+
+	/**
+	 * @return the async
+	 */
+	public boolean isAsync() {
+		return async;
+	}
+
+	/**
+	 * @param async the async to set
+	 */
+	public void setAsync(boolean async) {
+		this.async = async;
+	}
+
+	/**
+	 * @return the partitions
+	 */
+	public int getPartitions() {
+		return partitions;
+	}
+
+	/**
+	 * @param partitions the partitions to set
+	 */
+	public void setPartitions(int partitions) {
+		this.partitions = partitions;
+	}
+
+	/**
+	 * @return the queueCapacity
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @param queueCapacity the queueCapacity to set
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * @return the batchSize
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @param batchSize the batchSize to set
+	 */
+	public void setBatchSize(int batchSize) {
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return the shutdownTimeout
+	 */
+	public long getShutdownTimeout() {
+		return shutdownTimeout;
+	}
+
+	/**
+	 * @param shutdownTimeout the shutdownTimeout to set
+	 */
+	public void setShutdownTimeout(long shutdownTimeout) {
+		this.shutdownTimeout = shutdownTimeout;
+	}
+
 }
@@ -0,0 +1,117 @@
+package com.littcore.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * 耗时直方图.
+ * 
+ * <pre><b>描述：</b>
+ *    按2的幂次划分微秒级的区间进行计数，记录过程无锁，内存占用固定。
+ *    分位数按所在区间的上界估算，误差不超过一倍，适合观察数量级变化。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class LatencyHistogram {
+  
+  /** 区间数量，最后一个区间约为35分钟以上. */
+  private static final int BUCKETS = 32;
+  
+  private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+  
+  private final AtomicLong count = new AtomicLong();
+  
+  /** 总耗时（纳秒）. */
+  private final AtomicLong total = new AtomicLong();
+  
+  /** 最大耗时（纳秒）. */
+  private final AtomicLong max = new AtomicLong();
+  
+  /**
+   * 记录一次耗时
+   * @param nanos 耗时（纳秒）
+   */
+  public void record(long nanos) {
+    if(nanos < 0)
+      nanos = 0;
+    long micros = nanos / 1000;
+    int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    buckets.incrementAndGet(bucket);
+    count.incrementAndGet();
+    total.addAndGet(nanos);
+    long current;
+    while (nanos > (current = max.get())) {
+      if(max.compareAndSet(current, nanos))
+        break;
+    }
+  }
+  
+  public long getCount() {
+    return count.get();
+  }
+  
+  /**
+   * 平均耗时
+   * @return 平均耗时（微秒）
+   */
+  public double getMean() {
+    long n = count.get();
+    return n == 0 ? 0 : total.get() / 1000d / n;
+  }
+  
+  /**
+   * 最大耗时
+   * @return 最大耗时（微秒）
+   */
+  public long getMax() {
+    return max.get() / 1000;
+  }
+  
+  /**
+   * 估算分位数
+   * @param quantile 分位，如0.99
+   * @return 耗时上界（微秒）
+   */
+  public long getPercentile(double quantile) {
+    long[] snapshot = new long[BUCKETS];
+    long n = 0;
+    for (int i = 0; i < BUCKETS; i++)
+    {
+      snapshot[i] = buckets.get(i);
+      n += snapshot[i];
+    }
+    if(n == 0)
+      return 0;
+    long rank = (long)Math.ceil(quantile * n);
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++)
+    {
+      seen += snapshot[i];
+      if(seen >= rank)
+        return Math.min(1L << i, getMax());
+    }
+    return getMax();
+  }
+  
+  /**
+   * 清空统计
+   */
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++)
+    {
+      buckets.set(i, 0);
+    }
+    count.set(0);
+    total.set(0);
+    max.set(0);
+  }
+
+}
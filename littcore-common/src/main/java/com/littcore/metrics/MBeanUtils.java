@@ -0,0 +1,78 @@
+package com.littcore.metrics;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * JMX注册工具类.
+ * 
+ * <pre><b>描述：</b>
+ *    将监控对象注册到平台MBeanServer，注册失败只记录日志，不影响业务
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class MBeanUtils {
+  
+  private static final Logger logger = LoggerFactory.getLogger(MBeanUtils.class);
+  
+  private MBeanUtils() {
+  }
+  
+  /**
+   * 注册MBean，同名的MBean已存在时替换
+   * @param mbean 监控对象
+   * @param domain 域
+   * @param type 类型
+   * @param name 名称
+   * @return 注册成功返回ObjectName，否则返回null
+   */
+  public static ObjectName register(Object mbean, String domain, String type, String name) {
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      ObjectName objectName = new ObjectName(domain + ":type=" + type + ",name=" + ObjectName.quote(name));
+      try {
+        server.registerMBean(mbean, objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        server.unregisterMBean(objectName);
+        server.registerMBean(mbean, objectName);
+      }
+      return objectName;
+    } catch (JMException e) {
+      logger.warn("Unable to register MBean " + domain + ":" + type + "/" + name, e);
+      return null;
+    }
+  }
+  
+  /**
+   * 注销MBean
+   * @param objectName object name
+   */
+  public static void unregister(ObjectName objectName) {
+    if(objectName == null)
+      return;
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+    } catch (InstanceNotFoundException e) {
+      //ignore
+    } catch (JMException e) {
+      logger.warn("Unable to unregister MBean " + objectName, e);
+    }
+  }
+
+}
@@ -11,8 +11,7 @@ import org.apache.commons.lang.LocaleUtils;
 import org.mvel2.util.ThisLiteral;
 
 import com.littcore.exception.BusiException;
-import com.littcore.uid.RandomGUID;
-import com.littcore.uid.UUID;
+import com.littcore.uid.RandomIdGenerator;
 import com.littcore.util.ArrayUtils;
 
 /**
@@ -28,6 +27,9 @@ import com.littcore.util.ArrayUtils;
  * 
  * 2016-05-19 1.2
  *  1、增加一个Map用于存储动态的附加属性
+ * 
+ * 2026-10-17 1.3
+ *  1、guid及token改用RandomIdGenerator生成，不再使用MD5及共享的随机数生成器
  * 	
  * </pre>
  * 
@@ -67,7 +69,7 @@ public class BaseLoginVo implements ILoginVo, Serializable
 	private String theme;
 	
 	/** 全局唯一索引号(用来区分同一用户不同设备登录). */
-	private String guid = new RandomGUID().toString();
+	private String guid = RandomIdGenerator.randomUUIDString();
 	
 	/** 自动登录令牌. */
 	private String autoLoginToken;
@@ -121,7 +123,7 @@ public class BaseLoginVo implements ILoginVo, Serializable
 		this.loginId = loginId;
 		this.opName = opName;
 		this.loginIp = loginIp;
-		this.token = UUID.randomUUID().toString();
+		this.token = RandomIdGenerator.randomUUIDString();
 	}
 	
 	/**
@@ -1,7 +1,6 @@
 package com.littcore.uid;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * 
@@ -9,10 +8,14 @@ import java.util.Map;
  * 
  * <pre><b>描述：</b>
  *    64位的LONG型，相比UUID的存储和查询性能好
+ *    ID由高到低依次为：符号位（0）+时间戳（相对epoch的毫秒数）+数据中心ID+机器ID+毫秒内序列，各部分位数可配置。
+ *    生成过程无锁：时间戳与序列合并保存在一个AtomicLong中，通过CAS递增；
+ *    同一毫秒内序列用完或时钟回拨时，时间戳在上次的基础上继续递增（借用未来的毫秒），
+ *    借用超过maxBackwardMillis时：若由序列用完引起则等待时钟追上，若由时钟回拨引起则抛出异常，不会生成重复的ID。
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 改为CAS无锁实现，支持配置各部分位数、容忍时钟回拨及批量预留ID
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -21,110 +24,281 @@ import java.util.Map;
  */
 public class IdGenerator {
 
-  private final long workerId;
-
-  private final static long twepoch = 1361753741828L;
+  /** 默认起始时间. */
+  public final static long twepoch = 1361753741828L;
 
-  private long sequence = 0L;
+  /** 默认时钟回拨容忍时间（毫秒）. */
+  public final static long DEFAULT_MAX_BACKWARD_MILLIS = 5L;
 
   private final static long workerIdBits = 4L;
 
+  /** 兼容布局（IdGenerator(workerId)）的最大机器ID. */
   public final static long maxWorkerId = -1L ^ -1L << workerIdBits;
 
   private final static long sequenceBits = 10L;
 
-  private final static long workerIdShift = sequenceBits;
+  /** 兼容布局（IdGenerator(workerId)）的序列掩码. */
+  public final static long sequenceMask = -1L ^ -1L << sequenceBits;
 
-  private final static long timestampLeftShift = sequenceBits + workerIdBits;
+  private final long datacenterId;
 
-  public final static long sequenceMask = -1L ^ -1L << sequenceBits;
+  private final long workerId;
+
+  private final int seqBits;
+
+  private final long seqMask;
+
+  private final int workerShift;
+
+  private final int datacenterShift;
+
+  private final int timestampShift;
+
+  private final long maxTimestamp;
+
+  private final long maxDatacenterId;
+
+  private final long maxWorker;
 
-  private long lastTimestamp = -1L;
+  private long epoch = twepoch;
+
+  private long maxBackwardMillis = DEFAULT_MAX_BACKWARD_MILLIS;
+
+  /** 上次生成ID使用的时间戳及序列（时间戳<<seqBits | 序列）. */
+  private final AtomicLong state = new AtomicLong();
+
+  /** 观察到的最大时钟（相对epoch），用于识别时钟回拨. */
+  private final AtomicLong lastClock = new AtomicLong();
 
   /**
    * 核心代码就是毫秒级时间41位+机器ID 10位+毫秒内序列12位 0---0000000000 0000000000 0000000000 0000000000 0 --- 00000 ---00000 ---0000000000
    * 00 在上面的字符串中，第一位为未使用（实际上也可作为long的符号位），接下来的41位为毫秒级时间，然后5位datacenter标识位，5位机器ID（并不算标识符，实际是为线程标识），然后12位该毫秒内的当前毫秒内的计数，
    * 加起来刚好64位，为一个Long型。
-   * 这样的好处是，整体上按照时间自增排序，并且整个分布式系统内不会产生ID碰撞（由datacenter和机器ID作区分），并且效率较高，经测试，snowflake每秒能够产生26万ID左右，完全满足需要。
+   * 这样的好处是，整体上按照时间自增排序，并且整个分布式系统内不会产生ID碰撞（由datacenter和机器ID作区分），并且效率较高。
+   * 
+   * 此构造函数保持原有的布局（4位机器ID+10位序列），与已生成的ID兼容。
    * 
    * @param workerId
    */
   public IdGenerator(final long workerId)
+  {
+    this(0L, workerId, 63 - (int)(workerIdBits + sequenceBits), 0, (int)workerIdBits, (int)sequenceBits);
+  }
+
+  /**
+   * 使用标准布局：41位时间戳+5位数据中心ID+5位机器ID+12位序列.
+   *
+   * @param datacenterId 数据中心ID（0-31）
+   * @param workerId 机器ID（0-31）
+   */
+  public IdGenerator(final long datacenterId, final long workerId)
+  {
+    this(datacenterId, workerId, 41, 5, 5, 12);
+  }
+
+  /**
+   * 使用自定义布局.
+   *
+   * @param datacenterId 数据中心ID
+   * @param workerId 机器ID
+   * @param timestampBits 时间戳位数
+   * @param datacenterIdBits 数据中心ID位数（可为0）
+   * @param workerIdBits 机器ID位数（可为0）
+   * @param sequenceBits 序列位数
+   */
+  public IdGenerator(final long datacenterId, final long workerId, int timestampBits, int datacenterIdBits, int workerIdBits, int sequenceBits)
   {
     super();
-    if (workerId > maxWorkerId || workerId < 0)
+    if (timestampBits < 1 || datacenterIdBits < 0 || workerIdBits < 0 || sequenceBits < 1)
+    {
+      throw new IllegalArgumentException("Invalid bit layout");
+    }
+    if (timestampBits + datacenterIdBits + workerIdBits + sequenceBits > 63)
+    {
+      throw new IllegalArgumentException(String.format("Total bits can't be greater than 63: %d", timestampBits + datacenterIdBits + workerIdBits + sequenceBits));
+    }
+    this.maxDatacenterId = -1L ^ -1L << datacenterIdBits;
+    this.maxWorker = -1L ^ -1L << workerIdBits;
+    if (datacenterId > maxDatacenterId || datacenterId < 0)
     {
-      throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", this.maxWorkerId));
+      throw new IllegalArgumentException(String.format("datacenter Id can't be greater than %d or less than 0", maxDatacenterId));
     }
+    if (workerId > maxWorker || workerId < 0)
+    {
+      throw new IllegalArgumentException(String.format("worker Id can't be greater than %d or less than 0", maxWorker));
+    }
+    this.datacenterId = datacenterId;
     this.workerId = workerId;
+    this.seqBits = sequenceBits;
+    this.seqMask = -1L ^ -1L << sequenceBits;
+    this.workerShift = sequenceBits;
+    this.datacenterShift = sequenceBits + workerIdBits;
+    this.timestampShift = sequenceBits + workerIdBits + datacenterIdBits;
+    this.maxTimestamp = -1L ^ -1L << timestampBits;
+  }
+
+  /**
+   * 生成ID.
+   *
+   * @return the long
+   */
+  public long nextId()
+  {
+    return toId(reserve(1));
   }
 
-  public synchronized long nextId()
+  /**
+   * 批量预留ID.
+   * 一次CAS预留n个连续的序列，适合线程一次取出一批ID在本地使用
+   *
+   * @param n 数量，不能超过单个毫秒的序列数
+   * @return 按递增顺序排列的ID
+   */
+  public long[] nextIds(int n)
   {
-    long timestamp = this.timeGen();
-    if (this.lastTimestamp == timestamp)
+    if (n < 1 || n > seqMask + 1)
     {
-      this.sequence = (this.sequence + 1) & sequenceMask;
-      if (this.sequence == 0)
-      {
-        timestamp = this.tilNextMillis(this.lastTimestamp);
-      }
-    } else
+      throw new IllegalArgumentException(String.format("n must be between 1 and %d", seqMask + 1));
+    }
+    long first = reserve(n);
+    long[] ids = new long[n];
+    for (int i = 0; i < n; i++)
     {
-      this.sequence = 0;
+      ids[i] = toId(first + i);
     }
-    if (timestamp < this.lastTimestamp)
+    return ids;
+  }
+
+  /**
+   * 预留n个连续的时间戳+序列.
+   *
+   * @param n 数量
+   * @return 第一个时间戳+序列
+   */
+  private long reserve(int n)
+  {
+    for (;;)
     {
-      try
+      long clock = lastClock.get(); //先读取观察到的时钟再读取当前时间，避免线程被挂起后误判为回拨
+      long now = this.timeGen() - epoch;
+      if (now > clock)
+      {
+        lastClock.compareAndSet(clock, now);
+      }
+      else if (clock - now > maxBackwardMillis)
+      {
+        throw new IllegalStateException(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", clock - now));
+      }
+
+      long current = state.get();
+      long first = now > (current >>> seqBits) ? now << seqBits : current + 1;
+      long last = first + n - 1;
+      long timestamp = last >>> seqBits;
+      if (timestamp - now > maxBackwardMillis) //借用的时间过多（序列用完），等待时钟追上
       {
-        throw new Exception(String.format("Clock moved backwards.  Refusing to generate id for %d milliseconds", this.lastTimestamp - timestamp));
-      } catch (Exception e)
+        Thread.yield();
+        continue;
+      }
+      if (timestamp > maxTimestamp)
+      {
+        throw new IllegalStateException("Timestamp bits exhausted, epoch or layout must be changed");
+      }
+      if (state.compareAndSet(current, last))
       {
-        e.printStackTrace();
+        return first;
       }
     }
+  }
 
-    this.lastTimestamp = timestamp;
-    long nextId = ((timestamp - twepoch << timestampLeftShift)) | (this.workerId << this.workerIdShift) | (this.sequence);
-    // System.out.println("timestamp:" + timestamp + ",timestampLeftShift:"
-    // + timestampLeftShift + ",nextId:" + nextId + ",workerId:"
-    // + workerId + ",sequence:" + sequence);
-    return nextId;
+  private long toId(long timestampAndSequence)
+  {
+    return ((timestampAndSequence >>> seqBits) << timestampShift) | (datacenterId << datacenterShift) | (workerId << workerShift) | (timestampAndSequence & seqMask);
   }
 
-  private long tilNextMillis(final long lastTimestamp)
+  /**
+   * 解析ID中的时间戳.
+   *
+   * @param id the id
+   * @return 毫秒时间
+   */
+  public long getTimestamp(long id)
   {
-    long timestamp = this.timeGen();
-    while (timestamp <= lastTimestamp)
-    {
-      timestamp = this.timeGen();
-    }
-    return timestamp;
+    return (id >>> timestampShift) + epoch;
   }
 
-  private long timeGen()
+  /**
+   * 解析ID中的数据中心ID.
+   *
+   * @param id the id
+   * @return the datacenter id
+   */
+  public long getDatacenterId(long id)
+  {
+    return (id >>> datacenterShift) & maxDatacenterId;
+  }
+
+  /**
+   * 解析ID中的机器ID.
+   *
+   * @param id the id
+   * @return the worker id
+   */
+  public long getWorkerId(long id)
+  {
+    return (id >>> workerShift) & maxWorker;
+  }
+
+  /**
+   * 解析ID中的序列.
+   *
+   * @param id the id
+   * @return the sequence
+   */
+  public long getSequence(long id)
+  {
+    return id & seqMask;
+  }
+
+  protected long timeGen()
   {
     return System.currentTimeMillis();
   }
 
-  public static void main(String[] args)
+  /**
+   * @return the epoch
+   */
+  public long getEpoch()
   {
-    IdGenerator worker1 = new IdGenerator(1);
-    IdGenerator worker2 = new IdGenerator(2);
-    long start = System.currentTimeMillis();
-    Map<Long, Long> map = new HashMap<Long, Long>();
-    for (long i = 0; i < 100; i++)
-    {
-      System.out.println(worker2.nextId());
-      map.put(worker2.nextId(), worker2.nextId());
-    }
-    for (long i = 0; i < 100; i++)
-    {
-      //System.out.println(worker2.nextId());
-      map.put(worker1.nextId(), worker1.nextId());
-    }
-    System.out.println(System.currentTimeMillis() - start);
-    System.out.println(map.size());
+    return epoch;
+  }
+
+  /**
+   * 设置起始时间，需在生成ID前设置.
+   *
+   * @param epoch the epoch to set
+   */
+  public void setEpoch(long epoch)
+  {
+    this.epoch = epoch;
+  }
+
+  /**
+   * @return the maxBackwardMillis
+   */
+  public long getMaxBackwardMillis()
+  {
+    return maxBackwardMillis;
+  }
+
+  /**
+   * 设置时钟回拨容忍时间（毫秒）.
+   * 回拨不超过该时间时借用未来的毫秒继续生成，超过则抛出异常
+   *
+   * @param maxBackwardMillis the maxBackwardMillis to set
+   */
+  public void setMaxBackwardMillis(long maxBackwardMillis)
+  {
+    this.maxBackwardMillis = maxBackwardMillis;
   }
 
 }
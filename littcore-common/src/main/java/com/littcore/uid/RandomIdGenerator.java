@@ -0,0 +1,283 @@
+package com.littcore.uid;
+
+import java.security.SecureRandom;
+
+/**
+ *
+ * 随机ID生成器.
+ *
+ * <pre><b>描述：</b>
+ *    用于会话ID、令牌等需要不可预测的随机ID的场景。
+ *    每个线程持有独立的SecureRandom及随机字节缓冲区，一次填充一整块随机字节后按需取用，
+ *    避免多个线程争用同一个SecureRandom以及每次生成都调用SecureRandom的开销；
+ *    随机字节直接编码为char[]（hex、base62、base64url），不产生中间字符串。
+ *    需要按时间排序的ID时使用timeUUID（UUID version 7）。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class RandomIdGenerator {
+
+  /** 每次填充的随机字节数. */
+  private static final int BLOCK_SIZE = 512;
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private static final char[] BASE62_DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz".toCharArray();
+
+  private static final char[] BASE64URL_DIGITS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+
+  private static final ThreadLocal<RandomBuffer> BUFFER = new ThreadLocal<RandomBuffer>() {
+    @Override
+    protected RandomBuffer initialValue()
+    {
+      return new RandomBuffer();
+    }
+  };
+
+  private static final OrderedUUIDGenerator ORDERED_GENERATOR = new OrderedUUIDGenerator();
+
+  /**
+   * 禁止外部生成实例类.
+   */
+  private RandomIdGenerator(){}
+
+  /**
+   * 填充随机字节.
+   *
+   * @param bytes the bytes
+   */
+  public static void nextBytes(byte[] bytes)
+  {
+    RandomBuffer buffer = BUFFER.get();
+    for(int offset = 0; offset < bytes.length;)
+    {
+      int length = Math.min(bytes.length - offset, BLOCK_SIZE);
+      int pos = buffer.take(length);
+      System.arraycopy(buffer.block, pos, bytes, offset, length);
+      offset += length;
+    }
+  }
+
+  /**
+   * 随机long.
+   *
+   * @return the long
+   */
+  public static long nextLong()
+  {
+    RandomBuffer buffer = BUFFER.get();
+    int pos = buffer.take(8);
+    byte[] block = buffer.block;
+    long value = 0;
+    for(int i = 0; i < 8; i++)
+      value = (value << 8) | (block[pos + i] & 0xFF);
+    return value;
+  }
+
+  /**
+   * 随机UUID（version 4）.
+   *
+   * @return the uuid
+   */
+  public static UUID randomUUID()
+  {
+    long msb = (nextLong() & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L; //version 4
+    long lsb = (nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L; //variant 2
+    return new UUID(msb, lsb);
+  }
+
+  /**
+   * 随机UUID的32位十六进制字符串（与UUID.toString()格式相同）.
+   *
+   * @return the string
+   */
+  public static String randomUUIDString()
+  {
+    long msb = (nextLong() & 0xFFFFFFFFFFFF0FFFL) | 0x0000000000004000L;
+    long lsb = (nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+    char[] chars = new char[32];
+    encodeHex(msb, chars, 0, 16);
+    encodeHex(lsb, chars, 16, 16);
+    return new String(chars);
+  }
+
+  /**
+   * 按时间排序的UUID（version 7）.
+   *
+   * @return the uuid
+   */
+  public static UUID timeUUID()
+  {
+    return ORDERED_GENERATOR.next();
+  }
+
+  /**
+   * 按时间排序的UUID的32位十六进制字符串.
+   *
+   * @return the string
+   */
+  public static String timeUUIDString()
+  {
+    return ORDERED_GENERATOR.next().toString();
+  }
+
+  /**
+   * 随机十六进制字符串.
+   *
+   * @param numBytes 随机字节数，字符串长度为其2倍
+   * @return the string
+   */
+  public static String randomHex(int numBytes)
+  {
+    char[] chars = new char[numBytes * 2];
+    RandomBuffer buffer = BUFFER.get();
+    for(int i = 0; i < numBytes;)
+    {
+      int length = Math.min(numBytes - i, BLOCK_SIZE);
+      int pos = buffer.take(length);
+      byte[] block = buffer.block;
+      for(int j = 0; j < length; j++, i++)
+      {
+        int b = block[pos + j];
+        chars[i * 2] = HEX_DIGITS[(b >> 4) & 0xF];
+        chars[i * 2 + 1] = HEX_DIGITS[b & 0xF];
+      }
+    }
+    return new String(chars);
+  }
+
+  /**
+   * 随机base62字符串（0-9A-Za-z）.
+   * 每个字符取随机字节的低6位，超出62的值丢弃重取，保证各字符出现的概率相同
+   *
+   * @param length 字符串长度
+   * @return the string
+   */
+  public static String randomBase62(int length)
+  {
+    char[] chars = new char[length];
+    RandomBuffer buffer = BUFFER.get();
+    for(int i = 0; i < length;)
+    {
+      int value = buffer.block[buffer.take(1)] & 0x3F;
+      if(value < 62)
+        chars[i++] = BASE62_DIGITS[value];
+    }
+    return new String(chars);
+  }
+
+  /**
+   * 随机base64url字符串（RFC 4648，无填充），可直接用于URL及Cookie.
+   *
+   * @param numBytes 随机字节数
+   * @return the string
+   */
+  public static String randomBase64Url(int numBytes)
+  {
+    byte[] bytes;
+    int pos;
+    RandomBuffer buffer = BUFFER.get();
+    if(numBytes <= BLOCK_SIZE)
+    {
+      pos = buffer.take(numBytes);
+      bytes = buffer.block;
+    }
+    else
+    {
+      bytes = new byte[numBytes];
+      nextBytes(bytes);
+      pos = 0;
+    }
+    return new String(encodeBase64Url(bytes, pos, numBytes));
+  }
+
+  /**
+   * 编码为base64url字符（RFC 4648，无填充）.
+   *
+   * @param bytes the bytes
+   * @param offset 起始位置
+   * @param length 字节数
+   * @return the char[]
+   */
+  public static char[] encodeBase64Url(byte[] bytes, int offset, int length)
+  {
+    char[] chars = new char[(length * 4 + 2) / 3];
+    int end = offset + length;
+    int i = offset;
+    int j = 0;
+    for(; i + 2 < end; i += 3)
+    {
+      int value = (bytes[i] & 0xFF) << 16 | (bytes[i + 1] & 0xFF) << 8 | (bytes[i + 2] & 0xFF);
+      chars[j++] = BASE64URL_DIGITS[value >>> 18];
+      chars[j++] = BASE64URL_DIGITS[(value >>> 12) & 0x3F];
+      chars[j++] = BASE64URL_DIGITS[(value >>> 6) & 0x3F];
+      chars[j++] = BASE64URL_DIGITS[value & 0x3F];
+    }
+    if(i < end)
+    {
+      int value = (bytes[i] & 0xFF) << 16;
+      if(i + 1 < end)
+        value |= (bytes[i + 1] & 0xFF) << 8;
+      chars[j++] = BASE64URL_DIGITS[value >>> 18];
+      chars[j++] = BASE64URL_DIGITS[(value >>> 12) & 0x3F];
+      if(i + 1 < end)
+        chars[j++] = BASE64URL_DIGITS[(value >>> 6) & 0x3F];
+    }
+    return chars;
+  }
+
+  /**
+   * 将long的低length*4位编码为十六进制字符.
+   *
+   * @param value the value
+   * @param chars 目标字符数组
+   * @param offset 起始位置
+   * @param length 字符数
+   */
+  static void encodeHex(long value, char[] chars, int offset, int length)
+  {
+    for(int i = offset + length - 1; i >= offset; i--)
+    {
+      chars[i] = HEX_DIGITS[(int)(value & 0xF)];
+      value >>>= 4;
+    }
+  }
+
+  /**
+   * 线程私有的随机字节缓冲区.
+   */
+  private static final class RandomBuffer {
+
+    private final SecureRandom random = new SecureRandom();
+
+    private final byte[] block = new byte[BLOCK_SIZE];
+
+    private int pos = BLOCK_SIZE;
+
+    /**
+     * 取用length个随机字节，剩余不足时重新填充整块.
+     *
+     * @param length 字节数，不超过BLOCK_SIZE
+     * @return 在block中的起始位置
+     */
+    int take(int length)
+    {
+      if(pos + length > BLOCK_SIZE)
+      {
+        random.nextBytes(block);
+        pos = 0;
+      }
+      int start = pos;
+      pos += length;
+      return start;
+    }
+  }
+
+}
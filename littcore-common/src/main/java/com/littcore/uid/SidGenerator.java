@@ -2,7 +2,6 @@ package com.littcore.uid;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.UUID;
 
 
 
@@ -15,6 +14,7 @@ import java.util.UUID;
  * 
  * <pre><b>修改记录：</b>
  *  2015-05-31 改成短网址生成算法
+ *  2026-10-17 改为直接从RandomIdGenerator的线程缓冲区取随机字符，不再经过UUID字符串转换
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -23,36 +23,13 @@ import java.util.UUID;
  */
 public class SidGenerator
 {
-  static char hexChar[] = {'0', '1', '2', '3', '4', '5', '6', '7', '8' , '9', 'a', 'b', 'c', 'd', 'e', 'f'};
-  //要使用生成 URL 的字符
-  private static String[] CHAR_64_BITS = new String[] { "a" , "b" , "c" , "d" , "e" , "f" , "g" , "h" ,
-    "i" , "j" , "k" , "l" , "m" , "n" , "o" , "p" , "q" , "r" , "s" , "t" ,
-    "u" , "v" , "w" , "x" , "y" , "z" , "0" , "1" , "2" , "3" , "4" , "5" ,
-    "6" , "7" , "8" , "9" , "A" , "B" , "C" , "D" , "E" , "F" , "G" , "H" ,
-    "I" , "J" , "K" , "L" , "M" , "N" , "O" , "P" , "Q" , "R" , "S" , "T" ,
-    "U" , "V" , "W" , "X" , "Y" , "Z"
-  };
-  
+  /**
+   * 生成6位的base62 ID.
+   *
+   * @return the id
+   */
   public static String getId(){
-    String hex = UUID.randomUUID().toString();   
-    StringBuilder sb = new StringBuilder();
-    
-    for (int i = 0; i < 1; i++) {
-      //把加密字符按照 8 位一组 16 进制与 0x3FFFFFFF 进行位与运算
-      String sTempSubString = hex.substring(i * 8, i * 8 + 8);
-
-      //这里需要使用 long 型来转换，因为 Integer .parseInt() 只能处理 31 位 , 首位为符号位 , 如果不用 long ，则会越界
-      long lHexLong = 0x3FFFFFFF & Long.parseLong (sTempSubString, 16);
-      for (int j = 0; j < 6; j++) {
-        //把得到的值与 0x0000003D 进行位与运算，取得字符数组 chars 索引
-        long index = 0x0000003D & lHexLong;
-        //把取得的字符相加
-        sb.append(CHAR_64_BITS[( int ) index]);
-        //每次循环按位右移 5 位
-        lHexLong = lHexLong >> 5;
-      }
-    }
-    return sb.toString();
+    return RandomIdGenerator.randomBase62(6);
   }
   	
 	/**
@@ -108,12 +108,6 @@ implements java.io.Serializable, Comparable {
      */
     private transient int hashCode = -1;
 
-    /*
-     * The random number generator used by this class to create random
-     * based UUIDs.
-     */
-    private static volatile SecureRandom numberGenerator = null;
-
     // Constructors and Factories
 
     /*
@@ -149,24 +143,12 @@ implements java.io.Serializable, Comparable {
      * Static factory to retrieve a type 4 (pseudo randomly generated) UUID.
      *
      * The <code>UUID</code> is generated using a cryptographically strong
-     * pseudo random number generator.
+     * pseudo random number generator (see {@link RandomIdGenerator}).
      *
      * @return  a randomly generated <tt>UUID</tt>.
      */
     public static UUID randomUUID() {
-        SecureRandom ng = numberGenerator;
-        if (ng == null) {
-            numberGenerator = ng = new SecureRandom();
-        }
-
-        byte[] randomBytes = new byte[16];
-        ng.nextBytes(randomBytes);
-        randomBytes[6]  &= 0x0f;  /* clear version        */
-        randomBytes[6]  |= 0x40;  /* set to version 4     */
-        randomBytes[8]  &= 0x3f;  /* clear variant        */
-        randomBytes[8]  |= 0x80;  /* set to IETF variant  */
-        UUID result = new UUID(randomBytes);
-        return new UUID(randomBytes);
+        return RandomIdGenerator.randomUUID();
     }
 
     /**
@@ -397,17 +379,10 @@ implements java.io.Serializable, Comparable {
      * @return  a string representation of this <tt>UUID</tt>.
      */
     public String toString() {
-	return (digits(mostSigBits >> 32, 8) +
-		digits(mostSigBits >> 16, 4) +
-		digits(mostSigBits, 4) +
-		digits(leastSigBits >> 48, 4) +
-		digits(leastSigBits, 12));
-    }
-
-    /** Returns val represented by the specified number of hex digits. */
-    private static String digits(long val, int digits) {
-	long hi = 1L << (digits * 4);
-	return Long.toHexString(hi | (val & (hi - 1))).substring(1);
+	char[] chars = new char[32];
+	RandomIdGenerator.encodeHex(mostSigBits, chars, 0, 16);
+	RandomIdGenerator.encodeHex(leastSigBits, chars, 16, 16);
+	return new String(chars);
     }
 
     /**
@@ -1,8 +1,8 @@
 package com.littcore.web.interceptor;
 
 import java.lang.reflect.Method;
-import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -28,7 +28,7 @@ import com.littcore.web.util.WebUtils;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *   
+ *   2026-10-17 方法缓存改为ConcurrentHashMap，HashMap在并发写入时可能损坏
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -45,11 +45,11 @@ public abstract class BaseControllerInterceptor extends HandlerInterceptorAdapte
 	
 	/**
 	 * 方法缓存.
-	 * 无需考虑并发，同名情况覆盖也不会有问题
+	 * 同名情况覆盖不会有问题
 	 * KEY : className.methodName
 	 * VALUE : Method对象
 	 */
-	private Map<String, Method> methodCache = new HashMap<String, Method>();	
+	private Map<String, Method> methodCache = new ConcurrentHashMap<String, Method>();	
 	
 	/**
 	 * 根据方法名获得方法.
@@ -0,0 +1,351 @@
+package com.littcore.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.littcore.cache.broadcast.LocalCacheBroadcaster;
+import com.littcore.cache.broadcast.UdpCacheBroadcaster;
+import com.littcore.cache.provider.EhCacheProvider;
+import com.littcore.cache.provider.OffHeapCache;
+import com.littcore.cache.provider.OffHeapCacheProvider;
+
+
+/**
+ * 两级缓存测试.
+ * 
+ * <pre><b>描述：</b>
+ *    
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class CacheFactoryTest {
+  
+  private static final String REGION = "test";
+  
+  private final List<CacheCommand> received = new ArrayList<CacheCommand>();
+  
+  private LocalCacheBroadcaster peer;
+  
+  @Before
+  public void setUp()
+  {
+    CacheFactory.initCacheProvider(null, new EhCacheProvider(), new OffHeapCacheProvider(), new LocalCacheBroadcaster("test"));
+    peer = new LocalCacheBroadcaster("test");
+    peer.start(new ICacheCommandListener() {
+      
+      @Override
+      public void onCommand(CacheCommand command)
+      {
+        received.add(command);
+      }
+    });
+  }
+  
+  @After
+  public void tearDown()
+  {
+    peer.stop();
+    CacheFactory.shutdown();
+  }
+  
+  @Test
+  public void test_read_through()
+  {
+    CacheFactory.set(REGION, "name", "cai");
+    CacheFactory.evict(CacheFactory.LEVEL_1, REGION, "name");
+    Assert.assertNull(CacheFactory.get(CacheFactory.LEVEL_1, REGION, "name"));
+    
+    Assert.assertEquals("cai", CacheFactory.get(REGION, "name"));
+    Assert.assertEquals("cai", CacheFactory.get(CacheFactory.LEVEL_1, REGION, "name"));
+  }
+  
+  @Test
+  public void test_broadcast()
+  {
+    CacheFactory.set(REGION, "name", "cai");
+    Assert.assertEquals(1, received.size());
+    Assert.assertEquals(CacheCommand.OPT_EVICT, received.get(0).getOperator());
+    Assert.assertEquals(Arrays.asList("name"), received.get(0).getKeys());
+    
+    peer.send(new CacheCommand("peer", CacheCommand.OPT_EVICT, REGION, Arrays.asList("name")));
+    Assert.assertNull(CacheFactory.get(REGION, "name"));
+  }
+  
+  @Test
+  public void test_broadcast_shared_l2()
+  {
+    //未实现ILocalCacheProvider的二级缓存视为共享缓存
+    final OffHeapCacheProvider shared = new OffHeapCacheProvider();
+    CacheFactory.initCacheProvider(null, new EhCacheProvider(), new ICacheProvider() {
+      public String getName() { return "shared"; }
+      public ICache<Object, Object> buildCache(String regionName, boolean autoCreate, ICacheExpiredListener listener) { return shared.buildCache(regionName, autoCreate, listener); }
+      public void start() { shared.start(); }
+      public void stop() { shared.stop(); }
+    }, new LocalCacheBroadcaster("test"));
+    CacheFactory.set(REGION, "name", "cai");
+    
+    //其他节点写入后的失效命令只删除一级缓存，不删除其刚写入共享缓存的值
+    peer.send(new CacheCommand("peer", CacheCommand.OPT_EVICT, REGION, Arrays.asList("name")));
+    Assert.assertNull(CacheFactory.get(CacheFactory.LEVEL_1, REGION, "name"));
+    Assert.assertEquals("cai", CacheFactory.get(CacheFactory.LEVEL_2, REGION, "name"));
+    peer.send(new CacheCommand("peer", CacheCommand.OPT_CLEAR, REGION, null));
+    Assert.assertEquals("cai", CacheFactory.get(REGION, "name"));
+  }
+  
+  @Test
+  public void test_command_codec() throws Exception
+  {
+    CacheCommand command = new CacheCommand("node", CacheCommand.OPT_EVICT, "区域", Arrays.asList("键", 1, 2L));
+    byte[] data = command.toBytes();
+    CacheCommand parsed = CacheCommand.parse(data, 0, data.length);
+    Assert.assertEquals("node", parsed.getSource());
+    Assert.assertEquals(CacheCommand.OPT_EVICT, parsed.getOperator());
+    Assert.assertEquals("区域", parsed.getRegion());
+    Assert.assertEquals(Arrays.asList("键", 1, 2L), parsed.getKeys());
+    
+    //Java序列化的数据及截断的数据都不接受
+    java.io.ByteArrayOutputStream bos = new java.io.ByteArrayOutputStream();
+    java.io.ObjectOutputStream oos = new java.io.ObjectOutputStream(bos);
+    oos.writeObject(new java.util.HashMap<String, String>());
+    oos.close();
+    byte[][] invalid = {bos.toByteArray(), Arrays.copyOf(data, data.length - 1), new byte[0]};
+    for (byte[] bytes : invalid)
+    {
+      try {
+        CacheCommand.parse(bytes, 0, bytes.length);
+        Assert.fail();
+      } catch (CacheException e) {
+      }
+    }
+  }
+  
+  @Test
+  public void test_udp_split() throws Exception
+  {
+    final List<CacheCommand> sent = new ArrayList<CacheCommand>();
+    UdpCacheBroadcaster udp = new UdpCacheBroadcaster() {
+      @Override
+      protected void sendPacket(byte[] data)
+      {
+        Assert.assertTrue(data.length <= 65507);
+        sent.add(CacheCommand.parse(data, 0, data.length));
+      }
+    };
+    //约10万字节，超过单个数据包
+    List<Object> keys = new ArrayList<Object>();
+    for (int i = 0; i < 10000; i++)
+      keys.add("key" + (100000 + i));
+    udp.send(new CacheCommand("node", CacheCommand.OPT_EVICT, REGION, keys));
+    Assert.assertTrue(sent.size() > 1);
+    List<Object> received = new ArrayList<Object>();
+    for (CacheCommand command : sent)
+      received.addAll(command.getKeys());
+    Assert.assertEquals(keys, received);
+    
+    //单个键超长时改为清空区域
+    sent.clear();
+    char[] big = new char[70000];
+    Arrays.fill(big, 'k');
+    udp.send(new CacheCommand("node", CacheCommand.OPT_EVICT, REGION, Arrays.asList(new String(big))));
+    Assert.assertEquals(1, sent.size());
+    Assert.assertEquals(CacheCommand.OPT_CLEAR, sent.get(0).getOperator());
+  }
+  
+  @Test
+  public void test_command_unknown_region()
+  {
+    String name = "remote" + System.nanoTime();
+    peer.send(new CacheCommand("peer", CacheCommand.OPT_CLEAR, name, null));
+    peer.send(new CacheCommand("peer", CacheCommand.OPT_EVICT, name, Arrays.asList("a")));
+    Assert.assertNull(CacheFactory.getStats(name));
+    Assert.assertFalse(CacheFactory.getStats().containsKey(name));
+    Assert.assertNull(CacheFactory.getCache(CacheFactory.LEVEL_1, name, false));
+  }
+  
+  @Test
+  public void test_broadcast_unsupported_key()
+  {
+    CacheFactory.set(REGION, new java.util.Date(0), "v");
+    Assert.assertEquals(1, received.size());
+    Assert.assertEquals(CacheCommand.OPT_CLEAR, received.get(0).getOperator());
+  }
+  
+  @Test
+  public void test_offheap_capacity()
+  {
+    OffHeapCache cache = new OffHeapCache(REGION, 100, 0, null);
+    cache.put("a", "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa");
+    cache.put("b", "bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb");
+    cache.get("a");
+    cache.put("c", "cccccccccccccccccccccccccccccccccccccccc");
+    Assert.assertTrue(cache.getUsedBytes() <= 100);
+    Assert.assertEquals("aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa", cache.get("a"));
+    Assert.assertNull(cache.get("b"));
+  }
+
+  @Test
+  public void test_offheap_reuse() throws Exception
+  {
+    final OffHeapCache cache = new OffHeapCache(REGION, 4L * 1024 * 1024, 0, null);
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    final AtomicInteger errors = new AtomicInteger();
+    for (int t = 0; t < 4; t++)
+    {
+      final int thread = t;
+      executor.execute(new Runnable() {
+        
+        @Override
+        public void run()
+        {
+          for (int i = 0; i < 20000; i++)
+          {
+            String key = thread + "_" + (i % 500);
+            String value = key + new String(new char[i % 300]).replace('\0', 'x');
+            cache.put(key, value);
+            Object read = cache.get(key);
+            if(read != null && !((String)read).startsWith(key))
+              errors.incrementAndGet();
+          }
+        }
+      });
+    }
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(60, TimeUnit.SECONDS));
+    Assert.assertEquals(0, errors.get());
+    Assert.assertTrue(cache.getUsedBytes() <= cache.getMaxBytes());
+    Assert.assertTrue(cache.getReservedBytes() <= cache.getMaxBytes());	//空间被重用，未持续分配
+    cache.clear();
+    Assert.assertEquals(0, cache.getUsedBytes());
+    Assert.assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void test_region_bulk()
+  {
+    CacheRegion<String, String> region = CacheFactory.getRegion(REGION);
+    Map<String, String> map = new HashMap<String, String>();
+    map.put("a", "1");
+    map.put("b", "2");
+    region.putAll(map);
+    CacheFactory.evict(CacheFactory.LEVEL_1, REGION, "a");
+    
+    Map<String, String> result = region.getAll(Arrays.asList("a", "b", "c"));
+    Assert.assertEquals(map, result);
+    Assert.assertEquals("1", CacheFactory.get(CacheFactory.LEVEL_1, REGION, "a"));
+  }
+  
+  @Test
+  public void test_loader_fill_no_broadcast()
+  {
+    CacheRegion<String, String> region = CacheFactory.getRegion(REGION);
+    String value = region.get("loaded", new ICacheLoader<String, String>() {
+      
+      @Override
+      public String load(String key) throws Exception
+      {
+        return "v_" + key;
+      }
+    });
+    Assert.assertEquals("v_loaded", value);
+    Assert.assertEquals("v_loaded", CacheFactory.get(CacheFactory.LEVEL_1, REGION, "loaded"));
+    Assert.assertTrue(received.isEmpty());
+  }
+  
+  @Test
+  public void test_single_flight() throws Exception
+  {
+    final CacheRegion<String, String> region = CacheFactory.getRegion(REGION);
+    final AtomicInteger loads = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    final ICacheLoader<String, String> loader = new ICacheLoader<String, String>() {
+      
+      @Override
+      public String load(String key) throws Exception
+      {
+        loads.incrementAndGet();
+        Thread.sleep(100);
+        return "v_" + key;
+      }
+    };
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    final List<String> results = java.util.Collections.synchronizedList(new ArrayList<String>());
+    for (int i = 0; i < 8; i++)
+    {
+      executor.execute(new Runnable() {
+        
+        @Override
+        public void run()
+        {
+          try {
+            start.await();
+            results.add(region.get("hot", loader));
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+      });
+    }
+    start.countDown();
+    executor.shutdown();
+    Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    Assert.assertEquals(1, loads.get());
+    Assert.assertEquals(8, results.size());
+    for (String result : results)
+    {
+      Assert.assertEquals("v_hot", result);
+    }
+  }
+
+  @Test
+  public void test_stats() throws Exception
+  {
+    CacheRegion<String, String> region = CacheFactory.getRegion("stats");
+    region.getStats().reset();
+    region.put("a", "1");
+    region.get("a");
+    region.get("b");
+    CacheFactory.evict(CacheFactory.LEVEL_1, "stats", "a");
+    region.get("a");
+    
+    CacheStatsSnapshot snapshot = CacheFactory.getStats("stats");
+    Assert.assertEquals(1, snapshot.getL1HitCount());
+    Assert.assertEquals(1, snapshot.getL2HitCount());
+    Assert.assertEquals(1, snapshot.getMissCount());
+    Assert.assertEquals(1, snapshot.getPutCount());
+    Assert.assertEquals(1, snapshot.getSize());
+    Assert.assertTrue(CacheFactory.getStats().containsKey("stats"));
+    
+    String unused = "unused" + System.nanoTime();
+    CacheFactory.getRegion(unused);
+    Assert.assertEquals(0, CacheFactory.getStats(unused).getSize());
+    Assert.assertNull(CacheFactory.getCache(CacheFactory.LEVEL_1, unused, false));	//读取统计不创建缓存
+    
+    Object hits = ManagementFactory.getPlatformMBeanServer().getAttribute(new ObjectName("com.littcore.cache:type=CacheRegion,name=\"stats\""), "HitCount");
+    Assert.assertEquals(2L, hits);
+  }
+
+}
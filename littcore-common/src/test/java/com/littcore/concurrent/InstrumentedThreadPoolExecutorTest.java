@@ -0,0 +1,146 @@
+package com.littcore.concurrent;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+public class InstrumentedThreadPoolExecutorTest {
+	
+	@Test
+	public void test_metrics() throws Exception
+	{
+		InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor("test-metrics", 1, 1, 0, TimeUnit.SECONDS, new ArrayBlockingQueue<Runnable>(1));
+		final CountDownLatch block = new CountDownLatch(1);
+		executor.pause();
+		executor.execute(new Runnable() {
+			public void run() {
+				try {
+					block.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+		executor.execute(new Runnable() {
+			public void run() {
+				throw new IllegalStateException("expected");
+			}
+		});
+		try {
+			executor.execute(new Runnable() {
+				public void run() {
+				}
+			});
+			Assert.fail();
+		} catch (RejectedExecutionException e) {
+			//队列已满
+		}
+		Assert.assertEquals(1, executor.getRejectedCount());
+		Thread.sleep(50);
+		executor.resume();
+		block.countDown();
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertEquals(2, executor.getCompletedTaskCount());
+		Assert.assertEquals(1, executor.getFailedCount());
+		//暂停期间的等待计入排队时间
+		Assert.assertTrue(executor.getMaxQueueWait()>=40*1000);
+	}
+	
+	@Test
+	public void test_submit_and_remove() throws Exception
+	{
+		InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor("test-submit", 1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+		//submit()的异常保存在Future中，同样计入失败数
+		Future<Object> future = executor.submit(new Callable<Object>() {
+			public Object call() throws Exception {
+				throw new IllegalStateException("expected");
+			}
+		});
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			Assert.fail();
+		} catch (ExecutionException e) {
+			Assert.assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		executor.shutdown();	//afterExecute在Future完成之后调用
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertEquals(1, executor.getFailedCount());
+		
+		executor = new InstrumentedThreadPoolExecutor("test-remove", 1, 1, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+		executor.pause();
+		Runnable first = new Runnable() {
+			public void run() {
+			}
+		};
+		Runnable second = new Runnable() {
+			public void run() {
+			}
+		};
+		Runnable third = new Runnable() {
+			public void run() {
+			}
+		};
+		executor.execute(first);	//由线程取出后在beforeExecute中暂停
+		executor.execute(second);
+		executor.execute(third);
+		//队列中是调用方的任务本身
+		Assert.assertTrue(executor.getQueue().contains(third));
+		Assert.assertTrue(executor.remove(second));
+		List<Runnable> pending = executor.shutdownNow();
+		Assert.assertTrue(pending.contains(third));
+		Assert.assertFalse(pending.contains(second));
+		executor.resume();
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+	}
+	
+	@Test
+	public void test_auto_tuning()
+	{
+		InstrumentedThreadPoolExecutor executor = new InstrumentedThreadPoolExecutor("test-tuning", 2, 2, 60, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>());
+		ThreadPoolSizeController controller = new ThreadPoolSizeController(executor, 2, 10, 10);
+		Assert.assertEquals(3, controller.adjust(50*1000));
+		Assert.assertEquals(3, executor.getMaximumPoolSize());
+		Assert.assertEquals(4, controller.adjust(50*1000));
+		Assert.assertEquals(5, controller.adjust(50*1000));
+		Assert.assertEquals(5, controller.adjust(5*1000));
+		Assert.assertEquals(4, controller.adjust(-1));
+		for(int i=0;i<10;i++)
+			controller.adjust(-1);
+		Assert.assertEquals(2, executor.getCorePoolSize());
+		for(int i=0;i<20;i++)
+			controller.adjust(50*1000);
+		Assert.assertEquals(10, executor.getCorePoolSize());
+		executor.shutdown();
+	}
+	
+	@Test
+	public void test_thread_per_task() throws Exception
+	{
+		InstrumentedThreadPoolExecutor executor = InstrumentedThreadPoolExecutor.newThreadPerTaskExecutor("test-per-task");
+		final CountDownLatch latch = new CountDownLatch(100);
+		for(int i=0;i<100;i++)
+		{
+			executor.execute(new Runnable() {
+				public void run() {
+					latch.countDown();
+				}
+			});
+		}
+		Assert.assertTrue(latch.await(5, TimeUnit.SECONDS));
+		executor.shutdown();
+		Assert.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+		Assert.assertEquals(100, executor.getCompletedTaskCount());
+	}
+
+}
@@ -0,0 +1,211 @@
+package com.littcore.dao;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+public class BaseJdbcDaoTest {
+
+	/**
+	 * 记录连接操作的模拟数据源.
+	 * 每次executeBatch按批内行数返回影响1行，并生成从1开始递增的主键.
+	 */
+	private static class MockDataSource implements InvocationHandler {
+
+		private final List<String> events = new ArrayList<String>();
+
+		private boolean autoCommit = true;
+
+		private int pending = 0;
+
+		private long nextKey = 1;
+
+		private final List<Long> batchKeys = new ArrayList<Long>();
+
+		DataSource dataSource()
+		{
+			return (DataSource)proxy(DataSource.class, this);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if("getConnection".equals(name))
+				return proxy(Connection.class, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						return connection(proxy, method, args);
+					}
+				});
+			return objectMethod(proxy, method, args);
+		}
+
+		private Object connection(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if("getAutoCommit".equals(name))
+				return Boolean.valueOf(autoCommit);
+			if("setAutoCommit".equals(name))
+			{
+				autoCommit = ((Boolean)args[0]).booleanValue();
+				events.add("autoCommit="+autoCommit);
+				return null;
+			}
+			if("commit".equals(name) || "rollback".equals(name) || "close".equals(name))
+			{
+				events.add(name);
+				return null;
+			}
+			if("prepareStatement".equals(name))
+				return proxy(PreparedStatement.class, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						return statement(proxy, method, args);
+					}
+				});
+			return objectMethod(proxy, method, args);
+		}
+
+		private Object statement(Object proxy, Method method, Object[] args) throws Throwable {
+			String name = method.getName();
+			if("addBatch".equals(name))
+			{
+				pending++;
+				return null;
+			}
+			if("executeBatch".equals(name))
+			{
+				events.add("batch("+pending+")");
+				int[] results = new int[pending];
+				Arrays.fill(results, 1);
+				batchKeys.clear();
+				for(int i=0;i<pending;i++)
+					batchKeys.add(Long.valueOf(nextKey++));
+				pending = 0;
+				return results;
+			}
+			if("getGeneratedKeys".equals(name))
+			{
+				final Iterator<Long> keys = new ArrayList<Long>(batchKeys).iterator();
+				return proxy(ResultSet.class, new InvocationHandler() {
+					private Long current;
+					public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+						if("next".equals(method.getName()))
+						{
+							current = keys.hasNext() ? keys.next() : null;
+							return Boolean.valueOf(current!=null);
+						}
+						if("getObject".equals(method.getName()))
+							return current;
+						return objectMethod(proxy, method, args);
+					}
+				});
+			}
+			return objectMethod(proxy, method, args);
+		}
+	}
+
+	private static Object proxy(Class<?> type, InvocationHandler handler)
+	{
+		return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler);
+	}
+
+	private static Object objectMethod(Object proxy, Method method, Object[] args)
+	{
+		String name = method.getName();
+		if("equals".equals(name))
+			return Boolean.valueOf(proxy==args[0]);
+		if("hashCode".equals(name))
+			return Integer.valueOf(System.identityHashCode(proxy));
+		if("toString".equals(name))
+			return "mock";
+		Class<?> returnType = method.getReturnType();
+		if(returnType==boolean.class)
+			return Boolean.FALSE;
+		if(returnType==int.class)
+			return Integer.valueOf(0);
+		return null;
+	}
+
+	private static BaseJdbcDao dao(MockDataSource mock)
+	{
+		BaseJdbcDao dao = new BaseJdbcDao();
+		dao.setDataSource(mock.dataSource());
+		return dao;
+	}
+
+	/**
+	 * 生成行参数，读取到failAt行时抛出运行时异常（failAt小于0时不失败）.
+	 */
+	private static Iterable<Object[]> rows(final int count, final int failAt)
+	{
+		return new Iterable<Object[]>() {
+			public Iterator<Object[]> iterator() {
+				return new Iterator<Object[]>() {
+					private int index = 0;
+					public boolean hasNext() {
+						return index<count;
+					}
+					public Object[] next() {
+						if(index==failAt)
+							throw new IllegalStateException("row "+index);
+						return new Object[]{Integer.valueOf(index++)};
+					}
+					public void remove() {
+						throw new UnsupportedOperationException();
+					}
+				};
+			}
+		};
+	}
+
+	@Test
+	public void test_batch_update() throws Exception
+	{
+		MockDataSource mock = new MockDataSource();
+		Assert.assertEquals(7, dao(mock).batchUpdate("UPDATE T SET A=?", rows(7, -1), 3, 0));
+		Assert.assertEquals(Arrays.asList("batch(3)", "batch(3)", "batch(1)", "close"), mock.events);
+	}
+
+	@Test
+	public void test_batch_update_chunk_commit() throws Exception
+	{
+		MockDataSource mock = new MockDataSource();
+		Assert.assertEquals(10, dao(mock).batchUpdate("UPDATE T SET A=?", rows(10, -1), 3, 4));
+		//达到提交行数时先执行未满的批
+		Assert.assertEquals(Arrays.asList("autoCommit=false", "batch(3)", "batch(1)", "commit", "batch(3)", "batch(1)", "commit", "batch(2)", "commit", "autoCommit=true", "close"), mock.events);
+	}
+
+	@Test
+	public void test_batch_save() throws Exception
+	{
+		MockDataSource mock = new MockDataSource();
+		List<Number> keys = dao(mock).batchSave("INSERT INTO T(A) VALUES(?)", rows(5, -1), 2, 0);
+		Assert.assertEquals(Arrays.asList(1L, 2L, 3L, 4L, 5L), keys);
+		Assert.assertEquals(Arrays.asList("batch(2)", "batch(2)", "batch(1)", "close"), mock.events);
+	}
+
+	@Test
+	public void test_batch_rollback() throws Exception
+	{
+		MockDataSource mock = new MockDataSource();
+		try {
+			dao(mock).batchSave("INSERT INTO T(A) VALUES(?)", rows(10, 6), 2, 4);
+			Assert.fail("Row iterator failed");
+		} catch (IllegalStateException e) {
+			//expected
+		}
+		//已提交的分段保留，未提交的部分在恢复自动提交前回滚
+		Assert.assertEquals(Arrays.asList("autoCommit=false", "batch(2)", "batch(2)", "commit", "batch(2)", "rollback", "autoCommit=true", "close"), mock.events);
+	}
+
+}
@@ -0,0 +1,203 @@
+package com.littcore.dao.dataset;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+/**
+ * .
+ * 
+ * <pre><b>Description：</b>
+ *    BeanAccessor及ObjectDataSet的属性读取
+ * </pre>
+ * 
+ * <pre><b>Changelog：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class BeanAccessorTest extends TestCase {
+	
+	public void testNestedProperty()
+	{
+		Employee employee = new Employee("cai", new Dept("dev"));
+		employee.getAttrs().put("level", 3);
+		BeanAccessor<Employee> accessor = BeanAccessor.forClass(Employee.class);
+		assertSame(accessor, BeanAccessor.forClass(Employee.class));
+		assertEquals("cai", accessor.getValue(employee, "name"));
+		assertEquals("dev", accessor.getValue(employee, "dept.name"));
+		assertEquals(3, accessor.getValue(employee, "attrs.level"));
+		assertNull(accessor.getValue(employee, "attrs.none"));
+		
+		employee.setDept(null);
+		assertNull(accessor.getValue(employee, "dept.name"));	//中间属性为null
+	}
+	
+	public void testMissingProperty()
+	{
+		BeanAccessor<Employee> accessor = BeanAccessor.forClass(Employee.class);
+		assertFalse(accessor.isReadable("none"));
+		try {
+			accessor.getValue(new Employee("cai", new Dept("dev")), "none");
+			fail();
+		} catch (DataSetMappingException e) {
+		}
+		try {
+			accessor.getValue(new Employee("cai", new Dept("dev")), "dept.none");
+			fail();
+		} catch (DataSetMappingException e) {
+		}
+	}
+	
+	public void testObjectDataSet()
+	{
+		List<Employee> rsList = new ArrayList<Employee>();
+		for (int i = 0; i < 5; i++) {
+			rsList.add(new Employee(i+"name", new Dept("dept"+i)));
+		}
+		ObjectDataSet<Employee> dataSet = new ObjectDataSet<Employee>(Employee.class, rsList);
+		assertEquals(3, dataSet.getMetaData().getColumnNames().length);
+		int i=0;
+		while (dataSet.next()) {
+			assertEquals(i+"name", dataSet.getStringValue("name"));
+			assertEquals("dept"+i, dataSet.getStringValue("dept.name"));
+			i++;
+		}
+		try {
+			dataSet.getValue(0, "none");
+			fail();
+		} catch (DataSetMappingException e) {
+		}
+	}
+	
+	@SuppressWarnings({ "rawtypes", "unchecked" })
+	public void testMapRows()
+	{
+		List rsList = new ArrayList();
+		for (int i = 0; i < 5; i++) {
+			HashMap<String, Object> row = new HashMap<String, Object>();
+			row.put("id", i);
+			row.put("dept", new Dept("dept"+i));
+			rsList.add(row);
+		}
+		ObjectDataSet<HashMap> dataSet = new ObjectDataSet<HashMap>(rsList);
+		for (int i = 0; i < dataSet.getRowCount(); i++) {
+			assertEquals(i, dataSet.getIntegerValue(i, "id").intValue());
+			assertEquals("dept"+i, dataSet.getStringValue(i, "dept.name"));
+			assertNull(dataSet.getValue(i, "none"));
+		}
+		
+		//Map映射为对象
+		List<Map<String, Object>> dataList = new ArrayList<Map<String, Object>>();
+		Map<String, Object> rowMap = new HashMap<String, Object>();
+		rowMap.put("id", "7");
+		rowMap.put("name", "cai");
+		rowMap.put("date_value", new Date(0));
+		rowMap.put("unknown", "x");
+		dataList.add(rowMap);
+		ObjectDataSet<User> users = new ObjectDataSet<User>(User.class).populateMap(dataList);
+		assertEquals(7, users.getRow(0).getId());
+		assertEquals("cai", users.getRow(0).getName());
+		assertEquals(new Date(0), users.getRow(0).getDate());
+	}
+	
+	public void testBooleanAndSetter()
+	{
+		BeanAccessor<Account> accessor = BeanAccessor.forClass(Account.class);
+		Account account = new Account();
+		account.setActive(true);
+		account.setLocked(Boolean.TRUE);
+		assertTrue(java.util.Arrays.asList(accessor.getPropertyNames()).containsAll(java.util.Arrays.asList("active", "locked", "code")));
+		assertEquals(Boolean.TRUE, accessor.getValue(account, "active"));
+		assertEquals(Boolean.TRUE, accessor.getValue(account, "locked"));
+		
+		//有setter时通过setter写入
+		Map<String, Object> dataMap = new HashMap<String, Object>();
+		dataMap.put("code", " a1 ");
+		dataMap.put("active", "true");
+		accessor.populate(account = new Account(), dataMap);
+		assertEquals("A1", account.getCode());
+		assertTrue(account.isActive());
+	}
+	
+	public static class Account implements Serializable {
+		private boolean active;
+		
+		private Boolean locked;
+		
+		private String code;
+		
+		public boolean isActive() {
+			return active;
+		}
+		
+		public void setActive(boolean active) {
+			this.active = active;
+		}
+		
+		public Boolean isLocked() {
+			return locked;
+		}
+		
+		public void setLocked(Boolean locked) {
+			this.locked = locked;
+		}
+		
+		public String getCode() {
+			return code;
+		}
+		
+		public void setCode(String code) {
+			this.code = code==null ? null : code.trim().toUpperCase();
+		}
+	}
+	
+	public static class Dept implements Serializable {
+		private String name;
+		
+		public Dept(String name) {
+			this.name = name;
+		}
+		
+		public String getName() {
+			return name;
+		}
+	}
+	
+	public static class Employee implements Serializable {
+		private String name;
+		
+		private Dept dept;
+		
+		private Map<String, Object> attrs = new HashMap<String, Object>();
+		
+		public Employee(String name, Dept dept) {
+			this.name = name;
+			this.dept = dept;
+		}
+		
+		public String getName() {
+			return name;
+		}
+		
+		public Dept getDept() {
+			return dept;
+		}
+		
+		public void setDept(Dept dept) {
+			this.dept = dept;
+		}
+		
+		public Map<String, Object> getAttrs() {
+			return attrs;
+		}
+	}
+}
@@ -218,4 +218,138 @@ public class DatasetTest extends TestCase {
 		}
 	}
 	
+	public void testColumnarDataSet()
+	{
+		List<Map<String, Object>> rsList = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < 100; i++) {
+			Map<String, Object> rowMap = new HashMap<String, Object>();
+			rowMap.put("ID", i);
+			rowMap.put("NAME", i%2==0 ? "even" : "odd");
+			rowMap.put("SCORE", i%10==0 ? null : i*1.5d);
+			rowMap.put("DATE", new Date(1000L*i));
+			rsList.add(rowMap);
+		}
+		MapDataSet<String, Object> mapDataSet = new MapDataSet<String, Object>(rsList);
+		
+		ColumnarDataSet dataSet = ColumnarDataSet.from(mapDataSet);
+		assertEquals(100, dataSet.getRowCount());
+		int id = dataSet.getColumnIndex("ID");
+		int score = dataSet.getColumnIndex("SCORE");
+		int date = dataSet.getColumnIndex("DATE");
+		assertEquals(DataType.INTEGER, dataSet.getMetaData().getColumnMetadata(id).getDataType());
+		for(int i=0;i<dataSet.getRowCount();i++)
+		{
+			assertEquals(i, dataSet.getInt(i, id));
+			assertEquals(i%10==0, dataSet.isNull(i, score));
+			if(i%10!=0)
+				assertEquals(i*1.5d, dataSet.getDouble(i, score), 0.0001);
+			assertEquals(1000L*i, dataSet.getLong(i, date));
+			assertEquals(i%2==0 ? "even" : "odd", dataSet.getStringValue(i, "NAME"));
+		}
+		assertNull(dataSet.getDoubleValue(10, "SCORE"));
+		assertEquals(Integer.valueOf(3), dataSet.getRow(3).getCell("ID").getIntValue());
+		
+		Object[] values = new Object[4];
+		values[id] = "7";
+		values[dataSet.getColumnIndex("NAME")] = "odd";
+		values[score] = 2;
+		dataSet.addRow(values);
+		assertEquals(101, dataSet.getRowCount());
+		assertEquals(7, dataSet.getInt(100, id));
+		assertTrue(dataSet.isNull(100, date));
+	}
+	
+	public void testColumnarDataSetMixedTypes()
+	{
+		List<Map<String, Object>> rsList = new ArrayList<Map<String, Object>>();
+		Object[][] rows = {{1, 1, 1, 1L}, {Long.MAX_VALUE, 2.5d, "x", 0.5d}};
+		for(Object[] row : rows)
+		{
+			Map<String, Object> rowMap = new HashMap<String, Object>();
+			rowMap.put("L", row[0]);
+			rowMap.put("D", row[1]);
+			rowMap.put("S", row[2]);
+			rowMap.put("O", row[3]);
+			rsList.add(rowMap);
+		}
+		ColumnarDataSet dataSet = ColumnarDataSet.from(new MapDataSet<String, Object>(rsList));
+		//后面的值不再被截断为第一个值的类型
+		assertEquals(DataType.LONG, dataSet.getMetaData().getColumnMetadata(dataSet.getColumnIndex("L")).getDataType());
+		assertEquals(Long.MAX_VALUE, dataSet.getLong(1, dataSet.getColumnIndex("L")));
+		assertEquals(DataType.DOUBLE, dataSet.getMetaData().getColumnMetadata(dataSet.getColumnIndex("D")).getDataType());
+		assertEquals(2.5d, dataSet.getDouble(1, dataSet.getColumnIndex("D")), 0);
+		assertEquals(DataType.CUSTOM, dataSet.getMetaData().getColumnMetadata(dataSet.getColumnIndex("S")).getDataType());
+		assertEquals("x", dataSet.getValue(1, "S"));
+		assertEquals(Integer.valueOf(1), dataSet.getValue(0, "S"));
+		assertEquals(DataType.CUSTOM, dataSet.getMetaData().getColumnMetadata(dataSet.getColumnIndex("O")).getDataType());
+		assertEquals(0.5d, dataSet.getValue(1, "O"));
+	}
+	
+	public void testColumnarDataSetFromCell()
+	{
+		ColumnMetadata[] columnMetadatas = new ColumnMetadata[]{
+			new ColumnMetadata("id", "ID", DataType.LONG, 0),
+			new ColumnMetadata("isMale", "IsMale", DataType.BOOLEAN, 1)
+		};
+		List<DataRow> rsList = new ArrayList<DataRow>();
+		for (int i = 0; i < 4; i++) {
+			DataRow dataRow = new DataRow(i);
+			dataRow.addCell(new DataCell<Long>(columnMetadatas[0], Long.valueOf(i)));
+			dataRow.addCell(new DataCell<Boolean>(columnMetadatas[1], i%2==0));
+			rsList.add(dataRow);
+		}
+		CellDataSet cellDataSet = new CellDataSet(new DataSetMetadata(columnMetadatas), rsList);
+		
+		ColumnarDataSet dataSet = ColumnarDataSet.from(cellDataSet);
+		for(int i=0;i<4;i++)
+		{
+			assertEquals(i, dataSet.getLong(i, 0));
+			assertEquals(i%2==0, dataSet.getBoolean(i, 1));
+		}
+		assertEquals(4, dataSet.toCellDataSet().getRowCount());
+	}
+	
+	public void testStreamingDataSet()
+	{
+		final List<Map<String, Object>> rsList = new ArrayList<Map<String, Object>>();
+		for (int i = 0; i < 5; i++) {
+			Map<String, Object> rowMap = new HashMap<String, Object>();
+			rowMap.put("ID", String.valueOf(i));
+			rowMap.put("NAME", i+"name");
+			rsList.add(rowMap);
+		}
+		final boolean[] closed = new boolean[1];
+		BaseStreamingDataSet<Map<String, Object>> dataSet = new BaseStreamingDataSet<Map<String, Object>>() {
+			
+			private int cursor = -1;
+
+			protected boolean doNext() { return ++cursor < rsList.size(); }
+
+			protected Map<String, Object> readRow() { return rsList.get(cursor); }
+
+			protected Object readValue(Map<String, Object> row, String columnName) { return row.get(columnName); }
+
+			protected void doClose() { closed[0] = true; }
+
+			public DataSetMetadata getMetaData() { return new DataSetMetadata(new String[]{"ID", "NAME"}); }
+		};
+		
+		int i = 0;
+		for (Map<String, Object> row : dataSet) {
+			assertEquals(i, dataSet.getRowNum());
+			assertEquals(i, dataSet.getIntegerValue("ID").intValue());
+			assertEquals(i+"name", dataSet.getStringValue("NAME"));
+			assertSame(rsList.get(i), row);
+			i++;
+		}
+		assertEquals(5, i);
+		assertTrue(closed[0]);
+		assertTrue(dataSet.isClosed());
+		assertFalse(dataSet.next());
+		try {
+			dataSet.iterator();
+			fail("Streaming data set can only be iterated once.");
+		} catch (IllegalStateException e) {
+		}
+	}
 }
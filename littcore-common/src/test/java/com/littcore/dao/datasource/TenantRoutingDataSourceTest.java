@@ -0,0 +1,151 @@
+package com.littcore.dao.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import javax.sql.DataSource;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+public class TenantRoutingDataSourceTest {
+	
+	/**
+	 * 按名称生成连接的模拟数据源，Connection.getCatalog()返回数据源名称.
+	 */
+	private static DataSource mockDataSource(final String name)
+	{
+		return (DataSource)Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class}, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if("getConnection".equals(method.getName()))
+				{
+					return Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class}, new InvocationHandler() {
+						public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+							if("getCatalog".equals(method.getName()))
+								return name;
+							return null;
+						}
+					});
+				}
+				if("toString".equals(method.getName()))
+					return name;
+				return null;
+			}
+		});
+	}
+	
+	private static class MockFactory implements TenantDataSourceFactory {
+		
+		private final List<String> created = new ArrayList<String>();
+		
+		private final List<String> destroyed = new ArrayList<String>();
+
+		public synchronized DataSource createDataSource(Object routeKey, boolean replica) throws Exception
+		{
+			if(replica && !"1".equals(String.valueOf(routeKey)))
+				return null;
+			String name = routeKey+(replica ? "-replica" : "");
+			created.add(name);
+			return mockDataSource(name);
+		}
+
+		public synchronized void destroyDataSource(Object routeKey, DataSource dataSource) throws Exception
+		{
+			destroyed.add(dataSource.toString());
+		}
+	}
+	
+	private static String catalog(final TenantRoutingDataSource dataSource, RoutingCondition condition) throws Exception
+	{
+		return RoutingDataSourceContextHolder.execute(condition, new Callable<String>() {
+			public String call() throws Exception {
+				Connection conn = dataSource.getConnection();
+				try {
+					return conn.getCatalog();
+				} finally {
+					conn.close();
+				}
+			}
+		});
+	}
+	
+	@Test
+	public void test_routing() throws Exception
+	{
+		MockFactory factory = new MockFactory();
+		TenantRoutingDataSource dataSource = new TenantRoutingDataSource();
+		dataSource.setName("test_routing");
+		dataSource.setDataSourceFactory(factory);
+		dataSource.setEvictInterval(0);
+		dataSource.setMaxPools(2);
+		dataSource.afterPropertiesSet();
+		
+		try {
+			dataSource.getConnection();
+			Assert.fail("No routing condition");
+		} catch (SQLException e) {
+			//expected
+		}
+		
+		Assert.assertEquals("1", catalog(dataSource, new RoutingCondition(1)));
+		Assert.assertEquals("1", catalog(dataSource, new RoutingCondition(1)));
+		Assert.assertEquals(1, dataSource.getPoolCount());
+		Assert.assertNull(RoutingDataSourceContextHolder.getContext());
+		
+		RoutingCondition readOnly = new RoutingCondition(1);
+		readOnly.setReadOnly(true);
+		Assert.assertEquals("1-replica", catalog(dataSource, readOnly));
+		RoutingCondition shard = new RoutingCondition(2);
+		shard.setShardKey("s2");
+		shard.setReadOnly(true);
+		Assert.assertEquals("s2", catalog(dataSource, shard));
+		
+		//借出连接的连接池不会被淘汰
+		RoutingDataSourceContextHolder.setContext(new RoutingCondition(1));
+		Connection conn = dataSource.getConnection();
+		RoutingDataSourceContextHolder.remove();
+		Assert.assertEquals(1, dataSource.getActiveConnections());
+		
+		Assert.assertEquals("3", catalog(dataSource, new RoutingCondition(3)));
+		Assert.assertEquals(2, dataSource.getPoolCount());
+		Assert.assertTrue(factory.destroyed.contains("s2"));
+		Assert.assertFalse(factory.destroyed.contains("1"));
+		
+		conn.close();
+		conn.close();
+		Assert.assertEquals(0, dataSource.getActiveConnections());
+		Assert.assertEquals(2, dataSource.getRouteStats().length);
+		
+		dataSource.setIdleTimeout(-1);
+		Assert.assertEquals(2, dataSource.evictIdle());
+		Assert.assertEquals(0, dataSource.getPoolCount());
+		Assert.assertEquals("1", catalog(dataSource, new RoutingCondition(1)));
+		Assert.assertEquals(4, dataSource.getCreatedCount());
+		dataSource.destroy();
+	}
+	
+	@Test
+	public void test_context_wrap() throws Exception
+	{
+		RoutingDataSourceContextHolder.setContext(new RoutingCondition(5));
+		Runnable task = RoutingDataSourceContextHolder.wrap(new Runnable() {
+			public void run() {
+				Assert.assertEquals(new RoutingCondition(5), RoutingDataSourceContextHolder.getContext());
+			}
+		});
+		RoutingDataSourceContextHolder.setContext(new RoutingCondition(6));
+		task.run();
+		Assert.assertEquals(Integer.valueOf(6), RoutingDataSourceContextHolder.getContext().getRouteKey());
+		RoutingDataSourceContextHolder.remove();
+		task.run();
+		Assert.assertNull(RoutingDataSourceContextHolder.getContext());
+	}
+
+}
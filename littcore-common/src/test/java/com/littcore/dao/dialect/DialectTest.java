@@ -0,0 +1,83 @@
+package com.littcore.dao.dialect;
+
+import junit.framework.TestCase;
+
+/** 
+ * 
+ * 数据库方言测试.
+ * 
+ * <pre><b>描述：</b>
+ *     
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ *
+ */
+public class DialectTest extends TestCase
+{
+	private static final String SQL = "SELECT * FROM T_USER WHERE STATUS=? ORDER BY ID";
+	
+	public void testMySQL()
+	{
+		IDialect dialect = DialectFactory.getDialect("mysql");
+		assertEquals(SQL + " LIMIT ?, ?", dialect.getLimitString(SQL, true));
+		Object[] params = dialect.bindLimitParams(new Object[]{1}, 20, 10);
+		assertEquals(3, params.length);
+		assertEquals(1, params[0]);
+		assertEquals(20, params[1]);
+		assertEquals(10, params[2]);
+	}
+	
+	public void testPostgreSQL()
+	{
+		IDialect dialect = DialectFactory.getDialect("postgresql");
+		Object[] params = dialect.bindLimitParams(null, 20, 10);
+		assertEquals(10, params[0]);
+		assertEquals(20, params[1]);
+	}
+	
+	public void testOracle()
+	{
+		IDialect dialect = DialectFactory.getDialect("oracle");
+		String sql = dialect.getLimitString(SQL, true);
+		assertTrue(sql.indexOf("ROWNUM")>0);
+		Object[] params = dialect.bindLimitParams(null, 20, 10);
+		assertEquals(30, params[0]);
+		assertEquals(20, params[1]);
+	}
+	
+	public void testSQLServer()
+	{
+		IDialect dialect = DialectFactory.getDialect("sqlserver");
+		assertTrue(dialect.getLimitString("SELECT * FROM T_USER", false).indexOf("ORDER BY (SELECT 0)")>0);
+		assertEquals(-1, dialect.getCountString(SQL).indexOf("ORDER BY"));
+		assertTrue(dialect.getCountString("SELECT * FROM T_USER ORDER BY f(x)").indexOf("ORDER BY")<0);
+	}
+	
+	public void testCount()
+	{
+		IDialect dialect = DialectFactory.getDialect("mysql");
+		assertEquals("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", dialect.getCountString(SQL));
+		String groupSql = "SELECT DEPT_ID, COUNT(*) FROM T_USER GROUP BY DEPT_ID ORDER BY DEPT_ID";
+		assertEquals("SELECT COUNT(*) FROM (SELECT DEPT_ID, COUNT(*) FROM T_USER GROUP BY DEPT_ID) tmp_count_", dialect.getCountString(groupSql));
+	}
+	
+	public void testClassName()
+	{
+		assertTrue(DialectFactory.getDialect(MySQLDialect.class.getName()) instanceof MySQLDialect);
+		try
+		{
+			DialectFactory.getDialect("unknown");
+			fail();
+		}
+		catch (IllegalArgumentException e)
+		{
+		}
+	}
+}
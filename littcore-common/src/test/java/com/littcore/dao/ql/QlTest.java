@@ -1,6 +1,7 @@
 package com.littcore.dao.ql;
 
 
+import java.util.Arrays;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -11,6 +12,7 @@ import org.apache.oro.text.perl.Perl5Util;
 import com.littcore.dao.ql.IQLResult;
 import com.littcore.dao.ql.PageParam;
 import com.littcore.dao.ql.QLCondBuilder;
+import com.littcore.dao.page.PageCountCache;
 import com.littcore.util.StringUtils;
 
 /** 
@@ -120,4 +122,101 @@ public class QlTest extends TestCase
 		IQLResult listResult = QLCondBuilder.generate(dynamicHql, pageParam);	
 		assertEquals("SELECT OBJ.*, O.OP_NAME FROM CUSTOMER OBJ LEFT JOIN OPERATOR O ON OBJ.CHARGE_OP=O.OP_ID WHERE 1=1 AND OBJ.NAME LIKE ?", listResult.generate());
 	}
+	
+	public void testTemplate()
+	{
+		String dynamicSql = "SELECT * FROM OPERATOR"
+			+ "-- AND STATUS IN ({status})"
+			+ "-- AND OP_NAME LIKE {%opName%} OR NICK_NAME LIKE {%opName%}"
+			+ "-- AND DEPT_ID=[deptId]"
+			+ "-- AND CREATE_TIME>{createTime}"
+			+ "-- AND LOGIN_ID={loginId}"
+			+ "-- ORDER BY LOGIN_ID"
+			;
+		CondParam condParam = new CondParam();
+		condParam.addCond("status", new Integer[]{1, 2, 3});
+		condParam.addCond("opName", "admin");
+		condParam.addCond("deptId", 10);
+		condParam.addCond("loginId", " ");
+		
+		IQLResult listResult = QLCondBuilder.generate(dynamicSql, condParam);
+		assertEquals("SELECT * FROM OPERATOR WHERE 1=1 AND STATUS IN (?,?,?) AND OP_NAME LIKE ? OR NICK_NAME LIKE ? AND DEPT_ID=? ORDER BY LOGIN_ID", listResult.generate());
+		assertEquals(6, listResult.getParams().length);
+		assertEquals(Arrays.asList(new Object[]{1, 2, 3, "%admin%", "%admin%", 10}), Arrays.asList(listResult.getParams()));
+		assertSame(QLTemplate.compile(dynamicSql), QLTemplate.compile(new String(dynamicSql)));
+		
+		//与原有的逐条解析结果一致
+		QLCondBuilder builder = new QLCondBuilder();
+		builder.setCondParam(condParam);
+		String[] condArray = dynamicSql.split(QLCondBuilder.COND_SPLIT);
+		for(int i=1;i<condArray.length;i++)
+		{
+			builder.addCond(condArray[i]);
+		}
+		IQLResult legacyResult = builder.generate();
+		assertEquals(legacyResult.getCondQl(), listResult.getCondQl());
+		assertEquals(legacyResult.getOrderQl(), listResult.getOrderQl());
+		assertEquals(legacyResult.getParams().length, listResult.getParams().length);
+		
+		//结构相同时shapeKey相同
+		condParam.addCond("status", new Integer[]{4, 5, 6});
+		assertEquals(listResult.getShapeKey(), QLCondBuilder.generate(dynamicSql, condParam).getShapeKey());
+		condParam.addCond("status", new Integer[]{4});
+		assertFalse(listResult.getShapeKey().equals(QLCondBuilder.generate(dynamicSql, condParam).getShapeKey()));
+		
+		condParam.removeCond("deptId");
+		try {
+			QLCondBuilder.generate(dynamicSql, condParam);
+			fail("Required parameter is missing.");
+		} catch (IllegalArgumentException e) {
+		}
+	}
+	
+	public void testCountRewrite()
+	{
+		String sql = "SELECT u.*, (SELECT COUNT(*) FROM T_ROLE r WHERE r.USER_ID=u.ID) ROLE_COUNT FROM T_USER u"
+			+ " WHERE u.NAME<>'from' AND u.ID IN (SELECT USER_ID FROM T_LOG ORDER BY ID) ORDER BY u.ID";
+		assertEquals("SELECT COUNT(*) FROM T_USER u WHERE u.NAME<>'from' AND u.ID IN (SELECT USER_ID FROM T_LOG ORDER BY ID)", CountQLRewriter.toCountSql(sql));
+		assertEquals("SELECT COUNT(*) FROM (SELECT DISTINCT NAME FROM T_USER) tmp_count_", CountQLRewriter.toCountSql("SELECT DISTINCT NAME FROM T_USER ORDER BY NAME"));
+		assertEquals("SELECT COUNT(*) FROM (SELECT MAX(ID) FROM T_USER) tmp_count_", CountQLRewriter.toCountSql("SELECT MAX(ID) FROM T_USER"));
+		
+		assertEquals("SELECT COUNT(*) from Operator o left join o.roles r where o.order=1", CountQLRewriter.toCountHql("select o from Operator o left join fetch o.roles r where o.order=1 order by o.id"));
+		assertEquals("SELECT COUNT(DISTINCT o.deptId) from Operator o", CountQLRewriter.toCountHql("select distinct o.deptId from Operator o"));
+		assertEquals("SELECT COUNT(*) from Operator", CountQLRewriter.toCountHql("from Operator"));
+		
+		//单行注释中的关键字不参与分析
+		assertEquals("SELECT COUNT(*) FROM T_USER -- no GROUP BY here\nWHERE ID>0", CountQLRewriter.toCountSql("SELECT * FROM T_USER -- no GROUP BY here\nWHERE ID>0 ORDER BY ID"));
+		assertEquals("SELECT COUNT(*) FROM T_USER", CountQLRewriter.toCountSql("SELECT * FROM T_USER ORDER BY ID -- order by (name"));
+		assertEquals("SELECT COUNT(*) FROM (SELECT DISTINCT NAME FROM T_USER -- distinct names\n) tmp_count_", CountQLRewriter.toCountSql("SELECT DISTINCT NAME FROM T_USER -- distinct names"));
+		
+		PageParam pageParam = new PageParam(1, 10);
+		IQLResult listResult = QLCondBuilder.generate("select operator from Operator operator-- order by operator.opId", pageParam);
+		assertEquals("SELECT COUNT(*) from Operator operator WHERE 1=1", listResult.generateCount());
+	}
+	
+	public void testPageCountCache()
+	{
+		PageCountCache cache = new PageCountCache(60000L, 100);
+		cache.put("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{1}, 10);
+		cache.put("SELECT COUNT(*) FROM T_ROLE", null, 5);
+		assertEquals(Integer.valueOf(10), cache.get("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{1}));
+		assertNull(cache.get("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{2}));
+		
+		cache.invalidateByUpdate("UPDATE t_user SET STATUS=0");
+		assertNull(cache.get("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{1}));
+		assertEquals(Integer.valueOf(5), cache.get("SELECT COUNT(*) FROM T_ROLE", null));
+		
+		cache.put("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{1}, 10);
+		cache.put("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{2}, 20);
+		cache.invalidate("T_USER");
+		assertNull(cache.get("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{2}));
+		cache.put("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{1}, 10);
+		cache.invalidate("t_user");
+		assertNull(cache.get("SELECT COUNT(*) FROM T_USER WHERE STATUS=?", new Object[]{1}));
+		assertEquals(1, cache.size());
+		
+		cache.setTtl(-1);
+		cache.put("SELECT COUNT(*) FROM T_ROLE", null, 6);
+		assertNull(cache.get("SELECT COUNT(*) FROM T_ROLE", null));
+	}
 }
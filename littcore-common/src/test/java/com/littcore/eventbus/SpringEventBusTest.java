@@ -0,0 +1,255 @@
+package com.littcore.eventbus;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.eventbus.DeadEvent;
+import com.google.common.eventbus.Subscribe;
+
+public class SpringEventBusTest {
+	
+	public static class OrderEvent implements IPartitionEvent {
+		
+		private final int orderId;
+		
+		private final int seq;
+		
+		public OrderEvent(int orderId, int seq)
+		{
+			this.orderId = orderId;
+			this.seq = seq;
+		}
+
+		@Override
+		public Object getPartitionKey()
+		{
+			return Integer.valueOf(orderId);
+		}
+	}
+	
+	public static class CompleteEvent implements ICompleteEvent {
+		
+	}
+	
+	public static class OrderListener implements IBatchEventBusListener<OrderEvent> {
+		
+		private final int[] lastSeq = new int[10];
+		
+		private final AtomicInteger outOfOrder = new AtomicInteger();
+		
+		private final AtomicInteger batches = new AtomicInteger();
+		
+		private final CountDownLatch latch;
+		
+		private final List<Object> completed = Collections.synchronizedList(new ArrayList<Object>());
+		
+		public OrderListener(int count)
+		{
+			this.latch = new CountDownLatch(count);
+		}
+		
+		@Override
+		public Class<OrderEvent> getEventType()
+		{
+			return OrderEvent.class;
+		}
+
+		@Override
+		public void onEvents(List<OrderEvent> events)
+		{
+			batches.incrementAndGet();
+			for(OrderEvent event : events)
+			{
+				synchronized(lastSeq)
+				{
+					if(event.seq!=lastSeq[event.orderId]+1)
+						outOfOrder.incrementAndGet();
+					lastSeq[event.orderId] = event.seq;
+				}
+				latch.countDown();
+			}
+		}
+		
+		@Subscribe
+		public void onComplete(CompleteEvent event)
+		{
+			completed.add(event);
+		}
+	}
+	
+	@Test
+	public void test_async_partition() throws Exception
+	{
+		SpringEventBus eventBus = new SpringEventBus();
+		eventBus.setAsync(true);
+		eventBus.setPartitions(4);
+		eventBus.setQueueCapacity(16);
+		OrderListener listener = new OrderListener(10*1000);
+		eventBus.register(listener);
+		for(int seq=1;seq<=1000;seq++)
+		{
+			for(int orderId=0;orderId<10;orderId++)
+			{
+				eventBus.publish(new OrderEvent(orderId, seq));
+			}
+		}
+		Assert.assertTrue(listener.latch.await(10, TimeUnit.SECONDS));
+		Assert.assertEquals(0, listener.outOfOrder.get());
+		Assert.assertTrue(listener.batches.get()<10*1000);
+		eventBus.destroy();
+	}
+	
+	@Test
+	public void test_post_after_destroy() throws Exception
+	{
+		SpringEventBus eventBus = new SpringEventBus("closed");
+		eventBus.setAsync(true);
+		eventBus.setPartitions(2);
+		OrderListener listener = new OrderListener(2);
+		eventBus.register(listener);
+		eventBus.publish(new OrderEvent(1, 1));
+		eventBus.destroy();
+		Assert.assertTrue(eventBus.isShutdown());
+		Assert.assertEquals(1, listener.latch.getCount());
+		
+		//关闭后不再启动分区线程，事件在发布线程中处理
+		eventBus.start();
+		eventBus.destroy();
+		eventBus.publish(new OrderEvent(1, 2));
+		Assert.assertEquals(0, listener.latch.getCount());
+		for(Thread thread : Thread.getAllStackTraces().keySet())
+		{
+			Assert.assertFalse(thread.getName().startsWith("closed-"));
+		}
+	}
+	
+	public static class DeadEventListener {
+		
+		private final List<Object> deadEvents = new ArrayList<Object>();
+		
+		@Subscribe
+		public void onDeadEvent(DeadEvent event)
+		{
+			deadEvents.add(event.getEvent());
+		}
+	}
+	
+	@Test
+	public void test_register_object() throws Exception
+	{
+		SpringEventBus eventBus = new SpringEventBus();
+		DeadEventListener deadListener = new DeadEventListener();
+		OrderListener listener = new OrderListener(1);
+		eventBus.register((Object)deadListener);	//非IEventBusListener同样注册到分发表
+		eventBus.register((Object)listener);
+		Assert.assertEquals(2, eventBus.getSubscriberRegistry().getSubscribers().size());
+		
+		eventBus.publish(new OrderEvent(1, 1));	//只有批量监听器接收，不是DeadEvent
+		Assert.assertEquals(0, listener.latch.getCount());
+		Assert.assertTrue(deadListener.deadEvents.isEmpty());
+		
+		eventBus.publish("nobody");
+		Assert.assertEquals(Collections.singletonList("nobody"), deadListener.deadEvents);
+		
+		eventBus.unregister(deadListener);
+		eventBus.publish("nobody");
+		Assert.assertEquals(1, deadListener.deadEvents.size());
+	}
+	
+	public static class SlowListener implements IEventBusListener {
+		
+		private final AtomicInteger count = new AtomicInteger();
+		
+		@Subscribe
+		public void onEvent(String event) throws InterruptedException
+		{
+			Thread.sleep(30);
+			count.incrementAndGet();
+		}
+		
+		@Subscribe
+		public void onObject(Object event)
+		{
+			if("error".equals(event))
+				throw new IllegalStateException(String.valueOf(event));
+		}
+	}
+	
+	@Test
+	public void test_slow_subscriber() throws Exception
+	{
+		SpringEventBus eventBus = new SpringEventBus("slow");
+		eventBus.setSlowThreshold(10);
+		eventBus.setSlowLimit(2);
+		eventBus.setAutoAsync(true);
+		SlowListener listener = new SlowListener();
+		eventBus.register(listener);
+		
+		Assert.assertEquals(2, eventBus.getSubscriberRegistry().getSubscribers(String.class).length);
+		Assert.assertEquals(1, eventBus.getSubscriberRegistry().getSubscribers(Integer.class).length);
+		
+		eventBus.publish("a");
+		eventBus.publish("b");
+		EventSubscriber slow = eventBus.getSubscriberRegistry().getSubscribers(String.class)[0];
+		if(!"onEvent".equals(slow.getMethod()))
+			slow = eventBus.getSubscriberRegistry().getSubscribers(String.class)[1];
+		Assert.assertTrue(slow.isAsync());
+		Assert.assertEquals(2, slow.getSlowCount());
+		
+		long start = System.currentTimeMillis();
+		for(int i=0;i<5;i++)
+		{
+			eventBus.publish("error");
+		}
+		Assert.assertTrue(System.currentTimeMillis()-start<100);
+		eventBus.destroy();
+		Assert.assertEquals(7, listener.count.get());
+		
+		EventSubscriber fast = eventBus.getSubscriberRegistry().getSubscribers(Integer.class)[0];
+		Assert.assertEquals(5, fast.getErrorCount());
+		Assert.assertEquals(7, fast.getInvocationCount());
+		Assert.assertFalse(fast.isAsync());
+		
+		eventBus.unregister(listener);
+		Assert.assertEquals(0, eventBus.getSubscriberRegistry().getSubscribers(String.class).length);
+	}
+	
+	@Test
+	public void test_after_commit() throws Exception
+	{
+		SpringEventBus eventBus = new SpringEventBus();
+		OrderListener listener = new OrderListener(0);
+		eventBus.register(listener);
+		
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			eventBus.publish(new CompleteEvent());
+			Assert.assertEquals(0, listener.completed.size());
+			for(TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations())
+			{
+				synchronization.afterCommit();
+			}
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+		Assert.assertEquals(1, listener.completed.size());
+		
+		eventBus.publish(new CompleteEvent());
+		Assert.assertEquals(2, listener.completed.size());
+		
+		eventBus.unregister(listener);
+		eventBus.publish(new OrderEvent(1, 1));
+		Assert.assertEquals(0, listener.batches.get());
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.littcore.uid;
+
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * IdGenerator吞吐量测试.
+ * 
+ * <pre><b>描述：</b>
+ *    多线程并发生成ID，分别测试nextId及nextIds批量预留，输出每秒生成的ID数。
+ *    java com.littcore.uid.IdGeneratorBenchmark [threads] [seconds]
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class IdGeneratorBenchmark {
+
+  /** 保存计算结果，防止被JIT优化掉. */
+  static volatile long blackhole;
+
+  public static void main(String[] args) throws Exception
+  {
+    int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+    int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 3;
+
+    //预热
+    run(new IdGenerator(1, 1), threads, 1, 1);
+    for (int batch : new int[] { 1, 16, 256 })
+    {
+      long total = run(new IdGenerator(1, 1), threads, seconds, batch);
+      System.out.println(String.format("threads=%d, batch=%d: %,d ids/s", threads, batch, total / seconds));
+    }
+  }
+
+  private static long run(final IdGenerator generator, int threads, int seconds, final int batch) throws InterruptedException
+  {
+    final long deadline = System.currentTimeMillis() + seconds * 1000L;
+    final long[] counts = new long[threads];
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++)
+    {
+      final int index = i;
+      new Thread() {
+        public void run()
+        {
+          long count = 0;
+          long sink = 0;
+          try
+          {
+            while (System.currentTimeMillis() < deadline)
+            {
+              for (int j = 0; j < 1000; j++)
+              {
+                if (batch == 1)
+                  sink ^= generator.nextId();
+                else
+                  sink ^= generator.nextIds(batch)[0];
+                count += batch;
+              }
+            }
+          }
+          finally
+          {
+            counts[index] = count;
+            blackhole = sink;
+            done.countDown();
+          }
+        }
+      }.start();
+    }
+    done.await();
+    long total = 0;
+    for (long count : counts)
+      total += count;
+    return total;
+  }
+
+}
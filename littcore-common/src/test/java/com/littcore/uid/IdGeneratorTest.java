@@ -0,0 +1,108 @@
+package com.littcore.uid;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+public class IdGeneratorTest {
+
+  @Test
+  public void test_unique() throws Exception
+  {
+    final IdGenerator generator = new IdGenerator(3, 7);
+    final int threads = 8;
+    final int count = 100000;
+    final ConcurrentHashMap<Long, Boolean> ids = new ConcurrentHashMap<Long, Boolean>(threads * count * 2);
+    final AtomicInteger duplicates = new AtomicInteger();
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(threads);
+    for (int i = 0; i < threads; i++)
+    {
+      final boolean batch = i % 2 == 0;
+      new Thread() {
+        public void run()
+        {
+          try
+          {
+            start.await();
+            long last = 0;
+            for (int j = 0; j < count;)
+            {
+              long[] next = batch ? generator.nextIds(50) : new long[] { generator.nextId() };
+              for (long id : next)
+              {
+                if (id <= last || ids.putIfAbsent(id, Boolean.TRUE) != null)
+                  duplicates.incrementAndGet();
+                last = id;
+              }
+              j += next.length;
+            }
+          }
+          catch (InterruptedException e)
+          {
+            Thread.currentThread().interrupt();
+          }
+          finally
+          {
+            done.countDown();
+          }
+        }
+      }.start();
+    }
+    start.countDown();
+    done.await();
+    Assert.assertEquals(0, duplicates.get());
+    Assert.assertEquals(threads * count, ids.size());
+
+    long id = generator.nextId();
+    Assert.assertEquals(3, generator.getDatacenterId(id));
+    Assert.assertEquals(7, generator.getWorkerId(id));
+    Assert.assertTrue(Math.abs(generator.getTimestamp(id) - System.currentTimeMillis()) < 1000);
+  }
+
+  @Test
+  public void test_clock_backwards()
+  {
+    final long[] clock = new long[] { System.currentTimeMillis() };
+    IdGenerator generator = new IdGenerator(1) {
+      protected long timeGen()
+      {
+        return clock[0];
+      }
+    };
+    generator.setMaxBackwardMillis(10);
+    long id = generator.nextId();
+    //回拨在容忍范围内，借用后续的毫秒
+    clock[0] -= 5;
+    long next = generator.nextId();
+    Assert.assertTrue(next > id);
+    //超出容忍范围
+    clock[0] -= 100;
+    try
+    {
+      generator.nextId();
+      Assert.fail("Clock moved backwards");
+    }
+    catch (IllegalStateException e)
+    {
+      //expected
+    }
+    clock[0] += 105;
+    Assert.assertTrue(generator.nextId() > next);
+  }
+
+  @Test
+  public void test_legacy_layout()
+  {
+    IdGenerator generator = new IdGenerator(IdGenerator.maxWorkerId);
+    long id = generator.nextId();
+    Assert.assertEquals(IdGenerator.maxWorkerId, generator.getWorkerId(id));
+    Assert.assertEquals(0, generator.getSequence(id) & ~IdGenerator.sequenceMask);
+    Assert.assertEquals(id >>> 14, generator.getTimestamp(id) - IdGenerator.twepoch);
+  }
+
+}
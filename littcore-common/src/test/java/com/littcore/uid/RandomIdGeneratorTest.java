@@ -0,0 +1,65 @@
+package com.littcore.uid;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+public class RandomIdGeneratorTest {
+
+  @Test
+  public void test_uuid()
+  {
+    UUID uuid = RandomIdGenerator.randomUUID();
+    Assert.assertEquals(4, uuid.version());
+    Assert.assertEquals(2, uuid.variant());
+    Assert.assertEquals(32, uuid.toString().length());
+    Assert.assertEquals(uuid, UUID.fromString(toDashed(uuid.toString())));
+
+    String value = RandomIdGenerator.randomUUIDString();
+    Assert.assertTrue(value.matches("[0-9a-f]{12}4[0-9a-f]{3}[89ab][0-9a-f]{15}"));
+
+    UUID last = RandomIdGenerator.timeUUID();
+    Assert.assertEquals(7, last.version());
+    for (int i = 0; i < 10000; i++)
+    {
+      UUID next = RandomIdGenerator.timeUUID();
+      Assert.assertTrue(next.compareTo(last) > 0);
+      last = next;
+    }
+  }
+
+  @Test
+  public void test_encode()
+  {
+    Assert.assertTrue(RandomIdGenerator.randomHex(20).matches("[0-9a-f]{40}"));
+    Assert.assertTrue(RandomIdGenerator.randomBase62(22).matches("[0-9A-Za-z]{22}"));
+    Assert.assertTrue(RandomIdGenerator.randomBase64Url(32).matches("[0-9A-Za-z_-]{43}"));
+    Assert.assertEquals(1400, RandomIdGenerator.randomHex(700).length());
+    Assert.assertTrue(SidGenerator.getId().matches("[0-9A-Za-z]{6}"));
+
+    //RFC 4648测试向量
+    Assert.assertEquals("Zm9vYmFy", new String(RandomIdGenerator.encodeBase64Url("foobar".getBytes(), 0, 6)));
+    Assert.assertEquals("Zm9vYg", new String(RandomIdGenerator.encodeBase64Url("foob".getBytes(), 0, 4)));
+    Assert.assertEquals("Zm9vYmE", new String(RandomIdGenerator.encodeBase64Url("fooba".getBytes(), 0, 5)));
+    Assert.assertEquals("-_8", new String(RandomIdGenerator.encodeBase64Url(new byte[] { (byte)0xFB, (byte)0xFF }, 0, 2)));
+  }
+
+  @Test
+  public void test_unique()
+  {
+    Set<String> ids = new HashSet<String>();
+    for (int i = 0; i < 100000; i++)
+    {
+      Assert.assertTrue(ids.add(RandomIdGenerator.randomBase64Url(16)));
+    }
+  }
+
+  private static String toDashed(String hex)
+  {
+    return hex.substring(0, 8) + "-" + hex.substring(8, 12) + "-" + hex.substring(12, 16) + "-" + hex.substring(16, 20) + "-" + hex.substring(20);
+  }
+
+}
@@ -0,0 +1,517 @@
+package com.littcore.io.fileupload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.io.FilenameUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.littcore.common.Utility;
+import com.littcore.io.util.FileUtils;
+import com.littcore.uid.RandomIdGenerator;
+
+/**
+ * 分块断点续传.
+ * 
+ * <pre><b>描述：</b>
+ *    用于大文件上传，连接中断后只需重传未完成的分块：
+ *    1、createSession：客户端提交文件名、文件大小及分块大小，服务端预分配文件并返回uploadId；
+ *    2、uploadChunk：按分块序号上传数据及分块摘要，可并发上传多个分块，数据按偏移量直接写入预分配的文件；
+ *    3、getSession(uploadId).getMissingChunks()：获取尚未接收的分块，用于断点续传；
+ *    4、complete：全部分块接收后将.part文件改名为目标文件，不再复制数据；
+ *    5、abort：放弃上传。
+ *    上传进度可通过ChunkedUploadSession.setProgressListener使用UploadListener/UploadInfo获取。
+ *    会话保存于内存中，超过sessionTimeout未访问的会话由purgeExpiredSessions清理，可通过startPurge定时清理。
+ *    预分配的文件占用磁盘空间，可通过maxSessions、maxReservedSize限制同时存在的会话数及预分配的总大小。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 增加maxSessions、maxReservedSize限制会话数及预分配的总大小，增加startPurge定时清理超时的会话
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ChunkedFileUpload
+{
+	/** 日志工具. */
+	private static final Log logger = LogFactory.getLog(ChunkedFileUpload.class);
+	
+	/** 默认分块大小：4M. */
+	public static final int DEFAULT_CHUNK_SIZE = 4 * 1024 * 1024;
+	
+	/** 最小分块大小：64K. */
+	public static final int MIN_CHUNK_SIZE = 64 * 1024;
+	
+	/** 最大分块大小：64M. */
+	public static final int MAX_CHUNK_SIZE = 64 * 1024 * 1024;
+	
+	/** 上传根路径（绝对路径）. */
+	private String homePath;
+	
+	/** 上传根路径（相对路径路径）. */
+	private String uploadPath;
+	
+	/** 单个文件大小限制，0为无限制. */
+	private long fileLimitSize = 0;
+	
+	/** 文件允许上传的后缀名. */
+	private String allowFileExts = HttpFileUpload.DEFAULT_ALLOW_FILE_EXTS;
+	
+	/** 是否自动重命名，默认为否. */
+	private boolean isAutoRename = false;
+	
+	/** 分块摘要算法，为空则不校验. */
+	private String checksumAlgorithm = "MD5";
+	
+	/** 会话超时时间（毫秒），默认24小时. */
+	private long sessionTimeout = 24 * 60 * 60 * 1000L;
+	
+	/** 最多同时存在的会话数，0为无限制. */
+	private int maxSessions = 0;
+	
+	/** 所有会话预分配的文件总大小限制，0为无限制. */
+	private long maxReservedSize = 0;
+	
+	/** 已占用额度的会话数（包括正在预分配文件的会话）. */
+	private int reservedSessions = 0;
+	
+	/** 已预分配的文件总大小. */
+	private long reservedSize = 0;
+	
+	/** 定时清理超时的会话. */
+	private ScheduledExecutorService purger;
+	
+	/** 上传会话. */
+	private final ConcurrentMap<String, ChunkedUploadSession> sessions = new ConcurrentHashMap<String, ChunkedUploadSession>();
+	
+	public ChunkedFileUpload(String homePath, String uploadPath)
+	{
+		this.homePath = homePath;
+		this.uploadPath = uploadPath;
+	}
+	
+	/**
+	 * 创建上传会话并预分配文件.
+	 *
+	 * @param fileName 文件名
+	 * @param fileSize 文件大小
+	 * @param chunkSize 分块大小，小于等于0时使用默认值
+	 * @return 上传会话
+	 * @throws FileUploadException 文件后缀或大小不允许，或超出会话数、预分配总大小的限制
+	 * @throws IOException 创建文件失败
+	 */
+	public ChunkedUploadSession createSession(String fileName, long fileSize, int chunkSize) throws FileUploadException, IOException
+	{
+		String fileSimpleName = Utility.getSimpleFileName(fileName);	//纯文件名
+		String fileSuffix = FilenameUtils.getExtension(fileSimpleName);	//后缀名
+		if (Utility.isEmpty(fileSimpleName))
+			throw new FileUploadException("File name is required");
+		if (!isAllowFileExt(fileSuffix))
+			throw new FileUploadException("Illegal file ext [ " + fileSuffix + " ]");
+		if (fileSize <= 0)
+			throw new FileUploadException("Illegal file size [ " + fileSize + " ]");
+		if (fileLimitSize > 0 && fileSize > fileLimitSize)
+			throw new FileUploadException("[ " + fileSimpleName + " ] is out of size limit, file size[ " + fileSize + " ], limit is[ " + fileLimitSize + " ] ");
+		if (chunkSize <= 0)
+			chunkSize = DEFAULT_CHUNK_SIZE;
+		if (chunkSize < MIN_CHUNK_SIZE || chunkSize > MAX_CHUNK_SIZE)
+			throw new FileUploadException("Illegal chunk size [ " + chunkSize + " ], must between " + MIN_CHUNK_SIZE + " and " + MAX_CHUNK_SIZE);
+		if ((fileSize + chunkSize - 1) / chunkSize > Integer.MAX_VALUE)
+			throw new FileUploadException("Too many chunks, chunk size [ " + chunkSize + " ] is too small");
+		
+		String actualFileName;
+		if (this.isAutoRename)
+			actualFileName = FileUtils.currentToFileName() + "." + fileSuffix;	//实际保存文件名
+		else
+			actualFileName = fileSimpleName;
+		String finalPath = homePath + File.separator + uploadPath;
+		FileUtils.createDirectory(new File(finalPath));
+		
+		String uploadId = RandomIdGenerator.randomHex(16);
+		reserve(fileSize);	//先占用额度再预分配文件
+		ChunkedUploadSession session;
+		try
+		{
+			session = new ChunkedUploadSession(uploadId, fileSimpleName, actualFileName, finalPath, fileSize, chunkSize);
+			sessions.put(uploadId, session);
+		}
+		catch (IOException e)
+		{
+			release(fileSize);
+			throw e;
+		}
+		if (logger.isDebugEnabled())
+		{
+			logger.debug("Chunked upload [" + uploadId + "] created, file:" + actualFileName + ", size:" + fileSize + ", chunks:" + session.getChunkCount());
+		}
+		return session;
+	}
+	
+	/**
+	 * 获得上传会话.
+	 *
+	 * @param uploadId 上传会话ID
+	 * @return 上传会话，不存在或已完成时为null
+	 */
+	public ChunkedUploadSession getSession(String uploadId)
+	{
+		return uploadId == null ? null : sessions.get(uploadId);
+	}
+	
+	/**
+	 * 上传一个分块，可并发调用.
+	 *
+	 * @param uploadId 上传会话ID
+	 * @param index 分块序号（从0开始）
+	 * @param offset 分块偏移量，用于校验，小于0时不校验
+	 * @param in 分块数据
+	 * @param checksum 分块摘要（十六进制），为空时不校验
+	 * @return 是否写入（分块已接收过时返回false）
+	 * @throws FileUploadException 会话不存在，或分块序号、偏移量、长度、摘要不正确
+	 * @throws IOException 读取或写入失败
+	 */
+	public boolean uploadChunk(String uploadId, int index, long offset, InputStream in, String checksum) throws FileUploadException, IOException
+	{
+		ChunkedUploadSession session = getRequiredSession(uploadId);
+		if (offset >= 0 && offset != session.getChunkOffset(index))
+			throw new FileUploadException("Illegal offset [ " + offset + " ] of chunk [ " + index + " ], expected " + session.getChunkOffset(index));
+		MessageDigest digest = Utility.isEmpty(checksum) ? null : createDigest();
+		return session.writeChunk(index, in, digest, checksum);
+	}
+	
+	/**
+	 * 完成上传.
+	 *
+	 * @param uploadId 上传会话ID
+	 * @return 上传文件信息
+	 * @throws FileUploadException 会话不存在或分块未全部接收
+	 * @throws IOException
+	 */
+	public UploadFile complete(String uploadId) throws FileUploadException, IOException
+	{
+		ChunkedUploadSession session = getRequiredSession(uploadId);
+		session.complete();
+		if (sessions.remove(uploadId, session))
+			release(session.getFileSize());
+		
+		UploadFile uploadFile = new UploadFile();
+		uploadFile.setSrcFileName(session.getSrcFileName());	//原文件名
+		uploadFile.setFileSuffix(FilenameUtils.getExtension(session.getSrcFileName()));	//文件后缀名
+		uploadFile.setFileName(session.getFileName());		//现文件名
+		uploadFile.setFilePath(session.getFilePath());		//绝对路径
+		uploadFile.setFileSize(session.getFileSize());
+		if (logger.isDebugEnabled())
+		{
+			logger.debug("Chunked upload [" + uploadId + "] completed, file:" + session.getFileName());
+		}
+		return uploadFile;
+	}
+	
+	/**
+	 * 放弃上传.
+	 *
+	 * @param uploadId 上传会话ID
+	 */
+	public void abort(String uploadId)
+	{
+		ChunkedUploadSession session = uploadId == null ? null : sessions.remove(uploadId);
+		if (session != null)
+		{
+			session.abort();
+			release(session.getFileSize());
+		}
+	}
+	
+	/**
+	 * 清理超时的会话，并删除其未完成的文件.
+	 *
+	 * @return 清理的会话数
+	 */
+	public int purgeExpiredSessions()
+	{
+		long expireTime = System.currentTimeMillis() - sessionTimeout;
+		int count = 0;
+		for (ChunkedUploadSession session : new ArrayList<ChunkedUploadSession>(sessions.values()))
+		{
+			if (session.getLastAccessTime() < expireTime && sessions.remove(session.getUploadId(), session))
+			{
+				session.abort();
+				release(session.getFileSize());
+				count++;
+				logger.info("Chunked upload [" + session.getUploadId() + "] expired, file:" + session.getFileName());
+			}
+		}
+		return count;
+	}
+	
+	/**
+	 * 启动定时清理超时的会话（后台线程）.
+	 *
+	 * @param interval 清理间隔（毫秒）
+	 */
+	public synchronized void startPurge(long interval)
+	{
+		if (purger != null)
+			return;
+		purger = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+			public Thread newThread(Runnable r)
+			{
+				Thread thread = new Thread(r, "ChunkedFileUpload-purger");
+				thread.setDaemon(true);
+				return thread;
+			}
+		});
+		purger.scheduleWithFixedDelay(new Runnable() {
+			public void run()
+			{
+				try
+				{
+					purgeExpiredSessions();
+				}
+				catch (RuntimeException e)
+				{
+					logger.warn("Failed to purge expired sessions", e);
+				}
+			}
+		}, interval, interval, TimeUnit.MILLISECONDS);
+	}
+	
+	/**
+	 * 停止定时清理，并放弃所有未完成的上传（删除其未完成的文件）.
+	 */
+	public void shutdown()
+	{
+		synchronized (this)
+		{
+			if (purger != null)
+			{
+				purger.shutdownNow();
+				purger = null;
+			}
+		}
+		for (ChunkedUploadSession session : new ArrayList<ChunkedUploadSession>(sessions.values()))
+		{
+			abort(session.getUploadId());
+		}
+	}
+	
+	/**
+	 * 占用会话数及预分配大小的额度.
+	 */
+	private synchronized void reserve(long fileSize) throws FileUploadException
+	{
+		if (maxSessions > 0 && reservedSessions >= maxSessions)
+			throw new FileUploadException("Too many uploads in progress, limit is[ " + maxSessions + " ]");
+		if (maxReservedSize > 0 && reservedSize + fileSize > maxReservedSize)
+			throw new FileUploadException("Not enough space reserved for uploads, file size[ " + fileSize + " ], available[ " + (maxReservedSize - reservedSize) + " ]");
+		reservedSessions++;
+		reservedSize += fileSize;
+	}
+	
+	private synchronized void release(long fileSize)
+	{
+		reservedSessions--;
+		reservedSize -= fileSize;
+	}
+	
+	private ChunkedUploadSession getRequiredSession(String uploadId) throws FileUploadException
+	{
+		ChunkedUploadSession session = getSession(uploadId);
+		if (session == null)
+			throw new FileUploadException("Upload [ " + uploadId + " ] does not exist or has expired");
+		return session;
+	}
+	
+	private MessageDigest createDigest()
+	{
+		if (Utility.isEmpty(checksumAlgorithm))
+			return null;
+		try
+		{
+			return MessageDigest.getInstance(checksumAlgorithm);
+		}
+		catch (NoSuchAlgorithmException e)
+		{
+			throw new IllegalArgumentException("Unsupported checksum algorithm: " + checksumAlgorithm, e);
+		}
+	}
+	
+	private boolean isAllowFileExt(String fileExt)
+	{
+		if (allowFileExts == null || Utility.isEmpty(allowFileExts))
+			return true;
+		else if (!Utility.isEmpty(fileExt))
+			return allowFileExts.indexOf(fileExt.toLowerCase()) != -1;
+		else
+			return false;
+	}
+
+	/**
+	 * @return the homePath
+	 */
+	public String getHomePath()
+	{
+		return homePath;
+	}
+
+	/**
+	 * @return the uploadPath
+	 */
+	public String getUploadPath()
+	{
+		return uploadPath;
+	}
+
+	/**
+	 * @param uploadPath the uploadPath to set
+	 */
+	public void setUploadPath(String uploadPath)
+	{
+		this.uploadPath = uploadPath;
+	}
+
+	/**
+	 * @return the fileLimitSize
+	 */
+	public long getFileLimitSize()
+	{
+		return fileLimitSize;
+	}
+
+	/**
+	 * @param fileLimitSize the fileLimitSize to set
+	 */
+	public void setFileLimitSize(long fileLimitSize)
+	{
+		this.fileLimitSize = fileLimitSize;
+	}
+
+	/**
+	 * @return the allowFileExts
+	 */
+	public String getAllowFileExts()
+	{
+		return allowFileExts;
+	}
+
+	/**
+	 * @param allowFileExts the allowFileExts to set
+	 */
+	public void setAllowFileExts(String allowFileExts)
+	{
+		this.allowFileExts = allowFileExts;
+	}
+
+	/**
+	 * @return the isAutoRename
+	 */
+	public boolean isAutoRename()
+	{
+		return isAutoRename;
+	}
+
+	/**
+	 * @param isAutoRename the isAutoRename to set
+	 */
+	public void setAutoRename(boolean isAutoRename)
+	{
+		this.isAutoRename = isAutoRename;
+	}
+
+	/**
+	 * @return the checksumAlgorithm
+	 */
+	public String getChecksumAlgorithm()
+	{
+		return checksumAlgorithm;
+	}
+
+	/**
+	 * 设置分块摘要算法（MessageDigest算法名），默认为MD5.
+	 * 
+	 * @param checksumAlgorithm the checksumAlgorithm to set
+	 */
+	public void setChecksumAlgorithm(String checksumAlgorithm)
+	{
+		this.checksumAlgorithm = checksumAlgorithm;
+	}
+
+	/**
+	 * @return the sessionTimeout
+	 */
+	public long getSessionTimeout()
+	{
+		return sessionTimeout;
+	}
+
+	/**
+	 * 设置会话超时时间（毫秒）.
+	 * 
+	 * @param sessionTimeout the sessionTimeout to set
+	 */
+	public void setSessionTimeout(long sessionTimeout)
+	{
+		this.sessionTimeout = sessionTimeout;
+	}
+
+	/**
+	 * @return the maxSessions
+	 */
+	public int getMaxSessions()
+	{
+		return maxSessions;
+	}
+
+	/**
+	 * 设置最多同时存在的会话数，0为无限制.
+	 * 
+	 * @param maxSessions the maxSessions to set
+	 */
+	public void setMaxSessions(int maxSessions)
+	{
+		this.maxSessions = maxSessions;
+	}
+
+	/**
+	 * @return the maxReservedSize
+	 */
+	public long getMaxReservedSize()
+	{
+		return maxReservedSize;
+	}
+
+	/**
+	 * 设置所有会话预分配的文件总大小限制，0为无限制.
+	 * 
+	 * @param maxReservedSize the maxReservedSize to set
+	 */
+	public void setMaxReservedSize(long maxReservedSize)
+	{
+		this.maxReservedSize = maxReservedSize;
+	}
+
+	/**
+	 * 获得已预分配的文件总大小.
+	 * 
+	 * @return the reservedSize
+	 */
+	public synchronized long getReservedSize()
+	{
+		return reservedSize;
+	}
+
+}
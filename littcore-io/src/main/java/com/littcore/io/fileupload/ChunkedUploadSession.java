@@ -0,0 +1,362 @@
+package com.littcore.io.fileupload;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.BitSet;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.ProgressListener;
+
+/**
+ * 分块上传会话.
+ * 
+ * <pre><b>描述：</b>
+ *    记录一个分块上传文件的状态：
+ *    1、创建时预分配"uploadId.part"文件（与目标文件同目录），各分块通过FileChannel按偏移量直接写入，
+ *       不同分块可由多个请求并发写入；
+ *    2、已接收的分块记录在位图中，连接中断后客户端可通过getMissingChunks获取未完成的分块继续上传；
+ *    3、同一分块重复上传时直接忽略，正在写入的分块不允许再次写入。
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ChunkedUploadSession
+{
+	/** 写入缓冲区大小. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+	
+	private final String uploadId;
+	
+	/** 原文件名. */
+	private final String srcFileName;
+	
+	/** 目标文件名. */
+	private final String fileName;
+	
+	/** 目标目录（绝对路径）. */
+	private final String filePath;
+	
+	private final long fileSize;
+	
+	private final int chunkSize;
+	
+	private final int chunkCount;
+	
+	/** 未完成的文件. */
+	private final File partFile;
+	
+	private final RandomAccessFile raf;
+	
+	private final FileChannel channel;
+	
+	/** 已接收的分块. */
+	private final BitSet receivedChunks = new BitSet();
+	
+	/** 正在写入的分块. */
+	private final BitSet writingChunks = new BitSet();
+	
+	private final AtomicLong bytesReceived = new AtomicLong();
+	
+	private volatile long lastAccessTime = System.currentTimeMillis();
+	
+	private volatile boolean closed = false;
+	
+	/** 进度监听器，可使用UploadListener. */
+	private ProgressListener progressListener;
+	
+	ChunkedUploadSession(String uploadId, String srcFileName, String fileName, String filePath, long fileSize, int chunkSize) throws IOException
+	{
+		this.uploadId = uploadId;
+		this.srcFileName = srcFileName;
+		this.fileName = fileName;
+		this.filePath = filePath;
+		this.fileSize = fileSize;
+		this.chunkSize = chunkSize;
+		this.chunkCount = (int)((fileSize + chunkSize - 1) / chunkSize);
+		this.partFile = new File(filePath, uploadId + ".part");
+		this.raf = new RandomAccessFile(partFile, "rw");
+		try
+		{
+			raf.setLength(fileSize);	//预分配
+		}
+		catch (IOException e)
+		{
+			raf.close();
+			partFile.delete();
+			throw e;
+		}
+		this.channel = raf.getChannel();
+	}
+	
+	/**
+	 * 写入一个分块.
+	 * <p>
+	 * 数据按offset=index*chunkSize直接写入文件，长度必须与该分块长度一致（最后一块可能不足chunkSize）。
+	 * 指定digest及checksum时边写边计算摘要，不一致时该分块不标记为已接收，客户端需重传。
+	 *
+	 * @param index 分块序号（从0开始）
+	 * @param in 分块数据
+	 * @param digest 摘要算法，为null时不校验
+	 * @param checksum 客户端提供的分块摘要（十六进制）
+	 * @return 是否写入（分块已接收过时返回false）
+	 * @throws FileUploadException 分块序号、长度或摘要不正确
+	 * @throws IOException 读取或写入失败
+	 */
+	public boolean writeChunk(int index, InputStream in, MessageDigest digest, String checksum) throws FileUploadException, IOException
+	{
+		if (index < 0 || index >= chunkCount)
+			throw new FileUploadException("Illegal chunk index [ " + index + " ], chunk count is [ " + chunkCount + " ]");
+		synchronized (this)
+		{
+			ensureOpen();
+			lastAccessTime = System.currentTimeMillis();
+			if (receivedChunks.get(index))
+				return false;
+			if (writingChunks.get(index))
+				throw new FileUploadException("Chunk [ " + index + " ] is being uploaded");
+			writingChunks.set(index);
+		}
+		boolean success = false;
+		try
+		{
+			long offset = getChunkOffset(index);
+			long length = getChunkLength(index);
+			long written = 0;
+			byte[] buf = new byte[(int)Math.min(BUFFER_SIZE, length + 1)];
+			int len;
+			while ((len = in.read(buf)) != -1)
+			{
+				if (written + len > length)
+					throw new FileUploadException("Chunk [ " + index + " ] is longer than " + length + " bytes");
+				if (digest != null)
+					digest.update(buf, 0, len);
+				ByteBuffer buffer = ByteBuffer.wrap(buf, 0, len);
+				while (buffer.hasRemaining())
+				{
+					written += channel.write(buffer, offset + written);
+				}
+			}
+			if (written != length)
+				throw new FileUploadException("Chunk [ " + index + " ] is incomplete, received " + written + " of " + length + " bytes");
+			if (digest != null && checksum != null)
+			{
+				String actual = HttpFileUpload.toHexString(digest.digest());
+				if (!actual.equalsIgnoreCase(checksum))
+					throw new FileUploadException("Checksum of chunk [ " + index + " ] mismatch, expected " + checksum + " but was " + actual);
+			}
+			success = true;
+		}
+		finally
+		{
+			synchronized (this)
+			{
+				writingChunks.clear(index);
+				if (success)
+					receivedChunks.set(index);
+			}
+		}
+		long received = bytesReceived.addAndGet(getChunkLength(index));
+		if (progressListener != null)
+			progressListener.update(received, fileSize, getReceivedChunkCount());
+		return true;
+	}
+	
+	/**
+	 * 是否所有分块都已接收.
+	 */
+	public synchronized boolean isComplete()
+	{
+		return receivedChunks.cardinality() == chunkCount;
+	}
+	
+	/**
+	 * 获得已接收的分块数.
+	 */
+	public synchronized int getReceivedChunkCount()
+	{
+		return receivedChunks.cardinality();
+	}
+	
+	/**
+	 * 获得尚未接收的分块序号，用于断点续传.
+	 */
+	public synchronized int[] getMissingChunks()
+	{
+		int[] missing = new int[chunkCount - receivedChunks.cardinality()];
+		int i = 0;
+		for (int index = receivedChunks.nextClearBit(0); index < chunkCount; index = receivedChunks.nextClearBit(index + 1))
+		{
+			missing[i++] = index;
+		}
+		return missing;
+	}
+	
+	/**
+	 * 分块在文件中的偏移量.
+	 */
+	public long getChunkOffset(int index)
+	{
+		return (long)index * chunkSize;
+	}
+	
+	/**
+	 * 分块长度，最后一块可能不足chunkSize.
+	 */
+	public long getChunkLength(int index)
+	{
+		return Math.min(chunkSize, fileSize - getChunkOffset(index));
+	}
+	
+	/**
+	 * 完成上传：将数据刷到磁盘并关闭文件，然后把.part文件改名为目标文件（不复制数据）.
+	 *
+	 * @return 目标文件
+	 * @throws FileUploadException 分块未全部接收或改名失败
+	 * @throws IOException
+	 */
+	synchronized File complete() throws FileUploadException, IOException
+	{
+		ensureOpen();
+		if (!writingChunks.isEmpty() || !isComplete())
+			throw new FileUploadException("Upload [ " + uploadId + " ] is not complete, " + receivedChunks.cardinality() + " of " + chunkCount + " chunks received");
+		channel.force(false);
+		close();
+		File target = new File(filePath, fileName);
+		if (target.exists())
+			target.delete();
+		if (!partFile.renameTo(target))
+			throw new FileUploadException("Can not rename " + partFile + " to " + target);
+		if (progressListener != null)
+			progressListener.update(fileSize, -1, chunkCount);
+		return target;
+	}
+	
+	/**
+	 * 放弃上传并删除未完成的文件.
+	 */
+	synchronized void abort()
+	{
+		close();
+		partFile.delete();
+	}
+	
+	private void close()
+	{
+		closed = true;
+		try
+		{
+			raf.close();
+		}
+		catch (IOException e)
+		{
+			//ignore
+		}
+	}
+	
+	private void ensureOpen() throws FileUploadException
+	{
+		if (closed)
+			throw new FileUploadException("Upload [ " + uploadId + " ] is closed");
+	}
+	
+	/**
+	 * @return the uploadId
+	 */
+	public String getUploadId()
+	{
+		return uploadId;
+	}
+
+	/**
+	 * @return the srcFileName
+	 */
+	public String getSrcFileName()
+	{
+		return srcFileName;
+	}
+
+	/**
+	 * @return the fileName
+	 */
+	public String getFileName()
+	{
+		return fileName;
+	}
+
+	/**
+	 * @return the filePath
+	 */
+	public String getFilePath()
+	{
+		return filePath;
+	}
+
+	/**
+	 * @return the fileSize
+	 */
+	public long getFileSize()
+	{
+		return fileSize;
+	}
+
+	/**
+	 * @return the chunkSize
+	 */
+	public int getChunkSize()
+	{
+		return chunkSize;
+	}
+
+	/**
+	 * @return the chunkCount
+	 */
+	public int getChunkCount()
+	{
+		return chunkCount;
+	}
+
+	/**
+	 * @return the bytesReceived
+	 */
+	public long getBytesReceived()
+	{
+		return bytesReceived.get();
+	}
+
+	/**
+	 * @return the lastAccessTime
+	 */
+	public long getLastAccessTime()
+	{
+		return lastAccessTime;
+	}
+
+	/**
+	 * @return the progressListener
+	 */
+	public ProgressListener getProgressListener()
+	{
+		return progressListener;
+	}
+
+	/**
+	 * @param progressListener the progressListener to set
+	 */
+	public void setProgressListener(ProgressListener progressListener)
+	{
+		this.progressListener = progressListener;
+	}
+
+}
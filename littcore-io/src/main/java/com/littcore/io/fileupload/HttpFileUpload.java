@@ -1,8 +1,14 @@
 package com.littcore.io.fileupload;
 
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -12,9 +18,12 @@ import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileItemFactory;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
 import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
 import org.apache.commons.fileupload.servlet.ServletRequestContext;
+import org.apache.commons.fileupload.util.Streams;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -44,6 +53,12 @@ import com.littcore.io.util.FileUtils;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
+ * 	  2026-10-17 v2.1
+ * 			1、增加streamUpload流式上传，不经过FileItem临时文件直接写入目标目录（先写.part文件，完成后改名），磁盘IO减半
+ * 			2、流式上传时根据文件头校验内容与后缀名是否相符，并可按setChecksumAlgorithm边写边计算文件摘要
+ * 			3、大文件断点续传见ChunkedFileUpload
+ * 			4、流式上传写文件失败时删除.part文件并记为STORE_FAILED；未选择文件的文件域记录日志后跳过，空文件记为EMPTY_FILE（upload()相同）
+ * 
  * 	  2014-04-24 v2.0
  * 			1、增加failedFiles记录上传失败的文件而不仅仅是记个名字，这样可以在返回时显示更详细信息
  * 
@@ -68,6 +83,43 @@ public class HttpFileUpload extends ServletFileUpload
     
     /** The Constant M. */
     private static final long M = 1024 * 1024;
+    
+    /** 流式上传的读写缓冲区大小. */
+    private static final int STREAM_BUFFER_SIZE = 64 * 1024;
+    
+    /** 流式上传时未完成文件的后缀. */
+    private static final String PART_SUFFIX = ".part";
+    
+    /** 校验文件头时至少读取的字节数. */
+    private static final int SIGNATURE_LENGTH = 16;
+    
+    /** 常见文件后缀对应的文件头（magic number），key为后缀名，value为可能的文件头. */
+    private static final Map<String, byte[][]> FILE_SIGNATURES = new HashMap<String, byte[][]>();
+    
+    static
+    {
+    	byte[][] jpg = {{(byte)0xFF, (byte)0xD8, (byte)0xFF}};
+    	byte[][] zip = {{0x50, 0x4B, 0x03, 0x04}, {0x50, 0x4B, 0x05, 0x06}, {0x50, 0x4B, 0x07, 0x08}};
+    	byte[][] ole = {{(byte)0xD0, (byte)0xCF, 0x11, (byte)0xE0, (byte)0xA1, (byte)0xB1, 0x1A, (byte)0xE1}};
+    	FILE_SIGNATURES.put("jpg", jpg);
+    	FILE_SIGNATURES.put("jpeg", jpg);
+    	FILE_SIGNATURES.put("png", new byte[][]{{(byte)0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A}});
+    	FILE_SIGNATURES.put("gif", new byte[][]{{0x47, 0x49, 0x46, 0x38}});
+    	FILE_SIGNATURES.put("bmp", new byte[][]{{0x42, 0x4D}});
+    	FILE_SIGNATURES.put("pdf", new byte[][]{{0x25, 0x50, 0x44, 0x46}});
+    	FILE_SIGNATURES.put("zip", zip);
+    	FILE_SIGNATURES.put("docx", zip);
+    	FILE_SIGNATURES.put("xlsx", zip);
+    	FILE_SIGNATURES.put("pptx", zip);
+    	FILE_SIGNATURES.put("doc", ole);
+    	FILE_SIGNATURES.put("xls", ole);
+    	FILE_SIGNATURES.put("ppt", ole);
+    	FILE_SIGNATURES.put("7z", new byte[][]{{0x37, 0x7A, (byte)0xBC, (byte)0xAF, 0x27, 0x1C}});
+    	FILE_SIGNATURES.put("rar", new byte[][]{{0x52, 0x61, 0x72, 0x21, 0x1A, 0x07}});
+    	FILE_SIGNATURES.put("gz", new byte[][]{{0x1F, (byte)0x8B}});
+    	FILE_SIGNATURES.put("wav", new byte[][]{{0x52, 0x49, 0x46, 0x46}});
+    	FILE_SIGNATURES.put("amr", new byte[][]{{0x23, 0x21, 0x41, 0x4D, 0x52}});
+    }
 
     /**
      * 单个文件大小限制，0为无限制，配置文件中存放的为String类型.
@@ -87,10 +139,13 @@ public class HttpFileUpload extends ServletFileUpload
         + ",audio/wav,audio/mp3,audio/amr,video/mp4,audio/mpeg,video/quicktime"
         + ",application/zip,application/gzip,application/x-zip-compressed,application/x-7z-compressed,application/x-rar-compressed";
     
+    /** 默认允许上传的文件后缀名. */
+    static final String DEFAULT_ALLOW_FILE_EXTS = "jpg,jpeg,gif,png,bmp,xls,xlsx,doc,docx,ppt,pptx,pdf,wav,mp3,mp4,m4a,amr,mov,zip,7z,rar,tar.gz";
+    
     /**
      * 文件允许上传的后缀名
      */
-    private String allowFileExts = "jpg,jpeg,gif,png,bmp,xls,xlsx,doc,docx,ppt,pptx,pdf,wav,mp3,mp4,m4a,amr,mov,zip,7z,rar,tar.gz";
+    private String allowFileExts = DEFAULT_ALLOW_FILE_EXTS;
 
     /** 是否允许处理非文件域，默认为否. */
     private boolean allowField = false;
@@ -101,6 +156,12 @@ public class HttpFileUpload extends ServletFileUpload
     /**  最小报告长度，默认为10K. */
     private int reportLimitSize = 10240; 
     
+    /** 流式上传时是否校验文件头，默认为是. */
+    private boolean checkFileSignature = true;
+    
+    /** 流式上传时计算文件摘要的算法（如MD5、SHA-256），为空则不计算. */
+    private String checksumAlgorithm;
+    
     /** 上传根路径（绝对路径）. */
     private String homePath;
     
@@ -312,8 +373,20 @@ public class HttpFileUpload extends ServletFileUpload
             String fileSuffix = FilenameUtils.getExtension(fileName);	//后缀名
             String fileContentType = item.getContentType();
             boolean isInMemory = item.isInMemory();
-            if(Utility.isEmpty(fileName) || item.getSize()<=0)
+            if(Utility.isEmpty(fileName))	//未选择文件
+            {
+            	if(logger.isDebugEnabled())
+            		logger.debug("No file selected for field:"+fieldName);
+            	continue;
+            }
+            if(item.getSize()<=0)	//空文件
+            {
+            	addFailedFile(UploadFile.EMPTY_FILE, "[ " + fileSimpleName + " ] is empty", 
+            			fieldName, fileName, fileSuffix, fileContentType, 0);
+            	invalidFileNames.add(fileSimpleName);
+            	item.delete();
             	continue;
+            }
            
             long sizeInBytes = item.getSize();   
                   
@@ -420,6 +493,309 @@ public class HttpFileUpload extends ServletFileUpload
         }
     }
 
+    /**
+     * 流式上传.
+     * <p>
+     * 使用commons-fileupload的流式API逐个读取表单项，文件内容直接写入目标目录，不再经过FileItem的内存或临时文件，
+     * 与parseRequest+upload的方式相比每个文件只写一次磁盘。
+     * 文件先写入"目标文件名.part"，完整写完后再改名为目标文件，失败时删除.part文件。
+     * 读取到第一批数据后即校验文件头，超过fileLimitSize时立即中止写入。
+     * 结果与upload()一致，可通过getFileList、getSucceedFiles、getFailedFiles等获取。
+     * <p>
+     * 注：表单字段需位于文件域之前，否则在确定uploadPath等参数时还无法获取到这些字段。
+     *
+     * @param request 请求
+     * @throws FileUploadException
+     * @throws IOException
+     */
+    public void streamUpload(HttpServletRequest request) throws FileUploadException, IOException
+    {
+        ServletRequestContext ctx = new ServletRequestContext(request);
+        int requestSize = ctx.getContentLength();        
+        long sizeMax = getSizeMax();
+        if (sizeMax >= 0 && requestSize > sizeMax)
+        {
+            throw new SizeLimitExceededException("Total size[" + requestSize
+                    + "] is out of limit[ " + sizeMax + " ], Upload terminated", requestSize,
+                sizeMax);
+        }
+        byte[] buf = new byte[STREAM_BUFFER_SIZE];
+        FileItemIterator iterator = getItemIterator(request);
+        while (iterator.hasNext())
+        {
+            FileItemStream item = iterator.next();
+            InputStream in = item.openStream();
+            try
+            {
+                if (item.isFormField()) // 非文件域
+                {
+                    String encoding = this.getHeaderEncoding();
+                    String value = encoding == null ? Streams.asString(in) : Streams.asString(in, encoding);
+                    parameterMap.put(item.getFieldName(), value);
+                }
+                else if (Utility.isEmpty(item.getName())) // 未选择文件的文件域
+                {
+                    if (logger.isDebugEnabled())
+                        logger.debug("No file selected for field:" + item.getFieldName());
+                }
+                else // 文件域
+                {
+                    streamFile(item, in, buf);
+                }
+            }
+            finally
+            {
+                in.close();
+            }
+        }
+    }
+    
+    /**
+     * 将单个文件流写入目标目录.
+     *
+     * @param item 文件项
+     * @param in 文件内容
+     * @param buf 缓冲区
+     * @throws IOException 读取请求失败（写文件失败时记为STORE_FAILED，不抛出）
+     */
+    private void streamFile(FileItemStream item, InputStream in, byte[] buf) throws IOException
+    {
+        String fieldName = item.getFieldName();
+        String fileName = item.getName();	//这里为全路径名
+        String fileSimpleName = Utility.getSimpleFileName(fileName);	//纯文件名                      
+        String fileSuffix = FilenameUtils.getExtension(fileName);	//后缀名
+        String fileContentType = item.getContentType();
+        
+        if (!isAllowFileExt(fileSuffix)) // 不属于允许上传的文件后缀
+        {
+            addFailedFile(UploadFile.ILLEGAL_FILE_EXT, "Illegal file ext [ " + fileSuffix + " ]", 
+            		fieldName, fileName, fileSuffix, fileContentType, 0);
+            invalidFileNames.add(fileSimpleName);
+            return;
+        }
+        else if (!"application/octet-stream".equals(fileContentType) && !isAllowFileType(fileContentType)) // 不属于允许上传的文件类型
+        {
+            addFailedFile(UploadFile.ILLEGAL_MIME_TYPE, "Illegal mime type [ " + fileContentType + " ]", 
+            		fieldName, fileName, fileSuffix, fileContentType, 0);
+            invalidFileNames.add(fileSimpleName);
+            return;
+        }
+        
+        int len = fill(in, buf, SIGNATURE_LENGTH);	//先读取文件头
+        if (len <= 0)	//空文件
+        {
+            addFailedFile(UploadFile.EMPTY_FILE, "[ " + fileSimpleName + " ] is empty", 
+            		fieldName, fileName, fileSuffix, fileContentType, 0);
+            invalidFileNames.add(fileSimpleName);
+            return;
+        }
+        if (checkFileSignature && !isSignatureMatched(fileSuffix, buf, len))
+        {
+            addFailedFile(UploadFile.ILLEGAL_MIME_TYPE, "File content does not match file ext [ " + fileSuffix + " ]", 
+            		fieldName, fileName, fileSuffix, fileContentType, len);
+            invalidFileNames.add(fileSimpleName);
+            return;
+        }
+        
+        String actualFileName;
+        if(this.isAutoRename)
+        	actualFileName = FileUtils.currentToFileName() + "." + fileSuffix;	//实际保存文件名
+        else
+        	actualFileName = fileSimpleName;
+        if(logger.isDebugEnabled())
+        {
+        	logger.debug("File store path:"+uploadPath+", file name:"+actualFileName);
+        }
+        String finalPath = homePath + File.separator + uploadPath;
+        FileUtils.createDirectory(new File(finalPath));
+        File uploadedFile = new File(finalPath, actualFileName);
+        File partFile = new File(finalPath, actualFileName + PART_SUFFIX);
+        
+        MessageDigest digest = createDigest();
+        long sizeInBytes = 0;
+        String errorCode = null;
+        String errorMessage = null;
+        FileOutputStream out = null;
+        try
+        {
+            out = new FileOutputStream(partFile);
+            FileChannel channel = out.getChannel();
+            while (len != -1)
+            {
+                sizeInBytes += len;
+                if (this.fileLimitSize > 0 && sizeInBytes > this.fileLimitSize)
+                {
+                    errorCode = UploadFile.OUT_OF_SIZE_LIMIT;
+                    errorMessage = "[ " + fileSimpleName + " ] is out of size limit[ " + this.fileLimitSize + " ]";
+                    break;
+                }
+                if (digest != null)
+                    digest.update(buf, 0, len);
+                ByteBuffer buffer = ByteBuffer.wrap(buf, 0, len);
+                while (buffer.hasRemaining())
+                {
+                    channel.write(buffer);
+                }
+                len = in.read(buf);
+            }
+        }
+        catch (FileUploadIOException e)	//超出setFileSizeMax的限制
+        {
+            errorCode = UploadFile.OUT_OF_SIZE_LIMIT;
+            errorMessage = e.getCause().getMessage();
+        }
+        catch (IOException e)	//写文件失败（如磁盘已满）或读取请求中断
+        {
+            logger.error("Store file failed.", e);
+            errorCode = UploadFile.STORE_FAILED;
+            errorMessage = e.getMessage();
+        }
+        finally
+        {
+            if (out != null)
+            {
+                try
+                {
+                    out.close();
+                }
+                catch (IOException e)	//未写出的数据丢失
+                {
+                    logger.error("Store file failed.", e);
+                    if (errorCode == null)
+                    {
+                        errorCode = UploadFile.STORE_FAILED;
+                        errorMessage = e.getMessage();
+                    }
+                }
+            }
+            if (errorCode != null)
+                partFile.delete();
+        }
+        if (errorCode != null)
+        {
+            addFailedFile(errorCode, errorMessage, fieldName, fileName, fileSuffix, fileContentType, sizeInBytes);
+            if (UploadFile.STORE_FAILED.equals(errorCode))
+                failedFileNames.add(fileSimpleName);
+            else
+                invalidFileNames.add(fileSimpleName);
+            return;
+        }
+        
+        UploadFile uploadFile = new UploadFile();
+        uploadFile.setFieldName(fieldName);
+        uploadFile.setSrcFileName(fileSimpleName);	//原文件名
+        uploadFile.setFileSuffix(fileSuffix);		//文件后缀名
+        uploadFile.setFileName(actualFileName);		//现文件名					
+        uploadFile.setFilePath(finalPath);			//绝对路径
+        uploadFile.setMimeType(fileContentType);
+        uploadFile.setFileSize(sizeInBytes);
+        if (digest != null)
+            uploadFile.setChecksum(toHexString(digest.digest()));
+        
+        if (uploadedFile.exists())
+            uploadedFile.delete();
+        if (partFile.renameTo(uploadedFile))
+        {
+            succeedFiles.add(uploadFile);
+            fileList.add(uploadFile);
+        }
+        else
+        {
+            logger.error("Store file failed, can not rename " + partFile + " to " + uploadedFile);
+            partFile.delete();
+            uploadFile.setErrorCode(UploadFile.STORE_FAILED);
+            uploadFile.setErrorMessage("Can not rename " + partFile.getName() + " to " + actualFileName);
+            failedFiles.add(uploadFile);
+            fileList.add(uploadFile);
+            failedFileNames.add(fileSimpleName);
+        }
+    }
+    
+    /**
+     * 记录上传失败的文件.
+     */
+    private void addFailedFile(String errorCode, String errorMessage, String fieldName, String fileName, 
+    		String fileSuffix, String fileContentType, long sizeInBytes)
+    {
+        UploadFile failedFile = new UploadFile();
+        failedFile.setErrorCode(errorCode);
+        failedFile.setFieldName(fieldName);
+        failedFile.setSrcFileName(fileName);
+        failedFile.setFileName(Utility.getSimpleFileName(fileName));
+        failedFile.setFileSuffix(fileSuffix);
+        failedFile.setFileSize(sizeInBytes);
+        failedFile.setMimeType(fileContentType);
+        failedFile.setErrorMessage(errorMessage);
+        failedFiles.add(failedFile);
+        fileList.add(failedFile);
+    }
+    
+    /**
+     * 读取数据直到至少min个字节或流结束.
+     *
+     * @return 读取的字节数，流已结束且未读到数据时为-1
+     */
+    private static int fill(InputStream in, byte[] buf, int min) throws IOException
+    {
+        int len = 0;
+        while (len < min)
+        {
+            int n = in.read(buf, len, buf.length - len);
+            if (n == -1)
+                break;
+            len += n;
+        }
+        return len == 0 ? -1 : len;
+    }
+    
+    /**
+     * 文件头是否与后缀名相符，未登记的后缀名不校验.
+     */
+    static boolean isSignatureMatched(String fileSuffix, byte[] head, int len)
+    {
+        if (Utility.isEmpty(fileSuffix))
+            return true;
+        byte[][] signatures = FILE_SIGNATURES.get(fileSuffix.toLowerCase());
+        if (signatures == null)
+            return true;
+        for (byte[] signature : signatures)
+        {
+            if (len < signature.length)
+                continue;
+            int i = 0;
+            while (i < signature.length && head[i] == signature[i])
+                i++;
+            if (i == signature.length)
+                return true;
+        }
+        return false;
+    }
+    
+    private MessageDigest createDigest()
+    {
+        if (Utility.isEmpty(checksumAlgorithm))
+            return null;
+        try
+        {
+            return MessageDigest.getInstance(checksumAlgorithm);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            throw new IllegalArgumentException("Unsupported checksum algorithm: " + checksumAlgorithm, e);
+        }
+    }
+    
+    static String toHexString(byte[] bytes)
+    {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes)
+        {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16));
+            sb.append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
 	/**
 	 * @param item
 	 * @return
@@ -568,4 +944,36 @@ public class HttpFileUpload extends ServletFileUpload
 		this.allowFileExts = allowFileExts;
 	}
 
+	/**
+	 * @return the checkFileSignature
+	 */
+	public boolean isCheckFileSignature() {
+		return checkFileSignature;
+	}
+
+	/**
+	 * 设置流式上传时是否根据文件头校验文件内容，默认为是.
+	 * 
+	 * @param checkFileSignature the checkFileSignature to set
+	 */
+	public void setCheckFileSignature(boolean checkFileSignature) {
+		this.checkFileSignature = checkFileSignature;
+	}
+
+	/**
+	 * @return the checksumAlgorithm
+	 */
+	public String getChecksumAlgorithm() {
+		return checksumAlgorithm;
+	}
+
+	/**
+	 * 设置流式上传时计算文件摘要的算法（MessageDigest算法名，如MD5、SHA-256），结果保存于UploadFile.checksum.
+	 * 
+	 * @param checksumAlgorithm the checksumAlgorithm to set
+	 */
+	public void setChecksumAlgorithm(String checksumAlgorithm) {
+		this.checksumAlgorithm = checksumAlgorithm;
+	}
+
 }
@@ -15,6 +15,7 @@ import com.littcore.uid.UUID;
  * 
  * <pre><b>修改记录：</b>
  *    2011-07-03 增加fieldName用来区分上传文件的表单项
+ *    2026-10-17 增加checksum用于记录流式上传时计算的文件摘要，增加EMPTY_FILE错误码
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -32,6 +33,8 @@ public class UploadFile
 	
 	public static final String STORE_FAILED = "STORE_FAILED";		//保存文件失败
 	
+	public static final String EMPTY_FILE = "EMPTY_FILE";		//空文件
+	
 	private String uid;
 	
 	private String fieldName;
@@ -56,6 +59,9 @@ public class UploadFile
 	 */
 	private long fileSize;
 	
+	/** 文件摘要（十六进制），未计算时为null. */
+	private String checksum;
+	
 	/** 错误编号. */	
 	private String errorCode;
 	
@@ -222,6 +228,20 @@ public class UploadFile
 		this.errorMessage = errorMessage;
 	}
 
+	/**
+	 * @return the checksum
+	 */
+	public String getChecksum() {
+		return checksum;
+	}
+
+	/**
+	 * @param checksum the checksum to set
+	 */
+	public void setChecksum(String checksum) {
+		this.checksum = checksum;
+	}
+
 	/**
 	 * @return the uid
 	 */
@@ -8,12 +8,16 @@ import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.disk.DiskFileItemFactory;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.littcore.common.Utility;
+import com.littcore.io.fileupload.ChunkedFileUpload;
+import com.littcore.io.fileupload.ChunkedUploadSession;
 import com.littcore.io.fileupload.HttpFileUpload;
+import com.littcore.io.fileupload.UploadFile;
 import com.littcore.io.fileupload.UploadListener;
 
 
@@ -23,10 +27,29 @@ import com.littcore.io.fileupload.UploadListener;
  * 
  * <pre><b>描述：</b>
  * 使用apache.commons.fileupload包。采用AJAX方式获取上传进度显示
+ * 
+ * 分块断点续传（请求参数action，返回text/plain）：
+ * 	init：参数fileName、fileSize、chunkSize（可选），返回uploadId
+ * 	chunk：参数uploadId、index、offset（可选）、checksum（可选，分块MD5），请求体为分块数据，可并发上传
+ * 	status：参数uploadId，返回尚未接收的分块序号（逗号分隔），用于断点续传
+ * 	complete：参数uploadId，返回保存的文件名
+ * 	abort：参数uploadId
+ * 	会话不存在时返回404，参数或校验错误时返回400，客户端可重传该分块
+ * 
+ * 初始化参数（大小可使用K、M后缀）：
+ * 	sizeMax：请求大小限制，默认100M
+ * 	fileSizeMax：单个文件大小限制，默认10M，分块上传时按声明的文件大小校验
+ * 	allowFileExts：允许上传的文件后缀名（逗号分隔），为空时使用HttpFileUpload的默认值，分块上传同样校验
+ * 	allowFileTypes：额外允许上传的文件类型，默认text/plain,application/x-zip-compressed
+ * 	maxChunkedSessions：最多同时进行的分块上传数，默认100
+ * 	maxReservedSize：分块上传预分配的文件总大小限制，默认1024M
+ * 	purgeInterval：清理超时的分块上传的间隔（毫秒），默认10分钟
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- * 
+ *    2026-10-17 增加初始化参数streaming，为true时使用流式上传，文件直接写入上传目录不经过TEMP临时目录
+ *    2026-10-17 增加分块断点续传，初始化参数chunkSize可设置默认分块大小
+ *    2026-10-17 大小及文件后缀限制改为初始化参数，分块上传使用相同的限制，并限制会话数及预分配总大小，定时清理超时的会话
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -48,6 +71,27 @@ public class UploadServlet extends HttpServlet
     /** 是否启动上传进度监听器. */
     private boolean isEnableProgressListener = true;
     
+    /** 是否使用流式上传. */
+    private boolean isStreaming = false;
+    
+    /** 默认分块大小. */
+    private int chunkSize = ChunkedFileUpload.DEFAULT_CHUNK_SIZE;
+    
+    /** 请求大小限制. */
+    private long sizeMax = 100 * 1024 * 1024;
+    
+    /** 单个文件大小限制. */
+    private long fileSizeMax = 10 * 1024 * 1024;
+    
+    /** 允许上传的文件后缀名，为空时使用默认值. */
+    private String allowFileExts;
+    
+    /** 额外允许上传的文件类型. */
+    private String allowFileTypes = "text/plain,application/x-zip-compressed";
+    
+    /** 分块上传. */
+    private ChunkedFileUpload chunkedUpload;
+    
 
 	/* (non-Javadoc)
 	 * @see javax.servlet.GenericServlet#init()
@@ -61,6 +105,54 @@ public class UploadServlet extends HttpServlet
 		uploadPath = super.getInitParameter("uploadPath");		
 		if(Utility.isEmpty(uploadPath))
 			throw new ServletException("上传相对路径不能为空！");
+		isStreaming = "true".equalsIgnoreCase(super.getInitParameter("streaming"));
+		String chunkSizeParam = super.getInitParameter("chunkSize");
+		if(!Utility.isEmpty(chunkSizeParam))
+			chunkSize = (int)HttpFileUpload.getByteSize(chunkSizeParam);
+		String param = super.getInitParameter("sizeMax");
+		if(!Utility.isEmpty(param))
+			sizeMax = HttpFileUpload.getByteSize(param);
+		param = super.getInitParameter("fileSizeMax");
+		if(!Utility.isEmpty(param))
+			fileSizeMax = HttpFileUpload.getByteSize(param);
+		param = super.getInitParameter("allowFileExts");
+		if(!Utility.isEmpty(param))
+			allowFileExts = param;
+		param = super.getInitParameter("allowFileTypes");
+		if(param != null)
+			allowFileTypes = param;
+		
+		chunkedUpload = new ChunkedFileUpload(homePath, uploadPath);
+		chunkedUpload.setFileLimitSize(fileSizeMax);	//与表单上传使用相同的限制，创建会话预分配文件前校验
+		if(allowFileExts != null)
+			chunkedUpload.setAllowFileExts(allowFileExts);
+		param = super.getInitParameter("maxChunkedSessions");
+		chunkedUpload.setMaxSessions(Utility.isEmpty(param) ? 100 : Integer.parseInt(param));
+		param = super.getInitParameter("maxReservedSize");
+		chunkedUpload.setMaxReservedSize(HttpFileUpload.getByteSize(Utility.isEmpty(param) ? "1024M" : param));
+		param = super.getInitParameter("purgeInterval");
+		chunkedUpload.startPurge(Utility.isEmpty(param) ? 10 * 60 * 1000L : Long.parseLong(param));
+	}
+	
+	/* (non-Javadoc)
+	 * @see javax.servlet.GenericServlet#destroy()
+	 */
+	public void destroy()
+	{
+		if(chunkedUpload != null)
+			chunkedUpload.shutdown();
+		super.destroy();
+	}
+	
+	/* (non-Javadoc)
+	 * @see javax.servlet.http.HttpServlet#doGet(javax.servlet.http.HttpServletRequest, javax.servlet.http.HttpServletResponse)
+	 */
+	protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException
+	{
+		if("status".equals(request.getParameter("action")))
+			doChunked(request, response);
+		else
+			super.doGet(request, response);
 	}
 
 	/* (non-Javadoc)
@@ -68,6 +160,11 @@ public class UploadServlet extends HttpServlet
 	 */
 	protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException
 	{		
+		if(request.getParameter("action") != null)	//分块上传
+		{
+			doChunked(request, response);
+			return;
+		}
 		super.doPost(request, response);
 		//处理文件上传		
 		boolean isMultipart = HttpFileUpload.isMultipartContent(request);	//是否为文件上传
@@ -81,25 +178,38 @@ public class UploadServlet extends HttpServlet
 			}
 			String characterEncoding = request.getCharacterEncoding(); 	//编码
 			
-			DiskFileItemFactory factory = new DiskFileItemFactory();
-			factory.setSizeThreshold(4096);	//内存使用4K
-			File repository = new File(this.homePath + File.separator + uploadPath+File.separator+ "TEMP");
-			if(!repository.exists())
-				repository.mkdirs();
-			factory.setRepository(repository);	//上传临时路径，超出缓存的部分将存储到此处
-
-			HttpFileUpload fileUpload = new HttpFileUpload(this.homePath, this.uploadPath, factory);
-			fileUpload.addAllowFileTypes("text/plain,application/x-zip-compressed"); //添加允许上传类型
+			HttpFileUpload fileUpload;
+			if(isStreaming)
+			{
+				fileUpload = new HttpFileUpload(this.homePath, this.uploadPath);	//流式上传不需要临时目录
+			}
+			else
+			{
+				DiskFileItemFactory factory = new DiskFileItemFactory();
+				factory.setSizeThreshold(4096);	//内存使用4K
+				File repository = new File(this.homePath + File.separator + uploadPath+File.separator+ "TEMP");
+				if(!repository.exists())
+					repository.mkdirs();
+				factory.setRepository(repository);	//上传临时路径，超出缓存的部分将存储到此处
+				fileUpload = new HttpFileUpload(this.homePath, this.uploadPath, factory);
+			}
+			if(!Utility.isEmpty(allowFileTypes))
+				fileUpload.addAllowFileTypes(allowFileTypes); //添加允许上传类型
+			if(allowFileExts != null)
+				fileUpload.setAllowFileExts(allowFileExts);
 			fileUpload.setAllowField(true); //允许表单字段
 			fileUpload.setHeaderEncoding(characterEncoding); //设置头编码
-			fileUpload.setSizeMax(100 * 1024 * 1024); //设置最大上传尺寸100M
-			fileUpload.setFileSizeMax(10 * 1024 * 1024);	//设置单个文件上传尺寸10M
+			fileUpload.setSizeMax(sizeMax); //设置最大上传尺寸，默认100M
+			fileUpload.setFileSizeMax(fileSizeMax);	//设置单个文件上传尺寸，默认10M
 			
 			
 			fileUpload.setProgressListener(new UploadListener(request));	//设置进度监听器，用于AJAX进度提示
 			try
 			{
-				fileUpload.parseRequest(request);
+				if(isStreaming)
+					fileUpload.streamUpload(request);
+				else
+					fileUpload.parseRequest(request);
 			}
 			catch (Exception e)
 			{
@@ -113,6 +223,80 @@ public class UploadServlet extends HttpServlet
 		
 	}
 
+	/**
+	 * 处理分块上传请求.
+	 */
+	private void doChunked(HttpServletRequest request, HttpServletResponse response) throws IOException
+	{
+		String action = request.getParameter("action");
+		String uploadId = request.getParameter("uploadId");
+		String result;
+		try
+		{
+			if("init".equals(action))
+			{
+				String size = request.getParameter("chunkSize");
+				ChunkedUploadSession session = chunkedUpload.createSession(request.getParameter("fileName"), 
+						Long.parseLong(request.getParameter("fileSize")), Utility.isEmpty(size) ? chunkSize : Integer.parseInt(size));
+				if(isEnableProgressListener)
+					session.setProgressListener(new UploadListener(request));	//设置进度监听器，用于AJAX进度提示
+				result = session.getUploadId();
+			}
+			else if(chunkedUpload.getSession(uploadId) == null)
+			{
+				response.sendError(HttpServletResponse.SC_NOT_FOUND, "Upload [ " + uploadId + " ] does not exist or has expired");
+				return;
+			}
+			else if("chunk".equals(action))
+			{
+				String offset = request.getParameter("offset");
+				boolean written = chunkedUpload.uploadChunk(uploadId, Integer.parseInt(request.getParameter("index")), 
+						Utility.isEmpty(offset) ? -1 : Long.parseLong(offset), request.getInputStream(), request.getParameter("checksum"));
+				result = written ? "OK" : "SKIPPED";
+			}
+			else if("status".equals(action))
+			{
+				int[] missingChunks = chunkedUpload.getSession(uploadId).getMissingChunks();
+				StringBuilder sb = new StringBuilder();
+				for(int i=0;i<missingChunks.length;i++)
+				{
+					if(i > 0)
+						sb.append(',');
+					sb.append(missingChunks[i]);
+				}
+				result = sb.toString();
+			}
+			else if("complete".equals(action))
+			{
+				UploadFile uploadFile = chunkedUpload.complete(uploadId);
+				result = uploadFile.getFileName();
+			}
+			else if("abort".equals(action))
+			{
+				chunkedUpload.abort(uploadId);
+				result = "OK";
+			}
+			else
+			{
+				response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Unknown action [ " + action + " ]");
+				return;
+			}
+		}
+		catch (FileUploadException e)
+		{
+			logger.warn("分块上传失败！" + e.getMessage());
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+			return;
+		}
+		catch (NumberFormatException e)
+		{
+			response.sendError(HttpServletResponse.SC_BAD_REQUEST, "Illegal parameter: " + e.getMessage());
+			return;
+		}
+		response.setContentType("text/plain;charset=UTF-8");
+		response.getWriter().write(result);
+	}
+
 	/**
 	 * @return the isEnableProgressListener
 	 */
@@ -153,5 +337,13 @@ public class UploadServlet extends HttpServlet
 		return homePath;
 	}
 
+	/**
+	 * @return the chunkedUpload
+	 */
+	public ChunkedFileUpload getChunkedUpload()
+	{
+		return chunkedUpload;
+	}
+
 
 }
@@ -0,0 +1,480 @@
+package com.littcore.io.util;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.ZipException;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import com.littcore.io.file.filter.IOFileFilter;
+import com.littcore.io.zip.MappedZipFile;
+import com.littcore.io.zip.ZipEntry;
+
+/**
+ * ZIP文件并行解压缩.
+ *
+ * <pre><b>描述：</b>
+ * 使用MappedZipFile按位置读取（多线程同时读取不需要同步；不映射到内存，解压后可立即删除原文件），解压缩过程：
+ * 1、读取中心目录，按包含/排除过滤器（com.littcore.io.file.filter）筛选条目，过滤器按解压后的目标文件判断，
+ *    因此只有按名称判断的过滤器（NameFileFilter、PrefixFileFilter、SuffixFileFilter等）有意义；
+ * 2、检查条目数、总大小及压缩率（防止ZIP炸弹），以及条目路径是否超出目标目录（防止../覆盖其它文件）；
+ * 3、预先创建所有目录，再将文件条目分配到线程池中解压，STORED条目通过FileChannel直接复制（transferTo），
+ *    DEFLATED条目使用64KB的缓冲区解压；
+ * 4、解压时按实际写入的字节数再次检查：超过中心目录中记录的大小或总大小超过限制时中止，已写入的部分文件被删除。
+ * 进度可通过getProgress读取或设置Listener（在解压线程中调用，需线程安全）。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ZipExtractor
+{
+
+	/** The Constant logger. */
+	private static final Log logger = LogFactory.getLog(ZipExtractor.class);
+
+	/** 解压缩缓冲区大小. */
+	private static final int BUFFER_SIZE = 64 * 1024;
+
+	/** 小于该大小的条目不检查压缩率. */
+	private static final long RATIO_THRESHOLD = 1024 * 1024;
+
+	private final File srcZipFile;
+
+	private final File targetPath;
+
+	/** 文件名编码，NULL时使用平台默认编码. */
+	private String encoding = null;
+
+	/** 线程数，使用外部线程池时无效. */
+	private int threads = Runtime.getRuntime().availableProcessors();
+
+	private ExecutorService executor;
+
+	/** 包含过滤器，NULL时包含所有条目. */
+	private IOFileFilter includeFilter;
+
+	/** 排除过滤器. */
+	private IOFileFilter excludeFilter;
+
+	/** 最多条目数. */
+	private int maxEntries = 1000000;
+
+	/** 解压后的最大总字节数. */
+	private long maxTotalSize = 10L * 1024 * 1024 * 1024;
+
+	/** 最大压缩率（解压后大小/压缩后大小）. */
+	private int maxRatio = 100;
+
+	private Listener listener;
+
+	private final Progress progress = new Progress();
+
+	/**
+	 * Instantiates a new zip extractor.
+	 *
+	 * @param srcZipFile 原ZIP文件
+	 * @param targetPath 目标文件夹
+	 */
+	public ZipExtractor(File srcZipFile, File targetPath)
+	{
+		this.srcZipFile = srcZipFile;
+		this.targetPath = targetPath;
+	}
+
+	/**
+	 * 解压缩.
+	 *
+	 * @return 解压缩进度（完成后的统计）
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public Progress extract() throws IOException
+	{
+		progress.startTime = System.currentTimeMillis();
+		File root = targetPath.getCanonicalFile();
+		MappedZipFile zipFile = new MappedZipFile(srcZipFile, encoding, false);
+		ExecutorService pool = executor!=null ? executor : Executors.newFixedThreadPool(threads);
+		try
+		{
+			List<ZipEntry> files = new ArrayList<ZipEntry>();
+			List<File> targets = new ArrayList<File>();
+			TreeSet<File> directories = new TreeSet<File>();
+			directories.add(root);
+			long totalSize = 0;
+			for(ZipEntry entry : zipFile.getEntryList())
+			{
+				File target = resolve(root, entry.getName());
+				if(!accept(target))
+					continue;
+				if(entry.isDirectory())
+				{
+					directories.add(target);
+					continue;
+				}
+				if(files.size()>=maxEntries)
+					throw new ZipException("Too many entries in "+srcZipFile+", the limit is "+maxEntries);
+				long size = zipFile.getSize(entry);
+				long compressedSize = zipFile.getCompressedSize(entry);
+				checkRatio(entry, size, compressedSize);
+				totalSize += size;
+				if(totalSize>maxTotalSize)
+					throw new ZipException("Uncompressed size of "+srcZipFile+" exceeds the limit of "+maxTotalSize+" bytes");
+				files.add(entry);
+				targets.add(target);
+				directories.add(target.getParentFile());
+			}
+			progress.totalEntries = files.size();
+			progress.totalBytes = totalSize;
+
+			//预先创建目录，避免解压线程同时创建
+			for(File directory : directories)
+			{
+				if(!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory())
+					throw new IOException("Failed to create directory "+directory);
+			}
+
+			List<Future<Long>> results = new ArrayList<Future<Long>>(files.size());
+			for(int i=0;i<files.size();i++)
+			{
+				results.add(pool.submit(new ExtractTask(zipFile, files.get(i), targets.get(i))));
+			}
+			try
+			{
+				for(Future<Long> result : results)
+				{
+					result.get();
+				}
+			}
+			catch(InterruptedException e)
+			{
+				Thread.currentThread().interrupt();
+				throw new IOException("Interrupted while extracting "+srcZipFile, e);
+			}
+			catch(ExecutionException e)
+			{
+				Throwable cause = e.getCause();
+				if(cause instanceof IOException)
+					throw (IOException)cause;
+				throw new IOException("Failed to extract "+srcZipFile, cause);
+			}
+			finally
+			{
+				for(Future<Long> result : results)
+				{
+					result.cancel(false);
+				}
+			}
+		}
+		finally
+		{
+			if(executor==null)
+				pool.shutdownNow();
+			zipFile.close();
+			progress.endTime = System.currentTimeMillis();
+		}
+		if(logger.isDebugEnabled())
+		{
+			logger.debug("解压缩完成："+srcZipFile+", "+progress);
+		}
+		return progress;
+	}
+
+	/**
+	 * 条目对应的目标文件，不能超出目标目录.
+	 */
+	private File resolve(File root, String name) throws IOException
+	{
+		File target = new File(root, name).getCanonicalFile();
+		String rootPath = root.getPath();
+		String path = target.getPath();
+		if(!path.equals(rootPath) && !path.startsWith(rootPath.endsWith(File.separator) ? rootPath : rootPath+File.separator))
+			throw new ZipException("Entry "+name+" is outside of the target directory");
+		return target;
+	}
+
+	private boolean accept(File target)
+	{
+		if(includeFilter!=null && !includeFilter.accept(target))
+			return false;
+		return excludeFilter==null || !excludeFilter.accept(target);
+	}
+
+	private void checkRatio(ZipEntry entry, long size, long compressedSize) throws ZipException
+	{
+		if(size>RATIO_THRESHOLD && size>compressedSize*maxRatio)
+			throw new ZipException("Compression ratio of entry "+entry.getName()+" exceeds the limit of "+maxRatio+" ("+size+"/"+compressedSize+")");
+	}
+
+	/**
+	 * 解压单个条目.
+	 */
+	private class ExtractTask implements Callable<Long> {
+
+		private final MappedZipFile zipFile;
+
+		private final ZipEntry entry;
+
+		private final File target;
+
+		ExtractTask(MappedZipFile zipFile, ZipEntry entry, File target)
+		{
+			this.zipFile = zipFile;
+			this.entry = entry;
+			this.target = target;
+		}
+
+		public Long call() throws IOException
+		{
+			long size = zipFile.getSize(entry);
+			long written = 0;
+			boolean success = false;
+			FileOutputStream out = new FileOutputStream(target);
+			try
+			{
+				if(entry.getMethod()==ZipEntry.STORED)
+				{
+					written = zipFile.transferTo(entry, out.getChannel());
+					addBytes(written);
+				}
+				else
+				{
+					InputStream in = zipFile.getInputStream(entry);
+					try
+					{
+						byte[] buf = new byte[BUFFER_SIZE];
+						int len;
+						while((len = in.read(buf))!=-1)
+						{
+							written += len;
+							//中心目录中的大小可能是伪造的
+							if(written>size)
+								throw new ZipException("Entry "+entry.getName()+" is larger than its declared size "+size);
+							out.write(buf, 0, len);
+							addBytes(len);
+						}
+					}
+					finally
+					{
+						in.close();
+					}
+				}
+				success = true;
+			}
+			finally
+			{
+				out.close();
+				if(!success)
+					target.delete();
+			}
+			if(entry.getTime()!=-1)
+				target.setLastModified(entry.getTime());
+			progress.entries.incrementAndGet();
+			if(listener!=null)
+				listener.update(progress);
+			return Long.valueOf(written);
+		}
+
+		private void addBytes(long len) throws ZipException
+		{
+			if(progress.bytes.addAndGet(len)>maxTotalSize)
+				throw new ZipException("Uncompressed size of "+srcZipFile+" exceeds the limit of "+maxTotalSize+" bytes");
+		}
+	}
+
+	/**
+	 * 解压缩进度监听器.
+	 */
+	public interface Listener {
+
+		/**
+		 * 每解压完成一个条目时调用（在解压线程中）.
+		 *
+		 * @param progress 进度
+		 */
+		void update(Progress progress);
+	}
+
+	/**
+	 * 解压缩进度.
+	 */
+	public static class Progress {
+
+		private volatile int totalEntries;
+
+		private volatile long totalBytes;
+
+		private final AtomicLong entries = new AtomicLong();
+
+		private final AtomicLong bytes = new AtomicLong();
+
+		private volatile long startTime;
+
+		private volatile long endTime;
+
+		/**
+		 * @return 需要解压的文件数
+		 */
+		public int getTotalEntries()
+		{
+			return totalEntries;
+		}
+
+		/**
+		 * @return 需要解压的总字节数（中心目录中记录的大小）
+		 */
+		public long getTotalBytes()
+		{
+			return totalBytes;
+		}
+
+		/**
+		 * @return 已解压的文件数
+		 */
+		public long getEntries()
+		{
+			return entries.get();
+		}
+
+		/**
+		 * @return 已写入的字节数
+		 */
+		public long getBytes()
+		{
+			return bytes.get();
+		}
+
+		/**
+		 * @return 已花费时间（毫秒）
+		 */
+		public long getElapsedTime()
+		{
+			return (endTime>0 ? endTime : System.currentTimeMillis()) - startTime;
+		}
+
+		/**
+		 * @return 是否完成
+		 */
+		public boolean isDone()
+		{
+			return endTime>0;
+		}
+
+		/**
+		 * @return 吞吐量（字节/秒）
+		 */
+		public double getThroughput()
+		{
+			long elapsed = getElapsedTime();
+			return elapsed<=0 ? 0 : getBytes()*1000D/elapsed;
+		}
+
+		@Override
+		public String toString()
+		{
+			return getEntries()+"/"+totalEntries+" files, "+FileUtils.humanReadableByteCount(getBytes())+" in "+getElapsedTime()+"ms ("
+				+FileUtils.humanReadableByteCount((long)getThroughput())+"/s)";
+		}
+	}
+
+	/**
+	 * @return 解压缩进度
+	 */
+	public Progress getProgress()
+	{
+		return progress;
+	}
+
+	/**
+	 * @param encoding the encoding to set
+	 */
+	public void setEncoding(String encoding)
+	{
+		this.encoding = encoding;
+	}
+
+	/**
+	 * @param threads the threads to set
+	 */
+	public void setThreads(int threads)
+	{
+		if(threads<1)
+			throw new IllegalArgumentException("threads must be positive: "+threads);
+		this.threads = threads;
+	}
+
+	/**
+	 * 使用外部线程池，解压完成后不关闭.
+	 *
+	 * @param executor the executor to set
+	 */
+	public void setExecutor(ExecutorService executor)
+	{
+		this.executor = executor;
+	}
+
+	/**
+	 * @param includeFilter the includeFilter to set
+	 */
+	public void setIncludeFilter(IOFileFilter includeFilter)
+	{
+		this.includeFilter = includeFilter;
+	}
+
+	/**
+	 * @param excludeFilter the excludeFilter to set
+	 */
+	public void setExcludeFilter(IOFileFilter excludeFilter)
+	{
+		this.excludeFilter = excludeFilter;
+	}
+
+	/**
+	 * @param maxEntries the maxEntries to set
+	 */
+	public void setMaxEntries(int maxEntries)
+	{
+		this.maxEntries = maxEntries;
+	}
+
+	/**
+	 * @param maxTotalSize the maxTotalSize to set
+	 */
+	public void setMaxTotalSize(long maxTotalSize)
+	{
+		this.maxTotalSize = maxTotalSize;
+	}
+
+	/**
+	 * @param maxRatio the maxRatio to set
+	 */
+	public void setMaxRatio(int maxRatio)
+	{
+		this.maxRatio = maxRatio;
+	}
+
+	/**
+	 * @param listener the listener to set
+	 */
+	public void setListener(Listener listener)
+	{
+		this.listener = listener;
+	}
+
+}
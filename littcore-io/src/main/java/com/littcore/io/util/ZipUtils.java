@@ -15,6 +15,7 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.littcore.io.zip.ZipEntry;
+import com.littcore.io.zip.ParallelZipOutputStream;
 import com.littcore.io.zip.ZipFile;
 import com.littcore.io.zip.ZipOutputStream;
 
@@ -29,11 +30,13 @@ import com.littcore.io.zip.ZipOutputStream;
  * 
  * <pre><b>修改记录：</b>
  * 2013-01-16 修正文件夹压缩时多出了一个空文件
+ * 2026-10-17 增加多线程并行压缩（parallelZip）
+ * 2026-10-17 增加多线程并行解压缩（parallelUnzip）
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
- * @since 2008-12-4, 2013-01-16
- * @version 1.0, 1.1
+ * @since 2008-12-4, 2013-01-16, 2026-10-17
+ * @version 1.0, 1.1, 1.2
  */
 public class ZipUtils
 {
@@ -44,6 +47,9 @@ public class ZipUtils
 	/** The Constant BUFFERED_SIZE. */
 	public static final int BUFFERED_SIZE = 1024;
 	
+	/** 并行压缩时读取文件的缓冲区大小. */
+	public static final int PARALLEL_BUFFERED_SIZE = 64 * 1024;
+	
 	/**
 	 * 压缩文件或目录.
 	 * 
@@ -76,10 +82,46 @@ public class ZipUtils
         //声明输出zip流
         ZipOutputStream out = new ZipOutputStream(new BufferedOutputStream(cs));
         out.setEncoding("GBK");
-		zip(out, srcFileOrPath, "");	
+		zip(out, srcFileOrPath, "", BUFFERED_SIZE);	
 		out.close();
 	}
 	
+	/**
+	 * 多线程并行压缩文件或目录，线程数为可用处理器数量.
+	 *
+	 * @param srcFileOrPath 需要压缩的文件或路径
+	 * @param targetFileNamePath 目标文件绝对路径
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void parallelZip(String srcFileOrPath, String targetFileNamePath) throws IOException
+	{
+		parallelZip(new File(srcFileOrPath), new File(targetFileNamePath), Runtime.getRuntime().availableProcessors());
+	}
+	
+	/**
+	 * 多线程并行压缩文件或目录.
+	 * 各文件按块在线程池中压缩后按顺序写出，生成的文件与zip方法相同，超过4GB时使用ZIP64格式
+	 *
+	 * @param srcFileOrPath 需要压缩的文件或路径
+	 * @param targetFileNamePath 目标文件
+	 * @param threads 压缩线程数
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @see ParallelZipOutputStream
+	 */
+	public static void parallelZip(File srcFileOrPath, File targetFileNamePath, int threads) throws IOException
+	{
+		ParallelZipOutputStream out = new ParallelZipOutputStream(new FileOutputStream(targetFileNamePath), threads);
+		try
+		{
+			out.setEncoding("GBK");
+			zip(out, srcFileOrPath, "", PARALLEL_BUFFERED_SIZE);
+		}
+		finally
+		{
+			out.close();
+		}
+	}
+	
 	
 	/**
 	 * 递归方式压缩.
@@ -87,10 +129,11 @@ public class ZipUtils
 	 * @param out ZIP输出流
 	 * @param srcFile 需要被压缩的文件
 	 * @param basePath 基础路径
+	 * @param bufferSize 读取文件的缓冲区大小
 	 * 
 	 * @throws IOException Signals that an I/O exception has occurred.
 	 */
-	private static void zip(ZipOutputStream out, File srcFile, String basePath) throws IOException
+	private static void zip(ZipOutputStream out, File srcFile, String basePath, int bufferSize) throws IOException
 	{
 		if(srcFile.isDirectory()) 
 		{
@@ -106,7 +149,7 @@ public class ZipUtils
 				basePath += srcFile.getName() + "/";  
 				for (int i = 0; i < files.length; i++) 
 				{
-					zip(out, files[i], basePath);
+					zip(out, files[i], basePath, bufferSize);
 				}
 			}
 			
@@ -116,7 +159,7 @@ public class ZipUtils
 			out.putNextEntry(new ZipEntry(basePath + srcFile.getName()));
 			FileInputStream in = new FileInputStream(srcFile);
 			int len;	
-			byte[] buf = new byte[BUFFERED_SIZE];
+			byte[] buf = new byte[bufferSize];
 			while ( (len = in.read(buf)) >0) 
 			{
 				out.write(buf,0,len);
@@ -154,7 +197,7 @@ public class ZipUtils
 				in.close();
 			}
 			else {
-				zip(out, srcFile, "");
+				zip(out, srcFile, "", BUFFERED_SIZE);
 			}
         }
 		out.close();
@@ -221,6 +264,31 @@ public class ZipUtils
 	}
 	
 	
+	/**
+	 * 多线程并行解压缩ZIP文件.
+	 * 使用ZipExtractor的默认限制（条目数、总大小及压缩率），需要过滤或调整限制时直接使用ZipExtractor
+	 *
+	 * @param srcZipFile 原ZIP文件
+	 * @param targetFilePath 目标文件夹
+	 * @param isDelSrcFile 是否解压缩成功后删除原压缩文件
+	 * @return 解压缩的统计信息
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 * @see ZipExtractor
+	 */
+	public static ZipExtractor.Progress parallelUnzip(File srcZipFile, File targetFilePath, boolean isDelSrcFile) throws IOException
+	{
+		ZipExtractor extractor = new ZipExtractor(srcZipFile, targetFilePath);
+		ZipExtractor.Progress progress = extractor.extract();
+		if(isDelSrcFile && srcZipFile.delete())
+		{
+			if(logger.isDebugEnabled())
+			{
+				logger.debug("原文件被删除了");
+			}
+		}
+		return progress;
+	}
+	
 	/**
 	 * 解压缩ZIP文件.
 	 * 解压缩时并不会将目录作为一个ZipEntry，所以需要根据文件路径判断是否要创建文件夹
@@ -0,0 +1,694 @@
+package com.littcore.io.zip;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * 基于FileChannel/MappedByteBuffer的ZIP文件读取.
+ *
+ * <pre><b>描述：</b>
+ * 与ZipFile用法相同，打开时一次性读取中心目录建立索引（支持ZIP64），之后不再修改，可由多个线程同时读取：
+ * 1、不超过2GB的文件默认映射到内存，各条目的输入流使用映射区的独立视图读取，不需要系统调用也没有锁；
+ * 2、超过2GB或不使用映射时通过FileChannel按位置读取（pread），不共享文件指针，不需要同步；
+ * 3、本地文件头在第一次读取条目时解析并缓存，打开大量条目的文件时不需要逐个读取本地文件头；
+ * 4、transferTo对STORED条目使用FileChannel.transferTo，可直接（零拷贝）发送到Socket。
+ * 按位置读取时如读取线程被中断，FileChannel会被关闭，此时自动重新打开文件，不影响其它线程。
+ * 注：映射区在close后由GC回收，Windows下回收前文件不能删除，需要及时删除的文件应不使用映射。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class MappedZipFile {
+
+    private static final int LFH_LEN = 30;
+
+    private static final int CFH_LEN = 46;
+
+    private static final int EOCD_LEN = 22;
+
+    private static final int ZIP64_EOCD_LOCATOR_LEN = 20;
+
+    private static final int ZIP64_EOCD_LEN = 56;
+
+    private static final long ZIP64_EOCD_SIG = 0X06064B50L;
+
+    private static final long ZIP64_EOCD_LOCATOR_SIG = 0X07064B50L;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+
+    /** 文件名使用UTF-8编码的标志位. */
+    private static final int UTF8_FLAG = 1 << 11;
+
+    /** 解压缩缓冲区大小. */
+    private static final int INFLATER_BUFFER_SIZE = 8192;
+
+    private final File file;
+
+    private final String encoding;
+
+    private final long length;
+
+    private volatile RandomAccessFile archive;
+
+    private volatile FileChannel channel;
+
+    /** 整个文件的映射，不使用映射时为NULL. */
+    private final ByteBuffer mapped;
+
+    /** 按中心目录顺序的条目. */
+    private final List<ZipEntry> entries;
+
+    private final Map<ZipEntry, EntryInfo> infos;
+
+    private final Map<String, EntryInfo> nameMap;
+
+    private volatile boolean closed = false;
+
+    /**
+     * Opens the given file for reading, assuming the platform's
+     * native encoding for file names.
+     *
+     * @param name the archive.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public MappedZipFile(String name) throws IOException {
+        this(new File(name), null, true);
+    }
+
+    /**
+     * Opens the given file for reading, assuming the platform's
+     * native encoding for file names.
+     *
+     * @param f the archive.
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public MappedZipFile(File f) throws IOException {
+        this(f, null, true);
+    }
+
+    /**
+     * Opens the given file for reading, assuming the specified
+     * encoding for file names.
+     *
+     * @param f the archive.
+     * @param encoding the encoding to use for file names
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public MappedZipFile(File f, String encoding) throws IOException {
+        this(f, encoding, true);
+    }
+
+    /**
+     * Opens the given file for reading.
+     *
+     * @param f the archive.
+     * @param encoding the encoding to use for file names, null for the platform's default
+     * @param map 是否映射到内存（超过2GB的文件不映射）
+     * @throws IOException if an error occurs while reading the file.
+     */
+    public MappedZipFile(File f, String encoding, boolean map) throws IOException {
+        this.file = f;
+        this.encoding = encoding;
+        this.archive = new RandomAccessFile(f, "r");
+        this.channel = archive.getChannel();
+        try {
+            this.length = channel.size();
+            if (map && length <= Integer.MAX_VALUE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+                buffer.order(ByteOrder.LITTLE_ENDIAN);
+                this.mapped = buffer;
+            } else {
+                this.mapped = null;
+            }
+
+            ByteBuffer cd = readCentralDirectory();
+            List<ZipEntry> list = new ArrayList<ZipEntry>();
+            Map<ZipEntry, EntryInfo> infoMap = new HashMap<ZipEntry, EntryInfo>();
+            Map<String, EntryInfo> names = new HashMap<String, EntryInfo>();
+            while (cd.remaining() >= 4 && (cd.getInt(cd.position()) & ZIP64_MAGIC) == ZipOutputStream.CFH_SIG.getValue()) {
+                EntryInfo info = readCentralFileHeader(cd);
+                list.add(info.entry);
+                infoMap.put(info.entry, info);
+                names.put(info.entry.getName(), info);
+            }
+            this.entries = Collections.unmodifiableList(list);
+            this.infos = infoMap;
+            this.nameMap = names;
+        } catch (IOException e) {
+            try {
+                archive.close();
+            } catch (IOException e2) {
+                // swallow, throw the original exception instead
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The encoding to use for filenames and the file comment.
+     *
+     * @return null if using the platform's default character encoding.
+     */
+    public String getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * 是否映射到内存.
+     *
+     * @return true, if mapped
+     */
+    public boolean isMapped() {
+        return mapped != null;
+    }
+
+    /**
+     * Closes the archive.
+     *
+     * @throws IOException if an error occurs closing the archive.
+     */
+    public void close() throws IOException {
+        synchronized (this) {
+            closed = true;
+        }
+        archive.close();
+    }
+
+    /**
+     * Returns all entries in central directory order.
+     *
+     * @return all entries as {@link ZipEntry} instances
+     */
+    public Enumeration getEntries() {
+        return Collections.enumeration(entries);
+    }
+
+    /**
+     * Returns all entries in central directory order.
+     *
+     * @return unmodifiable list of entries
+     */
+    public List<ZipEntry> getEntryList() {
+        return entries;
+    }
+
+    /**
+     * 条目数.
+     *
+     * @return the number of entries
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Returns a named entry - or <code>null</code> if no entry by
+     * that name exists.
+     *
+     * @param name name of the entry.
+     * @return the ZipEntry corresponding to the given name - or
+     * <code>null</code> if not present.
+     */
+    public ZipEntry getEntry(String name) {
+        EntryInfo info = nameMap.get(name);
+        return info == null ? null : info.entry;
+    }
+
+    /**
+     * 条目的解压后大小，支持超过4GB（ZIP64）.
+     *
+     * @param ze the entry
+     * @return the size, -1 if the entry does not belong to this archive
+     */
+    public long getSize(ZipEntry ze) {
+        EntryInfo info = getInfo(ze);
+        return info == null ? -1 : info.size;
+    }
+
+    /**
+     * 条目的压缩后大小，支持超过4GB（ZIP64）.
+     *
+     * @param ze the entry
+     * @return the compressed size, -1 if the entry does not belong to this archive
+     */
+    public long getCompressedSize(ZipEntry ze) {
+        EntryInfo info = getInfo(ze);
+        return info == null ? -1 : info.compressedSize;
+    }
+
+    /**
+     * Returns an InputStream for reading the contents of the given entry.
+     * 返回的流只能由一个线程使用，不同的流可由不同线程同时读取.
+     *
+     * @param ze the entry to get the stream for.
+     * @return a stream to read the entry from.
+     */
+    public InputStream getInputStream(ZipEntry ze) throws IOException, ZipException {
+        EntryInfo info = getInfo(ze);
+        if (info == null) {
+            return null;
+        }
+        EntryInputStream in = new EntryInputStream(getDataOffset(info), info.compressedSize);
+        switch (info.entry.getMethod()) {
+            case ZipEntry.STORED:
+                return in;
+            case ZipEntry.DEFLATED:
+                in.addDummy();
+                final Inflater inflater = new Inflater(true);
+                return new InflaterInputStream(in, inflater, INFLATER_BUFFER_SIZE) {
+
+                    private boolean released = false;
+
+                    public void close() throws IOException {
+                        super.close();
+                        if (!released) {
+                            released = true;
+                            inflater.end();
+                        }
+                    }
+                };
+            default:
+                throw new ZipException("Found unsupported compression method "
+                                       + info.entry.getMethod());
+        }
+    }
+
+    /**
+     * 将条目（解压后）的内容写入目标通道.
+     * STORED条目使用FileChannel.transferTo，目标为Socket或文件时由操作系统直接复制（零拷贝）
+     *
+     * @param ze the entry
+     * @param target 目标通道
+     * @return 写入的字节数
+     * @throws IOException Signals that an I/O exception has occurred.
+     */
+    public long transferTo(ZipEntry ze, WritableByteChannel target) throws IOException {
+        EntryInfo info = getInfo(ze);
+        if (info == null) {
+            throw new ZipException("entry " + ze.getName() + " does not belong to this archive");
+        }
+        if (info.entry.getMethod() == ZipEntry.STORED) {
+            long position = getDataOffset(info);
+            long remaining = info.compressedSize;
+            while (remaining > 0) {
+                ensureOpen();
+                FileChannel current = this.channel;
+                long n;
+                try {
+                    n = current.transferTo(position, remaining, target);
+                } catch (ClosedByInterruptException e) {
+                    reopen(current);
+                    throw e;
+                } catch (AsynchronousCloseException e) {
+                    reopen(current);
+                    continue;
+                }
+                if (n <= 0) {
+                    throw new ZipException("unexpected end of archive while reading " + ze.getName());
+                }
+                position += n;
+                remaining -= n;
+            }
+            return info.compressedSize;
+        }
+
+        InputStream in = getInputStream(info.entry);
+        try {
+            byte[] buf = new byte[INFLATER_BUFFER_SIZE * 8];
+            ByteBuffer buffer = ByteBuffer.wrap(buf);
+            long total = 0;
+            int len;
+            while ((len = in.read(buf)) != -1) {
+                buffer.clear();
+                buffer.limit(len);
+                while (buffer.hasRemaining()) {
+                    target.write(buffer);
+                }
+                total += len;
+            }
+            return total;
+        } finally {
+            in.close();
+        }
+    }
+
+    private EntryInfo getInfo(ZipEntry ze) {
+        EntryInfo info = infos.get(ze);
+        if (info == null) {
+            info = nameMap.get(ze.getName());
+        }
+        return info;
+    }
+
+    /**
+     * 数据在文件中的位置，第一次读取时解析本地文件头.
+     */
+    private long getDataOffset(EntryInfo info) throws IOException {
+        long offset = info.dataOffset;
+        if (offset < 0) {
+            ByteBuffer lfh = read(info.localHeaderOffset, LFH_LEN);
+            if ((lfh.getInt(0) & ZIP64_MAGIC) != ZipOutputStream.LFH_SIG.getValue()) {
+                throw new ZipException("invalid local file header for entry " + info.entry.getName());
+            }
+            int fileNameLen = lfh.getShort(26) & 0xFFFF;
+            int extraFieldLen = lfh.getShort(28) & 0xFFFF;
+            offset = info.localHeaderOffset + LFH_LEN + fileNameLen + extraFieldLen;
+            if (offset + info.compressedSize > length) {
+                throw new ZipException("entry " + info.entry.getName() + " is truncated");
+            }
+            // 多个线程同时解析的结果相同
+            info.dataOffset = offset;
+        }
+        return offset;
+    }
+
+    /**
+     * 查找目录结束记录（及ZIP64目录结束记录），读取整个中心目录.
+     */
+    private ByteBuffer readCentralDirectory() throws IOException {
+        if (length < EOCD_LEN) {
+            throw new ZipException("archive is not a ZIP archive");
+        }
+        int tailLength = (int) Math.min(length, EOCD_LEN + 0xFFFF);
+        long tailStart = length - tailLength;
+        ByteBuffer tail = read(tailStart, tailLength);
+        int eocd = -1;
+        long sig = ZipOutputStream.EOCD_SIG.getValue();
+        for (int i = tailLength - EOCD_LEN; i >= 0; i--) {
+            if ((tail.getInt(i) & ZIP64_MAGIC) == sig) {
+                eocd = i;
+                break;
+            }
+        }
+        if (eocd < 0) {
+            throw new ZipException("archive is not a ZIP archive");
+        }
+        long cdLength = tail.getInt(eocd + 12) & ZIP64_MAGIC;
+        long cdOffset = tail.getInt(eocd + 16) & ZIP64_MAGIC;
+
+        long locator = tailStart + eocd - ZIP64_EOCD_LOCATOR_LEN;
+        if (locator >= 0) {
+            ByteBuffer loc = read(locator, ZIP64_EOCD_LOCATOR_LEN);
+            if ((loc.getInt(0) & ZIP64_MAGIC) == ZIP64_EOCD_LOCATOR_SIG) {
+                long eocd64Offset = loc.getLong(8);
+                ByteBuffer eocd64 = read(eocd64Offset, ZIP64_EOCD_LEN);
+                if ((eocd64.getInt(0) & ZIP64_MAGIC) != ZIP64_EOCD_SIG) {
+                    throw new ZipException("invalid ZIP64 end of central directory record");
+                }
+                cdLength = eocd64.getLong(40);
+                cdOffset = eocd64.getLong(48);
+            }
+        }
+        if (cdLength > Integer.MAX_VALUE || cdOffset + cdLength > length) {
+            throw new ZipException("invalid central directory: offset " + cdOffset + ", length " + cdLength);
+        }
+        return read(cdOffset, (int) cdLength);
+    }
+
+    /**
+     * 读取一个中心目录文件头.
+     */
+    private EntryInfo readCentralFileHeader(ByteBuffer cd) throws IOException {
+        int start = cd.position();
+        if (cd.remaining() < CFH_LEN) {
+            throw new ZipException("truncated central directory");
+        }
+        int versionMadeBy = cd.getShort(start + 4) & 0xFFFF;
+        int flag = cd.getShort(start + 8) & 0xFFFF;
+        int method = cd.getShort(start + 10) & 0xFFFF;
+        long time = cd.getInt(start + 12) & ZIP64_MAGIC;
+        long crc = cd.getInt(start + 16) & ZIP64_MAGIC;
+        long compressedSize = cd.getInt(start + 20) & ZIP64_MAGIC;
+        long size = cd.getInt(start + 24) & ZIP64_MAGIC;
+        int fileNameLen = cd.getShort(start + 28) & 0xFFFF;
+        int extraLen = cd.getShort(start + 30) & 0xFFFF;
+        int commentLen = cd.getShort(start + 32) & 0xFFFF;
+        int internalAttributes = cd.getShort(start + 36) & 0xFFFF;
+        long externalAttributes = cd.getInt(start + 38) & ZIP64_MAGIC;
+        long localHeaderOffset = cd.getInt(start + 42) & ZIP64_MAGIC;
+        if (cd.remaining() < CFH_LEN + fileNameLen + extraLen + commentLen) {
+            throw new ZipException("truncated central directory");
+        }
+
+        cd.position(start + CFH_LEN);
+        byte[] fileName = new byte[fileNameLen];
+        cd.get(fileName);
+        byte[] extra = new byte[extraLen];
+        cd.get(extra);
+        byte[] comment = new byte[commentLen];
+        cd.get(comment);
+
+        // ZIP64 extended information: size, compressed size, offset
+        ByteBuffer extraBuffer = ByteBuffer.wrap(extra).order(ByteOrder.LITTLE_ENDIAN);
+        while (extraBuffer.remaining() >= 4) {
+            int id = extraBuffer.getShort() & 0xFFFF;
+            int len = extraBuffer.getShort() & 0xFFFF;
+            int next = extraBuffer.position() + len;
+            if (next > extra.length) {
+                break;
+            }
+            if (id == ZIP64_EXTRA_ID) {
+                if (size == ZIP64_MAGIC && extraBuffer.position() + 8 <= next) {
+                    size = extraBuffer.getLong();
+                }
+                if (compressedSize == ZIP64_MAGIC && extraBuffer.position() + 8 <= next) {
+                    compressedSize = extraBuffer.getLong();
+                }
+                if (localHeaderOffset == ZIP64_MAGIC && extraBuffer.position() + 8 <= next) {
+                    localHeaderOffset = extraBuffer.getLong();
+                }
+                break;
+            }
+            extraBuffer.position(next);
+        }
+
+        boolean utf8 = (flag & UTF8_FLAG) != 0;
+        ZipEntry ze = new ZipEntry(getString(fileName, utf8));
+        ze.setPlatform((versionMadeBy >> 8) & 0x0F);
+        ze.setMethod(method);
+        ze.setTime(ZipFile.fromDosTime(new ZipLong(time)).getTime());
+        ze.setCrc(crc);
+        ze.setComprSize(compressedSize);
+        try {
+            ze.setSize(size);
+        } catch (IllegalArgumentException e) {
+            // Java 6的ZipEntry不支持超过4GB的大小，通过getSize(ZipEntry)获取
+        }
+        ze.setInternalAttributes(internalAttributes);
+        ze.setExternalAttributes(externalAttributes);
+        ze.setComment(getString(comment, utf8));
+        if (extraLen > 0) {
+            ze.setExtra(extra);
+        }
+        return new EntryInfo(ze, localHeaderOffset, size, compressedSize);
+    }
+
+    /**
+     * 读取文件的一部分，返回的ByteBuffer为小端序.
+     */
+    private ByteBuffer read(long position, int len) throws IOException {
+        if (position < 0 || position + len > length) {
+            throw new ZipException("invalid position " + position + " in archive of length " + length);
+        }
+        ByteBuffer result;
+        if (mapped != null) {
+            ByteBuffer view = mapped.duplicate();
+            view.position((int) position);
+            view.limit((int) position + len);
+            result = view.slice();
+        } else {
+            result = ByteBuffer.allocate(len);
+            while (result.hasRemaining()) {
+                if (readAt(result, position + result.position()) < 0) {
+                    throw new ZipException("unexpected end of archive");
+                }
+            }
+            result.flip();
+        }
+        return result.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * 按位置读取，读取线程被中断导致FileChannel关闭时重新打开.
+     */
+    private int readAt(ByteBuffer dst, long position) throws IOException {
+        while (true) {
+            ensureOpen();
+            FileChannel current = this.channel;
+            try {
+                return current.read(dst, position);
+            } catch (ClosedByInterruptException e) {
+                reopen(current);
+                throw e;
+            } catch (AsynchronousCloseException e) {
+                // 被其它线程的中断关闭，重新打开后重试
+                reopen(current);
+            }
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (closed) {
+            throw new IOException("ZipFile " + file + " has been closed");
+        }
+    }
+
+    private synchronized void reopen(FileChannel failed) throws IOException {
+        if (closed || channel != failed) {
+            return;
+        }
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        archive = raf;
+        channel = raf.getChannel();
+    }
+
+    private String getString(byte[] bytes, boolean utf8) throws ZipException {
+        String charset = utf8 ? "UTF-8" : encoding;
+        if (charset == null) {
+            return new String(bytes);
+        }
+        try {
+            return new String(bytes, charset);
+        } catch (UnsupportedEncodingException uee) {
+            throw new ZipException(uee.getMessage());
+        }
+    }
+
+    /**
+     * 中心目录中的条目信息.
+     */
+    private static final class EntryInfo {
+
+        private final ZipEntry entry;
+
+        private final long localHeaderOffset;
+
+        private final long size;
+
+        private final long compressedSize;
+
+        /** 数据的位置，解析本地文件头前为-1. */
+        private volatile long dataOffset = -1;
+
+        EntryInfo(ZipEntry entry, long localHeaderOffset, long size, long compressedSize) {
+            this.entry = entry;
+            this.localHeaderOffset = localHeaderOffset;
+            this.size = size;
+            this.compressedSize = compressedSize;
+        }
+    }
+
+    /**
+     * 读取指定范围的输入流，使用映射区的独立视图或按位置读取，不共享文件指针.
+     */
+    private class EntryInputStream extends InputStream {
+
+        private long position;
+
+        private long remaining;
+
+        private final ByteBuffer view;
+
+        private boolean addDummyByte = false;
+
+        EntryInputStream(long start, long remaining) {
+            this.position = start;
+            this.remaining = remaining;
+            if (mapped != null) {
+                ByteBuffer buffer = mapped.duplicate();
+                buffer.position((int) start);
+                buffer.limit((int) (start + remaining));
+                this.view = buffer;
+            } else {
+                this.view = null;
+            }
+        }
+
+        public int read() throws IOException {
+            byte[] b = new byte[1];
+            int n = read(b, 0, 1);
+            return n == -1 ? -1 : b[0] & 0xFF;
+        }
+
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                if (addDummyByte) {
+                    addDummyByte = false;
+                    b[off] = 0;
+                    return 1;
+                }
+                return -1;
+            }
+            if (len <= 0) {
+                return 0;
+            }
+            if (len > remaining) {
+                len = (int) remaining;
+            }
+            int n;
+            if (view != null) {
+                ensureOpen();
+                view.get(b, off, len);
+                n = len;
+            } else {
+                n = readAt(ByteBuffer.wrap(b, off, len), position);
+                if (n < 0) {
+                    throw new ZipException("unexpected end of archive");
+                }
+            }
+            position += n;
+            remaining -= n;
+            return n;
+        }
+
+        public long skip(long n) throws IOException {
+            long skipped = Math.min(Math.max(n, 0), remaining);
+            position += skipped;
+            remaining -= skipped;
+            if (view != null) {
+                view.position((int) (view.position() + skipped));
+            }
+            return skipped;
+        }
+
+        public int available() throws IOException {
+            return (int) Math.min(remaining, Integer.MAX_VALUE);
+        }
+
+        /**
+         * Inflater needs an extra dummy byte for nowrap - see
+         * Inflater's javadocs.
+         */
+        void addDummy() {
+            addDummyByte = true;
+        }
+    }
+
+}
@@ -0,0 +1,1051 @@
+package com.littcore.io.zip;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipException;
+
+/**
+ * 多线程并行压缩的ZIP输出流.
+ *
+ * <pre><b>描述：</b>
+ * 用法与ZipOutputStream相同（putNextEntry/write/closeEntry），参照pigz的方式将每个条目的数据按固定大小（默认128KB）分块，
+ * 由线程池分别压缩（raw deflate）并计算CRC32，调用线程按顺序写出，各块的CRC32合并为条目的CRC32，生成的文件格式与顺序压缩相同。
+ * 1、非最后一块以SYNC_FLUSH结束，并以上一块的最后32KB作为字典，压缩率与顺序压缩接近；
+ * 2、运行环境不支持SYNC_FLUSH（Java 6）时不分块：不超过一块的条目仍并行压缩，超过一块的条目在调用线程中顺序压缩；
+ * 3、DEFLATED条目使用Data Descriptor保存CRC及大小，STORED条目需预先设置大小及CRC（与不使用RandomAccessFile时的ZipOutputStream一致）；
+ * 4、条目大小、偏移量或条目数超出ZIP格式限制时自动使用ZIP64扩展（中心目录的ZIP64扩展字段及ZIP64目录结束记录），
+ *    也可通过setForceZip64强制使用。
+ *    DEFLATED条目预先设置了不小于0xFFFFFFFF的大小（setSize）时，本地文件头中写入ZIP64扩展字段，Data Descriptor使用8字节的大小，
+ *    流式读取（ZipInputStream等）超过4GB的条目时需预先设置。
+ * 等待写出的数据块不超过maxPending个，内存占用约为 maxPending * chunkSize * 2。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 预计超过4GB的DEFLATED条目在本地文件头中写入ZIP64扩展字段
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ParallelZipOutputStream extends ZipOutputStream {
+
+    /** 默认分块大小. */
+    public static final int DEFAULT_CHUNK_SIZE = 128 * 1024;
+
+    /** deflate的字典（窗口）大小. */
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    private static final ZipLong ZIP64_EOCD_SIG = new ZipLong(0X06064B50L);
+
+    private static final ZipLong ZIP64_EOCD_LOCATOR_SIG = new ZipLong(0X07064B50L);
+
+    private static final ZipShort ZIP64_EXTRA_ID = new ZipShort(0x0001);
+
+    /** Deflater.SYNC_FLUSH（Java 7）. */
+    private static final int SYNC_FLUSH = 2;
+
+    /** Deflater.deflate(byte[], int, int, int)，Java 6中为NULL. */
+    private static final Method SYNC_DEFLATE = syncDeflateMethod();
+
+    private final ExecutorService executor;
+
+    /** 线程池是否由本对象创建（关闭时一起关闭）. */
+    private final boolean ownExecutor;
+
+    private final Queue<PooledDeflater> deflaters = new ConcurrentLinkedQueue<PooledDeflater>();
+
+    /** 按顺序等待写出的数据. */
+    private final LinkedList<Segment> pending = new LinkedList<Segment>();
+
+    /** 已写出的条目. */
+    private final List<EntryRecord> records = new ArrayList<EntryRecord>();
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    private int maxPending;
+
+    private int level = Deflater.DEFAULT_COMPRESSION;
+
+    private int method = DEFLATED;
+
+    private String comment = "";
+
+    private boolean forceZip64 = false;
+
+    /** 已写出的字节数. */
+    private long written = 0;
+
+    private EntryRecord current;
+
+    /** 当前块. */
+    private byte[] buffer;
+
+    private int count;
+
+    /** 当前条目的上一块（作为下一块的字典）. */
+    private byte[] previous;
+
+    /** 不支持分块时在调用线程中顺序压缩使用的Deflater. */
+    private PooledDeflater inline;
+
+    private CRC32 inlineCrc;
+
+    private boolean finished = false;
+
+    private boolean failed = false;
+
+    /**
+     * 使用可用处理器数量的线程压缩.
+     *
+     * @param out 输出流
+     */
+    public ParallelZipOutputStream(OutputStream out) {
+        this(out, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * 使用指定数量的线程压缩，线程池在关闭流时关闭.
+     *
+     * @param out 输出流
+     * @param threads 压缩线程数
+     */
+    public ParallelZipOutputStream(OutputStream out, int threads) {
+        this(out, Executors.newFixedThreadPool(threads), threads, true);
+    }
+
+    /**
+     * 使用外部线程池压缩，关闭流时不关闭线程池.
+     *
+     * @param out 输出流
+     * @param executor 线程池
+     */
+    public ParallelZipOutputStream(OutputStream out, ExecutorService executor) {
+        this(out, executor, Runtime.getRuntime().availableProcessors(), false);
+    }
+
+    private ParallelZipOutputStream(OutputStream out, ExecutorService executor, int threads, boolean ownExecutor) {
+        super(new BufferedOutputStream(out, 64 * 1024));
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be positive: " + threads);
+        }
+        this.executor = executor;
+        this.ownExecutor = ownExecutor;
+        this.maxPending = threads * 4;
+        // 父类的Deflater不会被使用
+        def.end();
+    }
+
+    /**
+     * 运行环境是否支持大条目分块并行压缩（Java 7+）.
+     *
+     * @return true, if supported
+     */
+    public static boolean isChunkingSupported() {
+        return SYNC_DEFLATE != null;
+    }
+
+    /**
+     * Begin writing next entry.
+     */
+    public void putNextEntry(ZipEntry ze) throws IOException {
+        if (finished) {
+            throw new IOException("stream has already been finished");
+        }
+        closeEntry();
+
+        if (ze.getMethod() == -1) { // not specified
+            ze.setMethod(method);
+        }
+        if (ze.getTime() == -1) { // not specified
+            ze.setTime(System.currentTimeMillis());
+        }
+        if (ze.getMethod() == STORED) {
+            if (ze.getSize() == -1) {
+                throw new ZipException("uncompressed size is required for STORED method");
+            }
+            if (ze.getCrc() == -1) {
+                throw new ZipException("crc checksum is required for STORED method");
+            }
+            if (ze.getSize() >= ZIP64_MAGIC) {
+                throw new ZipException("STORED entry " + ze.getName() + " is too large, use DEFLATED instead");
+            }
+            ze.setComprSize(ze.getSize());
+        }
+
+        current = new EntryRecord(ze, level);
+        previous = null;
+        enqueue(new HeaderSegment(current));
+    }
+
+    /**
+     * Writes bytes to ZIP entry.
+     */
+    public void write(byte[] b, int offset, int length) throws IOException {
+        if (current == null) {
+            throw new ZipException("no current ZIP entry");
+        }
+        if (inline != null) {
+            deflateInline(b, offset, length);
+            return;
+        }
+        while (length > 0) {
+            if (buffer == null) {
+                buffer = new byte[chunkSize];
+            }
+            int n = Math.min(length, chunkSize - count);
+            System.arraycopy(b, offset, buffer, count, n);
+            count += n;
+            offset += n;
+            length -= n;
+            if (count == chunkSize) {
+                if (current.entry.getMethod() == DEFLATED && SYNC_DEFLATE == null) {
+                    startInline();
+                    deflateInline(b, offset, length);
+                    return;
+                }
+                submitChunk(false);
+            }
+        }
+    }
+
+    /**
+     * Writes all necessary data for this entry.
+     */
+    public void closeEntry() throws IOException {
+        if (current == null) {
+            return;
+        }
+        if (inline != null) {
+            finishInline();
+        } else if (count > 0 || current.entry.getMethod() == DEFLATED) {
+            submitChunk(true);
+        }
+        enqueue(new DescriptorSegment(current));
+        current = null;
+        previous = null;
+    }
+
+    /**
+     * Finishs writing the contents, the underlying stream is not closed.
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        closeEntry();
+        flushPending();
+
+        long cdOffset = written;
+        for (int i = 0; i < records.size(); i++) {
+            writeCentralFileHeader(records.get(i));
+        }
+        long cdLength = written - cdOffset;
+        writeCentralDirectoryEnd(cdOffset, cdLength);
+        out.flush();
+        records.clear();
+        finished = true;
+    }
+
+    /**
+     * Writes the finished chunks and flushes the underlying stream.
+     */
+    public void flush() throws IOException {
+        flushPending();
+        super.flush();
+    }
+
+    /**
+     * Finishs writing the contents and closes this as well as the
+     * underlying stream.
+     */
+    public void close() throws IOException {
+        try {
+            if (!failed) {
+                finish();
+            }
+        } finally {
+            for (Segment segment : pending) {
+                segment.cancel();
+            }
+            pending.clear();
+            PooledDeflater deflater;
+            while ((deflater = deflaters.poll()) != null) {
+                deflater.deflater.end();
+            }
+            if (inline != null) {
+                inline.deflater.end();
+                inline = null;
+            }
+            if (ownExecutor) {
+                executor.shutdownNow();
+            }
+            out.close();
+        }
+    }
+
+    /**
+     * Set the file comment.
+     */
+    public void setComment(String comment) {
+        this.comment = comment;
+        super.setComment(comment);
+    }
+
+    /**
+     * Sets the compression level for subsequent entries.
+     */
+    public void setLevel(int level) {
+        this.level = level;
+        super.setLevel(level);
+    }
+
+    /**
+     * Sets the default compression method for subsequent entries.
+     */
+    public void setMethod(int method) {
+        this.method = method;
+        super.setMethod(method);
+    }
+
+    /**
+     * 设置分块大小（字节），对之后的条目有效，默认128KB.
+     *
+     * @param chunkSize the chunk size
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize < 1024) {
+            throw new IllegalArgumentException("chunkSize must be at least 1024: " + chunkSize);
+        }
+        if (buffer != null && count > 0) {
+            throw new IllegalStateException("chunkSize can not be changed while writing an entry");
+        }
+        this.chunkSize = chunkSize;
+        this.buffer = null;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * 设置最多等待写出的数据块数，默认为线程数的4倍.
+     *
+     * @param maxPending the max pending
+     */
+    public void setMaxPending(int maxPending) {
+        if (maxPending < 1) {
+            throw new IllegalArgumentException("maxPending must be positive: " + maxPending);
+        }
+        this.maxPending = maxPending;
+    }
+
+    public int getMaxPending() {
+        return maxPending;
+    }
+
+    /**
+     * 是否总是使用ZIP64扩展（中心目录及目录结束记录），默认只在超出限制时使用.
+     *
+     * @param forceZip64 the force zip64
+     */
+    public void setForceZip64(boolean forceZip64) {
+        this.forceZip64 = forceZip64;
+    }
+
+    public boolean isForceZip64() {
+        return forceZip64;
+    }
+
+    /**
+     * 提交当前块.
+     */
+    private void submitChunk(boolean last) throws IOException {
+        boolean stored = current.entry.getMethod() == STORED;
+        byte[] data = buffer == null ? new byte[0] : buffer;
+        Future<Chunk> future = executor.submit(new ChunkTask(data, count, stored ? null : previous, current.level, stored, last));
+        if (!stored) {
+            previous = data;
+        }
+        buffer = null;
+        count = 0;
+        enqueue(new ChunkSegment(current, future));
+    }
+
+    /**
+     * 加入等待队列，写出已完成的数据；超过maxPending时等待最早的数据块完成.
+     */
+    private void enqueue(Segment segment) throws IOException {
+        pending.add(segment);
+        while (!pending.isEmpty() && (pending.size() > maxPending || pending.getFirst().isDone())) {
+            writeSegment(pending.removeFirst());
+        }
+    }
+
+    /**
+     * 写出所有等待的数据.
+     */
+    private void flushPending() throws IOException {
+        while (!pending.isEmpty()) {
+            writeSegment(pending.removeFirst());
+        }
+    }
+
+    private void writeSegment(Segment segment) throws IOException {
+        try {
+            segment.writeTo();
+        } catch (IOException e) {
+            failed = true;
+            throw e;
+        } catch (RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+    }
+
+    /**
+     * 不支持分块时改为在调用线程中顺序压缩当前条目.
+     */
+    private void startInline() throws IOException {
+        flushPending();
+        inline = borrowDeflater(current.level);
+        inlineCrc = new CRC32();
+        byte[] data = buffer;
+        int length = count;
+        buffer = null;
+        count = 0;
+        deflateInline(data, 0, length);
+    }
+
+    private void deflateInline(byte[] b, int offset, int length) throws IOException {
+        if (length <= 0) {
+            return;
+        }
+        Deflater deflater = inline.deflater;
+        deflater.setInput(b, offset, length);
+        while (!deflater.needsInput()) {
+            inlineDeflate(deflater);
+        }
+        inlineCrc.update(b, offset, length);
+    }
+
+    private void finishInline() throws IOException {
+        Deflater deflater = inline.deflater;
+        deflater.finish();
+        while (!deflater.finished()) {
+            inlineDeflate(deflater);
+        }
+        current.crc = inlineCrc.getValue();
+        current.size = deflater.getBytesRead();
+        deflater.reset();
+        deflaters.offer(inline);
+        inline = null;
+        inlineCrc = null;
+    }
+
+    private void inlineDeflate(Deflater deflater) throws IOException {
+        int len = deflater.deflate(buf, 0, buf.length);
+        if (len > 0) {
+            writeOut(buf, 0, len);
+            written += len;
+            current.compressedSize += len;
+        }
+    }
+
+    private PooledDeflater borrowDeflater(int level) {
+        PooledDeflater deflater = deflaters.poll();
+        if (deflater != null && deflater.level != level) {
+            deflater.deflater.end();
+            deflater = null;
+        }
+        return deflater != null ? deflater : new PooledDeflater(level);
+    }
+
+    /**
+     * Writes the local file header entry
+     */
+    private void writeLocalFileHeader(EntryRecord record) throws IOException {
+        ZipEntry ze = record.entry;
+        record.offset = written;
+
+        writeOut(LFH_SIG.getBytes());
+
+        // version needed to extract
+        // general purpose bit flag
+        // 预先设置的大小超过4GB时本地文件头使用ZIP64扩展，Data Descriptor相应使用8字节的大小
+        record.zip64 = ze.getMethod() == DEFLATED && ze.getSize() >= ZIP64_MAGIC;
+        if (ze.getMethod() == DEFLATED) {
+            // bit3 set to signal, we use a data descriptor
+            writeOut((new ZipShort(record.zip64 ? 45 : 20)).getBytes());
+            writeOut((new ZipShort(8)).getBytes());
+        } else {
+            writeOut((new ZipShort(10)).getBytes());
+            writeOut((new ZipShort(0)).getBytes());
+        }
+
+        // compression method
+        writeOut((new ZipShort(ze.getMethod())).getBytes());
+
+        // last mod. time and date
+        writeOut(toDosTime(new Date(ze.getTime())).getBytes());
+
+        // CRC
+        // compressed length
+        // uncompressed length
+        if (record.zip64) {
+            writeOut(new byte[4]);
+            writeOut((new ZipLong(ZIP64_MAGIC)).getBytes());
+            writeOut((new ZipLong(ZIP64_MAGIC)).getBytes());
+        } else if (ze.getMethod() == DEFLATED) {
+            writeOut(new byte[12]);
+        } else {
+            writeOut((new ZipLong(ze.getCrc())).getBytes());
+            writeOut((new ZipLong(ze.getSize())).getBytes());
+            writeOut((new ZipLong(ze.getSize())).getBytes());
+        }
+
+        byte[] name = getBytes(ze.getName());
+        byte[] extra = ze.getLocalFileDataExtra();
+        if (record.zip64) {
+            // ZIP64 extended information: size, compressed size (written in the data descriptor)
+            byte[] zip64Extra = new byte[20 + extra.length];
+            System.arraycopy(ZIP64_EXTRA_ID.getBytes(), 0, zip64Extra, 0, 2);
+            System.arraycopy((new ZipShort(16)).getBytes(), 0, zip64Extra, 2, 2);
+            System.arraycopy(extra, 0, zip64Extra, 20, extra.length);
+            extra = zip64Extra;
+        }
+        writeOut((new ZipShort(name.length)).getBytes());
+        writeOut((new ZipShort(extra.length)).getBytes());
+        writeOut(name);
+        writeOut(extra);
+        written += 30 + name.length + extra.length;
+    }
+
+    /**
+     * Writes the data descriptor entry, sizes are written as 8 bytes
+     * when the local file header has a ZIP64 extra field or they
+     * exceed 4GB (ZIP64).
+     */
+    private void writeDataDescriptor(EntryRecord record) throws IOException {
+        writeOut(DD_SIG.getBytes());
+        writeOut((new ZipLong(record.crc)).getBytes());
+        if (record.zip64 || record.size >= ZIP64_MAGIC || record.compressedSize >= ZIP64_MAGIC) {
+            writeOut(toLongBytes(record.compressedSize));
+            writeOut(toLongBytes(record.size));
+            written += 24;
+        } else {
+            writeOut((new ZipLong(record.compressedSize)).getBytes());
+            writeOut((new ZipLong(record.size)).getBytes());
+            written += 16;
+        }
+    }
+
+    /**
+     * Writes the central file header entry, with a ZIP64 extended
+     * information extra field if needed.
+     */
+    private void writeCentralFileHeader(EntryRecord record) throws IOException {
+        ZipEntry ze = record.entry;
+        // STORED条目不超过4GB，强制使用ZIP64时也不写大小（JDK 8的ZipFile无法读取）
+        boolean forceSize = forceZip64 && ze.getMethod() == DEFLATED;
+        boolean zip64Size = forceSize || record.size >= ZIP64_MAGIC;
+        boolean zip64CompressedSize = forceSize || record.compressedSize >= ZIP64_MAGIC;
+        boolean zip64Offset = forceZip64 || record.offset >= ZIP64_MAGIC;
+        boolean zip64 = zip64Size || zip64CompressedSize || zip64Offset;
+
+        writeOut(CFH_SIG.getBytes());
+
+        // version made by
+        // version needed to extract
+        // general purpose bit flag
+        int version = zip64 ? 45 : (ze.getMethod() == DEFLATED ? 20 : 10);
+        writeOut((new ZipShort((ze.getPlatform() << 8) | (zip64 ? 45 : 20))).getBytes());
+        writeOut((new ZipShort(version)).getBytes());
+        writeOut((new ZipShort(ze.getMethod() == DEFLATED ? 8 : 0)).getBytes());
+
+        // compression method
+        writeOut((new ZipShort(ze.getMethod())).getBytes());
+
+        // last mod. time and date
+        writeOut(toDosTime(new Date(ze.getTime())).getBytes());
+
+        // CRC
+        // compressed length
+        // uncompressed length
+        writeOut((new ZipLong(record.crc)).getBytes());
+        writeOut((new ZipLong(zip64CompressedSize ? ZIP64_MAGIC : record.compressedSize)).getBytes());
+        writeOut((new ZipLong(zip64Size ? ZIP64_MAGIC : record.size)).getBytes());
+
+        // ZIP64 extended information: size, compressed size, offset
+        byte[] zip64Extra = new byte[0];
+        if (zip64) {
+            int length = ((zip64Size ? 1 : 0) + (zip64CompressedSize ? 1 : 0) + (zip64Offset ? 1 : 0)) * 8;
+            zip64Extra = new byte[4 + length];
+            System.arraycopy(ZIP64_EXTRA_ID.getBytes(), 0, zip64Extra, 0, 2);
+            System.arraycopy((new ZipShort(length)).getBytes(), 0, zip64Extra, 2, 2);
+            int pos = 4;
+            if (zip64Size) {
+                System.arraycopy(toLongBytes(record.size), 0, zip64Extra, pos, 8);
+                pos += 8;
+            }
+            if (zip64CompressedSize) {
+                System.arraycopy(toLongBytes(record.compressedSize), 0, zip64Extra, pos, 8);
+                pos += 8;
+            }
+            if (zip64Offset) {
+                System.arraycopy(toLongBytes(record.offset), 0, zip64Extra, pos, 8);
+            }
+        }
+
+        byte[] name = getBytes(ze.getName());
+        byte[] extra = ze.getCentralDirectoryExtra();
+        String comm = ze.getComment();
+        byte[] commentBytes = getBytes(comm == null ? "" : comm);
+
+        // file name length
+        // extra field length
+        // file comment length
+        writeOut((new ZipShort(name.length)).getBytes());
+        writeOut((new ZipShort(zip64Extra.length + extra.length)).getBytes());
+        writeOut((new ZipShort(commentBytes.length)).getBytes());
+
+        // disk number start
+        writeOut((new ZipShort(0)).getBytes());
+
+        // internal file attributes
+        writeOut((new ZipShort(ze.getInternalAttributes())).getBytes());
+
+        // external file attributes
+        writeOut((new ZipLong(ze.getExternalAttributes())).getBytes());
+
+        // relative offset of LFH
+        writeOut((new ZipLong(zip64Offset ? ZIP64_MAGIC : record.offset)).getBytes());
+
+        writeOut(name);
+        writeOut(zip64Extra);
+        writeOut(extra);
+        writeOut(commentBytes);
+        written += 46 + name.length + zip64Extra.length + extra.length + commentBytes.length;
+    }
+
+    /**
+     * Writes the &quot;End of central dir record&quot;, preceded by the
+     * ZIP64 end of central directory record and locator if needed.
+     */
+    private void writeCentralDirectoryEnd(long cdOffset, long cdLength) throws IOException {
+        int entries = records.size();
+        boolean zip64 = forceZip64 || entries >= ZIP64_MAGIC_COUNT
+            || cdOffset >= ZIP64_MAGIC || cdLength >= ZIP64_MAGIC;
+        if (zip64) {
+            long eocd64Offset = written;
+            writeOut(ZIP64_EOCD_SIG.getBytes());
+            // size of the remaining record
+            writeOut(toLongBytes(44));
+            // version made by, version needed to extract
+            writeOut((new ZipShort(45)).getBytes());
+            writeOut((new ZipShort(45)).getBytes());
+            // disk numbers
+            writeOut(new byte[8]);
+            // number of entries
+            writeOut(toLongBytes(entries));
+            writeOut(toLongBytes(entries));
+            // length and location of CD
+            writeOut(toLongBytes(cdLength));
+            writeOut(toLongBytes(cdOffset));
+
+            writeOut(ZIP64_EOCD_LOCATOR_SIG.getBytes());
+            // disk with the ZIP64 end of central directory record
+            writeOut(new byte[4]);
+            writeOut(toLongBytes(eocd64Offset));
+            // total number of disks
+            writeOut((new ZipLong(1)).getBytes());
+            written += 56 + 20;
+        }
+
+        writeOut(EOCD_SIG.getBytes());
+
+        // disk numbers
+        writeOut(new byte[4]);
+
+        // number of entries
+        byte[] num = (new ZipShort(forceZip64 || entries >= ZIP64_MAGIC_COUNT ? ZIP64_MAGIC_COUNT : entries)).getBytes();
+        writeOut(num);
+        writeOut(num);
+
+        // length and location of CD
+        writeOut((new ZipLong(forceZip64 || cdLength >= ZIP64_MAGIC ? ZIP64_MAGIC : cdLength)).getBytes());
+        writeOut((new ZipLong(forceZip64 || cdOffset >= ZIP64_MAGIC ? ZIP64_MAGIC : cdOffset)).getBytes());
+
+        // ZIP file comment
+        byte[] data = getBytes(comment == null ? "" : comment);
+        writeOut((new ZipShort(data.length)).getBytes());
+        writeOut(data);
+        written += 22 + data.length;
+    }
+
+    /**
+     * 8字节小端序.
+     */
+    private static byte[] toLongBytes(long value) {
+        byte[] result = new byte[8];
+        for (int i = 0; i < 8; i++) {
+            result[i] = (byte) (value >>> (i * 8));
+        }
+        return result;
+    }
+
+    /**
+     * 合并两段数据的CRC32（zlib的crc32_combine）.
+     *
+     * @param crc1 第一段的CRC32
+     * @param crc2 第二段的CRC32
+     * @param length2 第二段的长度
+     * @return 两段数据连接后的CRC32
+     */
+    static long combineCrc32(long crc1, long crc2, long length2) {
+        if (length2 <= 0) {
+            return crc1;
+        }
+        long[] even = new long[32]; // even-power-of-two zeros operator
+        long[] odd = new long[32];  // odd-power-of-two zeros operator
+
+        // put operator for one zero bit in odd
+        odd[0] = 0xEDB88320L; // CRC-32 polynomial
+        long row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        // put operator for two zero bits in even
+        gf2MatrixSquare(even, odd);
+        // put operator for four zero bits in odd
+        gf2MatrixSquare(odd, even);
+
+        // apply length2 zeros to crc1 (first square will put the operator for one
+        // zero byte, eight zero bits, in even)
+        do {
+            gf2MatrixSquare(even, odd);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(even, crc1);
+            }
+            length2 >>= 1;
+            if (length2 == 0) {
+                break;
+            }
+            gf2MatrixSquare(odd, even);
+            if ((length2 & 1) != 0) {
+                crc1 = gf2MatrixTimes(odd, crc1);
+            }
+            length2 >>= 1;
+        } while (length2 != 0);
+        return crc1 ^ crc2;
+    }
+
+    private static long gf2MatrixTimes(long[] mat, long vec) {
+        long sum = 0;
+        for (int i = 0; vec != 0; i++, vec >>>= 1) {
+            if ((vec & 1) != 0) {
+                sum ^= mat[i];
+            }
+        }
+        return sum;
+    }
+
+    private static void gf2MatrixSquare(long[] square, long[] mat) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2MatrixTimes(mat, mat[n]);
+        }
+    }
+
+    private static Method syncDeflateMethod() {
+        try {
+            return Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static int syncDeflate(Deflater deflater, byte[] b, int offset, int length) throws IOException {
+        try {
+            return ((Integer) SYNC_DEFLATE.invoke(deflater, b, Integer.valueOf(offset), Integer.valueOf(length), Integer.valueOf(SYNC_FLUSH))).intValue();
+        } catch (IllegalAccessException e) {
+            throw new IOException("Failed to flush deflater", e);
+        } catch (InvocationTargetException e) {
+            throw new IOException("Failed to flush deflater", e.getCause());
+        }
+    }
+
+    private static byte[] grow(byte[] data) {
+        byte[] result = new byte[data.length * 2];
+        System.arraycopy(data, 0, result, 0, data.length);
+        return result;
+    }
+
+    /**
+     * 条目及其写出后的CRC、大小及偏移量.
+     */
+    private static final class EntryRecord {
+
+        private final ZipEntry entry;
+
+        private final int level;
+
+        private long offset;
+
+        private long crc;
+
+        private long size;
+
+        private long compressedSize;
+
+        /** 本地文件头中是否写入了ZIP64扩展字段. */
+        private boolean zip64;
+
+        EntryRecord(ZipEntry entry, int level) {
+            this.entry = entry;
+            this.level = level;
+        }
+    }
+
+    private static final class PooledDeflater {
+
+        private final Deflater deflater;
+
+        private final int level;
+
+        PooledDeflater(int level) {
+            this.deflater = new Deflater(level, true);
+            this.level = level;
+        }
+    }
+
+    /**
+     * 压缩后的数据块.
+     */
+    private static final class Chunk {
+
+        private final byte[] data;
+
+        private final int length;
+
+        private final long crc;
+
+        private final int inputLength;
+
+        Chunk(byte[] data, int length, long crc, int inputLength) {
+            this.data = data;
+            this.length = length;
+            this.crc = crc;
+            this.inputLength = inputLength;
+        }
+    }
+
+    /**
+     * 在线程池中计算数据块的CRC32并压缩.
+     */
+    private final class ChunkTask implements Callable<Chunk> {
+
+        private final byte[] data;
+
+        private final int length;
+
+        private final byte[] dictionary;
+
+        private final int level;
+
+        private final boolean stored;
+
+        private final boolean last;
+
+        ChunkTask(byte[] data, int length, byte[] dictionary, int level, boolean stored, boolean last) {
+            this.data = data;
+            this.length = length;
+            this.dictionary = dictionary;
+            this.level = level;
+            this.stored = stored;
+            this.last = last;
+        }
+
+        public Chunk call() throws IOException {
+            CRC32 crc = new CRC32();
+            crc.update(data, 0, length);
+            if (stored) {
+                return new Chunk(data, length, crc.getValue(), length);
+            }
+
+            PooledDeflater pooled = borrowDeflater(level);
+            Deflater deflater = pooled.deflater;
+            try {
+                if (dictionary != null) {
+                    int n = Math.min(DICTIONARY_SIZE, dictionary.length);
+                    deflater.setDictionary(dictionary, dictionary.length - n, n);
+                }
+                deflater.setInput(data, 0, length);
+                byte[] result = new byte[Math.max(64, length / 2)];
+                int n = 0;
+                if (last) {
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        if (n == result.length) {
+                            result = grow(result);
+                        }
+                        n += deflater.deflate(result, n, result.length - n);
+                    }
+                } else {
+                    // SYNC_FLUSH ends with an empty stored block on a byte boundary,
+                    // so the next chunk can be appended
+                    while (true) {
+                        if (n == result.length) {
+                            result = grow(result);
+                        }
+                        int available = result.length - n;
+                        int len = syncDeflate(deflater, result, n, available);
+                        n += len;
+                        if (len < available) {
+                            break;
+                        }
+                    }
+                }
+                deflater.reset();
+                deflaters.offer(pooled);
+                pooled = null;
+                return new Chunk(result, n, crc.getValue(), length);
+            } finally {
+                if (pooled != null) {
+                    deflater.end();
+                }
+            }
+        }
+    }
+
+    /**
+     * 按顺序写出的数据.
+     */
+    private abstract class Segment {
+
+        protected final EntryRecord record;
+
+        Segment(EntryRecord record) {
+            this.record = record;
+        }
+
+        boolean isDone() {
+            return true;
+        }
+
+        void cancel() {
+        }
+
+        abstract void writeTo() throws IOException;
+    }
+
+    private final class HeaderSegment extends Segment {
+
+        HeaderSegment(EntryRecord record) {
+            super(record);
+        }
+
+        void writeTo() throws IOException {
+            writeLocalFileHeader(record);
+        }
+    }
+
+    private final class ChunkSegment extends Segment {
+
+        private final Future<Chunk> future;
+
+        ChunkSegment(EntryRecord record, Future<Chunk> future) {
+            super(record);
+            this.future = future;
+        }
+
+        boolean isDone() {
+            return future.isDone();
+        }
+
+        void cancel() {
+            future.cancel(true);
+        }
+
+        void writeTo() throws IOException {
+            Chunk chunk;
+            try {
+                chunk = future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while compressing " + record.entry.getName());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                throw new IOException("Failed to compress " + record.entry.getName(), cause);
+            }
+            writeOut(chunk.data, 0, chunk.length);
+            written += chunk.length;
+            record.crc = combineCrc32(record.crc, chunk.crc, chunk.inputLength);
+            record.size += chunk.inputLength;
+            record.compressedSize += chunk.length;
+        }
+    }
+
+    private final class DescriptorSegment extends Segment {
+
+        DescriptorSegment(EntryRecord record) {
+            super(record);
+        }
+
+        void writeTo() throws IOException {
+            ZipEntry ze = record.entry;
+            if (ze.getMethod() == DEFLATED) {
+                writeDataDescriptor(record);
+                ze.setCrc(record.crc);
+                try {
+                    ze.setSize(record.size);
+                    ze.setComprSize(record.compressedSize);
+                } catch (IllegalArgumentException e) {
+                    // Java 6的ZipEntry不支持超过4GB的大小，以record为准
+                }
+            } else {
+                if (ze.getCrc() != record.crc) {
+                    throw new ZipException("bad CRC checksum for entry "
+                                           + ze.getName() + ": "
+                                           + Long.toHexString(ze.getCrc())
+                                           + " instead of "
+                                           + Long.toHexString(record.crc));
+                }
+                if (ze.getSize() != record.size) {
+                    throw new ZipException("bad size for entry "
+                                           + ze.getName() + ": "
+                                           + ze.getSize()
+                                           + " instead of "
+                                           + record.size);
+                }
+                record.compressedSize = record.size;
+            }
+            records.add(record);
+        }
+    }
+
+}
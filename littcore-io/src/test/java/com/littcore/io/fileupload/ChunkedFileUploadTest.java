@@ -0,0 +1,219 @@
+package com.littcore.io.fileupload;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.ProgressListener;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.littcore.io.util.FileUtils;
+
+/**
+ * .
+ * 
+ * <pre><b>描述：</b>
+ *    分块断点续传
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ChunkedFileUploadTest {
+  
+  private static final int CHUNK_SIZE = ChunkedFileUpload.MIN_CHUNK_SIZE;
+  
+  private File root;
+  
+  private ChunkedFileUpload upload;
+  
+  @Before
+  public void setUp()
+  {
+    root = new File(System.getProperty("java.io.tmpdir"), "chunked" + System.nanoTime());
+    root.mkdirs();
+    upload = new ChunkedFileUpload(root.getAbsolutePath(), "files");
+  }
+  
+  @After
+  public void tearDown() throws IOException
+  {
+    FileUtils.deleteDirectory(root);
+  }
+  
+  @Test
+  public void test_upload() throws Exception
+  {
+    final byte[] data = new byte[CHUNK_SIZE * 10 + 1234];
+    new Random(11).nextBytes(data);
+    final ChunkedUploadSession session = upload.createSession("D:\\video\\movie.mp4", data.length, CHUNK_SIZE);
+    Assert.assertEquals(11, session.getChunkCount());
+    Assert.assertEquals(data.length, new File(new File(root, "files"), session.getUploadId() + ".part").length());	//预分配
+    final long[] progress = new long[2];
+    session.setProgressListener(new ProgressListener() {
+      public void update(long pBytesRead, long pContentLength, int pItems)
+      {
+        synchronized (progress) {
+          progress[0] = Math.max(progress[0], pBytesRead);
+          progress[1] = pContentLength;
+        }
+      }
+    });
+    
+    //第一次只传了部分分块（倒序）
+    for (int i = 10; i >= 6; i--)
+      Assert.assertTrue(upload.uploadChunk(session.getUploadId(), i, -1, chunk(data, i), md5(data, i)));
+    Assert.assertFalse(upload.uploadChunk(session.getUploadId(), 6, -1, chunk(data, 6), null));	//重复上传
+    Assert.assertArrayEquals(new int[]{0, 1, 2, 3, 4, 5}, session.getMissingChunks());
+    try {
+      upload.complete(session.getUploadId());
+      Assert.fail();
+    } catch (FileUploadException e) {
+      //未完成
+    }
+    
+    //校验错误
+    try {
+      upload.uploadChunk(session.getUploadId(), 0, 0, chunk(data, 0), md5(data, 1));
+      Assert.fail();
+    } catch (FileUploadException e) {
+      Assert.assertEquals(6, session.getMissingChunks().length);
+    }
+    //偏移量错误
+    try {
+      upload.uploadChunk(session.getUploadId(), 1, 0, chunk(data, 1), null);
+      Assert.fail();
+    } catch (FileUploadException e) {
+    }
+    //长度不足
+    try {
+      upload.uploadChunk(session.getUploadId(), 1, -1, new ByteArrayInputStream(data, 0, 100), null);
+      Assert.fail();
+    } catch (FileUploadException e) {
+    }
+    
+    //续传剩余分块（并发）
+    ExecutorService executor = Executors.newFixedThreadPool(4);
+    List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+    for (final int index : session.getMissingChunks()) {
+      futures.add(executor.submit(new Callable<Boolean>() {
+        public Boolean call() throws Exception
+        {
+          return upload.uploadChunk(session.getUploadId(), index, session.getChunkOffset(index), chunk(data, index), md5(data, index));
+        }
+      }));
+    }
+    for (Future<Boolean> future : futures)
+      Assert.assertTrue(future.get());
+    executor.shutdown();
+    Assert.assertTrue(session.isComplete());
+    Assert.assertEquals(data.length, session.getBytesReceived());
+    Assert.assertEquals(data.length, progress[0]);
+    
+    UploadFile uploadFile = upload.complete(session.getUploadId());
+    Assert.assertEquals(-1, progress[1]);	//完成
+    Assert.assertEquals("movie.mp4", uploadFile.getFileName());
+    Assert.assertEquals(data.length, uploadFile.getFileSize());
+    File target = new File(new File(root, "files"), "movie.mp4");
+    Assert.assertArrayEquals(data, org.apache.commons.io.FileUtils.readFileToByteArray(target));
+    Assert.assertEquals(1, new File(root, "files").list().length);
+    Assert.assertNull(upload.getSession(session.getUploadId()));
+  }
+  
+  @Test
+  public void test_abort() throws Exception
+  {
+    ChunkedUploadSession session = upload.createSession("a.zip", CHUNK_SIZE * 3, CHUNK_SIZE);
+    upload.uploadChunk(session.getUploadId(), 0, 0, new ByteArrayInputStream(new byte[CHUNK_SIZE]), null);
+    upload.abort(session.getUploadId());
+    Assert.assertNull(upload.getSession(session.getUploadId()));
+    Assert.assertEquals(0, new File(root, "files").list().length);
+    
+    session = upload.createSession("b.zip", CHUNK_SIZE, CHUNK_SIZE);
+    upload.setSessionTimeout(-1);
+    Assert.assertEquals(1, upload.purgeExpiredSessions());
+    Assert.assertEquals(0, new File(root, "files").list().length);
+  }
+  
+  @Test
+  public void test_limits() throws Exception
+  {
+    upload.setFileLimitSize(CHUNK_SIZE * 4);
+    upload.setMaxSessions(2);
+    upload.setMaxReservedSize(CHUNK_SIZE * 5);
+    assertRejected("big.zip", CHUNK_SIZE * 4 + 1);	//超过单个文件大小限制
+    Assert.assertFalse(new File(root, "files").exists());	//未预分配
+    
+    ChunkedUploadSession a = upload.createSession("a.zip", CHUNK_SIZE * 3, CHUNK_SIZE);
+    assertRejected("b.zip", CHUNK_SIZE * 3);	//超过预分配总大小
+    ChunkedUploadSession b = upload.createSession("b.zip", CHUNK_SIZE * 2, CHUNK_SIZE);
+    Assert.assertEquals(CHUNK_SIZE * 5, upload.getReservedSize());
+    assertRejected("c.zip", 1);	//超过会话数
+    
+    upload.abort(a.getUploadId());
+    upload.abort(a.getUploadId());	//重复放弃不重复释放
+    Assert.assertEquals(CHUNK_SIZE * 2, upload.getReservedSize());
+    upload.createSession("c.zip", CHUNK_SIZE * 3, CHUNK_SIZE);
+    
+    upload.uploadChunk(b.getUploadId(), 0, 0, new ByteArrayInputStream(new byte[CHUNK_SIZE]), null);
+    upload.uploadChunk(b.getUploadId(), 1, -1, new ByteArrayInputStream(new byte[CHUNK_SIZE]), null);
+    upload.complete(b.getUploadId());
+    Assert.assertEquals(CHUNK_SIZE * 3, upload.getReservedSize());
+    
+    //定时清理超时的会话
+    upload.setSessionTimeout(-1);
+    upload.startPurge(10);
+    for (int i = 0; i < 500 && upload.getReservedSize() > 0; i++)
+      Thread.sleep(10);
+    Assert.assertEquals(0, upload.getReservedSize());
+    upload.shutdown();
+    Assert.assertEquals(1, new File(root, "files").list().length);	//只剩已完成的b.zip
+  }
+  
+  private void assertRejected(String fileName, long fileSize) throws IOException
+  {
+    try {
+      upload.createSession(fileName, fileSize, CHUNK_SIZE);
+      Assert.fail(fileName + " should be rejected");
+    } catch (FileUploadException e) {
+      //expected
+    }
+  }
+  
+  @Test(expected = FileUploadException.class)
+  public void test_illegalFileExt() throws Exception
+  {
+    upload.createSession("a.exe", 100, CHUNK_SIZE);
+  }
+  
+  private static ByteArrayInputStream chunk(byte[] data, int index)
+  {
+    int offset = index * CHUNK_SIZE;
+    return new ByteArrayInputStream(data, offset, Math.min(CHUNK_SIZE, data.length - offset));
+  }
+  
+  private static String md5(byte[] data, int index) throws Exception
+  {
+    int offset = index * CHUNK_SIZE;
+    MessageDigest digest = MessageDigest.getInstance("MD5");
+    digest.update(data, offset, Math.min(CHUNK_SIZE, data.length - offset));
+    return HttpFileUpload.toHexString(digest.digest());
+  }
+}
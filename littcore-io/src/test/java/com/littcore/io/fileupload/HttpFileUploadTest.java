@@ -0,0 +1,207 @@
+package com.littcore.io.fileupload;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.security.MessageDigest;
+import java.util.Map;
+import java.util.Random;
+
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.littcore.io.util.FileUtils;
+
+/**
+ * .
+ * 
+ * <pre><b>描述：</b>
+ *    流式上传
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class HttpFileUploadTest {
+  
+  private static final String BOUNDARY = "----littcore7d9a3b";
+  
+  private File root;
+  
+  @Before
+  public void setUp()
+  {
+    root = new File(System.getProperty("java.io.tmpdir"), "upload" + System.nanoTime());
+    root.mkdirs();
+  }
+  
+  @After
+  public void tearDown() throws IOException
+  {
+    FileUtils.deleteDirectory(root);
+  }
+  
+  @Test
+  public void test_streamUpload() throws Exception
+  {
+    byte[] png = new byte[200000];
+    new Random(7).nextBytes(png);
+    System.arraycopy(new byte[]{(byte)0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A}, 0, png, 0, 8);
+    byte[] fakePdf = "just some text".getBytes("UTF-8");
+    
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    field(body, "title", "测试");
+    file(body, "photo", "C:\\images\\a.png", "image/png", png);
+    file(body, "doc", "b.pdf", "application/pdf", fakePdf);
+    file(body, "script", "c.exe", "application/octet-stream", new byte[]{1, 2, 3});
+    file(body, "empty", "", "application/octet-stream", new byte[0]);
+    body.write(("--" + BOUNDARY + "--\r\n").getBytes("UTF-8"));
+    
+    HttpFileUpload upload = new HttpFileUpload(root.getAbsolutePath(), "files");
+    upload.setHeaderEncoding("UTF-8");
+    upload.setChecksumAlgorithm("MD5");
+    upload.streamUpload(request(body.toByteArray()));
+    
+    Assert.assertEquals("测试", upload.getParameter("title"));
+    Assert.assertEquals(1, upload.getSucceedFiles().size());
+    UploadFile uploaded = upload.getSucceedFiles().get(0);
+    Assert.assertEquals("a.png", uploaded.getFileName());
+    Assert.assertEquals(png.length, uploaded.getFileSize());
+    Assert.assertEquals(hex(MessageDigest.getInstance("MD5").digest(png)), uploaded.getChecksum());
+    File stored = new File(new File(root, "files"), "a.png");
+    Assert.assertEquals(png.length, stored.length());
+    Assert.assertArrayEquals(png, org.apache.commons.io.FileUtils.readFileToByteArray(stored));
+    
+    Assert.assertEquals(2, upload.getFailedFiles().size());
+    Assert.assertEquals(UploadFile.ILLEGAL_MIME_TYPE, upload.getFailedFiles().get(0).getErrorCode());
+    Assert.assertEquals(UploadFile.ILLEGAL_FILE_EXT, upload.getFailedFiles().get(1).getErrorCode());
+    Assert.assertEquals(1, new File(root, "files").list().length);	//无残留的.part文件
+  }
+  
+  @Test
+  public void test_streamUpload_sizeLimit() throws Exception
+  {
+    byte[] data = new byte[300000];
+    data[0] = 0x50; data[1] = 0x4B; data[2] = 0x03; data[3] = 0x04;
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    file(body, "big", "big.zip", "application/zip", data);
+    file(body, "small", "small.zip", "application/zip", new byte[]{0x50, 0x4B, 0x05, 0x06, 0, 0});
+    body.write(("--" + BOUNDARY + "--\r\n").getBytes("UTF-8"));
+    
+    HttpFileUpload upload = new HttpFileUpload(root.getAbsolutePath(), "files");
+    upload.setFileLimitSize(100000);
+    upload.streamUpload(request(body.toByteArray()));
+    
+    Assert.assertEquals(1, upload.getFailedFiles().size());
+    Assert.assertEquals(UploadFile.OUT_OF_SIZE_LIMIT, upload.getFailedFiles().get(0).getErrorCode());
+    Assert.assertEquals(1, upload.getSucceedFiles().size());
+    Assert.assertEquals("small.zip", upload.getSucceedFiles().get(0).getFileName());
+    Assert.assertFalse(new File(new File(root, "files"), "big.zip.part").exists());
+    Assert.assertFalse(new File(new File(root, "files"), "big.zip").exists());
+  }
+  
+  @Test
+  public void test_streamUpload_storeFailed() throws Exception
+  {
+    //.part文件所在位置已被目录占用，无法写入
+    new File(new File(root, "files"), "locked.zip.part").mkdirs();
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    file(body, "locked", "locked.zip", "application/zip", new byte[]{0x50, 0x4B, 0x05, 0x06, 0, 0});
+    file(body, "empty", "empty.zip", "application/zip", new byte[0]);
+    file(body, "small", "small.zip", "application/zip", new byte[]{0x50, 0x4B, 0x05, 0x06, 0, 0});
+    body.write(("--" + BOUNDARY + "--\r\n").getBytes("UTF-8"));
+    
+    HttpFileUpload upload = new HttpFileUpload(root.getAbsolutePath(), "files");
+    upload.streamUpload(request(body.toByteArray()));
+    
+    Assert.assertEquals(2, upload.getFailedFiles().size());
+    Assert.assertEquals(UploadFile.STORE_FAILED, upload.getFailedFiles().get(0).getErrorCode());
+    Assert.assertEquals(UploadFile.EMPTY_FILE, upload.getFailedFiles().get(1).getErrorCode());
+    Assert.assertEquals("[locked.zip]", upload.getFailedFileNames().toString());
+    Assert.assertEquals("[empty.zip]", upload.getInvalidFileNames().toString());
+    Assert.assertEquals(1, upload.getSucceedFiles().size());
+    Assert.assertEquals("small.zip", upload.getSucceedFiles().get(0).getFileName());
+    Assert.assertFalse(new File(new File(root, "files"), "locked.zip").exists());
+  }
+  
+  private static void field(ByteArrayOutputStream body, String name, String value) throws IOException
+  {
+    body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n").getBytes("UTF-8"));
+  }
+  
+  private static void file(ByteArrayOutputStream body, String name, String fileName, String contentType, byte[] data) throws IOException
+  {
+    body.write(("--" + BOUNDARY + "\r\nContent-Disposition: form-data; name=\"" + name + "\"; filename=\"" + fileName 
+        + "\"\r\nContent-Type: " + contentType + "\r\n\r\n").getBytes("UTF-8"));
+    body.write(data);
+    body.write("\r\n".getBytes("UTF-8"));
+  }
+  
+  private static String hex(byte[] bytes)
+  {
+    StringBuilder sb = new StringBuilder();
+    for (byte b : bytes)
+      sb.append(String.format("%02x", b));
+    return sb.toString();
+  }
+  
+  /**
+   * 构造一个只包含multipart请求体的HttpServletRequest.
+   */
+  static HttpServletRequest request(final byte[] body)
+  {
+    return request("multipart/form-data; boundary=" + BOUNDARY, body, null);
+  }
+  
+  static HttpServletRequest request(final String contentType, final byte[] body, final Map<String, String> parameters)
+  {
+    final ServletInputStream in = new ServletInputStream() {
+      private final ByteArrayInputStream delegate = new ByteArrayInputStream(body);
+      
+      @Override
+      public int read() throws IOException
+      {
+        return delegate.read();
+      }
+      
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException
+      {
+        return delegate.read(b, off, len);
+      }
+    };
+    return (HttpServletRequest)Proxy.newProxyInstance(HttpFileUploadTest.class.getClassLoader(), new Class[]{HttpServletRequest.class}, new InvocationHandler() {
+      public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+      {
+        String name = method.getName();
+        if ("getMethod".equals(name))
+          return "POST";
+        if ("getContentType".equals(name))
+          return contentType;
+        if ("getContentLength".equals(name))
+          return body.length;
+        if ("getInputStream".equals(name))
+          return in;
+        if ("getHeader".equals(name))
+          return "Content-length".equalsIgnoreCase((String)args[0]) ? String.valueOf(body.length) : null;
+        if ("getParameter".equals(name))
+          return parameters == null ? null : parameters.get(args[0]);
+        return null;
+      }
+    });
+  }
+}
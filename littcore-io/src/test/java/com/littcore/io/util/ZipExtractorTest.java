@@ -0,0 +1,146 @@
+package com.littcore.io.util;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipException;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.littcore.io.file.filter.SuffixFileFilter;
+import com.littcore.io.zip.ParallelZipOutputStream;
+import com.littcore.io.zip.ZipEntry;
+
+/**
+ * .
+ * 
+ * <pre><b>描述：</b>
+ *    并行解压缩、过滤及ZIP炸弹检查
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ZipExtractorTest {
+  
+  private File root;
+  
+  @Before
+  public void setUp()
+  {
+    root = new File(System.getProperty("java.io.tmpdir"), "extract" + System.nanoTime());
+    root.mkdirs();
+  }
+  
+  @After
+  public void tearDown() throws IOException
+  {
+    FileUtils.deleteDirectory(root);
+  }
+  
+  @Test
+  public void test_extract() throws Exception
+  {
+    File zip = new File(root, "files.zip");
+    ParallelZipOutputStream out = new ParallelZipOutputStream(new FileOutputStream(zip), 2);
+    out.putNextEntry(new ZipEntry("empty/"));
+    for (int i = 0; i < 500; i++) {
+      out.putNextEntry(new ZipEntry("d" + (i % 7) + "/s" + (i % 3) + "/f" + i + (i % 2 == 0 ? ".txt" : ".log")));
+      out.write(("file " + i).getBytes());
+    }
+    out.close();
+    
+    ZipExtractor extractor = new ZipExtractor(zip, new File(root, "all"));
+    extractor.setThreads(4);
+    ZipExtractor.Progress progress = extractor.extract();
+    Assert.assertTrue(progress.isDone());
+    Assert.assertEquals(500, progress.getEntries());
+    Assert.assertEquals(progress.getTotalBytes(), progress.getBytes());
+    Assert.assertEquals("file 123", read(new File(root, "all/d4/s0/f123.log")));
+    Assert.assertTrue(new File(root, "all/empty").isDirectory());
+    
+    extractor = new ZipExtractor(zip, new File(root, "txt"));
+    extractor.setIncludeFilter(new SuffixFileFilter(".txt"));
+    extractor.setExcludeFilter(new SuffixFileFilter("0.txt"));
+    Assert.assertEquals(200, extractor.extract().getEntries());
+    Assert.assertTrue(new File(root, "txt/d2/s2/f2.txt").exists());
+    Assert.assertFalse(new File(root, "txt/d3/s1/f10.txt").exists());
+    Assert.assertFalse(new File(root, "txt/d3/s0/f3.log").exists());
+    
+    ZipUtils.parallelUnzip(zip, new File(root, "utils"), true);
+    Assert.assertEquals("file 499", read(new File(root, "utils/d2/s1/f499.log")));
+    Assert.assertFalse(zip.exists());
+  }
+  
+  @Test
+  public void test_bomb() throws Exception
+  {
+    File zip = new File(root, "bomb.zip");
+    ParallelZipOutputStream out = new ParallelZipOutputStream(new FileOutputStream(zip), 2);
+    out.putNextEntry(new ZipEntry("zeros.bin"));
+    byte[] zeros = new byte[1024 * 1024];
+    for (int i = 0; i < 8; i++) {
+      out.write(zeros);
+    }
+    out.close();
+    
+    try {
+      new ZipExtractor(zip, new File(root, "ratio")).extract();
+      Assert.fail("ratio should be checked");
+    } catch (ZipException e) {
+      Assert.assertTrue(e.getMessage().indexOf("ratio") > 0);
+    }
+    
+    ZipExtractor extractor = new ZipExtractor(zip, new File(root, "total"));
+    extractor.setMaxRatio(Integer.MAX_VALUE / 2);
+    extractor.setMaxTotalSize(4 * 1024 * 1024);
+    try {
+      extractor.extract();
+      Assert.fail("total size should be checked");
+    } catch (ZipException e) {
+      Assert.assertTrue(e.getMessage().indexOf("exceeds") > 0);
+    }
+    
+    extractor = new ZipExtractor(zip, new File(root, "ok"));
+    extractor.setMaxRatio(Integer.MAX_VALUE / 2);
+    Assert.assertEquals(8 * 1024 * 1024, extractor.extract().getBytes());
+  }
+  
+  @Test
+  public void test_outsideTarget() throws Exception
+  {
+    File zip = new File(root, "slip.zip");
+    ParallelZipOutputStream out = new ParallelZipOutputStream(new FileOutputStream(zip), 1);
+    out.putNextEntry(new ZipEntry("../evil.txt"));
+    out.write("evil".getBytes());
+    out.close();
+    try {
+      new ZipExtractor(zip, new File(root, "slip")).extract();
+      Assert.fail("entry outside of the target should be rejected");
+    } catch (ZipException e) {
+      Assert.assertFalse(new File(root, "evil.txt").exists());
+    }
+  }
+  
+  private static String read(File file) throws IOException
+  {
+    FileInputStream in = new FileInputStream(file);
+    try {
+      byte[] data = new byte[(int) file.length()];
+      int n = in.read(data);
+      return new String(data, 0, n);
+    } finally {
+      in.close();
+    }
+  }
+
+}
@@ -0,0 +1,199 @@
+package com.littcore.io.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.CRC32;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * .
+ * 
+ * <pre><b>描述：</b>
+ *    映射及按位置读取两种方式，多线程同时读取同一个文件
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class MappedZipFileTest {
+  
+  private static final int ENTRIES = 20;
+  
+  @Test
+  public void test_read() throws Exception
+  {
+    File file = createArchive(false);
+    try {
+      verify(file, true);
+      verify(file, false);
+    } finally {
+      file.delete();
+    }
+  }
+  
+  @Test
+  public void test_zip64() throws Exception
+  {
+    File file = createArchive(true);
+    try {
+      verify(file, true);
+      verify(file, false);
+    } finally {
+      file.delete();
+    }
+  }
+  
+  @Test
+  public void test_concurrentRead() throws Exception
+  {
+    File file = createArchive(false);
+    final MappedZipFile[] zipFiles = {new MappedZipFile(file, "UTF-8", true), new MappedZipFile(file, "UTF-8", false)};
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Boolean>> results = new ArrayList<Future<Boolean>>();
+      for (int i = 0; i < 200; i++) {
+        final MappedZipFile zipFile = zipFiles[i % 2];
+        final int index = i % ENTRIES;
+        results.add(executor.submit(new Callable<Boolean>() {
+          public Boolean call() throws Exception {
+            ZipEntry entry = zipFile.getEntry(name(index));
+            return Boolean.valueOf(java.util.Arrays.equals(content(index), read(zipFile.getInputStream(entry))));
+          }
+        }));
+      }
+      for (Future<Boolean> result : results) {
+        Assert.assertTrue(result.get().booleanValue());
+      }
+    } finally {
+      executor.shutdown();
+      zipFiles[0].close();
+      zipFiles[1].close();
+      file.delete();
+    }
+  }
+  
+  @Test
+  public void test_interruptedReader() throws Exception
+  {
+    File file = createArchive(false);
+    MappedZipFile zipFile = new MappedZipFile(file, "UTF-8", false);
+    try {
+      Thread.currentThread().interrupt();
+      try {
+        read(zipFile.getInputStream(zipFile.getEntry(name(1))));
+        Assert.fail("interrupted read should fail");
+      } catch (IOException e) {
+        //ClosedByInterruptException
+      } finally {
+        Thread.interrupted();
+      }
+      Assert.assertArrayEquals(content(2), read(zipFile.getInputStream(zipFile.getEntry(name(2)))));
+    } finally {
+      zipFile.close();
+      file.delete();
+    }
+  }
+  
+  private static void verify(File file, boolean map) throws IOException
+  {
+    MappedZipFile zipFile = new MappedZipFile(file, "UTF-8", map);
+    try {
+      Assert.assertEquals(ENTRIES, zipFile.size());
+      Assert.assertEquals(map, zipFile.isMapped());
+      for (int i = 0; i < ENTRIES; i++) {
+        ZipEntry entry = zipFile.getEntry(name(i));
+        Assert.assertNotNull(name(i), entry);
+        Assert.assertEquals(content(i).length, zipFile.getSize(entry));
+        Assert.assertArrayEquals(name(i), content(i), read(zipFile.getInputStream(entry)));
+        
+        //transferTo
+        File target = File.createTempFile("transfer", ".bin");
+        FileChannel channel = new RandomAccessFile(target, "rw").getChannel();
+        try {
+          Assert.assertEquals(content(i).length, zipFile.transferTo(entry, channel));
+        } finally {
+          channel.close();
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        zipFile.transferTo(entry, Channels.newChannel(out));
+        Assert.assertArrayEquals(content(i), out.toByteArray());
+        Assert.assertEquals(content(i).length, target.length());
+        target.delete();
+      }
+      Assert.assertNull(zipFile.getEntry("none"));
+    } finally {
+      zipFile.close();
+    }
+  }
+  
+  private static File createArchive(boolean forceZip64) throws IOException
+  {
+    File file = File.createTempFile("mapped", ".zip");
+    ParallelZipOutputStream out = new ParallelZipOutputStream(new FileOutputStream(file), 2);
+    try {
+      out.setEncoding("UTF-8");
+      out.setForceZip64(forceZip64);
+      for (int i = 0; i < ENTRIES; i++) {
+        ZipEntry entry = new ZipEntry(name(i));
+        byte[] data = content(i);
+        if (i % 2 == 0) {
+          CRC32 crc = new CRC32();
+          crc.update(data);
+          entry.setMethod(ZipEntry.STORED);
+          entry.setSize(data.length);
+          entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        out.write(data);
+      }
+    } finally {
+      out.close();
+    }
+    return file;
+  }
+  
+  private static String name(int i)
+  {
+    return "dir" + (i % 3) + "/文件" + i + ".txt";
+  }
+  
+  private static byte[] content(int i)
+  {
+    return ParallelZipOutputStreamTest.sample(i * 20000, i);
+  }
+  
+  private static byte[] read(InputStream in) throws IOException
+  {
+    try {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buf = new byte[4096];
+      int len;
+      while ((len = in.read(buf)) != -1) {
+        out.write(buf, 0, len);
+      }
+      return out.toByteArray();
+    } finally {
+      in.close();
+    }
+  }
+
+}
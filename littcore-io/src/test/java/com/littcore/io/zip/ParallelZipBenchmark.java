@@ -0,0 +1,99 @@
+package com.littcore.io.zip;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import com.littcore.io.util.FileUtils;
+import com.littcore.io.util.ZipUtils;
+
+/**
+ * 顺序压缩（ZipUtils.zip）与并行压缩（ZipUtils.parallelZip）的性能对比.
+ * 
+ * <pre><b>描述：</b>
+ *    生成若干大文件及大量小文件，分别压缩多次取最好成绩。
+ *    参数：数据总量（MB，默认256） 线程数（默认为可用处理器数量）
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ParallelZipBenchmark {
+  
+  private static final int ROUNDS = 3;
+  
+  public static void main(String[] args) throws Exception
+  {
+    int totalMb = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+    int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+    
+    File root = new File(System.getProperty("java.io.tmpdir"), "zipbench" + System.nanoTime());
+    File src = new File(root, "src");
+    prepare(src, totalMb);
+    System.out.println("data: " + totalMb + "MB, threads: " + threads + ", chunking: " + ParallelZipOutputStream.isChunkingSupported());
+    
+    try {
+      File target = new File(root, "out.zip");
+      long sequential = Long.MAX_VALUE;
+      long parallel = Long.MAX_VALUE;
+      for (int i = 0; i < ROUNDS; i++) {
+        long start = System.nanoTime();
+        ZipUtils.zip(src, target);
+        sequential = Math.min(sequential, System.nanoTime() - start);
+        long sequentialSize = target.length();
+        target.delete();
+        
+        start = System.nanoTime();
+        ZipUtils.parallelZip(src, target, threads);
+        parallel = Math.min(parallel, System.nanoTime() - start);
+        long parallelSize = target.length();
+        target.delete();
+        
+        System.out.println("round " + (i + 1) + ": sequential " + FileUtils.humanReadableByteCount(sequentialSize)
+            + ", parallel " + FileUtils.humanReadableByteCount(parallelSize));
+      }
+      System.out.println(report("sequential", sequential, totalMb));
+      System.out.println(report("parallel", parallel, totalMb));
+      System.out.println("speedup: " + String.format("%.2f", (double) sequential / parallel) + "x");
+    } finally {
+      FileUtils.deleteDirectory(root);
+    }
+  }
+  
+  private static String report(String name, long nanos, int totalMb)
+  {
+    double seconds = nanos / 1e9;
+    return name + ": " + String.format("%.2fs, %.1f MB/s", seconds, totalMb / seconds);
+  }
+  
+  /**
+   * 一半为4个大文件，一半为64KB的小文件.
+   */
+  private static void prepare(File src, int totalMb) throws IOException
+  {
+    new File(src, "small").mkdirs();
+    long half = totalMb * 1024L * 1024L / 2;
+    byte[] block = ParallelZipOutputStreamTest.sample(1024 * 1024, 1);
+    for (int i = 0; i < 4; i++) {
+      FileOutputStream out = new FileOutputStream(new File(src, "big" + i + ".log"));
+      for (long written = 0; written < half / 4; written += block.length) {
+        block[(int) (written / block.length) % block.length] ^= (byte) i;
+        out.write(block);
+      }
+      out.close();
+    }
+    byte[] small = ParallelZipOutputStreamTest.sample(64 * 1024, 2);
+    for (int i = 0; i < half / small.length; i++) {
+      small[i % small.length] ^= (byte) i;
+      FileOutputStream out = new FileOutputStream(new File(src, "small/" + i + ".txt"));
+      out.write(small);
+      out.close();
+    }
+  }
+
+}
@@ -0,0 +1,262 @@
+package com.littcore.io.zip;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+import java.util.zip.CRC32;
+import java.util.zip.ZipInputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.littcore.io.util.ZipUtils;
+
+/**
+ * .
+ * 
+ * <pre><b>描述：</b>
+ *    用JDK的ZipFile/ZipInputStream及本包的ZipFile读取并行压缩生成的文件
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class ParallelZipOutputStreamTest {
+  
+  /** 4GB（ZIP格式的大小上限）. */
+  private static final long ZIP64_SIZE = 0xFFFFFFFFL;
+  
+  private static final String[] NAMES = {"a.txt", "big.log", "exact.bin", "empty.txt", "dir/", "stored.bin", "中文.txt"};
+  
+  @Test
+  public void test_combineCrc32()
+  {
+    byte[] data = sample(100000, 1);
+    CRC32 crc = new CRC32();
+    crc.update(data);
+    CRC32 crc1 = new CRC32();
+    crc1.update(data, 0, 30000);
+    CRC32 crc2 = new CRC32();
+    crc2.update(data, 30000, 70000);
+    Assert.assertEquals(crc.getValue(), ParallelZipOutputStream.combineCrc32(crc1.getValue(), crc2.getValue(), 70000));
+    Assert.assertEquals(crc1.getValue(), ParallelZipOutputStream.combineCrc32(crc1.getValue(), 0, 0));
+  }
+  
+  @Test
+  public void test_roundTrip() throws Exception
+  {
+    byte[][] contents = contents();
+    File file = File.createTempFile("parallel", ".zip");
+    try {
+      write(file, contents, false);
+      
+      java.util.zip.ZipFile zipFile = new java.util.zip.ZipFile(file);
+      try {
+        Assert.assertEquals(NAMES.length, zipFile.size());
+        for (int i = 0; i < NAMES.length; i++) {
+          java.util.zip.ZipEntry entry = zipFile.getEntry(NAMES[i]);
+          Assert.assertNotNull(NAMES[i], entry);
+          Assert.assertEquals(contents[i].length, entry.getSize());
+          Assert.assertArrayEquals(NAMES[i], contents[i], read(zipFile.getInputStream(entry)));
+        }
+      } finally {
+        zipFile.close();
+      }
+      
+      //按Data Descriptor顺序读取
+      ZipInputStream in = new ZipInputStream(new java.io.FileInputStream(file));
+      try {
+        for (int i = 0; i < NAMES.length; i++) {
+          java.util.zip.ZipEntry entry = in.getNextEntry();
+          Assert.assertEquals(NAMES[i], entry.getName());
+          Assert.assertArrayEquals(NAMES[i], contents[i], read(in));
+        }
+        Assert.assertNull(in.getNextEntry());
+      } finally {
+        in.close();
+      }
+      
+      ZipFile littZipFile = new ZipFile(file, "UTF-8");
+      try {
+        for (int i = 0; i < NAMES.length; i++) {
+          ZipEntry entry = littZipFile.getEntry(NAMES[i]);
+          Assert.assertArrayEquals(NAMES[i], contents[i], read(littZipFile.getInputStream(entry)));
+        }
+      } finally {
+        littZipFile.close();
+      }
+    } finally {
+      file.delete();
+    }
+  }
+  
+  @Test
+  public void test_forceZip64() throws Exception
+  {
+    byte[][] contents = contents();
+    File file = File.createTempFile("parallel64", ".zip");
+    try {
+      write(file, contents, true);
+      java.util.zip.ZipFile zipFile = new java.util.zip.ZipFile(file);
+      try {
+        Assert.assertEquals(NAMES.length, zipFile.size());
+        for (int i = 0; i < NAMES.length; i++) {
+          java.util.zip.ZipEntry entry = zipFile.getEntry(NAMES[i]);
+          Assert.assertEquals(contents[i].length, entry.getSize());
+          Assert.assertArrayEquals(NAMES[i], contents[i], read(zipFile.getInputStream(entry)));
+        }
+      } finally {
+        zipFile.close();
+      }
+    } finally {
+      file.delete();
+    }
+  }
+  
+  @Test
+  public void test_zip64Streaming() throws Exception
+  {
+    //超过4GB的条目，本地文件头带ZIP64扩展字段，Data Descriptor为8字节大小
+    byte[] buf = new byte[1024 * 1024];
+    long size = (ZIP64_SIZE / buf.length + 2) * buf.length;
+    File file = File.createTempFile("parallel64s", ".zip");
+    try {
+      ParallelZipOutputStream out = new ParallelZipOutputStream(new FileOutputStream(file), 4);
+      try {
+        out.setLevel(java.util.zip.Deflater.BEST_SPEED);
+        ZipEntry entry = new ZipEntry("huge.bin");
+        entry.setSize(ZIP64_SIZE);
+        out.putNextEntry(entry);
+        for (long written = 0; written < size; written += buf.length) {
+          out.write(buf);
+        }
+        out.closeEntry();
+        out.putNextEntry(new ZipEntry("after.txt"));
+        out.write("after".getBytes());
+        out.closeEntry();
+      } finally {
+        out.close();
+      }
+      
+      ZipInputStream in = new ZipInputStream(new java.io.FileInputStream(file));
+      try {
+        java.util.zip.ZipEntry entry = in.getNextEntry();
+        Assert.assertEquals("huge.bin", entry.getName());
+        Assert.assertEquals(1, entry.getExtra()[0]);    //ZIP64扩展字段的ID（0x0001）
+        Assert.assertEquals(0, entry.getExtra()[1]);
+        long count = 0;
+        int len;
+        while ((len = in.read(buf)) != -1) {
+          count += len;
+        }
+        Assert.assertEquals(size, count);
+        entry = in.getNextEntry();
+        Assert.assertEquals("after.txt", entry.getName());
+        Assert.assertEquals("after", new String(read(in)));
+        Assert.assertNull(in.getNextEntry());
+      } finally {
+        in.close();
+      }
+    } finally {
+      file.delete();
+    }
+  }
+  
+  @Test
+  public void test_parallelZip() throws Exception
+  {
+    File root = new File(System.getProperty("java.io.tmpdir"), "parallelzip" + System.nanoTime());
+    File src = new File(root, "src");
+    new File(src, "sub/empty").mkdirs();
+    byte[] big = sample(1500000, 2);
+    FileOutputStream out = new FileOutputStream(new File(src, "sub/big.dat"));
+    out.write(big);
+    out.close();
+    out = new FileOutputStream(new File(src, "small.txt"));
+    out.write("hello".getBytes());
+    out.close();
+    
+    File target = new File(root, "src.zip");
+    ZipUtils.parallelZip(src, target, 3);
+    ZipUtils.unzip(target, new File(root, "unzip"), false);
+    
+    Assert.assertArrayEquals(big, read(new java.io.FileInputStream(new File(root, "unzip/src/sub/big.dat"))));
+    Assert.assertEquals("hello", new String(read(new java.io.FileInputStream(new File(root, "unzip/src/small.txt")))));
+    Assert.assertTrue(new File(root, "unzip/src/sub/empty").isDirectory());
+    com.littcore.io.util.FileUtils.deleteDirectory(root);
+  }
+  
+  private static void write(File file, byte[][] contents, boolean forceZip64) throws IOException
+  {
+    ParallelZipOutputStream out = new ParallelZipOutputStream(new FileOutputStream(file), 4);
+    try {
+      out.setEncoding("UTF-8");
+      out.setChunkSize(64 * 1024);
+      out.setForceZip64(forceZip64);
+      for (int i = 0; i < NAMES.length; i++) {
+        ZipEntry entry = new ZipEntry(NAMES[i]);
+        if (NAMES[i].startsWith("stored")) {
+          CRC32 crc = new CRC32();
+          crc.update(contents[i]);
+          entry.setMethod(ZipEntry.STORED);
+          entry.setSize(contents[i].length);
+          entry.setCrc(crc.getValue());
+        }
+        out.putNextEntry(entry);
+        //分多次写入，跨越块边界
+        for (int offset = 0; offset < contents[i].length; offset += 10000) {
+          out.write(contents[i], offset, Math.min(10000, contents[i].length - offset));
+        }
+        out.closeEntry();
+      }
+    } finally {
+      out.close();
+    }
+  }
+  
+  private static byte[][] contents()
+  {
+    return new byte[][]{"hello world".getBytes(), sample(1000000, 3), sample(4 * 64 * 1024, 4), new byte[0], new byte[0], sample(200000, 5), "中文".getBytes()};
+  }
+  
+  /**
+   * 可压缩的测试数据.
+   */
+  static byte[] sample(int length, long seed)
+  {
+    Random random = new Random(seed);
+    byte[] data = new byte[length];
+    String[] words = {"littcore ", "zip ", "parallel ", "deflate ", "chunk ", "2026-10-17 ", "INFO ", "\n"};
+    int pos = 0;
+    while (pos < length) {
+      byte[] word = words[random.nextInt(words.length)].getBytes();
+      int n = Math.min(word.length, length - pos);
+      System.arraycopy(word, 0, data, pos, n);
+      pos += n;
+      if (pos < length && random.nextInt(10) == 0) {
+        data[pos++] = (byte) random.nextInt(256);
+      }
+    }
+    return data;
+  }
+  
+  private static byte[] read(InputStream in) throws IOException
+  {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buf = new byte[8192];
+    int len;
+    while ((len = in.read(buf)) != -1) {
+      out.write(buf, 0, len);
+    }
+    return out.toByteArray();
+  }
+
+}
@@ -0,0 +1,34 @@
+package com.littcore.log;
+
+import java.util.List;
+
+/** 
+ * 
+ * 批量日志记录接口.
+ * 
+ * <pre><b>描述：</b>
+ *    由OpLogPipeline的消费线程批量回调，实现类负责将一批日志写入存储（数据库、文件等），
+ *    同一个管道可注册多个实现. 
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ *
+ */
+public interface BatchAppender
+{
+	
+	/**
+	 * 记录一批日志.
+	 * 注：回调结束后列表会被复用，实现类不能持有该列表的引用
+	 *
+	 * @param logList 日志列表
+	 * @throws Exception 记录失败
+	 */
+	public void append(List<OpLogVo> logList) throws Exception;
+}
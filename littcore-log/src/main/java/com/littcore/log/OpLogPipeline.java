@@ -0,0 +1,509 @@
+package com.littcore.log;
+
+import java.io.File;
+import java.io.Flushable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.littcore.log.impl.OpLogSpool;
+import com.littcore.log.impl.RingBuffer;
+import com.littcore.metrics.MBeanUtils;
+import com.littcore.uid.OrderedUUIDGenerator;
+
+/**
+ *
+ * 操作日志管道.
+ *
+ * <pre><b>描述：</b>
+ *    请求线程通过publish将日志放入无锁环形队列，立即返回，不会因为数据库缓慢而阻塞；
+ *    独立的消费线程批量读取日志（达到批次大小或超过刷新间隔时），依次交给注册的记录器（BatchAppender）。
+ *    队列已满时按溢出策略处理：丢弃、采样或写入本地预写文件（OpLogSpool），并通过JMX（com.littcore.log:type=OpLogPipeline）暴露队列深度及丢弃数等指标。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 溢出文件改为分段的预写文件，带检查点，重启后继续入库且不重复；空闲时回调Flushable的记录器
+ *    2026-10-17 提交时生成日志ID，重新入库的日志保持原ID
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ *
+ */
+public class OpLogPipeline implements OpLogPipelineMBean
+{
+	private static final Logger logger = LoggerFactory.getLogger(OpLogPipeline.class);
+
+	/** 默认队列容量. */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	/** 默认批次大小. */
+	public static final int DEFAULT_BATCH_SIZE = 200;
+
+	/** 默认刷新间隔（毫秒）. */
+	public static final long DEFAULT_FLUSH_INTERVAL = 1000;
+
+	/** 默认采样率（保留1/N）. */
+	public static final int DEFAULT_SAMPLE_RATE = 10;
+
+	/** 消费线程空闲时的最长等待时间（纳秒）. */
+	private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+	/** 空闲时先自旋让出CPU的次数，之后逐步延长等待. */
+	private static final int SPIN_TRIES = 100;
+
+	/** 管道名称. */
+	private final String name;
+
+	private final RingBuffer<OpLogVo> ringBuffer;
+
+	/** 记录器. */
+	private final List<BatchAppender> appenders = new CopyOnWriteArrayList<BatchAppender>();
+
+	/** 溢出策略. */
+	private OverflowPolicy policy = OverflowPolicy.DROP;
+
+	/** 批次大小. */
+	private int batchSize = DEFAULT_BATCH_SIZE;
+
+	/** 刷新间隔（毫秒）. */
+	private long flushInterval = DEFAULT_FLUSH_INTERVAL;
+
+	/** 采样率. */
+	private int sampleRate = DEFAULT_SAMPLE_RATE;
+
+	/** 开始采样的队列深度（占容量的比例）. */
+	private double sampleThreshold = 0.75;
+
+	/** 溢出文件存放目录. */
+	private String spillDir = System.getProperty("java.io.tmpdir")+File.separator+"littcore-oplog";
+
+	private final AtomicLong offeredCount = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicLong spilledCount = new AtomicLong();
+
+	private final AtomicLong consumedCount = new AtomicLong();
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	/** 采样计数. */
+	private final AtomicLong sampleSeq = new AtomicLong();
+
+	/** 日志ID生成器. */
+	private final OrderedUUIDGenerator idGenerator = new OrderedUUIDGenerator();
+
+	private volatile boolean running = false;
+
+	private volatile OpLogSpool spillFile;
+
+	private Thread worker;
+
+	private ObjectName objectName;
+
+	public OpLogPipeline()
+	{
+		this("oplog", DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Instantiates a new op log pipeline.
+	 *
+	 * @param name 管道名称（用于线程名、溢出文件名及JMX）
+	 * @param capacity 队列容量（向上取整为2的幂）
+	 */
+	public OpLogPipeline(String name, int capacity)
+	{
+		this.name = name;
+		this.ringBuffer = new RingBuffer<OpLogVo>(capacity);
+	}
+
+	/**
+	 * 注册记录器.
+	 *
+	 * @param appender 记录器
+	 */
+	public void addAppender(BatchAppender appender)
+	{
+		appenders.add(appender);
+	}
+
+	/**
+	 * 注销记录器.
+	 *
+	 * @param appender 记录器
+	 */
+	public void removeAppender(BatchAppender appender)
+	{
+		appenders.remove(appender);
+	}
+
+	/**
+	 * 提交日志，不会阻塞.
+	 * 未设置日志ID时在此生成，之后写入预写文件及重新入库都使用同一ID
+	 *
+	 * @param opLogVo 日志
+	 * @return 日志被丢弃时返回false
+	 */
+	public boolean publish(OpLogVo opLogVo)
+	{
+		offeredCount.incrementAndGet();
+		if(opLogVo.getLogId()==null)
+			opLogVo.setLogId(idGenerator.nextString());
+		if(policy==OverflowPolicy.SAMPLE
+				&& ringBuffer.size()>=ringBuffer.capacity()*sampleThreshold
+				&& sampleSeq.incrementAndGet()%sampleRate!=0)
+		{
+			return drop();
+		}
+		if(ringBuffer.offer(opLogVo))
+			return true;
+		OpLogSpool spill = this.spillFile;
+		if(policy==OverflowPolicy.SPILL && spill!=null && spill.tryAppend(opLogVo))
+		{
+			spilledCount.incrementAndGet();
+			return true;
+		}
+		return drop();
+	}
+
+	private boolean drop()
+	{
+		long dropped = droppedCount.incrementAndGet();
+		if(dropped==1 || dropped%1000==0)
+		{
+			logger.warn("OpLog pipeline {} is overloaded, {} logs dropped.", name, dropped);
+		}
+		return false;
+	}
+
+	/**
+	 * 启动消费线程.
+	 */
+	public synchronized void start()
+	{
+		if(running)
+			return;
+		if(policy==OverflowPolicy.SPILL)
+		{
+			try {
+				this.spillFile = new OpLogSpool(new File(spillDir), name+"-overflow");
+			} catch (Exception e) {
+				logger.error("Unable to open OpLog spill file, overflow logs will be dropped.", e);
+			}
+		}
+		running = true;
+		worker = new Thread(new Runnable() {
+			public void run()
+			{
+				consume();
+			}
+		}, "OpLog-"+name);
+		worker.setDaemon(true);
+		worker.start();
+		objectName = MBeanUtils.register(this, "com.littcore.log", "OpLogPipeline", name);
+		if(logger.isInfoEnabled())
+		{
+			logger.info("OpLog pipeline {} started, capacity:{}, policy:{}.", new Object[]{name, ringBuffer.capacity(), policy});
+		}
+	}
+
+	/**
+	 * 停止消费线程，队列中剩余的日志入库后返回.
+	 *
+	 * @param timeout 最长等待时间（毫秒）
+	 */
+	public synchronized void stop(long timeout)
+	{
+		if(!running)
+			return;
+		running = false;
+		LockSupport.unpark(worker);
+		try {
+			worker.join(timeout);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		if(worker.isAlive())
+		{
+			logger.warn("OpLog pipeline {} did't stop smoothly, {} logs may be lost.", name, ringBuffer.size());
+			worker.interrupt();
+		}
+		if(spillFile!=null)
+		{
+			spillFile.close();
+			spillFile = null;
+		}
+		MBeanUtils.unregister(objectName);
+		objectName = null;
+	}
+
+	/**
+	 * 消费循环.
+	 */
+	private void consume()
+	{
+		List<OpLogVo> batch = new ArrayList<OpLogVo>(batchSize);
+		long batchStart = 0;
+		long lastFlush = System.currentTimeMillis();
+		int idle = 0;
+		while(running)
+		{
+			int count = ringBuffer.drainTo(batch, batchSize-batch.size());
+			long now = System.currentTimeMillis();
+			if(count>0 && batchStart==0)
+				batchStart = now;
+			if(batch.size()>=batchSize || (!batch.isEmpty() && now-batchStart>=flushInterval))
+			{
+				dispatch(batch);
+				batch.clear();
+				batchStart = 0;
+			}
+			if(count>0)
+			{
+				idle = 0;
+				continue;
+			}
+			if(batch.isEmpty() && spillFile!=null && spillFile.hasPending() && replaySpill()>0)	//队列空闲，处理溢出的日志
+			{
+				continue;
+			}
+			if(now-lastFlush>=flushInterval)	//空闲时让记录器处理积压的数据（如数据库恢复后重新入库）
+			{
+				flushAppenders();
+				lastFlush = now;
+			}
+			if(++idle<=SPIN_TRIES)
+				Thread.yield();
+			else
+				LockSupport.parkNanos(Math.min(MAX_PARK_NANOS, 1000L*(idle-SPIN_TRIES)));
+		}
+		//停止时将剩余日志入库
+		do
+		{
+			if(!batch.isEmpty())
+			{
+				dispatch(batch);
+				batch.clear();
+			}
+		}
+		while(ringBuffer.drainTo(batch, batchSize)>0);
+		if(spillFile!=null && spillFile.hasPending())
+			replaySpill();
+		flushAppenders();
+	}
+
+	/**
+	 * 回调实现了Flushable的记录器.
+	 */
+	private void flushAppenders()
+	{
+		for(BatchAppender appender : appenders)
+		{
+			if(appender instanceof Flushable)
+			{
+				try {
+					((Flushable)appender).flush();
+				} catch (Throwable e) {
+					logger.error("Flush OpLog appender "+appender.getClass().getName()+" failed.", e);
+				}
+			}
+		}
+	}
+
+	/**
+	 * 将一批日志交给所有记录器，记录器的异常不影响其他记录器及后续批次.
+	 */
+	private void dispatch(List<OpLogVo> batch)
+	{
+		for(BatchAppender appender : appenders)
+		{
+			try {
+				appender.append(batch);
+			} catch (Throwable e) {
+				failedCount.addAndGet(batch.size());
+				logger.error("OpLog appender "+appender.getClass().getName()+" failed, "+batch.size()+" logs lost.", e);
+			}
+		}
+		consumedCount.addAndGet(batch.size());
+	}
+
+	/**
+	 * 将溢出的日志按顺序交给记录器.
+	 *
+	 * @return 处理的日志数
+	 */
+	private int replaySpill()
+	{
+		try {
+			int count = spillFile.replay(new BatchAppender() {
+				public void append(List<OpLogVo> logList)
+				{
+					dispatch(logList);
+				}
+			}, batchSize);
+			if(count>0 && logger.isInfoEnabled())
+			{
+				logger.info("OpLog pipeline {} replayed {} spilled logs.", name, count);
+			}
+			return count;
+		} catch (Exception e) {
+			logger.error("Replay OpLog spill file failed.", e);
+			return 0;
+		}
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getName()
+	 */
+	public String getName()
+	{
+		return name;
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getPolicy()
+	 */
+	public String getPolicy()
+	{
+		return policy.name();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getCapacity()
+	 */
+	public int getCapacity()
+	{
+		return ringBuffer.capacity();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getDepth()
+	 */
+	public int getDepth()
+	{
+		return ringBuffer.size();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getOfferedCount()
+	 */
+	public long getOfferedCount()
+	{
+		return offeredCount.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getDroppedCount()
+	 */
+	public long getDroppedCount()
+	{
+		return droppedCount.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getSpilledCount()
+	 */
+	public long getSpilledCount()
+	{
+		return spilledCount.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getConsumedCount()
+	 */
+	public long getConsumedCount()
+	{
+		return consumedCount.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#getFailedCount()
+	 */
+	public long getFailedCount()
+	{
+		return failedCount.get();
+	}
+
+	/* (non-Javadoc)
+	 * @see com.littcore.log.OpLogPipelineMBean#isRunning()
+	 */
+	public boolean isRunning()
+	{
+		return running;
+	}
+
+	/**
+	 * @param policy the policy to set
+	 */
+	public void setPolicy(OverflowPolicy policy)
+	{
+		this.policy = policy;
+	}
+
+	/**
+	 * @return the batchSize
+	 */
+	public int getBatchSize()
+	{
+		return batchSize;
+	}
+
+	/**
+	 * @param batchSize the batchSize to set
+	 */
+	public void setBatchSize(int batchSize)
+	{
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * @return the flushInterval
+	 */
+	public long getFlushInterval()
+	{
+		return flushInterval;
+	}
+
+	/**
+	 * @param flushInterval the flushInterval to set
+	 */
+	public void setFlushInterval(long flushInterval)
+	{
+		this.flushInterval = flushInterval;
+	}
+
+	/**
+	 * @param sampleRate the sampleRate to set
+	 */
+	public void setSampleRate(int sampleRate)
+	{
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * @param sampleThreshold the sampleThreshold to set
+	 */
+	public void setSampleThreshold(double sampleThreshold)
+	{
+		this.sampleThreshold = sampleThreshold;
+	}
+
+	/**
+	 * @param spillDir the spillDir to set
+	 */
+	public void setSpillDir(String spillDir)
+	{
+		this.spillDir = spillDir;
+	}
+}
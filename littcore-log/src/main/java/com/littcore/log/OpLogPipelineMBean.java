@@ -0,0 +1,71 @@
+package com.littcore.log;
+
+/** 
+ * 
+ * 日志管道监控接口.
+ * 
+ * <pre><b>描述：</b>
+ *    通过JMX暴露队列深度、丢弃数等运行指标. 
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ *
+ */
+public interface OpLogPipelineMBean
+{
+	/**
+	 * @return 管道名称
+	 */
+	public String getName();
+	
+	/**
+	 * @return 溢出策略
+	 */
+	public String getPolicy();
+	
+	/**
+	 * @return 队列容量
+	 */
+	public int getCapacity();
+	
+	/**
+	 * @return 队列中的日志数
+	 */
+	public int getDepth();
+	
+	/**
+	 * @return 提交的日志数
+	 */
+	public long getOfferedCount();
+	
+	/**
+	 * @return 丢弃（含采样丢弃）的日志数
+	 */
+	public long getDroppedCount();
+	
+	/**
+	 * @return 写入溢出文件的日志数
+	 */
+	public long getSpilledCount();
+	
+	/**
+	 * @return 已交给记录器的日志数
+	 */
+	public long getConsumedCount();
+	
+	/**
+	 * @return 记录失败的日志数
+	 */
+	public long getFailedCount();
+	
+	/**
+	 * @return 是否运行中
+	 */
+	public boolean isRunning();
+}
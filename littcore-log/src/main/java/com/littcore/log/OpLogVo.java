@@ -11,7 +11,7 @@ import java.util.Date;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 增加日志ID，提交时生成，重新入库时以主键识别已入库的日志
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -21,6 +21,9 @@ import java.util.Date;
  */
 public class OpLogVo
 {		
+	/** 日志ID（按时间排序的UUID）. */
+	private String logId;
+	
 	/** 模块编号. */
 	private String moduleCode;
 	
@@ -51,6 +54,22 @@ public class OpLogVo
 	 */
 	private boolean status;
 
+	/**
+	 * @return the logId
+	 */
+	public String getLogId()
+	{
+		return logId;
+	}
+
+	/**
+	 * @param logId the logId to set
+	 */
+	public void setLogId(String logId)
+	{
+		this.logId = logId;
+	}
+
 	/**
 	 * @return the content
 	 */
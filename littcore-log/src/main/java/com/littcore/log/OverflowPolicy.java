@@ -0,0 +1,30 @@
+package com.littcore.log;
+
+/** 
+ * 
+ * 日志队列溢出策略.
+ * 
+ * <pre><b>描述：</b>
+ *    日志写入速度跟不上产生速度时的处理方式，任何策略下产生日志的请求线程都不会被阻塞. 
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ *
+ */
+public enum OverflowPolicy
+{
+	/** 队列已满时丢弃新日志. */
+	DROP,
+	
+	/** 队列超过采样阈值后按采样率保留日志，已满时丢弃. */
+	SAMPLE,
+	
+	/** 队列已满时写入本地溢出文件，队列空闲后再重新入库. */
+	SPILL
+}
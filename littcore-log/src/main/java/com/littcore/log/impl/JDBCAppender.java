@@ -1,11 +1,13 @@
 package com.littcore.log.impl;
 
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.UUID;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
 
@@ -15,7 +17,9 @@ import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
 import com.littcore.log.Appender;
+import com.littcore.log.BatchAppender;
 import com.littcore.log.OpLogVo;
+import com.littcore.uid.OrderedUUIDGenerator;
 
 
 /**
@@ -24,18 +28,50 @@ import com.littcore.log.OpLogVo;
  * 操作日志入库
  * </pre>
  * 
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 实现BatchAppender，可作为OpLogPipeline的记录器使用（不需要日志缓存队列）
+ *    2026-10-17 支持本地预写文件（OpLogSpool），入库失败的日志写入本地，数据库恢复后按顺序重新入库
+ *    2026-10-17 按条数或时间（先到者）批量入库；支持多行VALUES的数据库使用多行INSERT；LOG_ID改为按时间排序的UUID
+ *    2026-10-17 LOG_ID在提交时生成并写入预写文件，重新入库遇到主键冲突时逐行入库并跳过已入库的日志
+ *    2026-10-17 生成LOG_ID时复制日志对象，不修改调用方的日志；只将唯一约束冲突视为已入库
+ * </pre>
+ * 
  * @author <a href="mailto:littcai@hotmail.com">空心大白菜</a>
  * @since 2008-11-21 14:57:25
  * @version 1.0
  */
-public class JDBCAppender implements Appender
+public class JDBCAppender implements Appender, BatchAppender, Flushable, Closeable
 { 	
 	
 	/** The Constant logger. */
 	private static final Log logger = LogFactory.getLog(JDBCAppender.class);
 	
+	/** 字段列表. */
+	private static final String COLUMNS = "(LOG_ID,MODULE_CODE,FUNC_CODE,FUNC_TYPE,OP_ID,OP_NAME,OP_IP,OP_DATETIME,CONTENT,STATUS)";
+	
+	/** 每行的参数. */
+	private static final String ROW_PARAMS = "(?,?,?,?,?,?,?,?,?,?)";
+	
+	/** 每行的参数个数. */
+	private static final int PARAM_COUNT = 10;
+	
+	/** 日志表名. */
+	private String tableName = "OP_LOG";
+	
 	/** The Constant INSERT_SQL. */
-	private String INSERT_SQL = "INSERT INTO OP_LOG(LOG_ID, MODULE_CODE,FUNC_CODE,FUNC_TYPE,OP_ID,OP_NAME,OP_IP,OP_DATETIME,CONTENT,STATUS) VALUES(?,?,?,?,?,?,?,?,?,?)";
+	private String INSERT_SQL = "INSERT INTO OP_LOG"+COLUMNS+" VALUES"+ROW_PARAMS;
+	
+	/** 是否使用多行VALUES插入，为空时根据数据库类型自动判断. */
+	private Boolean multiRowInsert;
+	
+	/** 每条多行INSERT语句的最大行数. */
+	private int rowsPerStatement = 100;
+	
+	/** 根据数据库类型确定的每条语句行数，1表示使用JDBC批处理，0表示尚未判断. */
+	private volatile int resolvedRows = 0;
+	
+	/** 日志ID生成器（按时间递增，避免随机UUID造成索引碎片）. */
+	private final OrderedUUIDGenerator idGenerator = new OrderedUUIDGenerator();
 	
 	/** 日志缓存队列. */
 	private BlockingQueue<OpLogVo> logCacheQueue;	
@@ -46,12 +82,44 @@ public class JDBCAppender implements Appender
 	/** 批量入库缓存数量. */
 	private int bufferSize = 100;
 	
-	/** 自动刷新时间(毫秒). */
-	private long flushTime = 30000;	
+	/** 自动刷新时间(毫秒)：收到第一条日志后最多等待的时间. */
+	private long flushTime = 1000;	
 	
 	/** 是否停止日志记录. */
 	private boolean isStop = false;
 	
+	/** 本地预写文件，为空时入库失败的日志直接丢弃. */
+	private OpLogSpool spool;
+	
+	/** 入库失败后重试的间隔(毫秒). */
+	private long retryInterval = 5000;
+	
+	/** 下次重试入库的时间. */
+	private long nextRetryTime = 0;
+	
+	/**
+	 * Instantiates a new jDBC appender.
+	 * 用于OpLogPipeline，由管道批量回调append
+	 * 
+	 * @param dataSource 数据源
+	 */
+	public JDBCAppender(DataSource dataSource)
+	{
+		this(null, dataSource);
+	}
+	
+	/**
+	 * Instantiates a new jDBC appender.
+	 * 用于OpLogPipeline，由管道批量回调append
+	 * 
+	 * @param dataSource 数据源
+	 * @param tableName 日志表名称
+	 */
+	public JDBCAppender(DataSource dataSource,String tableName)
+	{
+		this(null, dataSource, tableName);
+	}
+	
 	/**
 	 * Instantiates a new jDBC appender.
 	 * 
@@ -75,54 +143,380 @@ public class JDBCAppender implements Appender
 	{
 		this.logCacheQueue = logCacheQueue;		
 		this.dataSource = dataSource;
-		INSERT_SQL = "INSERT INTO "+tableName+"(LOG_ID,MODULE_CODE,FUNC_CODE,FUNC_TYPE,OP_ID,OP_NAME,OP_IP,OP_DATETIME,CONTENT,STATUS) VALUES(?,?,?,?,?,?,?,?,?,?)";
+		this.tableName = tableName;
+		INSERT_SQL = "INSERT INTO "+tableName+COLUMNS+" VALUES"+ROW_PARAMS;
 	}
 
+	/* (non-Javadoc)
+	 * @see com.littcore.log.BatchAppender#append(java.util.List)
+	 */
+	public void append(List<OpLogVo> logList) throws Exception
+	{
+		logList = this.assignLogId(logList);
+		if(spool==null)
+		{
+			this.batchLog(logList, false);
+			return;
+		}
+		//本地还有未入库的日志时，新日志排在其后，保证入库顺序
+		if(spool.hasPending() && !this.replaySpool())
+		{
+			this.spoolLog(logList);
+			return;
+		}
+		try
+		{
+			this.batchLog(logList, false);
+		}
+		catch (RuntimeException e)
+		{
+			nextRetryTime = System.currentTimeMillis() + retryInterval;
+			this.spoolLog(logList);
+		}
+	}
+	
+	/**
+	 * 为没有ID的日志生成ID（写入预写文件前确定），复制日志对象，调用方的日志不变.
+	 *
+	 * @param logList 日志列表
+	 * @return 全部有ID的日志列表，均已有ID时返回原列表
+	 */
+	private List<OpLogVo> assignLogId(List<OpLogVo> logList)
+	{
+		List<OpLogVo> result = null;
+		for(int i=0;i<logList.size();i++)
+		{
+			OpLogVo opLogVo = logList.get(i);
+			if(opLogVo.getLogId()!=null)
+			{
+				if(result!=null)
+					result.add(opLogVo);
+				continue;
+			}
+			if(result==null)
+			{
+				result = new ArrayList<OpLogVo>(logList.size());
+				result.addAll(logList.subList(0, i));
+			}
+			result.add(copyLog(opLogVo, idGenerator.nextString()));
+		}
+		return result==null ? logList : result;
+	}
+	
+	private static OpLogVo copyLog(OpLogVo opLogVo, String logId)
+	{
+		OpLogVo copy = new OpLogVo();
+		copy.setLogId(logId);
+		copy.setModuleCode(opLogVo.getModuleCode());
+		copy.setFuncCode(opLogVo.getFuncCode());
+		copy.setFuncType(opLogVo.getFuncType());
+		copy.setOpId(opLogVo.getOpId());
+		copy.setOpName(opLogVo.getOpName());
+		copy.setOpIp(opLogVo.getOpIp());
+		copy.setOpDatetime(opLogVo.getOpDatetime());
+		copy.setContent(opLogVo.getContent());
+		copy.setStatus(opLogVo.getStatus());
+		return copy;
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.io.Flushable#flush()
+	 */
+	public void flush() throws IOException
+	{
+		if(spool!=null && spool.hasPending())
+			this.replaySpool();
+	}
+	
+	/* (non-Javadoc)
+	 * @see java.io.Closeable#close()
+	 */
+	public void close() throws IOException
+	{
+		if(spool!=null)
+			spool.close();
+	}
+	
+	/**
+	 * 将本地的日志重新入库，未到重试时间或数据库仍不可用时返回false.
+	 *
+	 * @return 是否已全部入库
+	 */
+	private boolean replaySpool()
+	{
+		if(System.currentTimeMillis()<nextRetryTime)
+			return false;
+		try
+		{
+			int count = spool.replay(new BatchAppender() {
+				public void append(List<OpLogVo> logList) throws Exception
+				{
+					batchLog(logList, true);	//批次可能已入库但检查点未更新
+				}
+			}, bufferSize);
+			if(count>0 && logger.isInfoEnabled())
+			{
+				logger.info("Replayed "+count+" spooled OpLogs.");
+			}
+			return !spool.hasPending();
+		}
+		catch (Exception e)
+		{
+			nextRetryTime = System.currentTimeMillis() + retryInterval;
+			logger.warn("Replay spooled OpLog failed, retry after "+retryInterval+"ms.");
+			return false;
+		}
+	}
+	
+	/**
+	 * 写入本地预写文件.
+	 *
+	 * @param logList 日志列表
+	 * @throws IOException 预写文件已满或无法写入
+	 */
+	private void spoolLog(List<OpLogVo> logList) throws IOException
+	{
+		if(!spool.append(logList))
+			throw new IOException("Spool OpLog failed, "+logList.size()+" logs lost.");
+	}
+	
 	/**
 	 * 保存操作日志.
 	 * 
 	 * @param busiLogList 业务日志队列
+	 * @param replay 是否为重新入库，是则主键冲突时逐行入库并跳过已入库的日志
 	 */
-	private void batchLog(List<OpLogVo> busiLogList)
+	private void batchLog(List<OpLogVo> busiLogList, boolean replay)
 	{		
 		Connection conn = null;
-		PreparedStatement stmt = null;
 		try
 		{
 			conn = dataSource.getConnection();
 			conn.setAutoCommit(false);
-			stmt = conn.prepareStatement(INSERT_SQL);			
-			for(int i=0;i<busiLogList.size();i++)
+			int rows = this.resolveRows(conn);
+			try
 			{
-				OpLogVo opLogVo = busiLogList.get(i);
-				stmt.setString(1, UUID.randomUUID().toString());
-				stmt.setString(2, opLogVo.getModuleCode());	
-				stmt.setString(3, opLogVo.getFuncCode());	
-				stmt.setInt(4, opLogVo.getFuncType());						
-				stmt.setLong(5, opLogVo.getOpId()==null?0:opLogVo.getOpId());
-				stmt.setString(6, opLogVo.getOpName());
-				stmt.setString(7, opLogVo.getOpIp());
-				stmt.setTimestamp(8, new java.sql.Timestamp(opLogVo.getOpDatetime().getTime()));
-				stmt.setString(9, opLogVo.getContent());				
-				stmt.setBoolean(10, opLogVo.getStatus());
-				stmt.addBatch();
+				if(rows>1 && busiLogList.size()>1)
+					this.insertMultiRow(conn, busiLogList, rows);
+				else
+					this.insertBatch(conn, busiLogList);
+				conn.commit();
+			}
+			catch (SQLException e)
+			{
+				if(!replay || !isDuplicateKey(e))
+					throw e;
+				rollback(conn);
+				int skipped = this.insertEach(conn, busiLogList);
+				if(logger.isInfoEnabled())
+				{
+					logger.info("Skipped "+skipped+" replayed OpLogs already stored.");
+				}
 			}
-			stmt.executeBatch();
-			conn.commit();
 		}
 		catch (Exception e)
 		{
 			logger.error("Store OpLog failed.",e);  
-			closeStmt(stmt);
+			rollback(conn);
 			throw new RuntimeException("Store OpLog failed.",e);			
 		}
 		finally
 		{
-			closeStmt(stmt);
 			closeConnection(conn);
 		}
 	}
 	
+	/**
+	 * 逐行插入并提交，跳过主键冲突（已入库）的日志.
+	 *
+	 * @return 跳过的行数
+	 */
+	private int insertEach(Connection conn, List<OpLogVo> busiLogList) throws SQLException
+	{
+		int skipped = 0;
+		PreparedStatement stmt = null;
+		try
+		{
+			stmt = conn.prepareStatement(INSERT_SQL);
+			for(int i=0;i<busiLogList.size();i++)
+			{
+				this.setRow(stmt, 0, busiLogList.get(i));
+				try
+				{
+					stmt.executeUpdate();
+					conn.commit();
+				}
+				catch (SQLException e)
+				{
+					if(!isDuplicateKey(e))
+						throw e;
+					rollback(conn);
+					skipped++;
+				}
+			}
+		}
+		finally
+		{
+			closeStmt(stmt);
+		}
+		return skipped;
+	}
+	
+	/**
+	 * 是否为主键（唯一约束）冲突.
+	 * SQLState为23505（PostgreSQL、H2、DB2、Derby等），或SQLState为23000且错误码为
+	 * 1062（MySQL）、1（Oracle ORA-00001）、2627/2601（SQL Server）；其他完整性约束错误（如非空、外键）不算
+	 */
+	static boolean isDuplicateKey(SQLException e)
+	{
+		for(SQLException ex = e; ex!=null; ex = ex.getNextException())
+		{
+			String state = ex.getSQLState();
+			if("23505".equals(state))
+				return true;
+			if("23000".equals(state))
+			{
+				int code = ex.getErrorCode();
+				if(code==1062 || code==1 || code==2627 || code==2601)
+					return true;
+			}
+		}
+		return false;
+	}
+	
+	/**
+	 * JDBC批处理插入.
+	 */
+	private void insertBatch(Connection conn, List<OpLogVo> busiLogList) throws SQLException
+	{
+		PreparedStatement stmt = null;
+		try
+		{
+			stmt = conn.prepareStatement(INSERT_SQL);			
+			for(int i=0;i<busiLogList.size();i++)
+			{
+				this.setRow(stmt, 0, busiLogList.get(i));
+				stmt.addBatch();
+			}
+			stmt.executeBatch();
+		}
+		finally
+		{
+			closeStmt(stmt);
+		}
+	}
+	
+	/**
+	 * 多行VALUES插入：每条语句rows行，减少语句数及网络往返，剩余不足rows行的用一条较短的语句.
+	 */
+	private void insertMultiRow(Connection conn, List<OpLogVo> busiLogList, int rows) throws SQLException
+	{
+		int size = busiLogList.size();
+		int fullCount = size / rows;
+		int index = 0;
+		if(fullCount>0)
+		{
+			PreparedStatement stmt = null;
+			try
+			{
+				stmt = conn.prepareStatement(this.buildMultiRowSql(rows));
+				for(int i=0;i<fullCount;i++)
+				{
+					for(int j=0;j<rows;j++)
+					{
+						this.setRow(stmt, j, busiLogList.get(index++));
+					}
+					if(fullCount>1)
+						stmt.addBatch();
+				}
+				if(fullCount>1)
+					stmt.executeBatch();
+				else
+					stmt.executeUpdate();
+			}
+			finally
+			{
+				closeStmt(stmt);
+			}
+		}
+		int rest = size - index;
+		if(rest>0)
+		{
+			PreparedStatement stmt = null;
+			try
+			{
+				stmt = conn.prepareStatement(this.buildMultiRowSql(rest));
+				for(int j=0;j<rest;j++)
+				{
+					this.setRow(stmt, j, busiLogList.get(index++));
+				}
+				stmt.executeUpdate();
+			}
+			finally
+			{
+				closeStmt(stmt);
+			}
+		}
+	}
+	
+	private String buildMultiRowSql(int rows)
+	{
+		StringBuilder sql = new StringBuilder(tableName.length()+COLUMNS.length()+rows*(ROW_PARAMS.length()+1)+20);
+		sql.append("INSERT INTO ").append(tableName).append(COLUMNS).append(" VALUES");
+		for(int i=0;i<rows;i++)
+		{
+			if(i>0)
+				sql.append(',');
+			sql.append(ROW_PARAMS);
+		}
+		return sql.toString();
+	}
+	
+	/**
+	 * 设置一行的参数.
+	 *
+	 * @param stmt the stmt
+	 * @param row 语句中的行号（从0开始）
+	 * @param opLogVo 日志
+	 */
+	private void setRow(PreparedStatement stmt, int row, OpLogVo opLogVo) throws SQLException
+	{
+		int offset = row*PARAM_COUNT;
+		stmt.setString(offset+1, opLogVo.getLogId()==null ? idGenerator.nextString() : opLogVo.getLogId());	//预写文件中无ID的日志
+		stmt.setString(offset+2, opLogVo.getModuleCode());	
+		stmt.setString(offset+3, opLogVo.getFuncCode());	
+		stmt.setInt(offset+4, opLogVo.getFuncType());						
+		stmt.setLong(offset+5, opLogVo.getOpId()==null?0:opLogVo.getOpId());
+		stmt.setString(offset+6, opLogVo.getOpName());
+		stmt.setString(offset+7, opLogVo.getOpIp());
+		stmt.setTimestamp(offset+8, new java.sql.Timestamp(opLogVo.getOpDatetime().getTime()));
+		stmt.setString(offset+9, opLogVo.getContent());				
+		stmt.setBoolean(offset+10, opLogVo.getStatus());
+	}
+	
+	/**
+	 * 确定每条INSERT语句的行数.
+	 * 未指定multiRowInsert时，MySQL、PostgreSQL、H2等支持多行VALUES的数据库使用多行插入，其他数据库（如Oracle）使用JDBC批处理
+	 */
+	private int resolveRows(Connection conn) throws SQLException
+	{
+		if(multiRowInsert!=null && !multiRowInsert.booleanValue())
+			return 1;
+		if(resolvedRows==0)
+		{
+			String product = conn.getMetaData().getDatabaseProductName().toLowerCase();
+			int rows = Math.max(rowsPerStatement, 1);
+			if(product.contains("microsoft sql server"))
+				rows = Math.min(rows, Math.min(1000, 2100/PARAM_COUNT - 1));	//单条语句最多1000行、2100个参数
+			else if(!(Boolean.TRUE.equals(multiRowInsert) 
+					|| product.contains("mysql") || product.contains("mariadb") || product.contains("postgresql") 
+					|| product.contains("h2") || product.contains("hsql") || product.contains("sqlite") || product.contains("db2")))
+				rows = 1;
+			resolvedRows = rows;
+		}
+		return resolvedRows;
+	}
+	
 	/**
 	 * Close stmt.
 	 * 
@@ -141,6 +535,24 @@ public class JDBCAppender implements Appender
 		}
 	}	
 	
+	/**
+	 * Rollback.
+	 * 
+	 * @param conn the conn
+	 */
+	private void rollback(Connection conn)
+	{
+		try 
+		{
+		   if (conn != null && !conn.isClosed())
+			   conn.rollback();
+		} 
+		catch (SQLException e) 
+		{
+			logger.error("Rollback OpLog failed.",e);       
+		}
+	}
+	
 	/**
 	 * Close connection.
 	 * 
@@ -173,19 +585,29 @@ public class JDBCAppender implements Appender
 		{
 			try
 			{
-				List<OpLogVo> busiLogList = new ArrayList<OpLogVo>();
-				for(int i=0;i<this.bufferSize;i++)	//每次等待满缓存条数才一次入库
+				OpLogVo first = logCacheQueue.poll(flushTime, TimeUnit.MILLISECONDS);	//队列为空时阻塞指定时间间隔，期间检查停止标志
+				if(first==null)
 				{
-					OpLogVo busiLogVo = logCacheQueue.poll(flushTime, TimeUnit.MILLISECONDS);	//队列不为空时马上消费；为空时阻塞指定时间间隔
-					if(busiLogVo!=null)
-					{
-						busiLogList.add(busiLogVo);						
-					}
-					else
-						break;	//如果长时间没收到日志，且到了刷新时间，则直接入库					
+					this.flush();
+					continue;
+				}
+				//达到缓存条数或距收到第一条日志超过刷新时间（先到者）即入库
+				List<OpLogVo> busiLogList = new ArrayList<OpLogVo>(this.bufferSize);
+				busiLogList.add(first);
+				long deadline = System.currentTimeMillis() + flushTime;
+				while(busiLogList.size()<this.bufferSize)
+				{
+					if(logCacheQueue.drainTo(busiLogList, this.bufferSize-busiLogList.size())>0)
+						continue;
+					long remaining = deadline - System.currentTimeMillis();
+					if(remaining<=0)
+						break;
+					OpLogVo busiLogVo = logCacheQueue.poll(remaining, TimeUnit.MILLISECONDS);
+					if(busiLogVo==null)
+						break;
+					busiLogList.add(busiLogVo);
 				}
-				if(busiLogList.size()>0)	//有日志存在才入库
-					this.batchLog(busiLogList);
+				this.append(busiLogList);
 			}
 			catch (InterruptedException e)
 			{				
@@ -220,5 +642,49 @@ public class JDBCAppender implements Appender
 		return flushTime;
 	}
 
+	/**
+	 * @param bufferSize the bufferSize to set
+	 */
+	public void setBufferSize(int bufferSize) {
+		this.bufferSize = bufferSize;
+	}
+
+	/**
+	 * @param flushTime the flushTime to set
+	 */
+	public void setFlushTime(long flushTime) {
+		this.flushTime = flushTime;
+	}
+
+	/**
+	 * @param multiRowInsert 是否使用多行VALUES插入，为空时根据数据库类型自动判断
+	 */
+	public void setMultiRowInsert(Boolean multiRowInsert) {
+		this.multiRowInsert = multiRowInsert;
+		this.resolvedRows = 0;
+	}
+
+	/**
+	 * @param rowsPerStatement the rowsPerStatement to set
+	 */
+	public void setRowsPerStatement(int rowsPerStatement) {
+		this.rowsPerStatement = rowsPerStatement;
+		this.resolvedRows = 0;
+	}
+
+	/**
+	 * @param spool the spool to set
+	 */
+	public void setSpool(OpLogSpool spool) {
+		this.spool = spool;
+	}
+
+	/**
+	 * @param retryInterval the retryInterval to set
+	 */
+	public void setRetryInterval(long retryInterval) {
+		this.retryInterval = retryInterval;
+	}
+
 
 }
\ No newline at end of file
@@ -0,0 +1,135 @@
+package com.littcore.log.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Date;
+
+import com.littcore.log.OpLogVo;
+
+/**
+ * 操作日志二进制编码.
+ *
+ * <pre><b>描述：</b>
+ *    用于将日志写入本地文件，按字段顺序紧凑编码，字符串以UTF-8字节及长度保存（不受writeUTF的64K限制），
+ *    可为空的字段以长度-1或标志位表示NULL.
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 增加日志ID字段（第一个字段）
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public final class OpLogCodec
+{
+	private static final String CHARSET = "UTF-8";
+
+	private OpLogCodec(){}
+
+	/**
+	 * 编码为字节数组.
+	 *
+	 * @param opLogVo 日志
+	 * @return the byte[]
+	 */
+	public static byte[] encode(OpLogVo opLogVo)
+	{
+		ByteArrayOutputStream bos = new ByteArrayOutputStream(128);
+		try {
+			write(new DataOutputStream(bos), opLogVo);
+		} catch (IOException e) {	//内存流不会出现
+			throw new IllegalStateException(e);
+		}
+		return bos.toByteArray();
+	}
+
+	/**
+	 * 从字节数组解码.
+	 *
+	 * @param bytes 字节数组
+	 * @return the op log vo
+	 * @throws IOException 数据不完整
+	 */
+	public static OpLogVo decode(byte[] bytes) throws IOException
+	{
+		return read(new DataInputStream(new ByteArrayInputStream(bytes)));
+	}
+
+	/**
+	 * 写入日志.
+	 *
+	 * @param out 输出
+	 * @param opLogVo 日志
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static void write(DataOutput out, OpLogVo opLogVo) throws IOException
+	{
+		writeString(out, opLogVo.getLogId());
+		writeString(out, opLogVo.getModuleCode());
+		writeString(out, opLogVo.getFuncCode());
+		out.writeBoolean(opLogVo.getFuncType()!=null);
+		if(opLogVo.getFuncType()!=null)
+			out.writeInt(opLogVo.getFuncType().intValue());
+		out.writeBoolean(opLogVo.getOpId()!=null);
+		if(opLogVo.getOpId()!=null)
+			out.writeLong(opLogVo.getOpId().longValue());
+		writeString(out, opLogVo.getOpName());
+		writeString(out, opLogVo.getOpIp());
+		out.writeLong(opLogVo.getOpDatetime()==null ? Long.MIN_VALUE : opLogVo.getOpDatetime().getTime());
+		writeString(out, opLogVo.getContent());
+		out.writeBoolean(opLogVo.getStatus());
+	}
+
+	/**
+	 * 读取日志.
+	 *
+	 * @param in 输入
+	 * @return the op log vo
+	 * @throws IOException Signals that an I/O exception has occurred.
+	 */
+	public static OpLogVo read(DataInput in) throws IOException
+	{
+		OpLogVo opLogVo = new OpLogVo();
+		opLogVo.setLogId(readString(in));
+		opLogVo.setModuleCode(readString(in));
+		opLogVo.setFuncCode(readString(in));
+		opLogVo.setFuncType(in.readBoolean() ? Integer.valueOf(in.readInt()) : null);
+		opLogVo.setOpId(in.readBoolean() ? Long.valueOf(in.readLong()) : null);
+		opLogVo.setOpName(readString(in));
+		opLogVo.setOpIp(readString(in));
+		long time = in.readLong();
+		opLogVo.setOpDatetime(time==Long.MIN_VALUE ? null : new Date(time));
+		opLogVo.setContent(readString(in));
+		opLogVo.setStatus(in.readBoolean());
+		return opLogVo;
+	}
+
+	private static void writeString(DataOutput out, String str) throws IOException
+	{
+		if(str==null)
+		{
+			out.writeInt(-1);
+			return;
+		}
+		byte[] bytes = str.getBytes(CHARSET);
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+
+	private static String readString(DataInput in) throws IOException
+	{
+		int length = in.readInt();
+		if(length<0)
+			return null;
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return new String(bytes, CHARSET);
+	}
+}
@@ -0,0 +1,551 @@
+package com.littcore.log.impl;
+
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.littcore.log.BatchAppender;
+import com.littcore.log.OpLogVo;
+
+/**
+ * 操作日志本地预写文件（WAL）.
+ *
+ * <pre><b>描述：</b>
+ *    日志以追加方式写入分段文件（name-序号.seg），每条记录为：长度(4) + CRC32(4) + 编码内容，
+ *    当前分段超过segmentSize后切换到下一个分段，分段总数达到maxSegments后拒绝写入（占用空间有上限）。
+ *    重新入库时从检查点（name.checkpoint：分段序号+偏移量）开始按写入顺序读取，每批成功后先更新检查点，
+ *    读完的分段在检查点更新后删除，因此重启后不会重复读取已入库的批次；批次失败时检查点不变，下次从该批次重试。
+ *    不完整或校验失败的记录（如写入过程中进程退出）视为该分段结束。
+ *    打开时对name.lock加文件锁，同一目录及名称同时只能由一个进程（或一个实例）打开.
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *    2026-10-17 说明重新入库为至少一次：批次成功但检查点未更新时（如进程退出）该批次会再次交给记录器
+ *    2026-10-17 打开时加文件锁，避免多个进程共用同一预写文件
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class OpLogSpool
+{
+	private static final Logger logger = LoggerFactory.getLogger(OpLogSpool.class);
+
+	/** 默认分段大小. */
+	public static final long DEFAULT_SEGMENT_SIZE = 16L*1024*1024;
+
+	/** 默认最多分段数. */
+	public static final int DEFAULT_MAX_SEGMENTS = 64;
+
+	/** 记录头长度：长度+CRC32. */
+	private static final int HEADER_SIZE = 8;
+
+	/** 单条记录最大长度，超过视为数据损坏. */
+	private static final int MAX_RECORD_SIZE = 16*1024*1024;
+
+	private final File dir;
+
+	private final String name;
+
+	private final Pattern segmentPattern;
+
+	private final File checkpointFile;
+
+	/** 进程间的文件锁，关闭时释放. */
+	private final RandomAccessFile lockFile;
+
+	private final FileLock fileLock;
+
+	/** 写入锁. */
+	private final ReentrantLock lock = new ReentrantLock();
+
+	/** 重新入库锁. */
+	private final Object replayLock = new Object();
+
+	private long segmentSize = DEFAULT_SEGMENT_SIZE;
+
+	private int maxSegments = DEFAULT_MAX_SEGMENTS;
+
+	/** 当前写入的分段. */
+	private volatile long writeSeq;
+
+	/** 当前写入分段的大小. */
+	private volatile long writeSize;
+
+	private FileChannel writeChannel;
+
+	/** 检查点：下一个读取的分段. */
+	private volatile long readSeq;
+
+	/** 检查点：分段内的偏移量. */
+	private volatile long readOffset;
+
+	private boolean closed = false;
+
+	/**
+	 * 打开预写文件，已有的分段从检查点继续读取，新日志写入新的分段.
+	 *
+	 * @param dir 存放目录
+	 * @param name 名称（文件名前缀）
+	 * @throws IOException 无法创建或读取文件，或已被其他进程（实例）打开
+	 */
+	public OpLogSpool(File dir, String name) throws IOException
+	{
+		if(!dir.exists() && !dir.mkdirs())
+			throw new IOException("Unable to create spool directory: "+dir.getAbsolutePath());
+		this.dir = dir;
+		this.name = name;
+		this.segmentPattern = Pattern.compile(Pattern.quote(name)+"-(\\d{16})\\.seg");
+		this.checkpointFile = new File(dir, name+".checkpoint");
+
+		File file = new File(dir, name+".lock");
+		this.lockFile = new RandomAccessFile(file, "rw");
+		FileLock acquired = null;
+		try {
+			acquired = lockFile.getChannel().tryLock();
+		} catch (OverlappingFileLockException e) {
+			//同一进程中已打开
+		} finally {
+			if(acquired==null)
+				lockFile.close();
+		}
+		if(acquired==null)
+			throw new IOException("OpLog spool is locked by another process: "+file.getAbsolutePath());
+		this.fileLock = acquired;
+		try {
+			open();
+		} catch (IOException e) {
+			releaseLock();
+			throw e;
+		}
+	}
+
+	/**
+	 * 从检查点恢复读取位置，并打开新的写入分段.
+	 */
+	private void open() throws IOException
+	{
+		List<Long> segments = listSegments();
+		long lastSeq = segments.isEmpty() ? 0 : segments.get(segments.size()-1).longValue();
+		long firstSeq = segments.isEmpty() ? 1 : segments.get(0).longValue();
+		if(!loadCheckpoint() || readSeq<firstSeq)
+		{
+			readSeq = firstSeq;
+			readOffset = 0;
+		}
+		else if(readSeq>lastSeq)
+		{
+			readOffset = 0;
+		}
+		for(Long seq : segments)
+		{
+			if(seq.longValue()<readSeq)	//已入库但未来得及删除的分段
+				segmentFile(seq.longValue()).delete();
+		}
+		//上次的最后一个分段可能以不完整的记录结尾，不再追加
+		openSegment(Math.max(lastSeq+1, readSeq));
+	}
+
+	/**
+	 * 尝试写入单条日志，不等待锁，不强制刷盘（用于请求线程）.
+	 *
+	 * @param opLogVo 日志
+	 * @return 未写入返回false
+	 */
+	public boolean tryAppend(OpLogVo opLogVo)
+	{
+		if(!lock.tryLock())
+			return false;
+		try {
+			return write(encode(opLogVo), false);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * 写入一批日志并强制刷盘.
+	 *
+	 * @param logList 日志列表
+	 * @return 已满或写入失败返回false
+	 */
+	public boolean append(List<OpLogVo> logList)
+	{
+		int size = 0;
+		List<byte[]> records = new ArrayList<byte[]>(logList.size());
+		for(OpLogVo opLogVo : logList)
+		{
+			byte[] record = encode(opLogVo);
+			records.add(record);
+			size += record.length;
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(size);
+		for(byte[] record : records)
+		{
+			buffer.put(record);
+		}
+		lock.lock();
+		try {
+			return write(buffer.array(), true);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private byte[] encode(OpLogVo opLogVo)
+	{
+		byte[] bytes = OpLogCodec.encode(opLogVo);
+		CRC32 crc = new CRC32();
+		crc.update(bytes);
+		ByteBuffer buffer = ByteBuffer.allocate(HEADER_SIZE+bytes.length);
+		buffer.putInt(bytes.length).putInt((int)crc.getValue()).put(bytes);
+		return buffer.array();
+	}
+
+	/**
+	 * 追加到当前分段（调用方持有写入锁）.
+	 */
+	private boolean write(byte[] bytes, boolean force)
+	{
+		if(closed)
+			return false;
+		try {
+			if(writeSize>0 && writeSize+bytes.length>segmentSize)
+			{
+				if(writeSeq-readSeq+1>=maxSegments)
+				{
+					logger.error("OpLog spool {} is full ({} segments).", name, Integer.valueOf(maxSegments));
+					return false;
+				}
+				openSegment(writeSeq+1);
+			}
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			while(buffer.hasRemaining())
+			{
+				writeChannel.write(buffer);
+			}
+			if(force)
+				writeChannel.force(false);
+			writeSize += bytes.length;
+			return true;
+		} catch (IOException e) {
+			logger.error("Write OpLog spool failed.", e);
+			return false;
+		}
+	}
+
+	private void openSegment(long seq) throws IOException
+	{
+		if(writeChannel!=null)
+			writeChannel.close();
+		RandomAccessFile file = new RandomAccessFile(segmentFile(seq), "rw");
+		file.seek(file.length());
+		this.writeChannel = file.getChannel();
+		this.writeSize = file.length();
+		this.writeSeq = seq;
+	}
+
+	/**
+	 * 是否有待重新入库的日志.
+	 *
+	 * @return true, if successful
+	 */
+	public boolean hasPending()
+	{
+		return readSeq<writeSeq || readOffset<writeSize;
+	}
+
+	/**
+	 * 从检查点开始按顺序将日志交给记录器，每批成功后更新检查点.
+	 * 记录器成功与检查点更新之间进程退出时，该批次在下次重新入库时会再次交给记录器（至少一次），
+	 * 记录器应能识别重复的日志（如JDBCAppender按日志ID主键跳过已入库的行）
+	 *
+	 * @param target 记录器
+	 * @param batchSize 批次大小
+	 * @return 重新入库的日志数
+	 * @throws Exception 记录器失败时抛出，检查点停留在失败的批次
+	 */
+	public int replay(BatchAppender target, int batchSize) throws Exception
+	{
+		synchronized(replayLock)
+		{
+			int total = 0;
+			List<OpLogVo> batch = new ArrayList<OpLogVo>(batchSize);
+			while(!closed)
+			{
+				long seq = readSeq;
+				long limit;
+				boolean active;
+				lock.lock();
+				try {
+					active = seq>=writeSeq;
+					limit = active ? writeSize : Long.MAX_VALUE;	//当前分段只读取已完整写入的部分
+				} finally {
+					lock.unlock();
+				}
+				File file = segmentFile(seq);
+				if(!file.exists())
+				{
+					if(active)
+						break;
+					moveToSegment(seq+1, null);
+					continue;
+				}
+				RandomAccessFile raf = new RandomAccessFile(file, "r");
+				long offset = readOffset;
+				boolean corrupted = false;
+				try {
+					FileChannel channel = raf.getChannel();
+					limit = Math.min(limit, channel.size());
+					ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+					while(offset<limit)
+					{
+						if(offset+HEADER_SIZE>limit)
+						{
+							corrupted = true;
+							break;
+						}
+						header.clear();
+						readFully(channel, header, offset);
+						int length = header.getInt(0);
+						int checksum = header.getInt(4);
+						if(length<0 || length>MAX_RECORD_SIZE || offset+HEADER_SIZE+length>limit)
+						{
+							corrupted = true;
+							break;
+						}
+						ByteBuffer body = ByteBuffer.allocate(length);
+						readFully(channel, body, offset+HEADER_SIZE);
+						CRC32 crc = new CRC32();
+						crc.update(body.array());
+						if((int)crc.getValue()!=checksum)
+						{
+							corrupted = true;
+							break;
+						}
+						batch.add(OpLogCodec.decode(body.array()));
+						offset += HEADER_SIZE+length;
+						if(batch.size()>=batchSize)
+						{
+							target.append(batch);	//失败时直接抛出，检查点不变
+							total += batch.size();
+							batch.clear();
+							saveCheckpoint(seq, offset);
+						}
+					}
+					if(!batch.isEmpty())
+					{
+						target.append(batch);
+						total += batch.size();
+						batch.clear();
+						saveCheckpoint(seq, offset);
+					}
+				} finally {
+					raf.close();
+				}
+				if(corrupted)
+					logger.warn("OpLog spool segment {} is truncated or corrupted at offset {}, skip the rest.", file.getName(), Long.valueOf(offset));
+				if(active)
+				{
+					rotateSegment(seq, offset, corrupted);
+					break;
+				}
+				moveToSegment(seq+1, file);
+			}
+			return total;
+		}
+	}
+
+	/**
+	 * 当前分段已全部读取（或已损坏）时切换到新的分段，删除旧分段.
+	 */
+	private void rotateSegment(long seq, long offset, boolean force) throws IOException
+	{
+		lock.lock();
+		try {
+			if(closed || seq!=writeSeq)
+				return;
+			if(!force && (offset<writeSize || writeSize==0))
+				return;
+			openSegment(seq+1);
+		} finally {
+			lock.unlock();
+		}
+		moveToSegment(seq+1, segmentFile(seq));
+	}
+
+	/**
+	 * 先更新检查点再删除读完的分段.
+	 */
+	private void moveToSegment(long seq, File consumed) throws IOException
+	{
+		saveCheckpoint(seq, 0);
+		if(consumed!=null && consumed.exists() && !consumed.delete())
+			logger.warn("Unable to delete consumed spool segment: {}", consumed.getAbsolutePath());
+	}
+
+	private void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+	{
+		while(buffer.hasRemaining())
+		{
+			if(channel.read(buffer, position+buffer.position())<0)
+				throw new IOException("Unexpected end of spool segment.");
+		}
+	}
+
+	/**
+	 * 写入检查点：先写临时文件并刷盘，再替换原文件.
+	 */
+	private void saveCheckpoint(long seq, long offset) throws IOException
+	{
+		ByteBuffer buffer = ByteBuffer.allocate(20);
+		buffer.putLong(seq).putLong(offset);
+		CRC32 crc = new CRC32();
+		crc.update(buffer.array(), 0, 16);
+		buffer.putInt((int)crc.getValue());
+		buffer.flip();
+
+		File tmpFile = new File(dir, name+".checkpoint.tmp");
+		RandomAccessFile raf = new RandomAccessFile(tmpFile, "rw");
+		try {
+			raf.setLength(0);
+			FileChannel channel = raf.getChannel();
+			while(buffer.hasRemaining())
+			{
+				channel.write(buffer);
+			}
+			channel.force(true);
+		} finally {
+			raf.close();
+		}
+		if(!tmpFile.renameTo(checkpointFile))
+		{
+			checkpointFile.delete();	//部分平台不能覆盖已存在的文件
+			if(!tmpFile.renameTo(checkpointFile))
+				throw new IOException("Unable to save spool checkpoint: "+checkpointFile.getAbsolutePath());
+		}
+		this.readSeq = seq;
+		this.readOffset = offset;
+	}
+
+	private boolean loadCheckpoint() throws IOException
+	{
+		if(!checkpointFile.exists() || checkpointFile.length()!=20)
+			return false;
+		RandomAccessFile raf = new RandomAccessFile(checkpointFile, "r");
+		try {
+			byte[] bytes = new byte[20];
+			raf.readFully(bytes);
+			ByteBuffer buffer = ByteBuffer.wrap(bytes);
+			long seq = buffer.getLong();
+			long offset = buffer.getLong();
+			CRC32 crc = new CRC32();
+			crc.update(bytes, 0, 16);
+			if((int)crc.getValue()!=buffer.getInt())
+			{
+				logger.warn("OpLog spool checkpoint {} is corrupted, replay from the first segment.", checkpointFile.getAbsolutePath());
+				return false;
+			}
+			this.readSeq = seq;
+			this.readOffset = offset;
+			return true;
+		} finally {
+			raf.close();
+		}
+	}
+
+	private List<Long> listSegments()
+	{
+		final List<Long> segments = new ArrayList<Long>();
+		dir.listFiles(new FilenameFilter() {
+			public boolean accept(File parent, String fileName)
+			{
+				Matcher matcher = segmentPattern.matcher(fileName);
+				if(matcher.matches())
+					segments.add(Long.valueOf(matcher.group(1)));
+				return false;
+			}
+		});
+		Collections.sort(segments);
+		return segments;
+	}
+
+	private File segmentFile(long seq)
+	{
+		return new File(dir, name+"-"+String.format("%016d", Long.valueOf(seq))+".seg");
+	}
+
+	/**
+	 * 关闭预写文件，未重新入库的日志保留在文件中，下次打开时继续处理.
+	 */
+	public void close()
+	{
+		lock.lock();
+		try {
+			closed = true;
+			if(writeChannel!=null)
+				writeChannel.close();
+		} catch (IOException e) {
+			logger.error("Close OpLog spool failed.", e);
+		} finally {
+			writeChannel = null;
+			lock.unlock();
+		}
+		//空的分段不需要保留
+		File file = segmentFile(writeSeq);
+		if(file.exists() && file.length()==0)
+			file.delete();
+		releaseLock();
+	}
+
+	private void releaseLock()
+	{
+		try {
+			if(fileLock.isValid())
+				fileLock.release();
+			lockFile.close();
+		} catch (IOException e) {
+			logger.error("Release OpLog spool lock failed.", e);
+		}
+	}
+
+	/**
+	 * @param segmentSize the segmentSize to set
+	 */
+	public void setSegmentSize(long segmentSize)
+	{
+		this.segmentSize = segmentSize;
+	}
+
+	/**
+	 * @param maxSegments the maxSegments to set
+	 */
+	public void setMaxSegments(int maxSegments)
+	{
+		this.maxSegments = maxSegments;
+	}
+
+	/**
+	 * @return the name
+	 */
+	public String getName()
+	{
+		return name;
+	}
+}
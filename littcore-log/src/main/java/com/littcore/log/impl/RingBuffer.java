@@ -0,0 +1,180 @@
+package com.littcore.log.impl;
+
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 无锁有界环形队列.
+ *
+ * <pre><b>描述：</b>
+ *    容量为2的幂，每个槽位带有序号（sequence），生产者通过CAS抢占写入位置，消费者通过CAS抢占读取位置，
+ *    槽位的序号表示其当前状态（可写/可读），因此入队与出队都不需要加锁，队列满时offer立即返回false，不会阻塞调用线程。
+ *    支持多生产者、多消费者，日志管道中通常为单个消费线程批量读取。
+ * </pre>
+ *
+ * <pre><b>修改记录：</b>
+ *
+ * </pre>
+ *
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public final class RingBuffer<E>
+{
+	private final int mask;
+
+	private final AtomicReferenceArray<E> buffer;
+
+	/** 槽位序号：等于写入位置时可写，等于写入位置+1时可读. */
+	private final AtomicLongArray sequences;
+
+	/** 下一个写入位置. */
+	private final AtomicLong tail = new AtomicLong();
+
+	/** 下一个读取位置. */
+	private final AtomicLong head = new AtomicLong();
+
+	/**
+	 * Instantiates a new ring buffer.
+	 *
+	 * @param capacity 容量，不是2的幂时向上取整
+	 */
+	public RingBuffer(int capacity)
+	{
+		if(capacity<=0)
+			throw new IllegalArgumentException("Capacity must be positive: "+capacity);
+		int size = capacity>(1<<30) ? (1<<30) : Integer.highestOneBit(capacity-1)<<1;
+		if(size<=0)
+			size = 1;
+		this.mask = size-1;
+		this.buffer = new AtomicReferenceArray<E>(size);
+		this.sequences = new AtomicLongArray(size);
+		for(int i=0;i<size;i++)
+		{
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * 入队，队列已满时立即返回.
+	 *
+	 * @param e 元素
+	 * @return 队列已满返回false
+	 */
+	public boolean offer(E e)
+	{
+		if(e==null)
+			throw new NullPointerException();
+		long pos = tail.get();
+		int index;
+		for(;;)
+		{
+			index = (int)pos & mask;
+			long diff = sequences.get(index) - pos;
+			if(diff==0)
+			{
+				if(tail.compareAndSet(pos, pos+1))
+					break;
+				pos = tail.get();
+			}
+			else if(diff<0)	//槽位尚未被消费，队列已满
+			{
+				return false;
+			}
+			else	//其他生产者已抢占该位置
+			{
+				pos = tail.get();
+			}
+		}
+		buffer.lazySet(index, e);
+		sequences.lazySet(index, pos+1);	//发布：元素写入后再更新序号
+		return true;
+	}
+
+	/**
+	 * 出队，队列为空时返回null.
+	 *
+	 * @return the e
+	 */
+	public E poll()
+	{
+		long pos = head.get();
+		int index;
+		for(;;)
+		{
+			index = (int)pos & mask;
+			long diff = sequences.get(index) - (pos+1);
+			if(diff==0)
+			{
+				if(head.compareAndSet(pos, pos+1))
+					break;
+				pos = head.get();
+			}
+			else if(diff<0)	//尚未发布，队列为空
+			{
+				return null;
+			}
+			else
+			{
+				pos = head.get();
+			}
+		}
+		E e = buffer.get(index);
+		buffer.lazySet(index, null);
+		sequences.lazySet(index, pos+mask+1);	//释放槽位给下一轮写入
+		return e;
+	}
+
+	/**
+	 * 批量出队.
+	 *
+	 * @param c 目标集合
+	 * @param maxElements 最多读取的数量
+	 * @return 读取的数量
+	 */
+	public int drainTo(Collection<? super E> c, int maxElements)
+	{
+		int count = 0;
+		while(count<maxElements)
+		{
+			E e = poll();
+			if(e==null)
+				break;
+			c.add(e);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * 当前元素数量（并发情况下为近似值）.
+	 *
+	 * @return the int
+	 */
+	public int size()
+	{
+		long size = tail.get() - head.get();
+		if(size<0)
+			return 0;
+		return size>capacity() ? capacity() : (int)size;
+	}
+
+	/**
+	 * @return 是否为空
+	 */
+	public boolean isEmpty()
+	{
+		return size()==0;
+	}
+
+	/**
+	 * @return 容量
+	 */
+	public int capacity()
+	{
+		return mask+1;
+	}
+}
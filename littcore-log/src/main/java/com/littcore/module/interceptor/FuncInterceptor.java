@@ -1,15 +1,8 @@
 package com.littcore.module.interceptor;
 
-import java.lang.reflect.Method;
+import java.io.File;
+import java.io.IOException;
 import java.util.Date;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -24,9 +17,10 @@ import org.springframework.web.util.UrlPathHelper;
 import com.littcore.common.Utility;
 import com.littcore.exception.BusiException;
 import com.littcore.exception.NotLoginException;
-import com.littcore.log.Appender;
+import com.littcore.log.OpLogPipeline;
 import com.littcore.log.OpLogVo;
 import com.littcore.log.impl.JDBCAppender;
+import com.littcore.log.impl.OpLogSpool;
 import com.littcore.module.annotation.Func;
 import com.littcore.shield.vo.ILoginVo;
 import com.littcore.web.interceptor.BaseControllerInterceptor;
@@ -49,7 +43,10 @@ import com.littcore.web.interceptor.BaseControllerInterceptor;
  * </pre>
  * 
  * <pre><b>修改记录：</b>
- *    
+ *    2026-10-17 阻塞队列改为OpLogPipeline，日志积压时不再阻塞请求线程
+ *    2026-10-17 入库失败的日志写入本地预写文件（spoolDir），数据库恢复后重新入库
+ *    2026-10-17 通过HandlerMethodRegistry解析控制器方法及注解，每次请求只需一次查找
+ *    2026-10-17 预写文件已被其他进程使用时不启用，只输出警告（多个应用共用默认目录时需分别指定spoolDir）
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -61,10 +58,17 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 {
 	private static final Logger logger = LoggerFactory.getLogger(FuncInterceptor.class);	
 	
-	/** 日志缓存队列. */
-	private static final BlockingQueue<OpLogVo> logCacheQueue = new LinkedBlockingQueue<OpLogVo>(1000);
+	/** 请求路径解析（线程安全，可共享）. */
+	private static final UrlPathHelper URL_PATH_HELPER = new UrlPathHelper();
+	
+	/** 停止时等待日志入库的最长时间（毫秒）. */
+	private static final long STOP_TIMEOUT = 30000;
+	
+	/** 日志管道. */
+	private OpLogPipeline pipeline = new OpLogPipeline("FuncInterceptor", OpLogPipeline.DEFAULT_CAPACITY);
 	
-	private Appender appender; 
+	/** 控制器方法注册表. */
+	private HandlerMethodRegistry handlerMethodRegistry = HandlerMethodRegistry.getDefault();
 	
 	/** 数据源. */
 	private DataSource dataSource;
@@ -72,14 +76,13 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 	/** 日志表名. */
 	private String tableName;
 	
-	/** 是否启用日志记录. */
-	private boolean logEnabled = true;
+	/** 本地预写文件目录，为空时不启用；同一目录只能由一个进程使用，部署多个应用时应分别指定. */
+	private String spoolDir = System.getProperty("java.io.tmpdir")+File.separator+"littcore-oplog";
 	
-	/** 单线程用于异步数据存储. */
-	private ExecutorService exec = Executors.newSingleThreadExecutor();
+	private JDBCAppender appender;
 	
-	/** 分配任务的Future. */
-	private Future<String> future;
+	/** 是否启用日志记录. */
+	private boolean logEnabled = true;
 	
 	public FuncInterceptor()
 	{
@@ -92,10 +95,19 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 	public void init()
 	{
 		if(Utility.isEmpty(tableName))
-			this.appender = new JDBCAppender(logCacheQueue,dataSource);
+			this.appender = new JDBCAppender(dataSource);
 		else
-			this.appender = new JDBCAppender(logCacheQueue,dataSource,tableName);
-		future = exec.submit(appender);		
+			this.appender = new JDBCAppender(dataSource,tableName);
+		if(!Utility.isEmpty(spoolDir))
+		{
+			try {
+				appender.setSpool(new OpLogSpool(new File(spoolDir), "FuncInterceptor"));
+			} catch (IOException e) {
+				logger.warn("OpLog spool disabled, failed logs will be lost: "+e.getMessage());
+			}
+		}
+		pipeline.addAppender(appender);
+		pipeline.start();
 	}	
 	
 	/**
@@ -112,23 +124,19 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 	  boolean isExcluded = super.isExcluded(request);
 	  
 		String requestURI = request.getRequestURI();
-		logger.debug("Request URI:{}", new Object[]{requestURI});
-		String methodName = getMethodNameFromURI(handler, requestURI);
-		Method method = this.getMethod(handler.getClass(), methodName);
-		if(method==null)	//没找到方法
+		HandlerDescriptor descriptor = handlerMethodRegistry.resolve(handler, requestURI);
+		if(descriptor==null)	//没找到方法
 		{
-			logger.error("Can't find method:{} in controller:{}", new Object[]{methodName, handler.getClass().getName()});
+			logger.error("Can't find method for request:{} in controller:{}", new Object[]{requestURI, handler.getClass().getName()});
 			return true;
 		}
 		
-		boolean isFunction = method.isAnnotationPresent(Func.class);	//是否找到功能注解		
-		if(!isExcluded && isFunction)
+		if(!isExcluded && descriptor.isFunc())
 		{
-			Func function = method.getAnnotation(Func.class);	
 			//1、检查操作权限
-			if(function.enablePermission())
+			if(descriptor.isPermissionRequired())
 			{
-				this.checkPermission(function.moduleCode(), function.funcCode());
+				this.checkPermission(descriptor);
 			}
 			//2、记录操作日志
 //			boolean isEnableLog = function.enableLog();
@@ -163,27 +171,23 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 	 */
 	public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView) throws Exception
 	{
-		String lookupPath = new UrlPathHelper().getLookupPathForRequest(request);
-		logger.debug("Request URI:{}", new Object[]{lookupPath});
-		String methodName = getMethodNameFromURI(handler, lookupPath);
-		Method method = this.getMethod(handler.getClass(), methodName);
-		if(method==null)	//没找到方法
+		String lookupPath = URL_PATH_HELPER.getLookupPathForRequest(request);
+		HandlerDescriptor descriptor = handlerMethodRegistry.resolve(handler, lookupPath);
+		if(descriptor==null)	//没找到方法
 		{
-			logger.error("Can't find method:{} in controller:{}", new Object[]{methodName, handler.getClass().getName()});		
+			logger.error("Can't find method for request:{} in controller:{}", new Object[]{lookupPath, handler.getClass().getName()});		
 			return;
 		}
 		
-		boolean isFunction = method.isAnnotationPresent(Func.class);	//是否找到功能注解		
-		if(isFunction)
+		if(descriptor.isFunc())
 		{
-			Func function = method.getAnnotation(Func.class);		
+			Func function = descriptor.getFunc();		
 			//request注入
-			request.setAttribute("__moduleCode", function.moduleCode());
-			request.setAttribute("__funcCode", function.funcCode());
+			request.setAttribute("__moduleCode", descriptor.getModuleCode());
+			request.setAttribute("__funcCode", descriptor.getFuncCode());
 			
 			//2、记录操作日志
-			boolean isEnableLog = function.enableLog();
-			if(logEnabled && isEnableLog)	
+			if(logEnabled && descriptor.isLogEnabled())	
 			{				
 				try
 				{
@@ -220,24 +224,19 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 		 */
 		if(e!=null)
 		{
-			String lookupPath = new UrlPathHelper().getLookupPathForRequest(request);
-			logger.debug("Request URI:{}", new Object[]{lookupPath});
-			String methodName = getMethodNameFromURI(handler, lookupPath);
-			Method method = this.getMethod(handler.getClass(), methodName);
-			if(method==null)	//没找到方法
+			String lookupPath = URL_PATH_HELPER.getLookupPathForRequest(request);
+			HandlerDescriptor descriptor = handlerMethodRegistry.resolve(handler, lookupPath);
+			if(descriptor==null)	//没找到方法
 			{
-				logger.error("Can't find method:{} in controller:{}", new Object[]{methodName, handler.getClass().getName()});	
+				logger.error("Can't find method for request:{} in controller:{}", new Object[]{lookupPath, handler.getClass().getName()});	
 				return;
 			}
 			
-			boolean isFunction = method.isAnnotationPresent(Func.class);	//是否找到功能注解		
-			if(isFunction)
+			if(descriptor.isFunc())
 			{
-				Func function = method.getAnnotation(Func.class);				
+				Func function = descriptor.getFunc();				
 				//2、记录操作日志
-				boolean isEnableLog = function.enableLog();
-				boolean isLogFail = function.enableLogFail();		
-				if(logEnabled && isEnableLog && isLogFail)	
+				if(logEnabled && descriptor.isLogFailEnabled())	
 				{				
 					try
 					{
@@ -280,24 +279,24 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 		{
 			logger.debug("Insert one OpLog.");
 		}
-		logCacheQueue.put(opLogVo);		
+		pipeline.publish(opLogVo);	//不会阻塞，队列已满时按溢出策略处理
 	}
 		
 	/**
 	 * 检查权限
 	 *
 	 */
-	private void checkPermission(String moduleCode, String funcCode) throws BusiException
+	private void checkPermission(HandlerDescriptor descriptor) throws BusiException
 	{
 		ILoginVo loginVo = this.getLoginVo();
 		if(loginVo==null)
 			throw new NotLoginException();
 		else
 		{
-			boolean isPermitted = loginVo.withPermission(moduleCode+"."+funcCode);
+			boolean isPermitted = loginVo.withPermission(descriptor.getPermissionCode());
 			if(!isPermitted)
 			{
-				logger.error("Operator:{} access module:{} func:{} without permission.", new Object[]{loginVo.getLoginId(), moduleCode, funcCode});
+				logger.error("Operator:{} access module:{} func:{} without permission.", new Object[]{loginVo.getLoginId(), descriptor.getModuleCode(), descriptor.getFuncCode()});
 				throw new BusiException("Permission denied.");
 			}			
 		}
@@ -311,51 +310,12 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 	 */
 	public void destroy()
 	{
-		/*
-		 * 尝试关闭线程池，并拒绝新任务
-		 */
-		exec.shutdown();			
-		/*
-		 * 尝试关闭运行中任务
-		 */
+		pipeline.stop(STOP_TIMEOUT);
 		try {
-						
-			/*
-			 * 设置停止标志，等待返回结果，超时则强制定制，丢失部分数据
-			 * 注：等待时间为appender的一个刷新周期，已确保缓存数据被入库
-			 */
-			try {
-				appender.setStop(true);
-				future.get(appender.getFlushTime()+5000, TimeUnit.MILLISECONDS);	
-			} catch (ExecutionException e) {
-				logger.error("Get OpLog Appender ret failed.", e);
-			} catch (TimeoutException e) {
-				logger.error("Get OpLog Appender ret timeout.", e);
-			}
-			
-			//检查任务是否完成，未完成则强制停止
-			if(!future.isDone())
-			{
-				logger.warn("OpLog Appender did't stop smoothly, force stop.");
-				future.cancel(true);			
-			}		
-			if(!exec.isTerminated())
-			{
-			     // Wait a while for existing tasks to terminate
-			     if (!exec.awaitTermination(60, TimeUnit.SECONDS)) 
-			     {
-			    	 exec.shutdownNow();	//force shutdown		    	 
-			    	// Wait a while for tasks to respond to being cancelled
-			         if (!exec.awaitTermination(60, TimeUnit.SECONDS))
-			             logger.error("OpLog Thread Pool did not terminate.");
-			     }
-			}
-		} catch (InterruptedException ie) {
-		     // (Re-)Cancel if current thread also interrupted
-			 exec.shutdownNow();
-		     // Preserve interrupt status
-		     Thread.currentThread().interrupt();
-	    }
+			appender.close();
+		} catch (IOException e) {
+			logger.error("Close OpLog appender failed.", e);
+		}
 	}
 
 	/**
@@ -366,6 +326,30 @@ public class FuncInterceptor extends BaseControllerInterceptor implements Handle
 		this.dataSource = dataSource;
 	}
 
+	/**
+	 * @param pipeline the pipeline to set
+	 */
+	public void setPipeline(OpLogPipeline pipeline)
+	{
+		this.pipeline = pipeline;
+	}
+
+	/**
+	 * @param handlerMethodRegistry the handlerMethodRegistry to set
+	 */
+	public void setHandlerMethodRegistry(HandlerMethodRegistry handlerMethodRegistry)
+	{
+		this.handlerMethodRegistry = handlerMethodRegistry;
+	}
+
+	/**
+	 * @param spoolDir the spoolDir to set
+	 */
+	public void setSpoolDir(String spoolDir)
+	{
+		this.spoolDir = spoolDir;
+	}
+
 	/**
 	 * @param tableName the tableName to set
 	 */
@@ -0,0 +1,155 @@
+package com.littcore.module.interceptor;
+
+import java.lang.reflect.Method;
+
+import com.littcore.module.annotation.Func;
+import com.littcore.module.annotation.Permission;
+
+/** 
+ * 
+ * 控制器方法描述.
+ * 
+ * <pre><b>描述：</b>
+ *    解析一次后缓存的控制器方法及其Func/Permission注解，拦截器每次请求直接使用，不再反射读取注解. 
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ *
+ */
+public final class HandlerDescriptor
+{
+	private final Method method;
+	
+	/** 功能注解. */
+	private final Func func;
+	
+	/** 权限注解（存在Func注解时不使用）. */
+	private final Permission permission;
+	
+	/** 是否需要校验权限. */
+	private final boolean permissionRequired;
+	
+	/** 权限编码：模块编号.功能编号. */
+	private final String permissionCode;
+	
+	private final String moduleCode;
+	
+	private final String funcCode;
+	
+	/**
+	 * Instantiates a new handler descriptor.
+	 *
+	 * @param method the method
+	 */
+	public HandlerDescriptor(Method method)
+	{
+		this.method = method;
+		this.func = method.getAnnotation(Func.class);
+		this.permission = func==null ? method.getAnnotation(Permission.class) : null;
+		if(func!=null)
+		{
+			this.moduleCode = func.moduleCode();
+			this.funcCode = func.funcCode();
+			this.permissionRequired = func.enablePermission();
+		}
+		else if(permission!=null)
+		{
+			this.moduleCode = permission.moduleCode();
+			this.funcCode = permission.funcCode();
+			this.permissionRequired = permission.enablePermission();
+		}
+		else
+		{
+			this.moduleCode = null;
+			this.funcCode = null;
+			this.permissionRequired = false;
+		}
+		this.permissionCode = moduleCode==null ? null : moduleCode+"."+funcCode;
+	}
+	
+	/**
+	 * @return 是否有Func注解
+	 */
+	public boolean isFunc()
+	{
+		return func!=null;
+	}
+	
+	/**
+	 * @return 是否需要记录操作日志
+	 */
+	public boolean isLogEnabled()
+	{
+		return func!=null && func.enableLog();
+	}
+	
+	/**
+	 * @return 是否需要记录失败日志
+	 */
+	public boolean isLogFailEnabled()
+	{
+		return func!=null && func.enableLog() && func.enableLogFail();
+	}
+
+	/**
+	 * @return the method
+	 */
+	public Method getMethod()
+	{
+		return method;
+	}
+
+	/**
+	 * @return the func
+	 */
+	public Func getFunc()
+	{
+		return func;
+	}
+
+	/**
+	 * @return the permission
+	 */
+	public Permission getPermission()
+	{
+		return permission;
+	}
+
+	/**
+	 * @return the permissionRequired
+	 */
+	public boolean isPermissionRequired()
+	{
+		return permissionRequired;
+	}
+
+	/**
+	 * @return the permissionCode
+	 */
+	public String getPermissionCode()
+	{
+		return permissionCode;
+	}
+
+	/**
+	 * @return the moduleCode
+	 */
+	public String getModuleCode()
+	{
+		return moduleCode;
+	}
+
+	/**
+	 * @return the funcCode
+	 */
+	public String getFuncCode()
+	{
+		return funcCode;
+	}
+}
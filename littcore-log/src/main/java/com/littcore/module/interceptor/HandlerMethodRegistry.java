@@ -0,0 +1,226 @@
+package com.littcore.module.interceptor;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.method.HandlerMethod;
+
+import com.littcore.util.StringUtils;
+
+/** 
+ * 
+ * 控制器方法注册表.
+ * 
+ * <pre><b>描述：</b>
+ *    按控制器类预先解析所有公共方法的描述（HandlerDescriptor）及URL中方法名的前缀（父包名/类名去掉Controller或Rest并首字母小写/），
+ *    再按请求路径缓存解析结果，拦截器每次请求只需一次哈希查找，不再截取包名、类名及遍历getMethods()。
+ *    FuncInterceptor、OpLogInterceptor、PermissionInterceptor默认共享同一个实例（getDefault()）。
+ *    
+ *    控制器类在第一次请求时解析，如需在启动时解析，可将默认实例声明为Bean，容器刷新后会注册所有@Controller：
+ *    &lt;bean class="com.littcore.module.interceptor.HandlerMethodRegistry" factory-method="getDefault"/&gt;
+ * </pre>
+ * 
+ * <pre><b>修改记录：</b>
+ *    
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ *
+ */
+public class HandlerMethodRegistry implements ApplicationListener<ContextRefreshedEvent>
+{
+	private static final Logger logger = LoggerFactory.getLogger(HandlerMethodRegistry.class);
+	
+	private static final HandlerMethodRegistry DEFAULT = new HandlerMethodRegistry();
+	
+	/** 每个控制器最多缓存的请求路径数（路径中可能包含变量）. */
+	private static final int MAX_PATHS_PER_HANDLER = 1024;
+	
+	/** 未找到方法的占位. */
+	private static final Object NOT_FOUND = new Object();
+	
+	private final ConcurrentMap<Class<?>, HandlerEntry> handlers = new ConcurrentHashMap<Class<?>, HandlerEntry>();
+	
+	/** 直接按方法解析（HandlerMethod及Service层的AOP拦截）. */
+	private final ConcurrentMap<Method, HandlerDescriptor> methods = new ConcurrentHashMap<Method, HandlerDescriptor>();
+	
+	/**
+	 * 获取拦截器共享的默认实例.
+	 *
+	 * @return the handler method registry
+	 */
+	public static HandlerMethodRegistry getDefault()
+	{
+		return DEFAULT;
+	}
+	
+	/**
+	 * 根据请求路径解析控制器方法.
+	 *
+	 * @param handler 控制器（或HandlerMethod）
+	 * @param path 请求路径（URI或lookupPath）
+	 * @return 未找到方法时返回null
+	 */
+	public HandlerDescriptor resolve(Object handler, String path)
+	{
+		if(handler instanceof HandlerMethod)
+			return this.resolve(((HandlerMethod)handler).getMethod());
+		HandlerEntry entry = this.getEntry(handler.getClass());
+		Object ret = entry.paths.get(path);
+		if(ret==null)
+		{
+			String methodName = entry.prefix==null ? null : StringUtils.substringBetween(path, entry.prefix, ".");
+			HandlerDescriptor descriptor = methodName==null ? null : entry.methods.get(methodName);
+			ret = descriptor==null ? NOT_FOUND : descriptor;
+			if(entry.paths.size()<MAX_PATHS_PER_HANDLER)
+				entry.paths.put(path, ret);
+		}
+		return ret==NOT_FOUND ? null : (HandlerDescriptor)ret;
+	}
+	
+	/**
+	 * 根据方法名解析控制器方法（SpringMVC不支持重载，一个名字只对应一个方法）.
+	 *
+	 * @param handlerClass 控制器类
+	 * @param methodName 方法名
+	 * @return 未找到方法时返回null
+	 */
+	public HandlerDescriptor resolveByName(Class<?> handlerClass, String methodName)
+	{
+		return this.getEntry(handlerClass).methods.get(methodName);
+	}
+	
+	/**
+	 * 解析方法.
+	 *
+	 * @param method 方法
+	 * @return the handler descriptor
+	 */
+	public HandlerDescriptor resolve(Method method)
+	{
+		HandlerDescriptor descriptor = methods.get(method);
+		if(descriptor==null)
+		{
+			descriptor = new HandlerDescriptor(method);
+			HandlerDescriptor exists = methods.putIfAbsent(method, descriptor);
+			if(exists!=null)
+				descriptor = exists;
+		}
+		return descriptor;
+	}
+	
+	/**
+	 * 预先解析控制器类.
+	 *
+	 * @param handlerClass 控制器类
+	 */
+	public void register(Class<?> handlerClass)
+	{
+		this.getEntry(handlerClass);
+	}
+	
+	/**
+	 * 清空注册表（如热部署后）.
+	 */
+	public void clear()
+	{
+		handlers.clear();
+		methods.clear();
+	}
+	
+	/* (non-Javadoc)
+	 * @see org.springframework.context.ApplicationListener#onApplicationEvent(org.springframework.context.ApplicationEvent)
+	 */
+	public void onApplicationEvent(ContextRefreshedEvent event)
+	{
+		ApplicationContext context = event.getApplicationContext();
+		String[] beanNames = context.getBeanNamesForAnnotation(Controller.class);
+		for(int i=0;i<beanNames.length;i++)
+		{
+			Class<?> beanType = context.getType(beanNames[i]);
+			if(beanType!=null)
+				this.register(beanType);
+		}
+		if(logger.isInfoEnabled())
+		{
+			logger.info("Registered {} controllers for interceptors.", Integer.valueOf(beanNames.length));
+		}
+	}
+	
+	private HandlerEntry getEntry(Class<?> handlerClass)
+	{
+		HandlerEntry entry = handlers.get(handlerClass);
+		if(entry==null)
+		{
+			entry = new HandlerEntry(handlerClass);
+			HandlerEntry exists = handlers.putIfAbsent(handlerClass, entry);
+			if(exists!=null)
+				entry = exists;
+		}
+		return entry;
+	}
+	
+	/**
+	 * 控制器类的解析结果.
+	 */
+	private static final class HandlerEntry
+	{
+		/** URL中方法名的前缀. */
+		private final String prefix;
+		
+		/** KEY：方法名. */
+		private final Map<String, HandlerDescriptor> methods;
+		
+		/** KEY：请求路径，VALUE：HandlerDescriptor或NOT_FOUND. */
+		private final ConcurrentMap<String, Object> paths = new ConcurrentHashMap<String, Object>();
+		
+		HandlerEntry(Class<?> handlerClass)
+		{
+			this.prefix = buildPrefix(handlerClass);
+			Method[] methodArray = handlerClass.getMethods();
+			Map<String, HandlerDescriptor> methodMap = new HashMap<String, HandlerDescriptor>(methodArray.length*2);
+			for(int i=0;i<methodArray.length;i++)
+			{
+				if(!methodMap.containsKey(methodArray[i].getName()))	//与原getMethod一致，同名取第一个
+					methodMap.put(methodArray[i].getName(), new HandlerDescriptor(methodArray[i]));
+			}
+			this.methods = methodMap;
+		}
+		
+		/**
+		 * 按规则，包名去掉最后一级（web）后的最后一级为父包名，类名去掉Controller（或Rest）并首字母小写为映射路径.
+		 */
+		private static String buildPrefix(Class<?> handlerClass)
+		{
+			Package pkg = handlerClass.getPackage();
+			if(pkg==null)
+				return null;
+			String packageName = pkg.getName();
+			int index = packageName.lastIndexOf('.');
+			if(index<0)
+				return null;
+			packageName = packageName.substring(0, index);
+			packageName = packageName.substring(packageName.lastIndexOf('.')+1);
+			
+			String className = handlerClass.getSimpleName();
+			index = className.lastIndexOf("Controller");
+			if(index<0)
+				index = className.lastIndexOf("Rest");
+			if(index<0)
+				return null;
+			className = StringUtils.uncapitalize(className.substring(0, index));
+			return packageName+"/"+className+"/";
+		}
+	}
+}
@@ -1,16 +1,8 @@
 package com.littcore.module.interceptor;
 
-import java.lang.reflect.Method;
+import java.io.File;
+import java.io.IOException;
 import java.util.Date;
-import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadFactory;
-import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -25,11 +17,11 @@ import org.springframework.web.servlet.ModelAndView;
 
 import com.littcore.common.Utility;
 import com.littcore.shield.vo.ILoginVo;
-import com.littcore.util.StringUtils;
 import com.littcore.web.interceptor.BaseControllerInterceptor;
-import com.littcore.log.Appender;
+import com.littcore.log.OpLogPipeline;
 import com.littcore.log.OpLogVo;
 import com.littcore.log.impl.JDBCAppender;
+import com.littcore.log.impl.OpLogSpool;
 import com.littcore.module.annotation.Func;
 
 /** 
@@ -37,7 +29,7 @@ import com.littcore.module.annotation.Func;
  * 操作日志拦截器.
  * 
  * <pre><b>描述：</b>
- *    基于annotation的操作日志拦截器，拦截于控制层。入库采用阻塞队列缓存的方式。 
+ *    基于annotation的操作日志拦截器，拦截于控制层。入库采用无锁日志管道（OpLogPipeline）缓存的方式，请求线程不会被阻塞。 
  *    
  * HandlerInterceptor说明：
  * 	发起请求,进入拦截器链，运行所有拦截器的preHandle方法，
@@ -47,6 +39,10 @@ import com.littcore.module.annotation.Func;
  * 
  * <pre><b>修改记录：</b>
  *    2013-02-05 [bugfix] 从URL中获取methodName的方法有误，导致没有取到方法名
+ *    2026-10-17 阻塞队列改为OpLogPipeline，日志积压时不再阻塞请求线程
+ *    2026-10-17 入库失败的日志写入本地预写文件（spoolDir），数据库恢复后重新入库
+ *    2026-10-17 通过HandlerMethodRegistry解析控制器方法及注解，每次请求只需一次查找
+ *    2026-10-17 预写文件已被其他进程使用时不启用，只输出警告（多个应用共用默认目录时需分别指定spoolDir）
  * </pre>
  * 
  * @deprecated 可使用集成的FuncInterceptor
@@ -60,10 +56,14 @@ public class OpLogInterceptor extends BaseControllerInterceptor implements Metho
 {
 	private static final Logger logger = LoggerFactory.getLogger(OpLogInterceptor.class);	
 	
-	/** 日志缓存队列. */
-	private static final BlockingQueue<OpLogVo> logCacheQueue = new LinkedBlockingQueue<OpLogVo>(1000);
+	/** 停止时等待日志入库的最长时间（毫秒）. */
+	private static final long STOP_TIMEOUT = 30000;
 	
-	private Appender appender; 
+	/** 日志管道. */
+	private OpLogPipeline pipeline = new OpLogPipeline("OpLogInterceptor", OpLogPipeline.DEFAULT_CAPACITY);
+	
+	/** 控制器方法注册表. */
+	private HandlerMethodRegistry handlerMethodRegistry = HandlerMethodRegistry.getDefault();
 	
 	/** 数据源. */
 	private DataSource dataSource;
@@ -71,20 +71,10 @@ public class OpLogInterceptor extends BaseControllerInterceptor implements Metho
 	/** 日志表名. */
 	private String tableName;
 	
-	/** 单线程用于异步数据存储. */
-	private ExecutorService exec = Executors.newSingleThreadExecutor(new ThreadFactory(){
-
-		@Override
-		public Thread newThread(Runnable r) {
-			Thread thread = new Thread(r);
-			thread.setDaemon(true);
-			return thread;
-		}
-		
-	});
+	/** 本地预写文件目录，为空时不启用；同一目录只能由一个进程使用，部署多个应用时应分别指定. */
+	private String spoolDir = System.getProperty("java.io.tmpdir")+File.separator+"littcore-oplog";
 	
-	/** 分配任务的Future. */
-	private Future<String> future;
+	private JDBCAppender appender;
 	
 	public OpLogInterceptor()
 	{
@@ -97,10 +87,19 @@ public class OpLogInterceptor extends BaseControllerInterceptor implements Metho
 	public void init()
 	{
 		if(Utility.isEmpty(tableName))
-			this.appender = new JDBCAppender(logCacheQueue,dataSource);
+			this.appender = new JDBCAppender(dataSource);
 		else
-			this.appender = new JDBCAppender(logCacheQueue,dataSource,tableName);
-		this.future = exec.submit(appender);			
+			this.appender = new JDBCAppender(dataSource,tableName);
+		if(!Utility.isEmpty(spoolDir))
+		{
+			try {
+				appender.setSpool(new OpLogSpool(new File(spoolDir), "OpLogInterceptor"));
+			} catch (IOException e) {
+				logger.warn("OpLog spool disabled, failed logs will be lost: "+e.getMessage());
+			}
+		}
+		pipeline.addAppender(appender);
+		pipeline.start();
 	}
 
 	/* (non-Javadoc)
@@ -108,28 +107,23 @@ public class OpLogInterceptor extends BaseControllerInterceptor implements Metho
 	 */
 	public Object invoke(MethodInvocation invocation) throws Throwable
 	{		
-		Method method = invocation.getMethod();   
-		String methodName= method.getName();	//TODO 这里可以增加匹配特定方法名的限制，以避免检查所有方法
-		boolean isFunction = method.isAnnotationPresent(Func.class);	//是否找到功能注解		
-		if(isFunction)
+		HandlerDescriptor descriptor = handlerMethodRegistry.resolve(invocation.getMethod());
+		if(descriptor.isFunc())
 		{
-			Func function = method.getAnnotation(Func.class);				
-			boolean isEnableLog = function.enableLog();
 			Object obj = null;
 			try
 			{
 				obj = invocation.proceed();	
-				if(isEnableLog)	//记录操作日志
+				if(descriptor.isLogEnabled())	//记录操作日志
 				{				
-					this.addLog(function,"",true);
+					this.addLog(descriptor.getFunc(),"",true);
 				}
 			}
 			catch(Throwable e)
 			{
-				boolean isLogFail = function.enableLogFail();		
-				if(isEnableLog&&isLogFail)//需要记录失败日志时才记录
+				if(descriptor.isLogFailEnabled())//需要记录失败日志时才记录
 				{					
-					this.addLog(function,e.getMessage(),false);
+					this.addLog(descriptor.getFunc(),e.getMessage(),false);
 				}
 				throw e;
 			}
@@ -153,47 +147,22 @@ public class OpLogInterceptor extends BaseControllerInterceptor implements Metho
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception
 	{
 		String requestURI = request.getRequestURI();
-		logger.debug("请求的URI：{}", new Object[]{requestURI});
-		//取最后一个斜线与最后斜线到第一个点之间的字符串，即为方法名	
-		String packageName = handler.getClass().getPackage().getName();
-		logger.debug("包名：{}", new Object[]{packageName});		
-		//按规则，包名最后去掉Web即为实际包名；
-		packageName = packageName.substring(0, packageName.lastIndexOf("."));
-		packageName = packageName.substring(packageName.lastIndexOf(".")+1);
-		logger.debug("实际父包名：{}", new Object[]{packageName});	
-		
-		String className = handler.getClass().getSimpleName();	//类名
-		logger.debug("类名：{}", new Object[]{className});
-		//类名去掉Controller并且首字母小写即为映射路径
-		className = className.substring(0, className.lastIndexOf("Controller"));
-		className = StringUtils.uncapitalize(className);
-		logger.debug("映射类名：{}", new Object[]{className});
-		//从requestURI找到路径映射，从而截取出后缀字符串到.为方法名
-		String methodName = StringUtils.substringBetween(requestURI, packageName+"/"+className+"/", ".");
-		logger.debug("方法名：{}", new Object[]{methodName});
-		Method method = this.getMethod(handler.getClass(), methodName);
-		if(method==null)	//没找到方法
+		HandlerDescriptor descriptor = handlerMethodRegistry.resolve(handler, requestURI);
+		if(descriptor==null)	//没找到方法
 		{
-			logger.error("未在控制器：{}中找到方法：{}", new Object[]{handler.getClass().getName(), methodName});
+			logger.error("未在控制器：{}中找到请求：{}对应的方法", new Object[]{handler.getClass().getName(), requestURI});
 			return true;
 		}
-		
-		boolean isFunction = method.isAnnotationPresent(Func.class);	//是否找到功能注解		
-		if(isFunction)
-		{
-			Func function = method.getAnnotation(Func.class);				
-			boolean isEnableLog = function.enableLog();
-			if(isEnableLog)	//记录操作日志
-			{				
-				try
-				{
-					this.addLog(function,"",true);
-				}
-				catch (Throwable e)
-				{
-					throw new Exception("Record opLog error.", e);
-				}
-			}						
+		if(descriptor.isLogEnabled())	//记录操作日志
+		{				
+			try
+			{
+				this.addLog(descriptor.getFunc(),"",true);
+			}
+			catch (Throwable e)
+			{
+				throw new Exception("Record opLog error.", e);
+			}
 		}			
 		return true;
 	}
@@ -259,7 +228,7 @@ public class OpLogInterceptor extends BaseControllerInterceptor implements Metho
 		{
 			logger.debug("插入一条操作日志.");
 		}
-		logCacheQueue.put(opLogVo);
+		pipeline.publish(opLogVo);	//不会阻塞，队列已满时按溢出策略处理
 	}
 	
 	/**
@@ -268,51 +237,12 @@ public class OpLogInterceptor extends BaseControllerInterceptor implements Metho
 	 */
 	public void destroy()
 	{		
-		/*
-		 * 尝试关闭线程池，并拒绝新任务
-		 */
-		exec.shutdown();			
-		/*
-		 * 尝试关闭运行中任务
-		 */
+		pipeline.stop(STOP_TIMEOUT);
 		try {
-						
-			/*
-			 * 设置停止标志，等待返回结果，超时则强制定制，丢失部分数据
-			 * 注：等待时间为appender的一个刷新周期，已确保缓存数据被入库
-			 */
-			try {
-				appender.setStop(true);
-				future.get(appender.getFlushTime()+5000, TimeUnit.MILLISECONDS);	
-			} catch (ExecutionException e) {
-				logger.error("Get OpLog Appender ret failed.", e);
-			} catch (TimeoutException e) {
-				logger.error("Get OpLog Appender ret timeout.", e);
-			}
-			
-			//检查任务是否完成，未完成则强制停止
-			if(!future.isDone())
-			{
-				logger.warn("OpLog Appender did't stop smoothly, force stop.");
-				future.cancel(true);			
-			}		
-			if(!exec.isTerminated())
-			{
-			     // Wait a while for existing tasks to terminate
-			     if (!exec.awaitTermination(60, TimeUnit.SECONDS)) 
-			     {
-			    	 exec.shutdownNow();	//force shutdown		    	 
-			    	// Wait a while for tasks to respond to being cancelled
-			         if (!exec.awaitTermination(60, TimeUnit.SECONDS))
-			             logger.error("OpLog Thread Pool did not terminate.");
-			     }
-			}
-		} catch (InterruptedException ie) {
-		     // (Re-)Cancel if current thread also interrupted
-			 exec.shutdownNow();
-		     // Preserve interrupt status
-		     Thread.currentThread().interrupt();
-	    }
+			appender.close();
+		} catch (IOException e) {
+			logger.error("Close OpLog appender failed.", e);
+		}
 	}
 
 	/**
@@ -323,6 +253,30 @@ public class OpLogInterceptor extends BaseControllerInterceptor implements Metho
 		this.dataSource = dataSource;
 	}
 
+	/**
+	 * @param pipeline the pipeline to set
+	 */
+	public void setPipeline(OpLogPipeline pipeline)
+	{
+		this.pipeline = pipeline;
+	}
+
+	/**
+	 * @param handlerMethodRegistry the handlerMethodRegistry to set
+	 */
+	public void setHandlerMethodRegistry(HandlerMethodRegistry handlerMethodRegistry)
+	{
+		this.handlerMethodRegistry = handlerMethodRegistry;
+	}
+
+	/**
+	 * @param spoolDir the spoolDir to set
+	 */
+	public void setSpoolDir(String spoolDir)
+	{
+		this.spoolDir = spoolDir;
+	}
+
 	/**
 	 * @param tableName the tableName to set
 	 */
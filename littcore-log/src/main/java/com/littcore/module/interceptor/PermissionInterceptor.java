@@ -1,7 +1,5 @@
 package com.littcore.module.interceptor;
 
-import java.lang.reflect.Method;
-
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -10,13 +8,12 @@ import org.aopalliance.intercept.MethodInvocation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.servlet.ModelAndView;
 
 import com.littcore.common.Utility;
 import com.littcore.exception.BusiCodeException;
 import com.littcore.exception.BusiException;
-import com.littcore.module.annotation.Func;
-import com.littcore.module.annotation.Permission;
 import com.littcore.shield.vo.ILoginVo;
 import com.littcore.web.interceptor.BaseControllerInterceptor;
 
@@ -31,6 +28,8 @@ import com.littcore.web.interceptor.BaseControllerInterceptor;
  * 
  * <pre><b>修改记录：</b>
  *    Date:2013-02-05 支持新的Func注解，在有Func注解的情况下优先使用；否则检查是否有Permission注解 
+ *    2026-10-17 通过HandlerMethodRegistry解析控制器方法及注解，每次请求只需一次查找
+ *    2026-10-17 未指定method参数时按请求路径解析方法名；找不到对应方法时拒绝访问
  * </pre>
  * 
  * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
@@ -43,6 +42,9 @@ public class PermissionInterceptor extends BaseControllerInterceptor implements
 {
 	private static final Logger logger = LoggerFactory.getLogger(PermissionInterceptor.class);
 	
+	/** 控制器方法注册表. */
+	private HandlerMethodRegistry handlerMethodRegistry = HandlerMethodRegistry.getDefault();
+	
 	public PermissionInterceptor()
 	{
 		if(logger.isInfoEnabled())
@@ -57,17 +59,28 @@ public class PermissionInterceptor extends BaseControllerInterceptor implements
 	 */
 	public Object invoke(MethodInvocation invocation) throws Throwable
 	{
-		Method method = invocation.getMethod();   
-		//String methodName= method.getName();	//TODO 这里可以增加匹配特定方法名的限制，以避免检查所有方法
-		this.checkPermission(method);		//校验权限
+		this.checkPermission(handlerMethodRegistry.resolve(invocation.getMethod()));		//校验权限
 		return invocation.proceed();
 	}
 	
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception
 	{
-		String methodName = Utility.trimNull(request.getParameter("method"), "unspecified");
-		Method method = this.getMethod(handler.getClass(), methodName);
-		this.checkPermission(method);		//校验权限
+		String methodName = request.getParameter("method");
+		HandlerDescriptor descriptor;
+		if(methodName==null || handler instanceof HandlerMethod)
+		{
+			descriptor = handlerMethodRegistry.resolve(handler, request.getRequestURI());	//按请求路径解析方法名
+			if(descriptor==null && !(handler instanceof HandlerMethod))
+				descriptor = handlerMethodRegistry.resolveByName(handler.getClass(), "unspecified");
+		}
+		else
+			descriptor = handlerMethodRegistry.resolveByName(handler.getClass(), Utility.trimNull(methodName, "unspecified"));
+		if(descriptor==null)	//无法确定方法时不能确认所需权限，拒绝访问
+		{
+			logger.error("Can't find method for request:{} in controller:{}, access denied.", new Object[]{request.getRequestURI(), handler.getClass().getName()});
+			throw new BusiCodeException("error.permission.denied");
+		}
+		this.checkPermission(descriptor);		//校验权限
 		return true;
 	}
 	
@@ -82,36 +95,26 @@ public class PermissionInterceptor extends BaseControllerInterceptor implements
 		
 	}
 
+	/**
+	 * @param handlerMethodRegistry the handlerMethodRegistry to set
+	 */
+	public void setHandlerMethodRegistry(HandlerMethodRegistry handlerMethodRegistry)
+	{
+		this.handlerMethodRegistry = handlerMethodRegistry;
+	}
+
 	
 	/**
 	 * 校验权限.
-	 * @param method
+	 * 有Func注解时按Func注解校验，否则按Permission注解校验
+	 * @param descriptor
 	 * @throws BusiException
 	 */
-	private void checkPermission(Method method) throws BusiException
+	private void checkPermission(HandlerDescriptor descriptor) throws BusiException
 	{
-		boolean isFunction = method.isAnnotationPresent(Func.class);	//是否找到功能注解			
-		if(isFunction)
+		if(descriptor.isPermissionRequired())	//检查方法执行权限
 		{
-			Func function = method.getAnnotation(Func.class);				
-			boolean isEnablePermission = function.enablePermission();
-			if(isEnablePermission)	//检查方法执行权限
-			{				
-				this.checkPermission(function.moduleCode(), function.funcCode());
-			}			
-		}
-		else
-		{		
-			boolean isPermission = method.isAnnotationPresent(Permission.class);	//是否找到权限注解		
-			if(isPermission)
-			{
-				Permission permission = method.getAnnotation(Permission.class);	
-				boolean isEnablePermission = permission.enablePermission();
-				if(isEnablePermission)	//检查方法执行权限
-				{				
-					this.checkPermission(permission.moduleCode(), permission.funcCode());
-				}
-			}		
+			this.checkPermission(descriptor.getModuleCode(), descriptor.getPermissionCode(), descriptor.getFuncCode());
 		}
 	}	
 	
@@ -119,14 +122,14 @@ public class PermissionInterceptor extends BaseControllerInterceptor implements
 	 * 检查权限
 	 *
 	 */
-	private void checkPermission(String moduleCode, String funcCode) throws BusiException
+	private void checkPermission(String moduleCode, String permissionCode, String funcCode) throws BusiException
 	{
 		ILoginVo loginVo = this.getLoginVo();
 		if(loginVo==null)
 			throw new BusiCodeException("error.permission.denied");
 		else
 		{
-			boolean isPermitted = loginVo.withPermission(moduleCode + "." + funcCode);
+			boolean isPermitted = loginVo.withPermission(permissionCode);
 			if(!isPermitted)
 			{
 				logger.error("Operator:{} access module:{} func:{} without permission.", new Object[]{loginVo.getLoginId(), moduleCode, funcCode});
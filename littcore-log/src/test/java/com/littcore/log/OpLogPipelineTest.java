@@ -0,0 +1,197 @@
+package com.littcore.log;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.littcore.log.impl.OpLogCodec;
+import com.littcore.log.impl.OpLogSpool;
+import com.littcore.log.impl.RingBuffer;
+
+
+public class OpLogPipelineTest {
+	
+	@Test
+	public void test_ringBuffer() throws Exception {
+		final RingBuffer<Integer> ringBuffer = new RingBuffer<Integer>(1000);
+		Assert.assertEquals(1024, ringBuffer.capacity());
+		
+		final int threads = 4;
+		final int perThread = 10000;
+		final CountDownLatch latch = new CountDownLatch(threads);
+		for(int t=0;t<threads;t++)
+		{
+			final int base = t*perThread;
+			new Thread(new Runnable() {
+				public void run()
+				{
+					for(int i=0;i<perThread;i++)
+					{
+						while(!ringBuffer.offer(Integer.valueOf(base+i)))
+							Thread.yield();
+					}
+					latch.countDown();
+				}
+			}).start();
+		}
+		List<Integer> result = new ArrayList<Integer>(threads*perThread);
+		while(result.size()<threads*perThread)
+		{
+			if(ringBuffer.drainTo(result, 100)==0)
+				Thread.yield();
+		}
+		latch.await();
+		Assert.assertNull(ringBuffer.poll());
+		Collections.sort(result);
+		for(int i=0;i<result.size();i++)
+		{
+			Assert.assertEquals(i, result.get(i).intValue());
+		}
+	}
+	
+	@Test
+	public void test_drop() throws Exception {
+		OpLogPipeline pipeline = new OpLogPipeline("test-drop", 4);
+		for(int i=0;i<6;i++)
+		{
+			pipeline.publish(newLog(i));
+		}
+		Assert.assertEquals(6, pipeline.getOfferedCount());
+		Assert.assertEquals(2, pipeline.getDroppedCount());
+		Assert.assertEquals(4, pipeline.getDepth());
+		
+		final List<OpLogVo> stored = Collections.synchronizedList(new ArrayList<OpLogVo>());
+		pipeline.addAppender(new BatchAppender() {
+			public void append(List<OpLogVo> logList) throws Exception
+			{
+				stored.addAll(logList);
+			}
+		});
+		pipeline.start();
+		pipeline.stop(5000);
+		Assert.assertEquals(4, stored.size());
+		Assert.assertEquals(4, pipeline.getConsumedCount());
+	}
+	
+	@Test
+	public void test_spill() throws Exception {
+		File spillDir = new File(System.getProperty("java.io.tmpdir"), "oplog-test-"+System.nanoTime());
+		OpLogPipeline pipeline = new OpLogPipeline("test-spill", 2);
+		pipeline.setPolicy(OverflowPolicy.SPILL);
+		pipeline.setSpillDir(spillDir.getAbsolutePath());
+		final List<OpLogVo> stored = Collections.synchronizedList(new ArrayList<OpLogVo>());
+		final CountDownLatch blocked = new CountDownLatch(1);
+		pipeline.addAppender(new BatchAppender() {
+			public void append(List<OpLogVo> logList) throws Exception
+			{
+				blocked.await();	//模拟数据库缓慢
+				stored.addAll(logList);
+			}
+		});
+		pipeline.setFlushInterval(0);
+		pipeline.start();
+		for(int i=0;i<20;i++)
+		{
+			Assert.assertTrue(pipeline.publish(newLog(i)));
+		}
+		Assert.assertTrue(pipeline.getSpilledCount()>0);
+		Assert.assertEquals(0, pipeline.getDroppedCount());
+		blocked.countDown();
+		pipeline.stop(5000);
+		Assert.assertEquals(20, stored.size());
+		
+		OpLogVo first = null;
+		for(OpLogVo vo : stored)
+		{
+			if("F0".equals(vo.getFuncCode()))
+				first = vo;
+		}
+		Assert.assertNotNull(first);
+		Assert.assertEquals("content-0", first.getContent());
+		Assert.assertNull(first.getOpName());
+		for(File file : spillDir.listFiles())
+			file.delete();
+		spillDir.delete();
+	}
+	
+	@Test
+	public void test_codec() throws Exception {
+		OpLogVo vo = newLog(1);
+		vo.setLogId("0190c4a2-7b1e-7000-8000-000000000001");
+		vo.setOpId(Long.valueOf(9));
+		vo.setOpName("操作员");
+		OpLogVo ret = OpLogCodec.decode(OpLogCodec.encode(vo));
+		Assert.assertEquals(vo.getLogId(), ret.getLogId());
+		Assert.assertEquals(vo.getModuleCode(), ret.getModuleCode());
+		Assert.assertEquals(vo.getFuncType(), ret.getFuncType());
+		Assert.assertEquals(vo.getOpId(), ret.getOpId());
+		Assert.assertEquals("操作员", ret.getOpName());
+		Assert.assertEquals(vo.getOpDatetime(), ret.getOpDatetime());
+		Assert.assertTrue(ret.getStatus());
+	}
+	
+	@Test
+	public void test_spool() throws Exception {
+		File spoolDir = new File(System.getProperty("java.io.tmpdir"), "oplog-spool-"+System.nanoTime());
+		OpLogSpool spool = new OpLogSpool(spoolDir, "test");
+		spool.setSegmentSize(256);	//每个分段只能容纳几条日志
+		for(int i=0;i<30;i++)
+		{
+			Assert.assertTrue(spool.append(Collections.singletonList(newLog(i))));
+		}
+		Assert.assertTrue(spool.hasPending());
+		
+		final List<OpLogVo> stored = new ArrayList<OpLogVo>();
+		final int[] failAfter = new int[]{10};
+		BatchAppender target = new BatchAppender() {
+			public void append(List<OpLogVo> logList) throws Exception
+			{
+				if(stored.size()+logList.size()>failAfter[0])	//模拟数据库中断
+					throw new IllegalStateException("DB down");
+				stored.addAll(logList);
+			}
+		};
+		try {
+			spool.replay(target, 5);
+			Assert.fail();
+		} catch (IllegalStateException e) {
+		}
+		int replayed = stored.size();
+		Assert.assertTrue(replayed>0 && replayed<=10);
+		spool.close();
+		
+		//重新打开后从检查点继续，不重复
+		spool = new OpLogSpool(spoolDir, "test");
+		failAfter[0] = Integer.MAX_VALUE;
+		Assert.assertEquals(30-replayed, spool.replay(target, 5));
+		Assert.assertFalse(spool.hasPending());
+		Assert.assertEquals(30, stored.size());
+		for(int i=0;i<stored.size();i++)
+		{
+			Assert.assertEquals("F"+i, stored.get(i).getFuncCode());
+		}
+		spool.close();
+		for(File file : spoolDir.listFiles())
+			file.delete();
+		spoolDir.delete();
+	}
+	
+	private OpLogVo newLog(int i)
+	{
+		OpLogVo vo = new OpLogVo();
+		vo.setModuleCode("M");
+		vo.setFuncCode("F"+i);
+		vo.setContent("content-"+i);
+		vo.setOpDatetime(new Date());
+		vo.setStatus(true);
+		return vo;
+	}
+
+}
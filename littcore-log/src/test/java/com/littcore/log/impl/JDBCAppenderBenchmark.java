@@ -0,0 +1,81 @@
+package com.littcore.log.impl;
+
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import com.littcore.log.OpLogVo;
+
+/**
+ * JDBCAppender吞吐量测试.
+ * 
+ * <pre><b>描述：</b>
+ *    分别以JDBC批处理及多行INSERT方式写入日志，输出每秒写入条数。
+ *    默认使用内存H2数据库（需将H2驱动加入classpath），也可通过参数指定其他数据库：
+ *    java com.littcore.log.impl.JDBCAppenderBenchmark [url] [username] [password] [total]
+ * </pre>
+ * 
+ * @author <a href="mailto:littcai@hotmail.com">蔡源</a>
+ * @since 2026-10-17
+ * @version 1.0
+ */
+public class JDBCAppenderBenchmark {
+	
+	public static void main(String[] args) throws Exception {
+		String url = args.length>0 ? args[0] : "jdbc:h2:mem:oplog;DB_CLOSE_DELAY=-1";
+		String username = args.length>1 ? args[1] : "sa";
+		String password = args.length>2 ? args[2] : "";
+		int total = args.length>3 ? Integer.parseInt(args[3]) : 200000;
+		
+		DriverManagerDataSource dataSource = new DriverManagerDataSource(url, username, password);
+		Connection conn = dataSource.getConnection();
+		try {
+			Statement stmt = conn.createStatement();
+			try {
+				stmt.execute("DROP TABLE OP_LOG");
+			} catch (Exception e) {
+				//表不存在
+			}
+			stmt.execute("CREATE TABLE OP_LOG(LOG_ID VARCHAR(36) PRIMARY KEY, MODULE_CODE VARCHAR(50), FUNC_CODE VARCHAR(50), FUNC_TYPE INT, OP_ID BIGINT, OP_NAME VARCHAR(50), OP_IP VARCHAR(50), OP_DATETIME TIMESTAMP, CONTENT VARCHAR(1000), STATUS BOOLEAN)");
+			stmt.close();
+		} finally {
+			conn.close();
+		}
+		
+		List<OpLogVo> batch = new ArrayList<OpLogVo>(100);
+		for(int i=0;i<100;i++)
+		{
+			OpLogVo vo = new OpLogVo();
+			vo.setModuleCode("bench");
+			vo.setFuncCode("func"+i);
+			vo.setOpId(Long.valueOf(i));
+			vo.setOpName("op"+i);
+			vo.setOpIp("127.0.0.1");
+			vo.setOpDatetime(new Date());
+			vo.setContent("benchmark content "+i);
+			vo.setStatus(true);
+			batch.add(vo);
+		}
+		
+		for(int round=0;round<2;round++)	//第一轮预热
+		{
+			for(Boolean multiRow : new Boolean[]{Boolean.FALSE, Boolean.TRUE})
+			{
+				JDBCAppender appender = new JDBCAppender(dataSource);
+				appender.setMultiRowInsert(multiRow);
+				long start = System.nanoTime();
+				for(int i=0;i<total;i+=batch.size())	//每次提交都为无ID的日志生成新ID，可重复提交同一批日志
+				{
+					appender.append(batch);
+				}
+				long elapsed = System.nanoTime()-start;
+				if(round>0)
+					System.out.println((multiRow.booleanValue()?"multi-row insert":"jdbc batch")+": "+(total*1000000000L/elapsed)+" rows/s");
+			}
+		}
+	}
+}
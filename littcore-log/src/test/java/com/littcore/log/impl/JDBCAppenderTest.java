@@ -0,0 +1,274 @@
+package com.littcore.log.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.BatchUpdateException;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.littcore.log.OpLogVo;
+
+
+public class JDBCAppenderTest {
+	
+	/** 执行的语句：SQL及执行方式. */
+	private final List<String> executed = new ArrayList<String>();
+	
+	private final List<String> ids = new ArrayList<String>();
+	
+	@Test
+	public void test_multiRow() throws Exception {
+		JDBCAppender appender = new JDBCAppender(mockDataSource("H2"));
+		appender.setRowsPerStatement(10);
+		appender.append(newLogs(25));
+		Assert.assertEquals(2, executed.size());	//2条10行的语句批处理，剩余5行单独执行
+		Assert.assertTrue(executed.get(0).startsWith("executeBatch:INSERT INTO OP_LOG(LOG_ID,"));
+		Assert.assertEquals(10, count(executed.get(0), "(?,"));
+		Assert.assertTrue(executed.get(1).startsWith("executeUpdate:"));
+		Assert.assertEquals(5, count(executed.get(1), "(?,"));
+		Assert.assertEquals(25, ids.size());
+		for(int i=1;i<ids.size();i++)	//按时间递增
+		{
+			Assert.assertTrue(ids.get(i-1).compareTo(ids.get(i))<0);
+		}
+	}
+	
+	@Test
+	public void test_batch() throws Exception {
+		JDBCAppender appender = new JDBCAppender(mockDataSource("Oracle"), "T_LOG");
+		appender.append(newLogs(25));
+		Assert.assertEquals(1, executed.size());
+		Assert.assertEquals("executeBatch:INSERT INTO T_LOG(LOG_ID,MODULE_CODE,FUNC_CODE,FUNC_TYPE,OP_ID,OP_NAME,OP_IP,OP_DATETIME,CONTENT,STATUS) VALUES(?,?,?,?,?,?,?,?,?,?)", executed.get(0));
+		Assert.assertEquals(25, ids.size());
+	}
+	
+	@Test
+	public void test_keep_caller_logs() throws Exception {
+		JDBCAppender appender = new JDBCAppender(mockDataSource("Oracle"));
+		List<OpLogVo> logs = newLogs(3);
+		appender.append(logs);
+		appender.append(logs);	//同一批日志再次提交时生成新的ID
+		for(OpLogVo vo : logs)
+			Assert.assertNull(vo.getLogId());
+		Assert.assertEquals(6, new HashSet<String>(ids).size());
+	}
+	
+	@Test
+	public void test_duplicate_key() {
+		Assert.assertTrue(JDBCAppender.isDuplicateKey(new SQLException("pg", "23505")));
+		Assert.assertTrue(JDBCAppender.isDuplicateKey(new SQLException("mysql", "23000", 1062)));
+		Assert.assertTrue(JDBCAppender.isDuplicateKey(new SQLException("oracle", "23000", 1)));
+		Assert.assertFalse(JDBCAppender.isDuplicateKey(new SQLException("not null", "23502")));
+		Assert.assertFalse(JDBCAppender.isDuplicateKey(new SQLException("mysql fk", "23000", 1452)));
+		SQLException chain = new BatchUpdateException("batch", "23000", 0, new int[0]);
+		chain.setNextException(new SQLException("mysql", "23000", 1062));
+		Assert.assertTrue(JDBCAppender.isDuplicateKey(chain));
+	}
+	
+	@Test
+	public void test_replay_skip_duplicate() throws Exception {
+		File spoolDir = new File(System.getProperty("java.io.tmpdir"), "oplog-replay-"+System.nanoTime());
+		OpLogSpool spool = new OpLogSpool(spoolDir, "test");
+		Set<String> stored = new HashSet<String>();
+		JDBCAppender appender = new JDBCAppender(mockTable(stored));
+		appender.setMultiRowInsert(Boolean.FALSE);
+		appender.setSpool(spool);
+		appender.setRetryInterval(0);
+		List<OpLogVo> logs = newLogs(5);
+		for(int i=0;i<logs.size();i++)
+			logs.get(i).setLogId("log"+i);
+		appender.append(logs);
+		Assert.assertEquals(5, stored.size());
+		
+		//模拟入库成功但检查点未更新：已入库的日志连同新日志再次出现在预写文件中
+		List<OpLogVo> spooled = new ArrayList<OpLogVo>(logs.subList(0, 3));
+		OpLogVo extra = newLogs(1).get(0);
+		extra.setLogId("extra");
+		spooled.add(extra);
+		Assert.assertTrue(spool.append(spooled));
+		appender.append(newLogs(2));
+		Assert.assertFalse(spool.hasPending());
+		Assert.assertEquals(8, stored.size());
+		Assert.assertTrue(stored.contains("extra"));
+		
+		appender.close();
+		for(File file : spoolDir.listFiles())
+			file.delete();
+		spoolDir.delete();
+	}
+	
+	@Test
+	public void test_spool_lock() throws Exception {
+		File spoolDir = new File(System.getProperty("java.io.tmpdir"), "oplog-lock-"+System.nanoTime());
+		OpLogSpool spool = new OpLogSpool(spoolDir, "test");
+		try {
+			new OpLogSpool(spoolDir, "test");
+			Assert.fail("Spool should be locked.");
+		} catch (IOException e) {
+			//已被打开
+		}
+		new OpLogSpool(spoolDir, "other").close();	//不同名称互不影响
+		spool.close();
+		new OpLogSpool(spoolDir, "test").close();	//关闭后可再次打开
+		
+		for(File file : spoolDir.listFiles())
+			file.delete();
+		spoolDir.delete();
+	}
+	
+	private int count(String str, String sub)
+	{
+		int count = 0;
+		for(int i=str.indexOf(sub);i>=0;i=str.indexOf(sub, i+1))
+			count++;
+		return count;
+	}
+	
+	private List<OpLogVo> newLogs(int size)
+	{
+		List<OpLogVo> list = new ArrayList<OpLogVo>();
+		for(int i=0;i<size;i++)
+		{
+			OpLogVo vo = new OpLogVo();
+			vo.setModuleCode("M");
+			vo.setFuncCode("F"+i);
+			vo.setOpDatetime(new Date());
+			list.add(vo);
+		}
+		return list;
+	}
+	
+	private DataSource mockDataSource(final String productName)
+	{
+		final DatabaseMetaData metaData = (DatabaseMetaData)mock(DatabaseMetaData.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				return "getDatabaseProductName".equals(method.getName()) ? productName : null;
+			}
+		});
+		final Connection conn = (Connection)mock(Connection.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				if("getMetaData".equals(method.getName()))
+					return metaData;
+				if("prepareStatement".equals(method.getName()))
+					return mockStatement((String)args[0]);
+				if("isClosed".equals(method.getName()))
+					return Boolean.FALSE;
+				return null;
+			}
+		});
+		return (DataSource)mock(DataSource.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				return "getConnection".equals(method.getName()) ? conn : null;
+			}
+		});
+	}
+	
+	/**
+	 * 以LOG_ID为主键的模拟表，主键冲突时抛出MySQL的异常（SQLState为23000，错误码1062）.
+	 */
+	private DataSource mockTable(final Set<String> stored)
+	{
+		final List<String> uncommitted = new ArrayList<String>();
+		final List<String> pending = new ArrayList<String>();
+		final String[] current = new String[1];
+		final PreparedStatement stmt = (PreparedStatement)mock(PreparedStatement.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args) throws SQLException
+			{
+				String name = method.getName();
+				if("setString".equals(name) && ((Integer)args[0]).intValue()==1)
+					current[0] = (String)args[1];
+				else if("addBatch".equals(name))
+					pending.add(current[0]);
+				else if("executeBatch".equals(name))
+				{
+					List<String> rows = new ArrayList<String>(pending);
+					pending.clear();
+					for(String id : rows)
+					{
+						if(stored.contains(id) || uncommitted.contains(id))
+							throw new BatchUpdateException("Duplicate "+id, "23000", 1062, new int[0]);
+					}
+					uncommitted.addAll(rows);
+					return new int[rows.size()];
+				}
+				else if("executeUpdate".equals(name))
+				{
+					if(stored.contains(current[0]) || uncommitted.contains(current[0]))
+						throw new SQLException("Duplicate "+current[0], "23000", 1062);
+					uncommitted.add(current[0]);
+					return Integer.valueOf(1);
+				}
+				return null;
+			}
+		});
+		final Connection conn = (Connection)mock(Connection.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				String name = method.getName();
+				if("prepareStatement".equals(name))
+					return stmt;
+				if("commit".equals(name))
+					stored.addAll(uncommitted);
+				if("commit".equals(name) || "rollback".equals(name))
+					uncommitted.clear();
+				if("isClosed".equals(name))
+					return Boolean.FALSE;
+				return null;
+			}
+		});
+		return (DataSource)mock(DataSource.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				return "getConnection".equals(method.getName()) ? conn : null;
+			}
+		});
+	}
+	
+	private PreparedStatement mockStatement(final String sql)
+	{
+		return (PreparedStatement)mock(PreparedStatement.class, new InvocationHandler() {
+			public Object invoke(Object proxy, Method method, Object[] args)
+			{
+				String name = method.getName();
+				if("setString".equals(name) && ((Integer)args[0]).intValue()%10==1)
+					ids.add((String)args[1]);
+				else if("executeBatch".equals(name))
+				{
+					executed.add("executeBatch:"+sql);
+					return new int[0];
+				}
+				else if("executeUpdate".equals(name))
+				{
+					executed.add("executeUpdate:"+sql);
+					return Integer.valueOf(0);
+				}
+				return null;
+			}
+		});
+	}
+	
+	private Object mock(Class<?> clazz, InvocationHandler handler)
+	{
+		return Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{clazz}, handler);
+	}
+
+}
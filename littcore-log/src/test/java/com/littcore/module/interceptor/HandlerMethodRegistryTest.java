@@ -0,0 +1,55 @@
+package com.littcore.module.interceptor;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.littcore.module.annotation.Func;
+import com.littcore.module.annotation.Permission;
+
+
+public class HandlerMethodRegistryTest {
+	
+	public static class DemoController {
+		
+		@Func(moduleCode="demo", funcCode="add", enableLogFail=true)
+		public void add(){}
+		
+		@Permission(moduleCode="demo", funcCode="view")
+		public void view(){}
+		
+		public void list(){}
+	}
+	
+	@Test
+	public void test_resolve() throws Exception {
+		HandlerMethodRegistry registry = new HandlerMethodRegistry();
+		DemoController handler = new DemoController();
+		
+		HandlerDescriptor descriptor = registry.resolve(handler, "/ctx/module/demo/add.do");
+		Assert.assertNotNull(descriptor);
+		Assert.assertEquals("add", descriptor.getMethod().getName());
+		Assert.assertTrue(descriptor.isFunc());
+		Assert.assertTrue(descriptor.isPermissionRequired());
+		Assert.assertTrue(descriptor.isLogFailEnabled());
+		Assert.assertEquals("demo.add", descriptor.getPermissionCode());
+		//再次解析使用缓存
+		Assert.assertSame(descriptor, registry.resolve(handler, "/ctx/module/demo/add.do"));
+		Assert.assertSame(descriptor, registry.resolveByName(DemoController.class, "add"));
+		
+		descriptor = registry.resolve(handler, "/ctx/module/demo/view.do");
+		Assert.assertFalse(descriptor.isFunc());
+		Assert.assertFalse(descriptor.isLogEnabled());
+		Assert.assertEquals("demo.view", descriptor.getPermissionCode());
+		
+		descriptor = registry.resolve(handler, "/ctx/module/demo/list.do");
+		Assert.assertFalse(descriptor.isPermissionRequired());
+		Assert.assertNull(descriptor.getPermissionCode());
+		
+		Assert.assertNull(registry.resolve(handler, "/ctx/module/demo/none.do"));
+		Assert.assertNull(registry.resolve(handler, "/ctx/other/path.do"));
+		
+		Assert.assertSame(registry.resolve(DemoController.class.getMethod("add")), registry.resolve(DemoController.class.getMethod("add")));
+	}
+
+}
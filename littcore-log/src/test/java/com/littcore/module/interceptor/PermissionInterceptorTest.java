@@ -0,0 +1,62 @@
+package com.littcore.module.interceptor;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import javax.servlet.http.HttpServletRequest;
+
+import junit.framework.Assert;
+
+import org.junit.Test;
+
+import com.littcore.exception.BusiCodeException;
+import com.littcore.module.interceptor.HandlerMethodRegistryTest.DemoController;
+
+
+public class PermissionInterceptorTest {
+
+	@Test
+	public void test_preHandle() throws Exception {
+		PermissionInterceptor interceptor = new PermissionInterceptor();
+		interceptor.setHandlerMethodRegistry(new HandlerMethodRegistry());
+		DemoController handler = new DemoController();
+
+		//不需要权限的方法
+		Assert.assertTrue(interceptor.preHandle(mockRequest("/ctx/module/demo/list.do", null), null, handler));
+		Assert.assertTrue(interceptor.preHandle(mockRequest("/ctx/module/demo/main.do", "list"), null, handler));
+
+		//需要权限但未登录
+		assertDenied(interceptor, mockRequest("/ctx/module/demo/view.do", null), handler);
+		assertDenied(interceptor, mockRequest("/ctx/module/demo/main.do", "view"), handler);
+
+		//找不到方法时拒绝访问
+		assertDenied(interceptor, mockRequest("/ctx/module/demo/none.do", null), handler);
+		assertDenied(interceptor, mockRequest("/ctx/module/demo/main.do", "none"), handler);
+	}
+
+	private void assertDenied(PermissionInterceptor interceptor, HttpServletRequest request, Object handler) throws Exception
+	{
+		try {
+			interceptor.preHandle(request, null, handler);
+			Assert.fail("Access should be denied: "+request.getRequestURI());
+		} catch (BusiCodeException e) {
+			//expected
+		}
+	}
+
+	private HttpServletRequest mockRequest(final String uri, final String method)
+	{
+		return (HttpServletRequest)Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{HttpServletRequest.class}, new InvocationHandler() {
+			public Object invoke(Object proxy, Method m, Object[] args)
+			{
+				if("getRequestURI".equals(m.getName()))
+					return uri;
+				if("getParameter".equals(m.getName()) && "method".equals(args[0]))
+					return method;
+				return null;
+			}
+		});
+	}
+
+}